@@ -0,0 +1,64 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import asmith.vectors.Vector;
+import asmith.vectors.VectorSizeException;
+
+/**
+ * Measures the cross product, which is only defined for vectors of three elements, for each element type.
+ * @author Adam Smith
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class CrossProductBenchmark {
+	@Param({ "Byte", "Short", "Integer", "Long", "Float", "Double", "BigInteger" })
+	public String type;
+
+	private Vector mA;
+	private Vector mB;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(3);
+		mA = VectorBenchmark.create(type, VectorBenchmark.randomValues(random, 3));
+		mB = VectorBenchmark.create(type, VectorBenchmark.randomValues(random, 3));
+	}
+
+	@Benchmark
+	public Object crossProduct() throws VectorSizeException {
+		return mA.crossProduct(mB);
+	}
+}
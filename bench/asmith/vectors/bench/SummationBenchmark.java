@@ -0,0 +1,80 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import asmith.vectors.DoubleVector;
+import asmith.vectors.FloatVector;
+import asmith.vectors.Summation;
+import asmith.vectors.VectorSizeException;
+
+/**
+ * Measures the sum and dot product of the floating point types with each {@link Summation} strategy.
+ * @author Adam Smith
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class SummationBenchmark {
+	@Param({ "Float", "Double" })
+	public String type;
+
+	@Param({ "NAIVE", "PAIRWISE", "COMPENSATED" })
+	public Summation summation;
+
+	@Param({ "2", "3", "4", "16", "256", "4096", "65536", "1000000", "10000000" })
+	public int size;
+
+	private FloatVector mFloatA;
+	private FloatVector mFloatB;
+	private DoubleVector mDoubleA;
+	private DoubleVector mDoubleB;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(size);
+		mDoubleA = new DoubleVector(VectorBenchmark.randomValues(random, size));
+		mDoubleB = new DoubleVector(VectorBenchmark.randomValues(random, size));
+		mFloatA = new FloatVector(mDoubleA);
+		mFloatB = new FloatVector(mDoubleB);
+	}
+
+	@Benchmark
+	public Object sum() {
+		return type.equals("Float") ? mFloatA.sum(summation) : mDoubleA.sum(summation);
+	}
+
+	@Benchmark
+	public Object dotProduct() throws VectorSizeException {
+		return type.equals("Float") ? mFloatA.dotProduct(mFloatB, summation) : mDoubleA.dotProduct(mDoubleB, summation);
+	}
+}
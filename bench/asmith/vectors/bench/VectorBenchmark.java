@@ -0,0 +1,251 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import asmith.vectors.BigIntegerVector;
+import asmith.vectors.ByteVector;
+import asmith.vectors.DoubleVector;
+import asmith.vectors.FloatVector;
+import asmith.vectors.IntegerVector;
+import asmith.vectors.LongVector;
+import asmith.vectors.ShortVector;
+import asmith.vectors.Vector;
+import asmith.vectors.VectorSizeException;
+
+/**
+ * Measures the throughput of every {@link Vector} operation for each element type with JMH.
+ * <p>
+ * Every operation, type and size is measured in its own forked JVM, so that the profile collected for one cannot make
+ * the call sites of another megamorphic. Results are returned from the benchmark methods, which JMH consumes without
+ * the cost of a sink, and each iteration is timed as a whole rather than per call, so that operations on very small
+ * vectors are not dominated by the timer. The build runs the gc profiler, which adds the bytes allocated per operation.
+ * </p>
+ * <p>
+ * The cross product only exists for three elements and is measured by {@link CrossProductBenchmark}, and the
+ * accumulation strategies of the floating point types are measured by {@link SummationBenchmark}.
+ * </p>
+ * @author Adam Smith
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class VectorBenchmark {
+	@Param({ "Byte", "Short", "Integer", "Long", "Float", "Double", "BigInteger" })
+	public String type;
+
+	@Param({ "2", "3", "4", "16", "256", "4096", "65536", "1000000", "10000000" })
+	public int size;
+
+	private Vector mA;
+	private Vector mB;
+	private int[] mReverse;
+	private IntegerVector mReverseVector;
+
+	@Setup
+	public void setup() {
+		// The same seed in every fork, so that all forks measure the same data
+		final Random random = new Random(size);
+		mA = create(type, randomValues(random, size));
+		mB = create(type, randomValues(random, size));
+		mReverse = new int[size];
+		for(int i = 0; i < size; ++i) mReverse[i] = size - i - 1;
+		mReverseVector = new IntegerVector(mReverse);
+	}
+
+	/**
+	 * Create a vector of one of the benchmarked element types.
+	 * @param aType The simple name of the element type, for example {@code Double}.
+	 * @param aValues The elements.
+	 * @return The vector.
+	 */
+	static Vector create(String aType, double[] aValues) {
+		final DoubleVector tmp = new DoubleVector(aValues);
+		switch(aType) {
+		case "Byte":
+			return new ByteVector(tmp);
+		case "Short":
+			return new ShortVector(tmp);
+		case "Integer":
+			return new IntegerVector(tmp);
+		case "Long":
+			return new LongVector(tmp);
+		case "Float":
+			return new FloatVector(tmp);
+		case "Double":
+			return tmp;
+		case "BigInteger":
+			return new BigIntegerVector(tmp);
+		default:
+			throw new IllegalArgumentException("Unknown element type " + aType);
+		}
+	}
+
+	/**
+	 * Return random elements that every operation is defined for.
+	 * @param aRandom The source of randomness.
+	 * @param aSize The number of elements.
+	 * @return The elements.
+	 */
+	static double[] randomValues(Random aRandom, int aSize) {
+		// Values are kept in [1, 11) so that division and normalisation are defined for every element type
+		final double[] tmp = new double[aSize];
+		for(int i = 0; i < aSize; ++i) tmp[i] = 1 + aRandom.nextInt(10);
+		return tmp;
+	}
+
+	@Benchmark
+	public Object addScalar() {
+		return mA.add(mA.get(0));
+	}
+
+	@Benchmark
+	public Object subtractScalar() {
+		return mA.subtract(mA.get(0));
+	}
+
+	@Benchmark
+	public Object multiplyScalar() {
+		return mA.multiply(mA.get(0));
+	}
+
+	@Benchmark
+	public Object divideScalar() {
+		return mA.divide(mA.get(0));
+	}
+
+	@Benchmark
+	public Object addVector() throws VectorSizeException {
+		return mA.add(mB);
+	}
+
+	@Benchmark
+	public Object subtractVector() throws VectorSizeException {
+		return mA.subtract(mB);
+	}
+
+	@Benchmark
+	public Object multiplyVector() throws VectorSizeException {
+		return mA.multiply(mB);
+	}
+
+	@Benchmark
+	public Object divideVector() throws VectorSizeException {
+		return mA.divide(mB);
+	}
+
+	@Benchmark
+	public Object dotProduct() throws VectorSizeException {
+		return mA.dotProduct(mB);
+	}
+
+	@Benchmark
+	public Object min() {
+		return mA.min();
+	}
+
+	@Benchmark
+	public Object max() {
+		return mA.max();
+	}
+
+	@Benchmark
+	public Object sum() {
+		return mA.sum();
+	}
+
+	@Benchmark
+	public Object mean() {
+		return mA.mean();
+	}
+
+	@Benchmark
+	public Object median() {
+		return mA.median();
+	}
+
+	@Benchmark
+	public Object quantile() {
+		return mA.quantile(0.99);
+	}
+
+	@Benchmark
+	public Object mode() {
+		return mA.mode();
+	}
+
+	@Benchmark
+	public Object histogram() {
+		return mA.histogram();
+	}
+
+	@Benchmark
+	public Object magnitudeSquared() {
+		return mA.magnitudeSquared();
+	}
+
+	@Benchmark
+	public Object magnitude() {
+		return mA.magnitude();
+	}
+
+	@Benchmark
+	public Object normalise() {
+		return mA.normalise();
+	}
+
+	@Benchmark
+	public Object swizzleArray() {
+		return mA.swizzle(mReverse);
+	}
+
+	@Benchmark
+	public Object swizzleVector() {
+		return mA.swizzle(mReverseVector);
+	}
+
+	@Benchmark
+	public Object set() {
+		return mA.set(0, mB.get(0));
+	}
+
+	@Benchmark
+	public Object get() {
+		return mA.get(size - 1);
+	}
+
+	@Benchmark
+	public Object toArray() {
+		return mA.toArray();
+	}
+}
@@ -0,0 +1,344 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The kernels of {@link VectorKernels} written with the incubating JDK Vector API.
+ * <p>
+ * This class is compiled separately with {@code --add-modules jdk.incubator.vector} and is only loaded by reflection,
+ * so the rest of the library does not depend on the module. The Vector API types are always written with their fully
+ * qualified names because they share their simple names with the vectors of this package.
+ * </p>
+ * <p>
+ * Each kernel uses the preferred species of the CPU, so the lane count follows the register width: 4 doubles with AVX2
+ * and 8 with AVX-512. The floating point reductions keep four vector accumulators in flight. Elements after the last
+ * complete vector are handled by a scalar tail, which is shorter than one vector.
+ * </p>
+ * @author Adam Smith
+ */
+final class SimdKernels implements VectorKernels.Backend {
+	/**
+	 * The narrowest vector registers that are worth using. Narrower species are emulated by the JDK and are slower
+	 * than the scalar kernels.
+	 */
+	private static final int MIN_BITS = 128;
+
+	/**
+	 * The number of vector accumulators used by the floating point reductions.
+	 */
+	private static final int UNROLL = 4;
+
+	private static final VectorSpecies<Double> DOUBLES = jdk.incubator.vector.DoubleVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Float> FLOATS = jdk.incubator.vector.FloatVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Integer> INTS = jdk.incubator.vector.IntVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Long> LONGS = jdk.incubator.vector.LongVector.SPECIES_PREFERRED;
+
+	/**
+	 * Create the backend.
+	 * @throws UnsupportedOperationException Thrown when the CPU has no vector registers wide enough to be worth using.
+	 */
+	SimdKernels() {
+		if(DOUBLES.vectorBitSize() < MIN_BITS) throw new UnsupportedOperationException("Vector registers are only " + DOUBLES.vectorBitSize() + " bits wide");
+	}
+
+	// Double
+
+	@Override
+	public double dot(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		final int step = DOUBLES.length();
+		final int end = aLength - aLength % (UNROLL * step);
+		jdk.incubator.vector.DoubleVector s0 = jdk.incubator.vector.DoubleVector.zero(DOUBLES), s1 = s0, s2 = s0, s3 = s0;
+		int i = 0;
+		for(; i < end; i += UNROLL * step) {
+			final int a = aOffsetA + i;
+			final int b = aOffsetB + i;
+			s0 = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a).mul(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, b)).add(s0);
+			s1 = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a + step).mul(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, b + step)).add(s1);
+			s2 = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a + 2 * step).mul(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, b + 2 * step)).add(s2);
+			s3 = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a + 3 * step).mul(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, b + 3 * step)).add(s3);
+		}
+		for(final int bound = DOUBLES.loopBound(aLength); i < bound; i += step) {
+			s0 = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, aOffsetA + i).mul(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, aOffsetB + i)).add(s0);
+		}
+		double tmp = s0.add(s1).add(s2.add(s3)).reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) tmp += aA[aOffsetA + i] * aB[aOffsetB + i];
+		return tmp;
+	}
+
+	@Override
+	public double sum(double[] aA, int aOffset, int aLength) {
+		final int step = DOUBLES.length();
+		final int end = aLength - aLength % (UNROLL * step);
+		jdk.incubator.vector.DoubleVector s0 = jdk.incubator.vector.DoubleVector.zero(DOUBLES), s1 = s0, s2 = s0, s3 = s0;
+		int i = 0;
+		for(; i < end; i += UNROLL * step) {
+			final int a = aOffset + i;
+			s0 = s0.add(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a));
+			s1 = s1.add(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a + step));
+			s2 = s2.add(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a + 2 * step));
+			s3 = s3.add(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a + 3 * step));
+		}
+		for(final int bound = DOUBLES.loopBound(aLength); i < bound; i += step) {
+			s0 = s0.add(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, aOffset + i));
+		}
+		double tmp = s0.add(s1).add(s2.add(s3)).reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) tmp += aA[aOffset + i];
+		return tmp;
+	}
+
+	@Override
+	public double distanceSquared(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		final int step = DOUBLES.length();
+		final int end = aLength - aLength % (UNROLL * step);
+		jdk.incubator.vector.DoubleVector s0 = jdk.incubator.vector.DoubleVector.zero(DOUBLES), s1 = s0, s2 = s0, s3 = s0;
+		int i = 0;
+		for(; i < end; i += UNROLL * step) {
+			final int a = aOffsetA + i;
+			final int b = aOffsetB + i;
+			final jdk.incubator.vector.DoubleVector d0 = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a).sub(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, b));
+			final jdk.incubator.vector.DoubleVector d1 = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a + step).sub(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, b + step));
+			final jdk.incubator.vector.DoubleVector d2 = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a + 2 * step).sub(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, b + 2 * step));
+			final jdk.incubator.vector.DoubleVector d3 = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, a + 3 * step).sub(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, b + 3 * step));
+			s0 = d0.mul(d0).add(s0);
+			s1 = d1.mul(d1).add(s1);
+			s2 = d2.mul(d2).add(s2);
+			s3 = d3.mul(d3).add(s3);
+		}
+		for(final int bound = DOUBLES.loopBound(aLength); i < bound; i += step) {
+			final jdk.incubator.vector.DoubleVector d = jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, aOffsetA + i).sub(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, aOffsetB + i));
+			s0 = d.mul(d).add(s0);
+		}
+		double tmp = s0.add(s1).add(s2.add(s3)).reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) {
+			final double d = aA[aOffsetA + i] - aB[aOffsetB + i];
+			tmp += d * d;
+		}
+		return tmp;
+	}
+
+	@Override
+	public void add(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength) {
+		final int step = DOUBLES.length();
+		int i = 0;
+		for(final int bound = DOUBLES.loopBound(aLength); i < bound; i += step) {
+			jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, aOffsetA + i).add(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, aOffsetB + i)).intoArray(aResult, aOffsetResult + i);
+		}
+		for(; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] + aB[aOffsetB + i];
+	}
+
+	@Override
+	public void subtract(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength) {
+		final int step = DOUBLES.length();
+		int i = 0;
+		for(final int bound = DOUBLES.loopBound(aLength); i < bound; i += step) {
+			jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, aOffsetA + i).sub(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, aOffsetB + i)).intoArray(aResult, aOffsetResult + i);
+		}
+		for(; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] - aB[aOffsetB + i];
+	}
+
+	@Override
+	public void multiply(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength) {
+		final int step = DOUBLES.length();
+		int i = 0;
+		for(final int bound = DOUBLES.loopBound(aLength); i < bound; i += step) {
+			jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, aOffsetA + i).mul(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, aOffsetB + i)).intoArray(aResult, aOffsetResult + i);
+		}
+		for(; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] * aB[aOffsetB + i];
+	}
+
+	@Override
+	public void divide(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength) {
+		final int step = DOUBLES.length();
+		int i = 0;
+		for(final int bound = DOUBLES.loopBound(aLength); i < bound; i += step) {
+			jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aA, aOffsetA + i).div(jdk.incubator.vector.DoubleVector.fromArray(DOUBLES, aB, aOffsetB + i)).intoArray(aResult, aOffsetResult + i);
+		}
+		for(; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] / aB[aOffsetB + i];
+	}
+
+	// Float
+
+	@Override
+	public float dot(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		final int step = FLOATS.length();
+		final int end = aLength - aLength % (UNROLL * step);
+		jdk.incubator.vector.FloatVector s0 = jdk.incubator.vector.FloatVector.zero(FLOATS), s1 = s0, s2 = s0, s3 = s0;
+		int i = 0;
+		for(; i < end; i += UNROLL * step) {
+			final int a = aOffsetA + i;
+			final int b = aOffsetB + i;
+			s0 = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a).mul(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, b)).add(s0);
+			s1 = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a + step).mul(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, b + step)).add(s1);
+			s2 = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a + 2 * step).mul(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, b + 2 * step)).add(s2);
+			s3 = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a + 3 * step).mul(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, b + 3 * step)).add(s3);
+		}
+		for(final int bound = FLOATS.loopBound(aLength); i < bound; i += step) {
+			s0 = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, aOffsetA + i).mul(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, aOffsetB + i)).add(s0);
+		}
+		float tmp = s0.add(s1).add(s2.add(s3)).reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) tmp += aA[aOffsetA + i] * aB[aOffsetB + i];
+		return tmp;
+	}
+
+	@Override
+	public float sum(float[] aA, int aOffset, int aLength) {
+		final int step = FLOATS.length();
+		final int end = aLength - aLength % (UNROLL * step);
+		jdk.incubator.vector.FloatVector s0 = jdk.incubator.vector.FloatVector.zero(FLOATS), s1 = s0, s2 = s0, s3 = s0;
+		int i = 0;
+		for(; i < end; i += UNROLL * step) {
+			final int a = aOffset + i;
+			s0 = s0.add(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a));
+			s1 = s1.add(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a + step));
+			s2 = s2.add(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a + 2 * step));
+			s3 = s3.add(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a + 3 * step));
+		}
+		for(final int bound = FLOATS.loopBound(aLength); i < bound; i += step) {
+			s0 = s0.add(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, aOffset + i));
+		}
+		float tmp = s0.add(s1).add(s2.add(s3)).reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) tmp += aA[aOffset + i];
+		return tmp;
+	}
+
+	@Override
+	public float distanceSquared(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		final int step = FLOATS.length();
+		final int end = aLength - aLength % (UNROLL * step);
+		jdk.incubator.vector.FloatVector s0 = jdk.incubator.vector.FloatVector.zero(FLOATS), s1 = s0, s2 = s0, s3 = s0;
+		int i = 0;
+		for(; i < end; i += UNROLL * step) {
+			final int a = aOffsetA + i;
+			final int b = aOffsetB + i;
+			final jdk.incubator.vector.FloatVector d0 = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a).sub(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, b));
+			final jdk.incubator.vector.FloatVector d1 = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a + step).sub(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, b + step));
+			final jdk.incubator.vector.FloatVector d2 = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a + 2 * step).sub(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, b + 2 * step));
+			final jdk.incubator.vector.FloatVector d3 = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, a + 3 * step).sub(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, b + 3 * step));
+			s0 = d0.mul(d0).add(s0);
+			s1 = d1.mul(d1).add(s1);
+			s2 = d2.mul(d2).add(s2);
+			s3 = d3.mul(d3).add(s3);
+		}
+		for(final int bound = FLOATS.loopBound(aLength); i < bound; i += step) {
+			final jdk.incubator.vector.FloatVector d = jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, aOffsetA + i).sub(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, aOffsetB + i));
+			s0 = d.mul(d).add(s0);
+		}
+		float tmp = s0.add(s1).add(s2.add(s3)).reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) {
+			final float d = aA[aOffsetA + i] - aB[aOffsetB + i];
+			tmp += d * d;
+		}
+		return tmp;
+	}
+
+	@Override
+	public void add(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength) {
+		final int step = FLOATS.length();
+		int i = 0;
+		for(final int bound = FLOATS.loopBound(aLength); i < bound; i += step) {
+			jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, aOffsetA + i).add(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, aOffsetB + i)).intoArray(aResult, aOffsetResult + i);
+		}
+		for(; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] + aB[aOffsetB + i];
+	}
+
+	@Override
+	public void subtract(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength) {
+		final int step = FLOATS.length();
+		int i = 0;
+		for(final int bound = FLOATS.loopBound(aLength); i < bound; i += step) {
+			jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, aOffsetA + i).sub(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, aOffsetB + i)).intoArray(aResult, aOffsetResult + i);
+		}
+		for(; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] - aB[aOffsetB + i];
+	}
+
+	@Override
+	public void multiply(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength) {
+		final int step = FLOATS.length();
+		int i = 0;
+		for(final int bound = FLOATS.loopBound(aLength); i < bound; i += step) {
+			jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, aOffsetA + i).mul(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, aOffsetB + i)).intoArray(aResult, aOffsetResult + i);
+		}
+		for(; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] * aB[aOffsetB + i];
+	}
+
+	@Override
+	public void divide(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength) {
+		final int step = FLOATS.length();
+		int i = 0;
+		for(final int bound = FLOATS.loopBound(aLength); i < bound; i += step) {
+			jdk.incubator.vector.FloatVector.fromArray(FLOATS, aA, aOffsetA + i).div(jdk.incubator.vector.FloatVector.fromArray(FLOATS, aB, aOffsetB + i)).intoArray(aResult, aOffsetResult + i);
+		}
+		for(; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] / aB[aOffsetB + i];
+	}
+
+	// Integer
+
+	@Override
+	public int dot(int[] aA, int aOffsetA, int[] aB, int aOffsetB, int aLength) {
+		final int step = INTS.length();
+		jdk.incubator.vector.IntVector s0 = jdk.incubator.vector.IntVector.zero(INTS);
+		int i = 0;
+		for(final int bound = INTS.loopBound(aLength); i < bound; i += step) {
+			s0 = jdk.incubator.vector.IntVector.fromArray(INTS, aA, aOffsetA + i).mul(jdk.incubator.vector.IntVector.fromArray(INTS, aB, aOffsetB + i)).add(s0);
+		}
+		int tmp = s0.reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) tmp += aA[aOffsetA + i] * aB[aOffsetB + i];
+		return tmp;
+	}
+
+	@Override
+	public int sum(int[] aA, int aOffset, int aLength) {
+		final int step = INTS.length();
+		jdk.incubator.vector.IntVector s0 = jdk.incubator.vector.IntVector.zero(INTS);
+		int i = 0;
+		for(final int bound = INTS.loopBound(aLength); i < bound; i += step) {
+			s0 = s0.add(jdk.incubator.vector.IntVector.fromArray(INTS, aA, aOffset + i));
+		}
+		int tmp = s0.reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) tmp += aA[aOffset + i];
+		return tmp;
+	}
+
+	// Long
+
+	@Override
+	public long dot(long[] aA, int aOffsetA, long[] aB, int aOffsetB, int aLength) {
+		final int step = LONGS.length();
+		jdk.incubator.vector.LongVector s0 = jdk.incubator.vector.LongVector.zero(LONGS);
+		int i = 0;
+		for(final int bound = LONGS.loopBound(aLength); i < bound; i += step) {
+			s0 = jdk.incubator.vector.LongVector.fromArray(LONGS, aA, aOffsetA + i).mul(jdk.incubator.vector.LongVector.fromArray(LONGS, aB, aOffsetB + i)).add(s0);
+		}
+		long tmp = s0.reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) tmp += aA[aOffsetA + i] * aB[aOffsetB + i];
+		return tmp;
+	}
+
+	@Override
+	public long sum(long[] aA, int aOffset, int aLength) {
+		final int step = LONGS.length();
+		jdk.incubator.vector.LongVector s0 = jdk.incubator.vector.LongVector.zero(LONGS);
+		int i = 0;
+		for(final int bound = LONGS.loopBound(aLength); i < bound; i += step) {
+			s0 = s0.add(jdk.incubator.vector.LongVector.fromArray(LONGS, aA, aOffset + i));
+		}
+		long tmp = s0.reduceLanes(VectorOperators.ADD);
+		for(; i < aLength; ++i) tmp += aA[aOffset + i];
+		return tmp;
+	}
+}
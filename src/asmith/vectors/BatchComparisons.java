@@ -0,0 +1,511 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compares one vector with many others, and every vector of one set with every vector of another, writing the results
+ * into primitive arrays.
+ * <p>
+ * Candidates can be a list of vectors or the rows of a matrix. Their lengths are checked once before any work is done,
+ * and every comparison runs on the primitive elements with the same kernels as the vector classes. Direct candidates
+ * are read from their buffers rather than copied. Distance matrices are calculated in square tiles of rows so that
+ * both tiles stay in cache while every pair in them is compared.
+ * Large operations are split across a fork join pool. The results do not depend on how the work is split.
+ * </p>
+ * @author Adam Smith
+ */
+public final class BatchComparisons {
+	/**
+	 * The default number of multiply-adds below which an operation runs on the calling thread.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+	private static final int TILE_ROWS = 64;
+
+	private interface Range {
+		void apply(int aFrom, int aTo);
+	}
+
+	private static final class RangeTask extends RecursiveAction {
+		private static final long serialVersionUID = -6527414370624917290L;
+
+		private final Range mRange;
+		private final long mWorkPerItem;
+		private final int mThreshold;
+		private final int mFrom;
+		private final int mTo;
+
+		RangeTask(Range aRange, long aWorkPerItem, int aThreshold, int aFrom, int aTo) {
+			mRange = aRange;
+			mWorkPerItem = aWorkPerItem;
+			mThreshold = aThreshold;
+			mFrom = aFrom;
+			mTo = aTo;
+		}
+
+		@Override
+		protected void compute() {
+			if((mTo - mFrom) * mWorkPerItem <= mThreshold || mTo - mFrom <= 1) {
+				mRange.apply(mFrom, mTo);
+				return;
+			}
+			final int middle = (mFrom + mTo) >>> 1;
+			invokeAll(new RangeTask(mRange, mWorkPerItem, mThreshold, mFrom, middle), new RangeTask(mRange, mWorkPerItem, mThreshold, middle, mTo));
+		}
+	}
+
+	private final ForkJoinPool mPool;
+	private final int mThreshold;
+
+	/**
+	 * Create comparisons that run on the common pool with the default threshold.
+	 */
+	public BatchComparisons() {
+		this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Create comparisons that run on a specific pool.
+	 * @param aPool The pool to run on.
+	 * @param aThreshold The number of multiply-adds below which an operation runs on the calling thread.
+	 */
+	public BatchComparisons(ForkJoinPool aPool, int aThreshold) {
+		if(aThreshold < 1) throw new IllegalArgumentException("Split threshold must be positive");
+		mPool = aPool;
+		mThreshold = aThreshold;
+	}
+
+	private void forRange(int aCount, long aWorkPerItem, Range aRange) {
+		if(aCount * aWorkPerItem <= mThreshold || aCount <= 1) {
+			aRange.apply(0, aCount);
+		}else {
+			mPool.invoke(new RangeTask(aRange, aWorkPerItem, mThreshold, 0, aCount));
+		}
+	}
+
+	private static void checkResult(int aLength, int aExpected) {
+		if(aLength != aExpected) throw new IllegalArgumentException("Expected a result array of length " + aExpected + ", instead encountered " + aLength);
+	}
+
+	// Double
+
+	/**
+	 * Return the elements of each vector in a list, or null for a direct vector, whose buffer is read instead.
+	 */
+	private static double[][] doubles(int aDimension, List<? extends Vector<Double>> aVectors) throws VectorSizeException {
+		final int s = aVectors.size();
+		final double[][] tmp = new double[s][];
+		for(int i = 0; i < s; ++i) {
+			final Vector<Double> v = aVectors.get(i);
+			if(v.size() != aDimension) throw new VectorSizeException(aDimension, v.size());
+			if(VectorKernels.doubleBuffer(v) == null) tmp[i] = VectorKernels.doubles(v);
+		}
+		return tmp;
+	}
+
+	private static DoubleBuffer[] doubleBuffers(List<? extends Vector<Double>> aVectors) {
+		final int s = aVectors.size();
+		final DoubleBuffer[] tmp = new DoubleBuffer[s];
+		for(int i = 0; i < s; ++i) tmp[i] = VectorKernels.doubleBuffer(aVectors.get(i));
+		return tmp;
+	}
+
+	private static double[] result(double[] aResult, int aLength) {
+		if(aResult == null) return new double[aLength];
+		checkResult(aResult.length, aLength);
+		return aResult;
+	}
+
+	/**
+	 * Calculate the dot product of a vector with each vector in a list.
+	 * @param aVector The vector.
+	 * @param aCandidates The vectors to compare with.
+	 * @param aResult The array to write the dot products into, or null to allocate one.
+	 * @return The dot products, in the order of the candidates.
+	 * @throws VectorSizeException Thrown when a candidate length does not match the vector length.
+	 */
+	public double[] dotProducts(Vector<Double> aVector, List<? extends Vector<Double>> aCandidates, double[] aResult) throws VectorSizeException {
+		final int d = aVector.size();
+		final double[] q = VectorKernels.doubles(aVector);
+		final double[][] c = doubles(d, aCandidates);
+		final DoubleBuffer[] cb = doubleBuffers(aCandidates);
+		final double[] r = result(aResult, c.length);
+		forRange(c.length, d, (from, to) -> {
+			for(int i = from; i < to; ++i) r[i] = c[i] != null ? VectorKernels.dot(q, 0, c[i], 0, d) : VectorKernels.dot(cb[i], 0, q, 0, d);
+		});
+		return r;
+	}
+
+	/**
+	 * Calculate the dot product of a vector with each row of a matrix, which is the same as multiplying the matrix by
+	 * the vector.
+	 * @param aVector The vector.
+	 * @param aCandidates The matrix whose rows are compared with the vector.
+	 * @param aResult The array to write the dot products into, or null to allocate one.
+	 * @return The dot products, in row order.
+	 * @throws VectorSizeException Thrown when the vector length does not match the number of columns.
+	 */
+	public double[] dotProducts(Vector<Double> aVector, DoubleMatrix aCandidates, double[] aResult) throws VectorSizeException {
+		final int d = aCandidates.columns();
+		if(aVector.size() != d) throw new VectorSizeException(d, aVector.size());
+		final double[] q = VectorKernels.doubles(aVector);
+		final double[] c = aCandidates.elements();
+		final double[] r = result(aResult, aCandidates.rows());
+		forRange(r.length, d, (from, to) -> {
+			for(int i = from; i < to; ++i) r[i] = VectorKernels.dot(q, 0, c, i * d, d);
+		});
+		return r;
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between a vector and each vector in a list.
+	 * @param aVector The vector.
+	 * @param aCandidates The vectors to compare with.
+	 * @param aResult The array to write the squared distances into, or null to allocate one.
+	 * @return The squared distances, in the order of the candidates.
+	 * @throws VectorSizeException Thrown when a candidate length does not match the vector length.
+	 */
+	public double[] distancesSquared(Vector<Double> aVector, List<? extends Vector<Double>> aCandidates, double[] aResult) throws VectorSizeException {
+		final int d = aVector.size();
+		final double[] q = VectorKernels.doubles(aVector);
+		final double[][] c = doubles(d, aCandidates);
+		final DoubleBuffer[] cb = doubleBuffers(aCandidates);
+		final double[] r = result(aResult, c.length);
+		forRange(c.length, d, (from, to) -> {
+			for(int i = from; i < to; ++i) r[i] = c[i] != null ? VectorKernels.distanceSquared(q, 0, c[i], 0, d) : VectorKernels.distanceSquared(cb[i], 0, q, 0, d);
+		});
+		return r;
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between a vector and each row of a matrix.
+	 * @param aVector The vector.
+	 * @param aCandidates The matrix whose rows are compared with the vector.
+	 * @param aResult The array to write the squared distances into, or null to allocate one.
+	 * @return The squared distances, in row order.
+	 * @throws VectorSizeException Thrown when the vector length does not match the number of columns.
+	 */
+	public double[] distancesSquared(Vector<Double> aVector, DoubleMatrix aCandidates, double[] aResult) throws VectorSizeException {
+		final int d = aCandidates.columns();
+		if(aVector.size() != d) throw new VectorSizeException(d, aVector.size());
+		final double[] q = VectorKernels.doubles(aVector);
+		final double[] c = aCandidates.elements();
+		final double[] r = result(aResult, aCandidates.rows());
+		forRange(r.length, d, (from, to) -> {
+			for(int i = from; i < to; ++i) r[i] = VectorKernels.distanceSquared(q, 0, c, i * d, d);
+		});
+		return r;
+	}
+
+	/**
+	 * Calculate the Euclidean distance between a vector and each vector in a list.
+	 * @param aVector The vector.
+	 * @param aCandidates The vectors to compare with.
+	 * @param aResult The array to write the distances into, or null to allocate one.
+	 * @return The distances, in the order of the candidates.
+	 * @throws VectorSizeException Thrown when a candidate length does not match the vector length.
+	 */
+	public double[] distances(Vector<Double> aVector, List<? extends Vector<Double>> aCandidates, double[] aResult) throws VectorSizeException {
+		return sqrt(distancesSquared(aVector, aCandidates, aResult));
+	}
+
+	/**
+	 * Calculate the Euclidean distance between a vector and each row of a matrix.
+	 * @param aVector The vector.
+	 * @param aCandidates The matrix whose rows are compared with the vector.
+	 * @param aResult The array to write the distances into, or null to allocate one.
+	 * @return The distances, in row order.
+	 * @throws VectorSizeException Thrown when the vector length does not match the number of columns.
+	 */
+	public double[] distances(Vector<Double> aVector, DoubleMatrix aCandidates, double[] aResult) throws VectorSizeException {
+		return sqrt(distancesSquared(aVector, aCandidates, aResult));
+	}
+
+	private static double[] sqrt(double[] aValues) {
+		for(int i = 0; i < aValues.length; ++i) aValues[i] = Math.sqrt(aValues[i]);
+		return aValues;
+	}
+
+	/**
+	 * Calculate the Euclidean distance between every pair of rows of two matrices.
+	 * @param aA The matrix whose rows become the rows of the result.
+	 * @param aB The matrix whose rows become the columns of the result.
+	 * @return A matrix whose element (i, j) is the distance between row i of the first matrix and row j of the second.
+	 * @throws VectorSizeException Thrown when the matrices have different numbers of columns.
+	 */
+	public DoubleMatrix distanceMatrix(DoubleMatrix aA, DoubleMatrix aB) throws VectorSizeException {
+		final int d = aA.columns();
+		if(aB.columns() != d) throw new VectorSizeException(d, aB.columns());
+		final int m = aA.rows();
+		final int n = aB.rows();
+		final double[] a = aA.elements();
+		final double[] b = aB.elements();
+		final DoubleMatrix tmp = new DoubleMatrix(m, n);
+		final double[] r = tmp.elements();
+		final int tiles = (m + TILE_ROWS - 1) / TILE_ROWS;
+		forRange(tiles, (long) TILE_ROWS * n * d, (from, to) -> {
+			for(int ii = from * TILE_ROWS; ii < Math.min(m, to * TILE_ROWS); ii += TILE_ROWS) {
+				final int iEnd = Math.min(m, ii + TILE_ROWS);
+				for(int jj = 0; jj < n; jj += TILE_ROWS) {
+					final int jEnd = Math.min(n, jj + TILE_ROWS);
+					for(int i = ii; i < iEnd; ++i) {
+						for(int j = jj; j < jEnd; ++j) r[i * n + j] = Math.sqrt(VectorKernels.distanceSquared(a, i * d, b, j * d, d));
+					}
+				}
+			}
+		});
+		return tmp;
+	}
+
+	/**
+	 * Calculate the Euclidean distance between every pair of rows of a matrix. Each pair is only compared once, and
+	 * the result is copied to the other side of the diagonal.
+	 * @param aMatrix The matrix.
+	 * @return A symmetric matrix whose element (i, j) is the distance between rows i and j, with zeros on the diagonal.
+	 */
+	public DoubleMatrix distanceMatrix(DoubleMatrix aMatrix) {
+		final int d = aMatrix.columns();
+		final int m = aMatrix.rows();
+		final double[] a = aMatrix.elements();
+		final DoubleMatrix tmp = new DoubleMatrix(m, m);
+		final double[] r = tmp.elements();
+		final int tiles = (m + TILE_ROWS - 1) / TILE_ROWS;
+		// Only the tiles on and above the diagonal are compared, so on average a row of tiles has half the work
+		forRange(tiles, (long) TILE_ROWS * m * d / 2, (from, to) -> {
+			for(int ii = from * TILE_ROWS; ii < Math.min(m, to * TILE_ROWS); ii += TILE_ROWS) {
+				final int iEnd = Math.min(m, ii + TILE_ROWS);
+				for(int jj = ii; jj < m; jj += TILE_ROWS) {
+					final int jEnd = Math.min(m, jj + TILE_ROWS);
+					for(int i = ii; i < iEnd; ++i) {
+						for(int j = Math.max(jj, i + 1); j < jEnd; ++j) {
+							final double x = Math.sqrt(VectorKernels.distanceSquared(a, i * d, a, j * d, d));
+							r[i * m + j] = x;
+							r[j * m + i] = x;
+						}
+					}
+				}
+			}
+		});
+		return tmp;
+	}
+
+	// Float
+
+	/**
+	 * Return the elements of each vector in a list, or null for a direct vector, whose buffer is read instead.
+	 */
+	private static float[][] floats(int aDimension, List<? extends Vector<Float>> aVectors) throws VectorSizeException {
+		final int s = aVectors.size();
+		final float[][] tmp = new float[s][];
+		for(int i = 0; i < s; ++i) {
+			final Vector<Float> v = aVectors.get(i);
+			if(v.size() != aDimension) throw new VectorSizeException(aDimension, v.size());
+			if(VectorKernels.floatBuffer(v) == null) tmp[i] = VectorKernels.floats(v);
+		}
+		return tmp;
+	}
+
+	private static FloatBuffer[] floatBuffers(List<? extends Vector<Float>> aVectors) {
+		final int s = aVectors.size();
+		final FloatBuffer[] tmp = new FloatBuffer[s];
+		for(int i = 0; i < s; ++i) tmp[i] = VectorKernels.floatBuffer(aVectors.get(i));
+		return tmp;
+	}
+
+	private static float[] result(float[] aResult, int aLength) {
+		if(aResult == null) return new float[aLength];
+		checkResult(aResult.length, aLength);
+		return aResult;
+	}
+
+	/**
+	 * Calculate the dot product of a vector with each vector in a list.
+	 * @param aVector The vector.
+	 * @param aCandidates The vectors to compare with.
+	 * @param aResult The array to write the dot products into, or null to allocate one.
+	 * @return The dot products, in the order of the candidates.
+	 * @throws VectorSizeException Thrown when a candidate length does not match the vector length.
+	 */
+	public float[] dotProducts(Vector<Float> aVector, List<? extends Vector<Float>> aCandidates, float[] aResult) throws VectorSizeException {
+		final int d = aVector.size();
+		final float[] q = VectorKernels.floats(aVector);
+		final float[][] c = floats(d, aCandidates);
+		final FloatBuffer[] cb = floatBuffers(aCandidates);
+		final float[] r = result(aResult, c.length);
+		forRange(c.length, d, (from, to) -> {
+			for(int i = from; i < to; ++i) r[i] = c[i] != null ? VectorKernels.dot(q, 0, c[i], 0, d) : VectorKernels.dot(cb[i], 0, q, 0, d);
+		});
+		return r;
+	}
+
+	/**
+	 * Calculate the dot product of a vector with each row of a matrix, which is the same as multiplying the matrix by
+	 * the vector.
+	 * @param aVector The vector.
+	 * @param aCandidates The matrix whose rows are compared with the vector.
+	 * @param aResult The array to write the dot products into, or null to allocate one.
+	 * @return The dot products, in row order.
+	 * @throws VectorSizeException Thrown when the vector length does not match the number of columns.
+	 */
+	public float[] dotProducts(Vector<Float> aVector, FloatMatrix aCandidates, float[] aResult) throws VectorSizeException {
+		final int d = aCandidates.columns();
+		if(aVector.size() != d) throw new VectorSizeException(d, aVector.size());
+		final float[] q = VectorKernels.floats(aVector);
+		final float[] c = aCandidates.elements();
+		final float[] r = result(aResult, aCandidates.rows());
+		forRange(r.length, d, (from, to) -> {
+			for(int i = from; i < to; ++i) r[i] = VectorKernels.dot(q, 0, c, i * d, d);
+		});
+		return r;
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between a vector and each vector in a list.
+	 * @param aVector The vector.
+	 * @param aCandidates The vectors to compare with.
+	 * @param aResult The array to write the squared distances into, or null to allocate one.
+	 * @return The squared distances, in the order of the candidates.
+	 * @throws VectorSizeException Thrown when a candidate length does not match the vector length.
+	 */
+	public float[] distancesSquared(Vector<Float> aVector, List<? extends Vector<Float>> aCandidates, float[] aResult) throws VectorSizeException {
+		final int d = aVector.size();
+		final float[] q = VectorKernels.floats(aVector);
+		final float[][] c = floats(d, aCandidates);
+		final FloatBuffer[] cb = floatBuffers(aCandidates);
+		final float[] r = result(aResult, c.length);
+		forRange(c.length, d, (from, to) -> {
+			for(int i = from; i < to; ++i) r[i] = c[i] != null ? VectorKernels.distanceSquared(q, 0, c[i], 0, d) : VectorKernels.distanceSquared(cb[i], 0, q, 0, d);
+		});
+		return r;
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between a vector and each row of a matrix.
+	 * @param aVector The vector.
+	 * @param aCandidates The matrix whose rows are compared with the vector.
+	 * @param aResult The array to write the squared distances into, or null to allocate one.
+	 * @return The squared distances, in row order.
+	 * @throws VectorSizeException Thrown when the vector length does not match the number of columns.
+	 */
+	public float[] distancesSquared(Vector<Float> aVector, FloatMatrix aCandidates, float[] aResult) throws VectorSizeException {
+		final int d = aCandidates.columns();
+		if(aVector.size() != d) throw new VectorSizeException(d, aVector.size());
+		final float[] q = VectorKernels.floats(aVector);
+		final float[] c = aCandidates.elements();
+		final float[] r = result(aResult, aCandidates.rows());
+		forRange(r.length, d, (from, to) -> {
+			for(int i = from; i < to; ++i) r[i] = VectorKernels.distanceSquared(q, 0, c, i * d, d);
+		});
+		return r;
+	}
+
+	/**
+	 * Calculate the Euclidean distance between a vector and each vector in a list.
+	 * @param aVector The vector.
+	 * @param aCandidates The vectors to compare with.
+	 * @param aResult The array to write the distances into, or null to allocate one.
+	 * @return The distances, in the order of the candidates.
+	 * @throws VectorSizeException Thrown when a candidate length does not match the vector length.
+	 */
+	public float[] distances(Vector<Float> aVector, List<? extends Vector<Float>> aCandidates, float[] aResult) throws VectorSizeException {
+		return sqrt(distancesSquared(aVector, aCandidates, aResult));
+	}
+
+	/**
+	 * Calculate the Euclidean distance between a vector and each row of a matrix.
+	 * @param aVector The vector.
+	 * @param aCandidates The matrix whose rows are compared with the vector.
+	 * @param aResult The array to write the distances into, or null to allocate one.
+	 * @return The distances, in row order.
+	 * @throws VectorSizeException Thrown when the vector length does not match the number of columns.
+	 */
+	public float[] distances(Vector<Float> aVector, FloatMatrix aCandidates, float[] aResult) throws VectorSizeException {
+		return sqrt(distancesSquared(aVector, aCandidates, aResult));
+	}
+
+	private static float[] sqrt(float[] aValues) {
+		for(int i = 0; i < aValues.length; ++i) aValues[i] = (float) Math.sqrt(aValues[i]);
+		return aValues;
+	}
+
+	/**
+	 * Calculate the Euclidean distance between every pair of rows of two matrices.
+	 * @param aA The matrix whose rows become the rows of the result.
+	 * @param aB The matrix whose rows become the columns of the result.
+	 * @return A matrix whose element (i, j) is the distance between row i of the first matrix and row j of the second.
+	 * @throws VectorSizeException Thrown when the matrices have different numbers of columns.
+	 */
+	public FloatMatrix distanceMatrix(FloatMatrix aA, FloatMatrix aB) throws VectorSizeException {
+		final int d = aA.columns();
+		if(aB.columns() != d) throw new VectorSizeException(d, aB.columns());
+		final int m = aA.rows();
+		final int n = aB.rows();
+		final float[] a = aA.elements();
+		final float[] b = aB.elements();
+		final FloatMatrix tmp = new FloatMatrix(m, n);
+		final float[] r = tmp.elements();
+		final int tiles = (m + TILE_ROWS - 1) / TILE_ROWS;
+		forRange(tiles, (long) TILE_ROWS * n * d, (from, to) -> {
+			for(int ii = from * TILE_ROWS; ii < Math.min(m, to * TILE_ROWS); ii += TILE_ROWS) {
+				final int iEnd = Math.min(m, ii + TILE_ROWS);
+				for(int jj = 0; jj < n; jj += TILE_ROWS) {
+					final int jEnd = Math.min(n, jj + TILE_ROWS);
+					for(int i = ii; i < iEnd; ++i) {
+						for(int j = jj; j < jEnd; ++j) r[i * n + j] = (float) Math.sqrt(VectorKernels.distanceSquared(a, i * d, b, j * d, d));
+					}
+				}
+			}
+		});
+		return tmp;
+	}
+
+	/**
+	 * Calculate the Euclidean distance between every pair of rows of a matrix. Each pair is only compared once, and
+	 * the result is copied to the other side of the diagonal.
+	 * @param aMatrix The matrix.
+	 * @return A symmetric matrix whose element (i, j) is the distance between rows i and j, with zeros on the diagonal.
+	 */
+	public FloatMatrix distanceMatrix(FloatMatrix aMatrix) {
+		final int d = aMatrix.columns();
+		final int m = aMatrix.rows();
+		final float[] a = aMatrix.elements();
+		final FloatMatrix tmp = new FloatMatrix(m, m);
+		final float[] r = tmp.elements();
+		final int tiles = (m + TILE_ROWS - 1) / TILE_ROWS;
+		// Only the tiles on and above the diagonal are compared, so on average a row of tiles has half the work
+		forRange(tiles, (long) TILE_ROWS * m * d / 2, (from, to) -> {
+			for(int ii = from * TILE_ROWS; ii < Math.min(m, to * TILE_ROWS); ii += TILE_ROWS) {
+				final int iEnd = Math.min(m, ii + TILE_ROWS);
+				for(int jj = ii; jj < m; jj += TILE_ROWS) {
+					final int jEnd = Math.min(m, jj + TILE_ROWS);
+					for(int i = ii; i < iEnd; ++i) {
+						for(int j = Math.max(jj, i + 1); j < jEnd; ++j) {
+							final float x = (float) Math.sqrt(VectorKernels.distanceSquared(a, i * d, a, j * d, d));
+							r[i * m + j] = x;
+							r[j * m + i] = x;
+						}
+					}
+				}
+			}
+		});
+		return tmp;
+	}
+}
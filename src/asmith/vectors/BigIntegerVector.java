@@ -16,67 +16,295 @@ package asmith.vectors;
 
 import java.math.BigInteger;
 
+/**
+ * A vector of arbitrary precision integers.
+ * <p>
+ * Elements that fit in a long are stored in a long array, and only elements that do not are stored as {@link BigInteger}
+ * objects, so a vector of small values costs the same as a {@link LongVector}. Arithmetic between two long elements runs
+ * at long speed with a check for overflow, and only an element whose result overflows is promoted. Results that fit in
+ * a long again are demoted, so a vector returns to the compact form once its large values are gone.
+ * </p>
+ * @author Adam Smith
+ */
 public final class BigIntegerVector extends VectorCommon<BigInteger> {
-	private final BigInteger[] mElements;
-	
+	private static final int ADD = 0;
+	private static final int SUBTRACT = 1;
+	private static final int MULTIPLY = 2;
+	private static final int DIVIDE = 3;
+
+	/**
+	 * The value of every element that fits in a long.
+	 */
+	private final long[] mSmall;
+
+	/**
+	 * The value of every element that does not fit in a long, with null for those that do.
+	 * The array is null when every element fits in a long.
+	 */
+	private final BigInteger[] mLarge;
+
 	public BigIntegerVector(BigInteger[] aValue) {
-		mElements = aValue;
+		mSmall = new long[aValue.length];
+		mLarge = split(aValue, mSmall);
+	}
+
+	public BigIntegerVector(long[] aValue) {
+		mSmall = aValue;
+		mLarge = null;
 	}
-	
+
 	public BigIntegerVector(BigInteger aX, BigInteger aY) {
-		mElements = new BigInteger[] { aX, aY };
+		this(new BigInteger[] { aX, aY });
 	}
-	
+
 	public BigIntegerVector(BigInteger aX, BigInteger aY, BigInteger aZ) {
-		mElements = new BigInteger[] { aX, aY, aZ };
+		this(new BigInteger[] { aX, aY, aZ });
 	}
-	
+
 	public BigIntegerVector(BigInteger aX, BigInteger aY, BigInteger aZ, BigInteger aW) {
-		mElements = new BigInteger[] { aX, aY, aZ, aW };
+		this(new BigInteger[] { aX, aY, aZ, aW });
 	}
-	
+
 	public BigIntegerVector(BigInteger aX, Vector<BigInteger> aV1) {
 		final int s = aV1.size();
-		mElements = new BigInteger[s+1];
-		mElements[0] = aX;
-		for(int i = 0; i < s; ++i) mElements[i+1] = aV1.get(i);
+		final BigInteger[] tmp = new BigInteger[s+1];
+		tmp[0] = aX;
+		for(int i = 0; i < s; ++i) tmp[i+1] = aV1.get(i);
+		mSmall = new long[tmp.length];
+		mLarge = split(tmp, mSmall);
 	}
-	
+
 	public BigIntegerVector(Vector<BigInteger> aV1, BigInteger aY) {
 		final int s = aV1.size();
-		mElements = new BigInteger[s+1];
-		for(int i = 0; i < s; ++i) mElements[i] = aV1.get(i);
-		mElements[s] = aY;
+		final BigInteger[] tmp = new BigInteger[s+1];
+		for(int i = 0; i < s; ++i) tmp[i] = aV1.get(i);
+		tmp[s] = aY;
+		mSmall = new long[tmp.length];
+		mLarge = split(tmp, mSmall);
 	}
-	
+
 	public BigIntegerVector(BigInteger aX, Vector<BigInteger> aV1, BigInteger aY) {
 		final int s = aV1.size();
-		mElements = new BigInteger[s+2];
-		mElements[0] = aX;
-		for(int i = 0; i < s; ++i) mElements[i+1] = aV1.get(i);
-		mElements[s+1] = aY;
+		final BigInteger[] tmp = new BigInteger[s+2];
+		tmp[0] = aX;
+		for(int i = 0; i < s; ++i) tmp[i+1] = aV1.get(i);
+		tmp[s+1] = aY;
+		mSmall = new long[tmp.length];
+		mLarge = split(tmp, mSmall);
 	}
-	
+
 	public BigIntegerVector(Vector<BigInteger> aV1, Vector<BigInteger> aV2) {
 		final int s1 = aV1.size();
 		final int s2 = aV2.size();
-		mElements = new BigInteger[s1+s2];
-		for(int i = 0; i < s1; ++i) mElements[i] = aV1.get(i);
-		for(int i = 0; i < s2; ++i) mElements[i + s1] = aV2.get(i);
+		final BigInteger[] tmp = new BigInteger[s1+s2];
+		for(int i = 0; i < s1; ++i) tmp[i] = aV1.get(i);
+		for(int i = 0; i < s2; ++i) tmp[i + s1] = aV2.get(i);
+		mSmall = new long[tmp.length];
+		mLarge = split(tmp, mSmall);
 	}
-	
+
 	public BigIntegerVector(Vector<? extends Number> aOther) {
 		final int s = aOther.size();
-		mElements = new BigInteger[s];
-		for(int i = 0; i < s; ++i) mElements[i] = BigInteger.valueOf(aOther.get(i).longValue());
+		final BigInteger[] tmp = new BigInteger[s];
+		for(int i = 0; i < s; ++i) {
+			final Number x = aOther.get(i);
+			tmp[i] = x instanceof BigInteger ? (BigInteger) x : BigInteger.valueOf(x.longValue());
+		}
+		mSmall = new long[s];
+		mLarge = split(tmp, mSmall);
+	}
+
+	private BigIntegerVector(long[] aSmall, BigInteger[] aLarge) {
+		mSmall = aSmall;
+		mLarge = aLarge;
+	}
+
+	/**
+	 * Store every value that fits in a long in the small array.
+	 * @return The values that do not fit, or null if they all do.
+	 */
+	private static BigInteger[] split(BigInteger[] aValues, long[] aSmall) {
+		BigInteger[] large = null;
+		for(int i = 0; i < aValues.length; ++i) {
+			if(aValues[i].bitLength() < Long.SIZE) {
+				aSmall[i] = aValues[i].longValue();
+			}else {
+				if(large == null) large = new BigInteger[aValues.length];
+				large[i] = aValues[i];
+			}
+		}
+		return large;
+	}
+
+	private static BigIntegerVector of(Vector<BigInteger> aVector) {
+		return aVector instanceof BigIntegerVector ? (BigIntegerVector) aVector : new BigIntegerVector(aVector);
 	}
-	
+
+	/**
+	 * Return whether every element fits in a long, in which case the vector is stored as a single long array.
+	 * @return True if no element needs a {@link BigInteger}.
+	 */
+	public boolean fitsInLong() {
+		return mLarge == null;
+	}
+
+	/**
+	 * Return whether a long multiplication overflowed. A product whose double estimate is well inside the range of a
+	 * long cannot have overflowed, and anything else uses the same test as {@link Math#multiplyExact(long, long)}.
+	 */
+	private static boolean multiplyOverflows(long aA, long aB, long aResult) {
+		if(Math.abs((double) aA * aB) < 0x1p62) return false;
+		return (aB != 0 && aResult / aB != aA) || (aA == Long.MIN_VALUE && aB == -1);
+	}
+
+	private static BigInteger apply(int aOperation, BigInteger aA, BigInteger aB) {
+		switch(aOperation) {
+		case ADD:
+			return aA.add(aB);
+		case SUBTRACT:
+			return aA.subtract(aB);
+		case MULTIPLY:
+			return aA.multiply(aB);
+		default:
+			return aA.divide(aB);
+		}
+	}
+
+	/**
+	 * Apply an operation to every element, with either another vector or a scalar stored as a vector of one element.
+	 */
+	private BigIntegerVector apply(int aOperation, long[] aSmall, BigInteger[] aLarge, boolean aScalar) {
+		final int s = mSmall.length;
+		final long[] small = new long[s];
+		BigInteger[] large = null;
+		final int start = mLarge == null && aLarge == null ? applySmall(aOperation, aSmall, aScalar, small) : 0;
+		for(int i = start; i < s; ++i) {
+			final int j = aScalar ? 0 : i;
+			final BigInteger x = mLarge == null ? null : mLarge[i];
+			final BigInteger y = aLarge == null ? null : aLarge[j];
+			if(x == null && y == null) {
+				final long a = mSmall[i];
+				final long b = aSmall[j];
+				final long r;
+				final boolean overflow;
+				switch(aOperation) {
+				case ADD:
+					r = a + b;
+					overflow = ((a ^ r) & (b ^ r)) < 0;
+					break;
+				case SUBTRACT:
+					r = a - b;
+					overflow = ((a ^ b) & (a ^ r)) < 0;
+					break;
+				case MULTIPLY:
+					r = a * b;
+					overflow = multiplyOverflows(a, b, r);
+					break;
+				default:
+					overflow = a == Long.MIN_VALUE && b == -1;
+					r = overflow ? 0 : a / b;
+					break;
+				}
+				if(! overflow) {
+					small[i] = r;
+					continue;
+				}
+			}
+			final BigInteger r = apply(aOperation, x != null ? x : BigInteger.valueOf(mSmall[i]), y != null ? y : BigInteger.valueOf(aSmall[j]));
+			if(r.bitLength() < Long.SIZE) {
+				small[i] = r.longValue();
+			}else {
+				if(large == null) large = new BigInteger[s];
+				large[i] = r;
+			}
+		}
+		return new BigIntegerVector(small, large);
+	}
+
+	/**
+	 * Apply an operation when neither operand has a large element, stopping at the first result that overflows.
+	 * @return The index of the element that overflowed, or the vector length if none did.
+	 */
+	private int applySmall(int aOperation, long[] aSmall, boolean aScalar, long[] aResult) {
+		final int s = mSmall.length;
+		final long[] a = mSmall;
+		final long[] b = aSmall;
+		final int step = aScalar ? 0 : 1;
+		switch(aOperation) {
+		case ADD:
+			for(int i = 0; i < s; ++i) {
+				final long x = a[i];
+				final long y = b[i * step];
+				final long r = x + y;
+				if(((x ^ r) & (y ^ r)) < 0) return i;
+				aResult[i] = r;
+			}
+			return s;
+		case SUBTRACT:
+			for(int i = 0; i < s; ++i) {
+				final long x = a[i];
+				final long y = b[i * step];
+				final long r = x - y;
+				if(((x ^ y) & (x ^ r)) < 0) return i;
+				aResult[i] = r;
+			}
+			return s;
+		case MULTIPLY:
+			for(int i = 0; i < s; ++i) {
+				final long x = a[i];
+				final long y = b[i * step];
+				final long r = x * y;
+				if(multiplyOverflows(x, y, r)) return i;
+				aResult[i] = r;
+			}
+			return s;
+		default:
+			for(int i = 0; i < s; ++i) {
+				final long x = a[i];
+				final long y = b[i * step];
+				if(x == Long.MIN_VALUE && y == -1) return i;
+				aResult[i] = x / y;
+			}
+			return s;
+		}
+	}
+
+	private Vector<BigInteger> apply(int aOperation, Vector<BigInteger> aVector) throws VectorSizeException {
+		if(mSmall.length != aVector.size()) throw new VectorSizeException(mSmall.length, aVector.size());
+		final BigIntegerVector b = of(aVector);
+		return apply(aOperation, b.mSmall, b.mLarge, false);
+	}
+
+	private Vector<BigInteger> apply(int aOperation, BigInteger aScalar) {
+		if(aScalar.bitLength() < Long.SIZE) return apply(aOperation, new long[] { aScalar.longValue() }, null, true);
+		return apply(aOperation, new long[1], new BigInteger[] { aScalar }, true);
+	}
+
 	// Inherited from VectorCommon
 
+	/**
+	 * Calculate the integer square root, which is the largest integer whose square is no greater than the value.
+	 * Values that fit in a double's mantissa use the hardware square root, and larger values use Newton's method
+	 * starting from a double estimate.
+	 */
 	@Override
 	protected BigInteger sqrt(BigInteger aValue) {
-		// \TODO Improve sqrt for values not representable by long
-		return BigInteger.valueOf((long) Math.sqrt(aValue.longValue()));
+		if(aValue.signum() < 0) throw new ArithmeticException("Cannot take the square root of negative value " + aValue);
+		if(aValue.bitLength() <= 52) {
+			final long x = aValue.longValue();
+			final long r = (long) Math.sqrt(x);
+			return BigInteger.valueOf(r * r > x ? r - 1 : r);
+		}
+
+		// Estimate from the top bits, then one Newton step guarantees the estimate is no smaller than the root
+		final int shift = (aValue.bitLength() - 52) & ~1;
+		BigInteger x = BigInteger.valueOf((long) Math.sqrt(aValue.shiftRight(shift).doubleValue()) + 1).shiftLeft(shift / 2);
+		x = x.add(aValue.divide(x)).shiftRight(1);
+		for(;;) {
+			final BigInteger y = x.add(aValue.divide(x)).shiftRight(1);
+			if(y.compareTo(x) >= 0) return x;
+			x = y;
+		}
 	}
 
 	@Override
@@ -123,26 +351,155 @@ public final class BigIntegerVector extends VectorCommon<BigInteger> {
 	protected BigInteger[] createArray(int aSize) {
 		return new BigInteger[aSize];
 	}
-	
+
 	// Inherited from Vector
 
 	@Override
 	public int size() {
-		return mElements.length;
+		return mSmall.length;
 	}
 
 	@Override
 	public Vector<BigInteger> set(int aIndex, BigInteger aValue) {
-		final int s = mElements.length;
-		final BigInteger[] tmp = new BigInteger[s];
-		for(int i = 0; i < s; ++i) tmp[i] = mElements[i];
-		tmp[aIndex] = aValue;
-		return new BigIntegerVector(tmp);
+		final long[] small = mSmall.clone();
+		BigInteger[] large = mLarge == null ? null : mLarge.clone();
+		if(aValue.bitLength() < Long.SIZE) {
+			small[aIndex] = aValue.longValue();
+			if(large != null) {
+				large[aIndex] = null;
+				boolean empty = true;
+				for(BigInteger x : large) empty &= x == null;
+				if(empty) large = null;
+			}
+		}else {
+			if(large == null) large = new BigInteger[small.length];
+			large[aIndex] = aValue;
+		}
+		return new BigIntegerVector(small, large);
 	}
 
 	@Override
 	public BigInteger get(int aIndex) {
-		return mElements[aIndex];
+		if(mLarge != null && mLarge[aIndex] != null) return mLarge[aIndex];
+		return BigInteger.valueOf(mSmall[aIndex]);
+	}
+
+	@Override
+	public Vector<BigInteger> add(BigInteger aScalar) {
+		return apply(ADD, aScalar);
+	}
+
+	@Override
+	public Vector<BigInteger> subtract(BigInteger aScalar) {
+		return apply(SUBTRACT, aScalar);
+	}
+
+	@Override
+	public Vector<BigInteger> multiply(BigInteger aScalar) {
+		return apply(MULTIPLY, aScalar);
+	}
+
+	@Override
+	public Vector<BigInteger> divide(BigInteger aScalar) {
+		return apply(DIVIDE, aScalar);
+	}
+
+	@Override
+	public Vector<BigInteger> add(Vector<BigInteger> aVector) throws VectorSizeException {
+		return apply(ADD, aVector);
+	}
+
+	@Override
+	public Vector<BigInteger> subtract(Vector<BigInteger> aVector) throws VectorSizeException {
+		return apply(SUBTRACT, aVector);
+	}
+
+	@Override
+	public Vector<BigInteger> multiply(Vector<BigInteger> aVector) throws VectorSizeException {
+		return apply(MULTIPLY, aVector);
+	}
+
+	@Override
+	public Vector<BigInteger> divide(Vector<BigInteger> aVector) throws VectorSizeException {
+		return apply(DIVIDE, aVector);
+	}
+
+	@Override
+	public BigInteger dotProduct(Vector<BigInteger> aVector) throws VectorSizeException {
+		final int s = mSmall.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		final BigIntegerVector b = of(aVector);
+		// Products are added to a long until it would overflow, then the long is moved into the big total
+		long tmp = 0;
+		BigInteger total = BigInteger.ZERO;
+		for(int i = 0; i < s; ++i) {
+			final BigInteger x = mLarge == null ? null : mLarge[i];
+			final BigInteger y = b.mLarge == null ? null : b.mLarge[i];
+			if(x == null && y == null) {
+				final long p = mSmall[i] * b.mSmall[i];
+				if(! multiplyOverflows(mSmall[i], b.mSmall[i], p)) {
+					final long r = tmp + p;
+					if(((tmp ^ r) & (p ^ r)) < 0) {
+						total = total.add(BigInteger.valueOf(tmp));
+						tmp = p;
+					}else {
+						tmp = r;
+					}
+					continue;
+				}
+			}
+			total = total.add((x != null ? x : BigInteger.valueOf(mSmall[i])).multiply(y != null ? y : BigInteger.valueOf(b.mSmall[i])));
+		}
+		return total.add(BigInteger.valueOf(tmp));
+	}
+
+	@Override
+	public BigInteger sum() {
+		final int s = mSmall.length;
+		long tmp = 0;
+		BigInteger total = BigInteger.ZERO;
+		for(int i = 0; i < s; ++i) {
+			if(mLarge != null && mLarge[i] != null) {
+				total = total.add(mLarge[i]);
+				continue;
+			}
+			final long x = mSmall[i];
+			final long r = tmp + x;
+			if(((tmp ^ r) & (x ^ r)) < 0) {
+				total = total.add(BigInteger.valueOf(tmp));
+				tmp = x;
+			}else {
+				tmp = r;
+			}
+		}
+		return total.add(BigInteger.valueOf(tmp));
+	}
+
+	@Override
+	public BigInteger magnitudeSquared() {
+		try {
+			return dotProduct(this);
+		}catch(VectorSizeException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public BigInteger min() {
+		if(mLarge != null) return super.min();
+		final int s = mSmall.length;
+		long tmp = mSmall[0];
+		for(int i = 1; i < s; ++i) tmp = mSmall[i] < tmp ? mSmall[i] : tmp;
+		return BigInteger.valueOf(tmp);
+	}
+
+	@Override
+	public BigInteger max() {
+		if(mLarge != null) return super.max();
+		final int s = mSmall.length;
+		long tmp = mSmall[0];
+		for(int i = 1; i < s; ++i) tmp = mSmall[i] > tmp ? mSmall[i] : tmp;
+		return BigInteger.valueOf(tmp);
 	}
 
 }
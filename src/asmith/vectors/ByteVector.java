@@ -14,6 +14,9 @@
 
 package asmith.vectors;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public final class ByteVector extends VectorCommon<Byte> {
 	private final byte[] mElements;
 	
@@ -148,4 +151,175 @@ public final class ByteVector extends VectorCommon<Byte> {
 		return mElements[aIndex];
 	}
 
+	@Override
+	public Vector<Byte> add(Byte aScalar) {
+		final byte b = aScalar;
+		final int s = mElements.length;
+		final byte[] tmp = new byte[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (byte) (mElements[i] + b);
+		return new ByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> subtract(Byte aScalar) {
+		final byte b = aScalar;
+		final int s = mElements.length;
+		final byte[] tmp = new byte[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (byte) (mElements[i] - b);
+		return new ByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> multiply(Byte aScalar) {
+		final byte b = aScalar;
+		final int s = mElements.length;
+		final byte[] tmp = new byte[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (byte) (mElements[i] * b);
+		return new ByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> divide(Byte aScalar) {
+		final byte b = aScalar;
+		final int s = mElements.length;
+		final byte[] tmp = new byte[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (byte) (mElements[i] / b);
+		return new ByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> add(Vector<Byte> aVector) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final byte[] tmp = new byte[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (byte) (mElements[i] + b[i]);
+		return new ByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> subtract(Vector<Byte> aVector) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final byte[] tmp = new byte[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (byte) (mElements[i] - b[i]);
+		return new ByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> multiply(Vector<Byte> aVector) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final byte[] tmp = new byte[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (byte) (mElements[i] * b[i]);
+		return new ByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> divide(Vector<Byte> aVector) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final byte[] tmp = new byte[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (byte) (mElements[i] / b[i]);
+		return new ByteVector(tmp);
+	}
+
+	@Override
+	public Byte dotProduct(Vector<Byte> aVector) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i] * b[i];
+		return (byte) tmp;
+	}
+
+	@Override
+	public Byte min() {
+		final int s = mElements.length;
+		byte tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] < tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Byte max() {
+		final int s = mElements.length;
+		byte tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] > tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Byte sum() {
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i];
+		return (byte) tmp;
+	}
+
+	@Override
+	public Byte magnitudeSquared() {
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i] * mElements[i];
+		return (byte) tmp;
+	}
+
+	@Override
+	public Byte median() {
+		final int s = mElements.length;
+		final byte[] tmp = mElements.clone();
+		final int i = s / 2;
+		final byte upper = Selection.select(tmp, i);
+		if(s % 2 == 1) return upper;
+		return (byte) ((byte) (Selection.max(tmp, 0, i) + upper) / 2);
+	}
+
+	@Override
+	public Byte kthSmallest(int aK) {
+		final int s = mElements.length;
+		if(aK < 0 || aK >= s) throw new IndexOutOfBoundsException("Index " + aK + " is out of bounds for vector of length " + s);
+		return Selection.select(mElements.clone(), aK);
+	}
+
+	@Override
+	public Byte mode() {
+		final int s = mElements.length;
+		final int[] counts = new int[256];
+		for(int i = 0; i < s; ++i) ++counts[mElements[i] & 0xFF];
+		int best = 0;
+		for(int i = 1; i < s; ++i) if(counts[mElements[i] & 0xFF] > counts[mElements[best] & 0xFF]) best = i;
+		return mElements[best];
+	}
+
+	@Override
+	public Map<Byte, Integer> histogram() {
+		final int s = mElements.length;
+		final int[] counts = new int[256];
+		for(int i = 0; i < s; ++i) ++counts[mElements[i] & 0xFF];
+		final Map<Byte, Integer> tmp = new HashMap<Byte, Integer>();
+		for(int i = 0; i < 256; ++i) if(counts[i] != 0) tmp.put((byte) i, counts[i]);
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	byte[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private byte[] elementsOf(Vector<Byte> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.bytes(aVector);
+	}
+
 }
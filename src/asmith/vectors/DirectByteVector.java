@@ -0,0 +1,300 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A ByteVector that stores its elements outside of the Java heap in a direct buffer.
+ * <p>
+ * The native memory is released when the vector becomes unreachable, so large collections of vectors only keep a small
+ * object on the heap each. Operations on two direct vectors, or on a direct vector and a ByteVector, never box elements.
+ * </p>
+ * @author Adam Smith
+ */
+public final class DirectByteVector extends VectorCommon<Byte> {
+	private final ByteBuffer mElements;
+	
+	public DirectByteVector(byte[] aValue) {
+		mElements = allocate(aValue.length);
+		mElements.duplicate().put(aValue);
+	}
+	
+	public DirectByteVector(Byte[] aValue) {
+		final int s = aValue.length;
+		mElements = allocate(s);
+		for(int i = 0; i < s; ++i) mElements.put(i, aValue[i]);
+	}
+	
+	/**
+	 * Create a vector that reads its elements from the remaining content of a buffer without copying it.
+	 * The buffer content must not be modified while the vector is in use.
+	 * @param aBuffer The buffer containing the elements.
+	 */
+	public DirectByteVector(ByteBuffer aBuffer) {
+		mElements = aBuffer.slice();
+	}
+	
+	public DirectByteVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		mElements = allocate(s);
+		if(aOther instanceof ByteVector) {
+			mElements.duplicate().put(((ByteVector) aOther).elements());
+		}else if(aOther instanceof DirectByteVector) {
+			mElements.duplicate().put(((DirectByteVector) aOther).mElements.duplicate());
+		}else {
+			for(int i = 0; i < s; ++i) mElements.put(i, aOther.get(i).byteValue());
+		}
+	}
+	
+	/**
+	 * Allocate a direct buffer.
+	 * @param aSize The number of elements in the buffer.
+	 * @return The created buffer.
+	 */
+	static ByteBuffer allocate(int aSize) {
+		return ByteBuffer.allocateDirect(aSize);
+	}
+	
+	/**
+	 * Return a read-only view of the elements in this vector.
+	 * @return The element buffer.
+	 */
+	public ByteBuffer buffer() {
+		return mElements.asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Return the element buffer of this vector without copying it.
+	 * @return The element buffer.
+	 */
+	ByteBuffer elements() {
+		return mElements;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a heap ByteVector.
+	 * @return The heap vector.
+	 */
+	public ByteVector toHeap() {
+		final byte[] tmp = new byte[mElements.capacity()];
+		mElements.duplicate().get(tmp);
+		return new ByteVector(tmp);
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Byte sqrt(Byte aValue) {
+		return (byte) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Byte add(Byte aA, Byte aB) {
+		return (byte) (aA + aB);
+	}
+
+	@Override
+	protected Byte sub(Byte aA, Byte aB) {
+		return (byte) (aA - aB);
+	}
+
+	@Override
+	protected Byte mul(Byte aA, Byte aB) {
+		return (byte) (aA * aB);
+	}
+
+	@Override
+	protected Byte div(Byte aA, Byte aB) {
+		return (byte) (aA / aB);
+	}
+
+	@Override
+	protected Byte valueOf(int aValue) {
+		return (byte) aValue;
+	}
+
+	@Override
+	protected Byte min(Byte aA, Byte aB) {
+		return (byte) Math.min(aA, aB);
+	}
+
+	@Override
+	protected Byte max(Byte aA, Byte aB) {
+		return (byte) Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Byte> createVector(Byte[] aValues) {
+		return new DirectByteVector(aValues);
+	}
+
+	@Override
+	protected Byte[] createArray(int aSize) {
+		return new Byte[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.capacity();
+	}
+
+	@Override
+	public Vector<Byte> set(int aIndex, Byte aValue) {
+		final int s = mElements.capacity();
+		final ByteBuffer tmp = allocate(s);
+		tmp.duplicate().put(mElements.duplicate());
+		tmp.put(aIndex, aValue);
+		return new DirectByteVector(tmp);
+	}
+
+	@Override
+	public Byte get(int aIndex) {
+		return mElements.get(aIndex);
+	}
+
+	@Override
+	public Vector<Byte> add(Byte aScalar) {
+		final byte b = aScalar;
+		final int s = mElements.capacity();
+		final ByteBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, (byte) (mElements.get(i) + b));
+		return new DirectByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> subtract(Byte aScalar) {
+		final byte b = aScalar;
+		final int s = mElements.capacity();
+		final ByteBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, (byte) (mElements.get(i) - b));
+		return new DirectByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> multiply(Byte aScalar) {
+		final byte b = aScalar;
+		final int s = mElements.capacity();
+		final ByteBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, (byte) (mElements.get(i) * b));
+		return new DirectByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> divide(Byte aScalar) {
+		final byte b = aScalar;
+		final int s = mElements.capacity();
+		final ByteBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, (byte) (mElements.get(i) / b));
+		return new DirectByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> add(Vector<Byte> aVector) throws VectorSizeException {
+		final ByteBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final ByteBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, (byte) (mElements.get(i) + b.get(i)));
+		return new DirectByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> subtract(Vector<Byte> aVector) throws VectorSizeException {
+		final ByteBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final ByteBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, (byte) (mElements.get(i) - b.get(i)));
+		return new DirectByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> multiply(Vector<Byte> aVector) throws VectorSizeException {
+		final ByteBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final ByteBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, (byte) (mElements.get(i) * b.get(i)));
+		return new DirectByteVector(tmp);
+	}
+
+	@Override
+	public Vector<Byte> divide(Vector<Byte> aVector) throws VectorSizeException {
+		final ByteBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final ByteBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, (byte) (mElements.get(i) / b.get(i)));
+		return new DirectByteVector(tmp);
+	}
+
+	@Override
+	public Byte dotProduct(Vector<Byte> aVector) throws VectorSizeException {
+		final ByteBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements.get(i) * b.get(i);
+		return (byte) tmp;
+	}
+
+	@Override
+	public Byte min() {
+		final int s = mElements.capacity();
+		byte tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = (byte) Math.min(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Byte max() {
+		final int s = mElements.capacity();
+		byte tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = (byte) Math.max(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Byte sum() {
+		final int s = mElements.capacity();
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements.get(i);
+		return (byte) tmp;
+	}
+
+	@Override
+	public Byte magnitudeSquared() {
+		final int s = mElements.capacity();
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) {
+			final int v = mElements.get(i);
+			tmp += v * v;
+		}
+		return (byte) tmp;
+	}
+
+	/**
+	 * Return the elements of another vector as a buffer.
+	 * Direct, heap and mutable vectors are read in place without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private ByteBuffer elementsOf(Vector<Byte> aVector) throws VectorSizeException {
+		final int s = mElements.capacity();
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		final ByteBuffer tmp = VectorKernels.byteBuffer(aVector);
+		return tmp != null ? tmp : ByteBuffer.wrap(VectorKernels.bytes(aVector));
+	}
+
+}
@@ -0,0 +1,331 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * A DoubleVector that stores its elements outside of the Java heap in a direct buffer.
+ * <p>
+ * The native memory is released when the vector becomes unreachable, so large collections of vectors only keep a small
+ * object on the heap each. Operations on two direct vectors, or on a direct vector and a DoubleVector, never box elements.
+ * Reductions run through the same kernels as DoubleVector and give identical results for the same elements, including
+ * with each {@link Summation} strategy.
+ * </p>
+ * @author Adam Smith
+ */
+public final class DirectDoubleVector extends VectorCommon<Double> {
+	private final DoubleBuffer mElements;
+	
+	public DirectDoubleVector(double[] aValue) {
+		mElements = allocate(aValue.length);
+		mElements.duplicate().put(aValue);
+	}
+	
+	public DirectDoubleVector(Double[] aValue) {
+		final int s = aValue.length;
+		mElements = allocate(s);
+		for(int i = 0; i < s; ++i) mElements.put(i, aValue[i]);
+	}
+	
+	/**
+	 * Create a vector that reads its elements from the remaining content of a buffer without copying it.
+	 * The buffer content must not be modified while the vector is in use.
+	 * @param aBuffer The buffer containing the elements.
+	 */
+	public DirectDoubleVector(DoubleBuffer aBuffer) {
+		mElements = aBuffer.slice();
+	}
+	
+	public DirectDoubleVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		mElements = allocate(s);
+		if(aOther instanceof DoubleVector) {
+			mElements.duplicate().put(((DoubleVector) aOther).elements());
+		}else if(aOther instanceof DirectDoubleVector) {
+			mElements.duplicate().put(((DirectDoubleVector) aOther).mElements.duplicate());
+		}else {
+			for(int i = 0; i < s; ++i) mElements.put(i, aOther.get(i).doubleValue());
+		}
+	}
+	
+	/**
+	 * Allocate a direct buffer in native byte order.
+	 * @param aSize The number of elements in the buffer.
+	 * @return The created buffer.
+	 */
+	static DoubleBuffer allocate(int aSize) {
+		return ByteBuffer.allocateDirect(aSize * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+	}
+	
+	/**
+	 * Return a read-only view of the elements in this vector.
+	 * @return The element buffer.
+	 */
+	public DoubleBuffer buffer() {
+		return mElements.asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Return the element buffer of this vector without copying it.
+	 * @return The element buffer.
+	 */
+	DoubleBuffer elements() {
+		return mElements;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a heap DoubleVector.
+	 * @return The heap vector.
+	 */
+	public DoubleVector toHeap() {
+		final double[] tmp = new double[mElements.capacity()];
+		mElements.duplicate().get(tmp);
+		return new DoubleVector(tmp);
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Double sqrt(Double aValue) {
+		return Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Double add(Double aA, Double aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Double sub(Double aA, Double aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Double mul(Double aA, Double aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Double div(Double aA, Double aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Double valueOf(int aValue) {
+		return Double.valueOf(aValue);
+	}
+
+	@Override
+	protected Double min(Double aA, Double aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Double max(Double aA, Double aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Double> createVector(Double[] aValues) {
+		return new DirectDoubleVector(aValues);
+	}
+
+	@Override
+	protected Double[] createArray(int aSize) {
+		return new Double[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.capacity();
+	}
+
+	@Override
+	public Vector<Double> set(int aIndex, Double aValue) {
+		final int s = mElements.capacity();
+		final DoubleBuffer tmp = allocate(s);
+		tmp.duplicate().put(mElements.duplicate());
+		tmp.put(aIndex, aValue);
+		return new DirectDoubleVector(tmp);
+	}
+
+	@Override
+	public Double get(int aIndex) {
+		return mElements.get(aIndex);
+	}
+
+	@Override
+	public Vector<Double> add(Double aScalar) {
+		final double b = aScalar;
+		final int s = mElements.capacity();
+		final DoubleBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) + b);
+		return new DirectDoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> subtract(Double aScalar) {
+		final double b = aScalar;
+		final int s = mElements.capacity();
+		final DoubleBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) - b);
+		return new DirectDoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> multiply(Double aScalar) {
+		final double b = aScalar;
+		final int s = mElements.capacity();
+		final DoubleBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) * b);
+		return new DirectDoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> divide(Double aScalar) {
+		final double b = aScalar;
+		final int s = mElements.capacity();
+		final DoubleBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) / b);
+		return new DirectDoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> add(Vector<Double> aVector) throws VectorSizeException {
+		final DoubleBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final DoubleBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) + b.get(i));
+		return new DirectDoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> subtract(Vector<Double> aVector) throws VectorSizeException {
+		final DoubleBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final DoubleBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) - b.get(i));
+		return new DirectDoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> multiply(Vector<Double> aVector) throws VectorSizeException {
+		final DoubleBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final DoubleBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) * b.get(i));
+		return new DirectDoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> divide(Vector<Double> aVector) throws VectorSizeException {
+		final DoubleBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final DoubleBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) / b.get(i));
+		return new DirectDoubleVector(tmp);
+	}
+
+	@Override
+	public Double dotProduct(Vector<Double> aVector) throws VectorSizeException {
+		final DoubleBuffer b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.capacity());
+	}
+
+	@Override
+	public Double min() {
+		final int s = mElements.capacity();
+		double tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = Math.min(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Double max() {
+		final int s = mElements.capacity();
+		double tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = Math.max(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Double sum() {
+		return VectorKernels.sum(mElements, 0, mElements.capacity());
+	}
+
+	@Override
+	public Double magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.capacity());
+	}
+
+	/**
+	 * Calculate the dot product of two vectors with a given accumulation strategy.
+	 * @param aVector The other vector.
+	 * @param aSummation The accumulation strategy.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public Double dotProduct(Vector<Double> aVector, Summation aSummation) throws VectorSizeException {
+		final DoubleBuffer b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.capacity(), aSummation);
+	}
+
+	/**
+	 * Calculate the sum of all elements in the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The sum of elements.
+	 */
+	public Double sum(Summation aSummation) {
+		return VectorKernels.sum(mElements, 0, mElements.capacity(), aSummation);
+	}
+
+	/**
+	 * Calculate the mean value of all elements in the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The mean of elements.
+	 */
+	public Double mean(Summation aSummation) {
+		return VectorKernels.sum(mElements, 0, mElements.capacity(), aSummation) / mElements.capacity();
+	}
+
+	/**
+	 * Calculate the square magnitude of the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The square magnitude.
+	 */
+	public Double magnitudeSquared(Summation aSummation) {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.capacity(), aSummation);
+	}
+
+	/**
+	 * Return the elements of another vector as a buffer.
+	 * Direct, heap and mutable vectors are read in place without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private DoubleBuffer elementsOf(Vector<Double> aVector) throws VectorSizeException {
+		final int s = mElements.capacity();
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		final DoubleBuffer tmp = VectorKernels.doubleBuffer(aVector);
+		return tmp != null ? tmp : DoubleBuffer.wrap(VectorKernels.doubles(aVector));
+	}
+
+}
@@ -0,0 +1,331 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * A FloatVector that stores its elements outside of the Java heap in a direct buffer.
+ * <p>
+ * The native memory is released when the vector becomes unreachable, so large collections of vectors only keep a small
+ * object on the heap each. Operations on two direct vectors, or on a direct vector and a FloatVector, never box elements.
+ * Reductions run through the same kernels as FloatVector and give identical results for the same elements, including
+ * with each {@link Summation} strategy.
+ * </p>
+ * @author Adam Smith
+ */
+public final class DirectFloatVector extends VectorCommon<Float> {
+	private final FloatBuffer mElements;
+	
+	public DirectFloatVector(float[] aValue) {
+		mElements = allocate(aValue.length);
+		mElements.duplicate().put(aValue);
+	}
+	
+	public DirectFloatVector(Float[] aValue) {
+		final int s = aValue.length;
+		mElements = allocate(s);
+		for(int i = 0; i < s; ++i) mElements.put(i, aValue[i]);
+	}
+	
+	/**
+	 * Create a vector that reads its elements from the remaining content of a buffer without copying it.
+	 * The buffer content must not be modified while the vector is in use.
+	 * @param aBuffer The buffer containing the elements.
+	 */
+	public DirectFloatVector(FloatBuffer aBuffer) {
+		mElements = aBuffer.slice();
+	}
+	
+	public DirectFloatVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		mElements = allocate(s);
+		if(aOther instanceof FloatVector) {
+			mElements.duplicate().put(((FloatVector) aOther).elements());
+		}else if(aOther instanceof DirectFloatVector) {
+			mElements.duplicate().put(((DirectFloatVector) aOther).mElements.duplicate());
+		}else {
+			for(int i = 0; i < s; ++i) mElements.put(i, aOther.get(i).floatValue());
+		}
+	}
+	
+	/**
+	 * Allocate a direct buffer in native byte order.
+	 * @param aSize The number of elements in the buffer.
+	 * @return The created buffer.
+	 */
+	static FloatBuffer allocate(int aSize) {
+		return ByteBuffer.allocateDirect(aSize * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+	}
+	
+	/**
+	 * Return a read-only view of the elements in this vector.
+	 * @return The element buffer.
+	 */
+	public FloatBuffer buffer() {
+		return mElements.asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Return the element buffer of this vector without copying it.
+	 * @return The element buffer.
+	 */
+	FloatBuffer elements() {
+		return mElements;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a heap FloatVector.
+	 * @return The heap vector.
+	 */
+	public FloatVector toHeap() {
+		final float[] tmp = new float[mElements.capacity()];
+		mElements.duplicate().get(tmp);
+		return new FloatVector(tmp);
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Float sqrt(Float aValue) {
+		return (float) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Float add(Float aA, Float aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Float sub(Float aA, Float aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Float mul(Float aA, Float aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Float div(Float aA, Float aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Float valueOf(int aValue) {
+		return Float.valueOf(aValue);
+	}
+
+	@Override
+	protected Float min(Float aA, Float aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Float max(Float aA, Float aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Float> createVector(Float[] aValues) {
+		return new DirectFloatVector(aValues);
+	}
+
+	@Override
+	protected Float[] createArray(int aSize) {
+		return new Float[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.capacity();
+	}
+
+	@Override
+	public Vector<Float> set(int aIndex, Float aValue) {
+		final int s = mElements.capacity();
+		final FloatBuffer tmp = allocate(s);
+		tmp.duplicate().put(mElements.duplicate());
+		tmp.put(aIndex, aValue);
+		return new DirectFloatVector(tmp);
+	}
+
+	@Override
+	public Float get(int aIndex) {
+		return mElements.get(aIndex);
+	}
+
+	@Override
+	public Vector<Float> add(Float aScalar) {
+		final float b = aScalar;
+		final int s = mElements.capacity();
+		final FloatBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) + b);
+		return new DirectFloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> subtract(Float aScalar) {
+		final float b = aScalar;
+		final int s = mElements.capacity();
+		final FloatBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) - b);
+		return new DirectFloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> multiply(Float aScalar) {
+		final float b = aScalar;
+		final int s = mElements.capacity();
+		final FloatBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) * b);
+		return new DirectFloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> divide(Float aScalar) {
+		final float b = aScalar;
+		final int s = mElements.capacity();
+		final FloatBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) / b);
+		return new DirectFloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> add(Vector<Float> aVector) throws VectorSizeException {
+		final FloatBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final FloatBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) + b.get(i));
+		return new DirectFloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> subtract(Vector<Float> aVector) throws VectorSizeException {
+		final FloatBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final FloatBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) - b.get(i));
+		return new DirectFloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> multiply(Vector<Float> aVector) throws VectorSizeException {
+		final FloatBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final FloatBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) * b.get(i));
+		return new DirectFloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> divide(Vector<Float> aVector) throws VectorSizeException {
+		final FloatBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final FloatBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) / b.get(i));
+		return new DirectFloatVector(tmp);
+	}
+
+	@Override
+	public Float dotProduct(Vector<Float> aVector) throws VectorSizeException {
+		final FloatBuffer b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.capacity());
+	}
+
+	@Override
+	public Float min() {
+		final int s = mElements.capacity();
+		float tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = Math.min(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Float max() {
+		final int s = mElements.capacity();
+		float tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = Math.max(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Float sum() {
+		return VectorKernels.sum(mElements, 0, mElements.capacity());
+	}
+
+	@Override
+	public Float magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.capacity());
+	}
+
+	/**
+	 * Calculate the dot product of two vectors with a given accumulation strategy.
+	 * @param aVector The other vector.
+	 * @param aSummation The accumulation strategy.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public Float dotProduct(Vector<Float> aVector, Summation aSummation) throws VectorSizeException {
+		final FloatBuffer b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.capacity(), aSummation);
+	}
+
+	/**
+	 * Calculate the sum of all elements in the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The sum of elements.
+	 */
+	public Float sum(Summation aSummation) {
+		return VectorKernels.sum(mElements, 0, mElements.capacity(), aSummation);
+	}
+
+	/**
+	 * Calculate the mean value of all elements in the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The mean of elements.
+	 */
+	public Float mean(Summation aSummation) {
+		return VectorKernels.sum(mElements, 0, mElements.capacity(), aSummation) / mElements.capacity();
+	}
+
+	/**
+	 * Calculate the square magnitude of the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The square magnitude.
+	 */
+	public Float magnitudeSquared(Summation aSummation) {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.capacity(), aSummation);
+	}
+
+	/**
+	 * Return the elements of another vector as a buffer.
+	 * Direct, heap and mutable vectors are read in place without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private FloatBuffer elementsOf(Vector<Float> aVector) throws VectorSizeException {
+		final int s = mElements.capacity();
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		final FloatBuffer tmp = VectorKernels.floatBuffer(aVector);
+		return tmp != null ? tmp : FloatBuffer.wrap(VectorKernels.floats(aVector));
+	}
+
+}
@@ -0,0 +1,302 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * An IntegerVector that stores its elements outside of the Java heap in a direct buffer.
+ * <p>
+ * The native memory is released when the vector becomes unreachable, so large collections of vectors only keep a small
+ * object on the heap each. Operations on two direct vectors, or on a direct vector and an IntegerVector, never box elements.
+ * </p>
+ * @author Adam Smith
+ */
+public final class DirectIntegerVector extends VectorCommon<Integer> {
+	private final IntBuffer mElements;
+	
+	public DirectIntegerVector(int[] aValue) {
+		mElements = allocate(aValue.length);
+		mElements.duplicate().put(aValue);
+	}
+	
+	public DirectIntegerVector(Integer[] aValue) {
+		final int s = aValue.length;
+		mElements = allocate(s);
+		for(int i = 0; i < s; ++i) mElements.put(i, aValue[i]);
+	}
+	
+	/**
+	 * Create a vector that reads its elements from the remaining content of a buffer without copying it.
+	 * The buffer content must not be modified while the vector is in use.
+	 * @param aBuffer The buffer containing the elements.
+	 */
+	public DirectIntegerVector(IntBuffer aBuffer) {
+		mElements = aBuffer.slice();
+	}
+	
+	public DirectIntegerVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		mElements = allocate(s);
+		if(aOther instanceof IntegerVector) {
+			mElements.duplicate().put(((IntegerVector) aOther).elements());
+		}else if(aOther instanceof DirectIntegerVector) {
+			mElements.duplicate().put(((DirectIntegerVector) aOther).mElements.duplicate());
+		}else {
+			for(int i = 0; i < s; ++i) mElements.put(i, aOther.get(i).intValue());
+		}
+	}
+	
+	/**
+	 * Allocate a direct buffer in native byte order.
+	 * @param aSize The number of elements in the buffer.
+	 * @return The created buffer.
+	 */
+	static IntBuffer allocate(int aSize) {
+		return ByteBuffer.allocateDirect(aSize * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+	}
+	
+	/**
+	 * Return a read-only view of the elements in this vector.
+	 * @return The element buffer.
+	 */
+	public IntBuffer buffer() {
+		return mElements.asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Return the element buffer of this vector without copying it.
+	 * @return The element buffer.
+	 */
+	IntBuffer elements() {
+		return mElements;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a heap IntegerVector.
+	 * @return The heap vector.
+	 */
+	public IntegerVector toHeap() {
+		final int[] tmp = new int[mElements.capacity()];
+		mElements.duplicate().get(tmp);
+		return new IntegerVector(tmp);
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Integer sqrt(Integer aValue) {
+		return (int) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Integer add(Integer aA, Integer aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Integer sub(Integer aA, Integer aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Integer mul(Integer aA, Integer aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Integer div(Integer aA, Integer aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Integer valueOf(int aValue) {
+		return Integer.valueOf(aValue);
+	}
+
+	@Override
+	protected Integer min(Integer aA, Integer aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Integer max(Integer aA, Integer aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Integer> createVector(Integer[] aValues) {
+		return new DirectIntegerVector(aValues);
+	}
+
+	@Override
+	protected Integer[] createArray(int aSize) {
+		return new Integer[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.capacity();
+	}
+
+	@Override
+	public Vector<Integer> set(int aIndex, Integer aValue) {
+		final int s = mElements.capacity();
+		final IntBuffer tmp = allocate(s);
+		tmp.duplicate().put(mElements.duplicate());
+		tmp.put(aIndex, aValue);
+		return new DirectIntegerVector(tmp);
+	}
+
+	@Override
+	public Integer get(int aIndex) {
+		return mElements.get(aIndex);
+	}
+
+	@Override
+	public Vector<Integer> add(Integer aScalar) {
+		final int b = aScalar;
+		final int s = mElements.capacity();
+		final IntBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) + b);
+		return new DirectIntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> subtract(Integer aScalar) {
+		final int b = aScalar;
+		final int s = mElements.capacity();
+		final IntBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) - b);
+		return new DirectIntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> multiply(Integer aScalar) {
+		final int b = aScalar;
+		final int s = mElements.capacity();
+		final IntBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) * b);
+		return new DirectIntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> divide(Integer aScalar) {
+		final int b = aScalar;
+		final int s = mElements.capacity();
+		final IntBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) / b);
+		return new DirectIntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> add(Vector<Integer> aVector) throws VectorSizeException {
+		final IntBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final IntBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) + b.get(i));
+		return new DirectIntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> subtract(Vector<Integer> aVector) throws VectorSizeException {
+		final IntBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final IntBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) - b.get(i));
+		return new DirectIntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> multiply(Vector<Integer> aVector) throws VectorSizeException {
+		final IntBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final IntBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) * b.get(i));
+		return new DirectIntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> divide(Vector<Integer> aVector) throws VectorSizeException {
+		final IntBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final IntBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) / b.get(i));
+		return new DirectIntegerVector(tmp);
+	}
+
+	@Override
+	public Integer dotProduct(Vector<Integer> aVector) throws VectorSizeException {
+		final IntBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements.get(i) * b.get(i);
+		return tmp;
+	}
+
+	@Override
+	public Integer min() {
+		final int s = mElements.capacity();
+		int tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = Math.min(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Integer max() {
+		final int s = mElements.capacity();
+		int tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = Math.max(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Integer sum() {
+		final int s = mElements.capacity();
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements.get(i);
+		return tmp;
+	}
+
+	@Override
+	public Integer magnitudeSquared() {
+		final int s = mElements.capacity();
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) {
+			final int v = mElements.get(i);
+			tmp += v * v;
+		}
+		return tmp;
+	}
+
+	/**
+	 * Return the elements of another vector as a buffer.
+	 * Direct, heap and mutable vectors are read in place without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private IntBuffer elementsOf(Vector<Integer> aVector) throws VectorSizeException {
+		final int s = mElements.capacity();
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		final IntBuffer tmp = VectorKernels.intBuffer(aVector);
+		return tmp != null ? tmp : IntBuffer.wrap(VectorKernels.ints(aVector));
+	}
+
+}
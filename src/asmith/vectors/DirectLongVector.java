@@ -0,0 +1,302 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * A LongVector that stores its elements outside of the Java heap in a direct buffer.
+ * <p>
+ * The native memory is released when the vector becomes unreachable, so large collections of vectors only keep a small
+ * object on the heap each. Operations on two direct vectors, or on a direct vector and a LongVector, never box elements.
+ * </p>
+ * @author Adam Smith
+ */
+public final class DirectLongVector extends VectorCommon<Long> {
+	private final LongBuffer mElements;
+	
+	public DirectLongVector(long[] aValue) {
+		mElements = allocate(aValue.length);
+		mElements.duplicate().put(aValue);
+	}
+	
+	public DirectLongVector(Long[] aValue) {
+		final int s = aValue.length;
+		mElements = allocate(s);
+		for(int i = 0; i < s; ++i) mElements.put(i, aValue[i]);
+	}
+	
+	/**
+	 * Create a vector that reads its elements from the remaining content of a buffer without copying it.
+	 * The buffer content must not be modified while the vector is in use.
+	 * @param aBuffer The buffer containing the elements.
+	 */
+	public DirectLongVector(LongBuffer aBuffer) {
+		mElements = aBuffer.slice();
+	}
+	
+	public DirectLongVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		mElements = allocate(s);
+		if(aOther instanceof LongVector) {
+			mElements.duplicate().put(((LongVector) aOther).elements());
+		}else if(aOther instanceof DirectLongVector) {
+			mElements.duplicate().put(((DirectLongVector) aOther).mElements.duplicate());
+		}else {
+			for(int i = 0; i < s; ++i) mElements.put(i, aOther.get(i).longValue());
+		}
+	}
+	
+	/**
+	 * Allocate a direct buffer in native byte order.
+	 * @param aSize The number of elements in the buffer.
+	 * @return The created buffer.
+	 */
+	static LongBuffer allocate(int aSize) {
+		return ByteBuffer.allocateDirect(aSize * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+	}
+	
+	/**
+	 * Return a read-only view of the elements in this vector.
+	 * @return The element buffer.
+	 */
+	public LongBuffer buffer() {
+		return mElements.asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Return the element buffer of this vector without copying it.
+	 * @return The element buffer.
+	 */
+	LongBuffer elements() {
+		return mElements;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a heap LongVector.
+	 * @return The heap vector.
+	 */
+	public LongVector toHeap() {
+		final long[] tmp = new long[mElements.capacity()];
+		mElements.duplicate().get(tmp);
+		return new LongVector(tmp);
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Long sqrt(Long aValue) {
+		return (long) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Long add(Long aA, Long aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Long sub(Long aA, Long aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Long mul(Long aA, Long aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Long div(Long aA, Long aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Long valueOf(int aValue) {
+		return Long.valueOf(aValue);
+	}
+
+	@Override
+	protected Long min(Long aA, Long aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Long max(Long aA, Long aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Long> createVector(Long[] aValues) {
+		return new DirectLongVector(aValues);
+	}
+
+	@Override
+	protected Long[] createArray(int aSize) {
+		return new Long[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.capacity();
+	}
+
+	@Override
+	public Vector<Long> set(int aIndex, Long aValue) {
+		final int s = mElements.capacity();
+		final LongBuffer tmp = allocate(s);
+		tmp.duplicate().put(mElements.duplicate());
+		tmp.put(aIndex, aValue);
+		return new DirectLongVector(tmp);
+	}
+
+	@Override
+	public Long get(int aIndex) {
+		return mElements.get(aIndex);
+	}
+
+	@Override
+	public Vector<Long> add(Long aScalar) {
+		final long b = aScalar;
+		final int s = mElements.capacity();
+		final LongBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) + b);
+		return new DirectLongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> subtract(Long aScalar) {
+		final long b = aScalar;
+		final int s = mElements.capacity();
+		final LongBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) - b);
+		return new DirectLongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> multiply(Long aScalar) {
+		final long b = aScalar;
+		final int s = mElements.capacity();
+		final LongBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) * b);
+		return new DirectLongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> divide(Long aScalar) {
+		final long b = aScalar;
+		final int s = mElements.capacity();
+		final LongBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) / b);
+		return new DirectLongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> add(Vector<Long> aVector) throws VectorSizeException {
+		final LongBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final LongBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) + b.get(i));
+		return new DirectLongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> subtract(Vector<Long> aVector) throws VectorSizeException {
+		final LongBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final LongBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) - b.get(i));
+		return new DirectLongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> multiply(Vector<Long> aVector) throws VectorSizeException {
+		final LongBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final LongBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) * b.get(i));
+		return new DirectLongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> divide(Vector<Long> aVector) throws VectorSizeException {
+		final LongBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		final LongBuffer tmp = allocate(s);
+		for(int i = 0; i < s; ++i) tmp.put(i, mElements.get(i) / b.get(i));
+		return new DirectLongVector(tmp);
+	}
+
+	@Override
+	public Long dotProduct(Vector<Long> aVector) throws VectorSizeException {
+		final LongBuffer b = elementsOf(aVector);
+		final int s = mElements.capacity();
+		long tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements.get(i) * b.get(i);
+		return tmp;
+	}
+
+	@Override
+	public Long min() {
+		final int s = mElements.capacity();
+		long tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = Math.min(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Long max() {
+		final int s = mElements.capacity();
+		long tmp = mElements.get(0);
+		for(int i = 1; i < s; ++i) tmp = Math.max(tmp, mElements.get(i));
+		return tmp;
+	}
+
+	@Override
+	public Long sum() {
+		final int s = mElements.capacity();
+		long tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements.get(i);
+		return tmp;
+	}
+
+	@Override
+	public Long magnitudeSquared() {
+		final int s = mElements.capacity();
+		long tmp = 0;
+		for(int i = 0; i < s; ++i) {
+			final long v = mElements.get(i);
+			tmp += v * v;
+		}
+		return tmp;
+	}
+
+	/**
+	 * Return the elements of another vector as a buffer.
+	 * Direct, heap and mutable vectors are read in place without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private LongBuffer elementsOf(Vector<Long> aVector) throws VectorSizeException {
+		final int s = mElements.capacity();
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		final LongBuffer tmp = VectorKernels.longBuffer(aVector);
+		return tmp != null ? tmp : LongBuffer.wrap(VectorKernels.longs(aVector));
+	}
+
+}
@@ -0,0 +1,1120 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+
+package asmith.vectors;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Distance functions between vectors of the same primitive type, calculated directly from their elements.
+ * <p>
+ * No intermediate vector is created. Heap and mutable vectors are read from their arrays without copying, and direct
+ * vectors are read from their buffers a block at a time through a per thread scratch array, so comparing any of them
+ * does not allocate. Other vectors are copied to an array first.
+ * </p>
+ * <p>
+ * The Euclidean, Manhattan and Chebyshev distances also have a variant that takes a threshold. The partial distance
+ * only grows as more elements are compared, so as soon as it exceeds the threshold the comparison stops and the
+ * partial distance is returned. A caller searching for neighbours closer than the worst one found so far can use the
+ * worst distance as the threshold and discard any result greater than it. The cosine distance has no such variant,
+ * because it is not known until every element has been compared.
+ * </p>
+ * @author Adam Smith
+ */
+public final class Distances {
+	/**
+	 * The number of elements compared between checks of the threshold. The distances without a threshold are summed
+	 * over blocks of the same size, so a variant with a threshold that is not exceeded returns exactly the same value.
+	 */
+	private static final int BLOCK_SIZE = 32;
+
+	/**
+	 * The smallest squared norm that the double cosine distance uses directly. Below it the squares of the elements
+	 * may have lost precision to underflow, so the vectors are scaled first.
+	 */
+	private static final double SMALLEST_SQUARED_NORM = 0x1p-600;
+
+	private static final int EUCLIDEAN = 0;
+	private static final int MANHATTAN = 1;
+	private static final int CHEBYSHEV = 2;
+
+	private Distances() {
+
+	}
+
+	private static void checkSize(int aA, int aB) throws VectorSizeException {
+		if(aA != aB) throw new VectorSizeException(aA, aB);
+	}
+
+	// Double
+
+	/**
+	 * Calculate the Euclidean distance between two vectors.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanDouble(Vector<Double> aA, Vector<Double> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateDouble(EUCLIDEAN, aA, aB, Double.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Calculate the Euclidean distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanDouble(Vector<Double> aA, Vector<Double> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateDouble(EUCLIDEAN, aA, aB, aThreshold * aThreshold));
+	}
+
+	/**
+	 * Calculate the cosine distance between two vectors, which is one minus the cosine of the angle between them.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance, from 0 for vectors in the same direction to 2 for vectors in opposite directions, or 1 if either vector is zero.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double cosineDouble(Vector<Double> aA, Vector<Double> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final DoubleBuffer bufferA = VectorKernels.doubleBuffer(aA);
+		final DoubleBuffer bufferB = VectorKernels.doubleBuffer(aB);
+		final double[] a = bufferA == null ? VectorKernels.doubles(aA) : null;
+		final double[] b = bufferB == null ? VectorKernels.doubles(aB) : null;
+		final int s = aA.size();
+		double dot = 0;
+		double normA = 0;
+		double normB = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final double[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final double[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			dot += VectorKernels.dot(x, offsetA, y, offsetB, n);
+			normA += VectorKernels.dot(x, offsetA, x, offsetA, n);
+			normB += VectorKernels.dot(y, offsetB, y, offsetB, n);
+		}
+		if(normA >= SMALLEST_SQUARED_NORM && normB >= SMALLEST_SQUARED_NORM && normA <= Double.MAX_VALUE && normB <= Double.MAX_VALUE) {
+			return 1 - dot / (Math.sqrt(normA) * Math.sqrt(normB));
+		}
+		return cosineScaled(a, bufferA, b, bufferB, s);
+	}
+
+	/**
+	 * Calculate the cosine distance after scaling each vector so that its largest element is close to one, for vectors
+	 * whose squared norms overflow or underflow. The cosine does not depend on the length of either vector, and scaling
+	 * by a power of two is exact.
+	 */
+	private static double cosineScaled(double[] aArrayA, DoubleBuffer aBufferA, double[] aArrayB, DoubleBuffer aBufferB, int aLength) {
+		double maxA = 0;
+		double maxB = 0;
+		for(int i = 0; i < aLength; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, aLength - i);
+			final double[] x = VectorKernels.block(aArrayA, aBufferA, i, n, 0);
+			final double[] y = VectorKernels.block(aArrayB, aBufferB, i, n, 1);
+			final int offsetA = aArrayA != null ? i : 0;
+			final int offsetB = aArrayB != null ? i : 0;
+			for(int j = 0; j < n; ++j) {
+				maxA = Math.max(maxA, Math.abs(x[offsetA + j]));
+				maxB = Math.max(maxB, Math.abs(y[offsetB + j]));
+			}
+		}
+		if(maxA == 0 || maxB == 0) return 1;
+		final int scaleA = -Math.getExponent(maxA);
+		final int scaleB = -Math.getExponent(maxB);
+		double dot = 0;
+		double normA = 0;
+		double normB = 0;
+		for(int i = 0; i < aLength; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, aLength - i);
+			final double[] x = VectorKernels.block(aArrayA, aBufferA, i, n, 0);
+			final double[] y = VectorKernels.block(aArrayB, aBufferB, i, n, 1);
+			final int offsetA = aArrayA != null ? i : 0;
+			final int offsetB = aArrayB != null ? i : 0;
+			for(int j = 0; j < n; ++j) {
+				final double u = Math.scalb(x[offsetA + j], scaleA);
+				final double v = Math.scalb(y[offsetB + j], scaleB);
+				dot += u * v;
+				normA += u * u;
+				normB += v * v;
+			}
+		}
+		return 1 - dot / (Math.sqrt(normA) * Math.sqrt(normB));
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, which is the sum of the absolute differences between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanDouble(Vector<Double> aA, Vector<Double> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateDouble(MANHATTAN, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanDouble(Vector<Double> aA, Vector<Double> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateDouble(MANHATTAN, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, which is the largest absolute difference between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevDouble(Vector<Double> aA, Vector<Double> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateDouble(CHEBYSHEV, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, stopping at the first difference greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevDouble(Vector<Double> aA, Vector<Double> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateDouble(CHEBYSHEV, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Accumulate a distance over blocks of elements, returning as soon as it is greater than a limit.
+	 */
+	private static double accumulateDouble(int aMetric, Vector<Double> aA, Vector<Double> aB, double aLimit) {
+		final DoubleBuffer bufferA = VectorKernels.doubleBuffer(aA);
+		final DoubleBuffer bufferB = VectorKernels.doubleBuffer(aB);
+		final double[] a = bufferA == null ? VectorKernels.doubles(aA) : null;
+		final double[] b = bufferB == null ? VectorKernels.doubles(aB) : null;
+		final int s = aA.size();
+		double tmp = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final double[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final double[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			for(int j = 0; j < n; j += BLOCK_SIZE) {
+				final int m = Math.min(BLOCK_SIZE, n - j);
+				switch(aMetric) {
+				case EUCLIDEAN:
+					tmp += VectorKernels.distanceSquared(x, offsetA + j, y, offsetB + j, m);
+					break;
+				case MANHATTAN:
+					tmp = manhattan(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				default:
+					tmp = chebyshev(x, offsetA + j, y, offsetB + j, m, tmp, aLimit);
+				}
+				if(tmp > aLimit) return tmp;
+			}
+		}
+		return tmp;
+	}
+
+	private static double manhattan(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength, double aTotal) {
+		double tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) tmp += Math.abs(aA[aOffsetA + i] - aB[aOffsetB + i]);
+		return tmp;
+	}
+
+	private static double chebyshev(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength, double aMax, double aLimit) {
+		double tmp = aMax;
+		for(int i = 0; i < aLength; ++i) {
+			tmp = Math.max(tmp, Math.abs(aA[aOffsetA + i] - aB[aOffsetB + i]));
+			if(tmp > aLimit) break;
+		}
+		return tmp;
+	}
+
+	// Float
+
+	/**
+	 * Calculate the Euclidean distance between two vectors.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static float euclideanFloat(Vector<Float> aA, Vector<Float> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return (float) Math.sqrt(accumulateFloat(EUCLIDEAN, aA, aB, Float.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Calculate the Euclidean distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static float euclideanFloat(Vector<Float> aA, Vector<Float> aB, float aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return (float) Math.sqrt(accumulateFloat(EUCLIDEAN, aA, aB, aThreshold * aThreshold));
+	}
+
+	/**
+	 * Calculate the cosine distance between two vectors, which is one minus the cosine of the angle between them.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance, from 0 for vectors in the same direction to 2 for vectors in opposite directions, or 1 if either vector is zero.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static float cosineFloat(Vector<Float> aA, Vector<Float> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final FloatBuffer bufferA = VectorKernels.floatBuffer(aA);
+		final FloatBuffer bufferB = VectorKernels.floatBuffer(aB);
+		final float[] a = bufferA == null ? VectorKernels.floats(aA) : null;
+		final float[] b = bufferB == null ? VectorKernels.floats(aB) : null;
+		final int s = aA.size();
+		// Squares of floats can neither overflow nor underflow a double, so accumulating in double needs no scaling
+		double dot0 = 0, dot1 = 0, normA0 = 0, normA1 = 0, normB0 = 0, normB1 = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final float[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final float[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			final int end = n & ~1;
+			int j = 0;
+			for(; j < end; j += 2) {
+				final double x0 = x[offsetA + j];
+				final double y0 = y[offsetB + j];
+				final double x1 = x[offsetA + j + 1];
+				final double y1 = y[offsetB + j + 1];
+				dot0 += x0 * y0;
+				normA0 += x0 * x0;
+				normB0 += y0 * y0;
+				dot1 += x1 * y1;
+				normA1 += x1 * x1;
+				normB1 += y1 * y1;
+			}
+			if(j < n) {
+				final double u = x[offsetA + j];
+				final double v = y[offsetB + j];
+				dot0 += u * v;
+				normA0 += u * u;
+				normB0 += v * v;
+			}
+		}
+		final double norms = Math.sqrt(normA0 + normA1) * Math.sqrt(normB0 + normB1);
+		if(norms == 0) return 1;
+		return (float) (1 - (dot0 + dot1) / norms);
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, which is the sum of the absolute differences between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static float manhattanFloat(Vector<Float> aA, Vector<Float> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateFloat(MANHATTAN, aA, aB, Float.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static float manhattanFloat(Vector<Float> aA, Vector<Float> aB, float aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateFloat(MANHATTAN, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, which is the largest absolute difference between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static float chebyshevFloat(Vector<Float> aA, Vector<Float> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateFloat(CHEBYSHEV, aA, aB, Float.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, stopping at the first difference greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static float chebyshevFloat(Vector<Float> aA, Vector<Float> aB, float aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateFloat(CHEBYSHEV, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Accumulate a distance over blocks of elements, returning as soon as it is greater than a limit.
+	 */
+	private static float accumulateFloat(int aMetric, Vector<Float> aA, Vector<Float> aB, float aLimit) {
+		final FloatBuffer bufferA = VectorKernels.floatBuffer(aA);
+		final FloatBuffer bufferB = VectorKernels.floatBuffer(aB);
+		final float[] a = bufferA == null ? VectorKernels.floats(aA) : null;
+		final float[] b = bufferB == null ? VectorKernels.floats(aB) : null;
+		final int s = aA.size();
+		float tmp = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final float[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final float[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			for(int j = 0; j < n; j += BLOCK_SIZE) {
+				final int m = Math.min(BLOCK_SIZE, n - j);
+				switch(aMetric) {
+				case EUCLIDEAN:
+					tmp += VectorKernels.distanceSquared(x, offsetA + j, y, offsetB + j, m);
+					break;
+				case MANHATTAN:
+					tmp = manhattan(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				default:
+					tmp = chebyshev(x, offsetA + j, y, offsetB + j, m, tmp, aLimit);
+				}
+				if(tmp > aLimit) return tmp;
+			}
+		}
+		return tmp;
+	}
+
+	private static float manhattan(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength, float aTotal) {
+		float tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) tmp += Math.abs(aA[aOffsetA + i] - aB[aOffsetB + i]);
+		return tmp;
+	}
+
+	private static float chebyshev(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength, float aMax, float aLimit) {
+		float tmp = aMax;
+		for(int i = 0; i < aLength; ++i) {
+			tmp = Math.max(tmp, Math.abs(aA[aOffsetA + i] - aB[aOffsetB + i]));
+			if(tmp > aLimit) break;
+		}
+		return tmp;
+	}
+
+	// Integer
+
+	/**
+	 * Calculate the Euclidean distance between two vectors.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanInteger(Vector<Integer> aA, Vector<Integer> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateInteger(EUCLIDEAN, aA, aB, Double.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Calculate the Euclidean distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanInteger(Vector<Integer> aA, Vector<Integer> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateInteger(EUCLIDEAN, aA, aB, aThreshold * aThreshold));
+	}
+
+	/**
+	 * Calculate the cosine distance between two vectors, which is one minus the cosine of the angle between them.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance, from 0 for vectors in the same direction to 2 for vectors in opposite directions, or 1 if either vector is zero.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double cosineInteger(Vector<Integer> aA, Vector<Integer> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final IntBuffer bufferA = VectorKernels.intBuffer(aA);
+		final IntBuffer bufferB = VectorKernels.intBuffer(aB);
+		final int[] a = bufferA == null ? VectorKernels.ints(aA) : null;
+		final int[] b = bufferB == null ? VectorKernels.ints(aB) : null;
+		final int s = aA.size();
+		double dot = 0;
+		double normA = 0;
+		double normB = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final int[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final int[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			for(int j = 0; j < n; ++j) {
+				final double u = x[offsetA + j];
+				final double v = y[offsetB + j];
+				dot += u * v;
+				normA += u * u;
+				normB += v * v;
+			}
+		}
+		final double norms = Math.sqrt(normA) * Math.sqrt(normB);
+		if(norms == 0) return 1;
+		return 1 - dot / norms;
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, which is the sum of the absolute differences between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanInteger(Vector<Integer> aA, Vector<Integer> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateInteger(MANHATTAN, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanInteger(Vector<Integer> aA, Vector<Integer> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateInteger(MANHATTAN, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, which is the largest absolute difference between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevInteger(Vector<Integer> aA, Vector<Integer> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateInteger(CHEBYSHEV, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, stopping at the first difference greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevInteger(Vector<Integer> aA, Vector<Integer> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateInteger(CHEBYSHEV, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Accumulate a distance over blocks of elements, returning as soon as it is greater than a limit.
+	 */
+	private static double accumulateInteger(int aMetric, Vector<Integer> aA, Vector<Integer> aB, double aLimit) {
+		final IntBuffer bufferA = VectorKernels.intBuffer(aA);
+		final IntBuffer bufferB = VectorKernels.intBuffer(aB);
+		final int[] a = bufferA == null ? VectorKernels.ints(aA) : null;
+		final int[] b = bufferB == null ? VectorKernels.ints(aB) : null;
+		final int s = aA.size();
+		double tmp = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final int[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final int[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			for(int j = 0; j < n; j += BLOCK_SIZE) {
+				final int m = Math.min(BLOCK_SIZE, n - j);
+				switch(aMetric) {
+				case EUCLIDEAN:
+					tmp = euclideanSquared(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				case MANHATTAN:
+					tmp = manhattan(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				default:
+					tmp = chebyshev(x, offsetA + j, y, offsetB + j, m, tmp, aLimit);
+				}
+				if(tmp > aLimit) return tmp;
+			}
+		}
+		return tmp;
+	}
+
+	private static double euclideanSquared(int[] aA, int aOffsetA, int[] aB, int aOffsetB, int aLength, double aTotal) {
+		double tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) {
+			final double d = (double) aA[aOffsetA + i] - aB[aOffsetB + i];
+			tmp += d * d;
+		}
+		return tmp;
+	}
+
+	private static double manhattan(int[] aA, int aOffsetA, int[] aB, int aOffsetB, int aLength, double aTotal) {
+		double tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) tmp += Math.abs((double) aA[aOffsetA + i] - aB[aOffsetB + i]);
+		return tmp;
+	}
+
+	private static double chebyshev(int[] aA, int aOffsetA, int[] aB, int aOffsetB, int aLength, double aMax, double aLimit) {
+		double tmp = aMax;
+		for(int i = 0; i < aLength; ++i) {
+			tmp = Math.max(tmp, Math.abs((double) aA[aOffsetA + i] - aB[aOffsetB + i]));
+			if(tmp > aLimit) break;
+		}
+		return tmp;
+	}
+
+	// Long
+
+	/**
+	 * Calculate the Euclidean distance between two vectors.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanLong(Vector<Long> aA, Vector<Long> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateLong(EUCLIDEAN, aA, aB, Double.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Calculate the Euclidean distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanLong(Vector<Long> aA, Vector<Long> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateLong(EUCLIDEAN, aA, aB, aThreshold * aThreshold));
+	}
+
+	/**
+	 * Calculate the cosine distance between two vectors, which is one minus the cosine of the angle between them.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance, from 0 for vectors in the same direction to 2 for vectors in opposite directions, or 1 if either vector is zero.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double cosineLong(Vector<Long> aA, Vector<Long> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final LongBuffer bufferA = VectorKernels.longBuffer(aA);
+		final LongBuffer bufferB = VectorKernels.longBuffer(aB);
+		final long[] a = bufferA == null ? VectorKernels.longs(aA) : null;
+		final long[] b = bufferB == null ? VectorKernels.longs(aB) : null;
+		final int s = aA.size();
+		double dot = 0;
+		double normA = 0;
+		double normB = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final long[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final long[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			for(int j = 0; j < n; ++j) {
+				final double u = x[offsetA + j];
+				final double v = y[offsetB + j];
+				dot += u * v;
+				normA += u * u;
+				normB += v * v;
+			}
+		}
+		final double norms = Math.sqrt(normA) * Math.sqrt(normB);
+		if(norms == 0) return 1;
+		return 1 - dot / norms;
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, which is the sum of the absolute differences between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanLong(Vector<Long> aA, Vector<Long> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateLong(MANHATTAN, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanLong(Vector<Long> aA, Vector<Long> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateLong(MANHATTAN, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, which is the largest absolute difference between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevLong(Vector<Long> aA, Vector<Long> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateLong(CHEBYSHEV, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, stopping at the first difference greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevLong(Vector<Long> aA, Vector<Long> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateLong(CHEBYSHEV, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Accumulate a distance over blocks of elements, returning as soon as it is greater than a limit.
+	 */
+	private static double accumulateLong(int aMetric, Vector<Long> aA, Vector<Long> aB, double aLimit) {
+		final LongBuffer bufferA = VectorKernels.longBuffer(aA);
+		final LongBuffer bufferB = VectorKernels.longBuffer(aB);
+		final long[] a = bufferA == null ? VectorKernels.longs(aA) : null;
+		final long[] b = bufferB == null ? VectorKernels.longs(aB) : null;
+		final int s = aA.size();
+		double tmp = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final long[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final long[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			for(int j = 0; j < n; j += BLOCK_SIZE) {
+				final int m = Math.min(BLOCK_SIZE, n - j);
+				switch(aMetric) {
+				case EUCLIDEAN:
+					tmp = euclideanSquared(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				case MANHATTAN:
+					tmp = manhattan(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				default:
+					tmp = chebyshev(x, offsetA + j, y, offsetB + j, m, tmp, aLimit);
+				}
+				if(tmp > aLimit) return tmp;
+			}
+		}
+		return tmp;
+	}
+
+	private static double euclideanSquared(long[] aA, int aOffsetA, long[] aB, int aOffsetB, int aLength, double aTotal) {
+		double tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) {
+			final double d = (double) aA[aOffsetA + i] - aB[aOffsetB + i];
+			tmp += d * d;
+		}
+		return tmp;
+	}
+
+	private static double manhattan(long[] aA, int aOffsetA, long[] aB, int aOffsetB, int aLength, double aTotal) {
+		double tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) tmp += Math.abs((double) aA[aOffsetA + i] - aB[aOffsetB + i]);
+		return tmp;
+	}
+
+	private static double chebyshev(long[] aA, int aOffsetA, long[] aB, int aOffsetB, int aLength, double aMax, double aLimit) {
+		double tmp = aMax;
+		for(int i = 0; i < aLength; ++i) {
+			tmp = Math.max(tmp, Math.abs((double) aA[aOffsetA + i] - aB[aOffsetB + i]));
+			if(tmp > aLimit) break;
+		}
+		return tmp;
+	}
+
+	// Short
+
+	/**
+	 * Calculate the Euclidean distance between two vectors.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanShort(Vector<Short> aA, Vector<Short> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateShort(EUCLIDEAN, aA, aB, Double.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Calculate the Euclidean distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanShort(Vector<Short> aA, Vector<Short> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateShort(EUCLIDEAN, aA, aB, aThreshold * aThreshold));
+	}
+
+	/**
+	 * Calculate the cosine distance between two vectors, which is one minus the cosine of the angle between them.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance, from 0 for vectors in the same direction to 2 for vectors in opposite directions, or 1 if either vector is zero.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double cosineShort(Vector<Short> aA, Vector<Short> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final short[] a = VectorKernels.shorts(aA);
+		final short[] b = VectorKernels.shorts(aB);
+		final int s = aA.size();
+		double dot = 0;
+		double normA = 0;
+		double normB = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final short[] x = a;
+			final short[] y = b;
+			final int offsetA = i;
+			final int offsetB = i;
+			for(int j = 0; j < n; ++j) {
+				final double u = x[offsetA + j];
+				final double v = y[offsetB + j];
+				dot += u * v;
+				normA += u * u;
+				normB += v * v;
+			}
+		}
+		final double norms = Math.sqrt(normA) * Math.sqrt(normB);
+		if(norms == 0) return 1;
+		return 1 - dot / norms;
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, which is the sum of the absolute differences between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanShort(Vector<Short> aA, Vector<Short> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateShort(MANHATTAN, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanShort(Vector<Short> aA, Vector<Short> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateShort(MANHATTAN, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, which is the largest absolute difference between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevShort(Vector<Short> aA, Vector<Short> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateShort(CHEBYSHEV, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, stopping at the first difference greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevShort(Vector<Short> aA, Vector<Short> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateShort(CHEBYSHEV, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Accumulate a distance over blocks of elements, returning as soon as it is greater than a limit.
+	 */
+	private static double accumulateShort(int aMetric, Vector<Short> aA, Vector<Short> aB, double aLimit) {
+		final short[] a = VectorKernels.shorts(aA);
+		final short[] b = VectorKernels.shorts(aB);
+		final int s = aA.size();
+		double tmp = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final short[] x = a;
+			final short[] y = b;
+			final int offsetA = i;
+			final int offsetB = i;
+			for(int j = 0; j < n; j += BLOCK_SIZE) {
+				final int m = Math.min(BLOCK_SIZE, n - j);
+				switch(aMetric) {
+				case EUCLIDEAN:
+					tmp = euclideanSquared(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				case MANHATTAN:
+					tmp = manhattan(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				default:
+					tmp = chebyshev(x, offsetA + j, y, offsetB + j, m, tmp, aLimit);
+				}
+				if(tmp > aLimit) return tmp;
+			}
+		}
+		return tmp;
+	}
+
+	private static double euclideanSquared(short[] aA, int aOffsetA, short[] aB, int aOffsetB, int aLength, double aTotal) {
+		double tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) {
+			final double d = (double) (aA[aOffsetA + i] - aB[aOffsetB + i]);
+			tmp += d * d;
+		}
+		return tmp;
+	}
+
+	private static double manhattan(short[] aA, int aOffsetA, short[] aB, int aOffsetB, int aLength, double aTotal) {
+		double tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) tmp += Math.abs((double) (aA[aOffsetA + i] - aB[aOffsetB + i]));
+		return tmp;
+	}
+
+	private static double chebyshev(short[] aA, int aOffsetA, short[] aB, int aOffsetB, int aLength, double aMax, double aLimit) {
+		double tmp = aMax;
+		for(int i = 0; i < aLength; ++i) {
+			tmp = Math.max(tmp, Math.abs((double) (aA[aOffsetA + i] - aB[aOffsetB + i])));
+			if(tmp > aLimit) break;
+		}
+		return tmp;
+	}
+
+	// Byte
+
+	/**
+	 * Calculate the Euclidean distance between two vectors.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanByte(Vector<Byte> aA, Vector<Byte> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateByte(EUCLIDEAN, aA, aB, Double.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Calculate the Euclidean distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double euclideanByte(Vector<Byte> aA, Vector<Byte> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return Math.sqrt(accumulateByte(EUCLIDEAN, aA, aB, aThreshold * aThreshold));
+	}
+
+	/**
+	 * Calculate the cosine distance between two vectors, which is one minus the cosine of the angle between them.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance, from 0 for vectors in the same direction to 2 for vectors in opposite directions, or 1 if either vector is zero.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double cosineByte(Vector<Byte> aA, Vector<Byte> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final ByteBuffer bufferA = VectorKernels.byteBuffer(aA);
+		final ByteBuffer bufferB = VectorKernels.byteBuffer(aB);
+		final byte[] a = bufferA == null ? VectorKernels.bytes(aA) : null;
+		final byte[] b = bufferB == null ? VectorKernels.bytes(aB) : null;
+		final int s = aA.size();
+		double dot = 0;
+		double normA = 0;
+		double normB = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final byte[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final byte[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			for(int j = 0; j < n; ++j) {
+				final double u = x[offsetA + j];
+				final double v = y[offsetB + j];
+				dot += u * v;
+				normA += u * u;
+				normB += v * v;
+			}
+		}
+		final double norms = Math.sqrt(normA) * Math.sqrt(normB);
+		if(norms == 0) return 1;
+		return 1 - dot / norms;
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, which is the sum of the absolute differences between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanByte(Vector<Byte> aA, Vector<Byte> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateByte(MANHATTAN, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Manhattan distance between two vectors, stopping early if it is greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double manhattanByte(Vector<Byte> aA, Vector<Byte> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateByte(MANHATTAN, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, which is the largest absolute difference between elements.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @return The distance.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevByte(Vector<Byte> aA, Vector<Byte> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateByte(CHEBYSHEV, aA, aB, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Calculate the Chebyshev distance between two vectors, stopping at the first difference greater than a threshold.
+	 * @param aA The first vector.
+	 * @param aB The second vector.
+	 * @param aThreshold The largest distance of interest.
+	 * @return The distance if it is no greater than the threshold, otherwise a partial distance greater than the threshold.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public static double chebyshevByte(Vector<Byte> aA, Vector<Byte> aB, double aThreshold) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		return accumulateByte(CHEBYSHEV, aA, aB, aThreshold);
+	}
+
+	/**
+	 * Accumulate a distance over blocks of elements, returning as soon as it is greater than a limit.
+	 */
+	private static double accumulateByte(int aMetric, Vector<Byte> aA, Vector<Byte> aB, double aLimit) {
+		final ByteBuffer bufferA = VectorKernels.byteBuffer(aA);
+		final ByteBuffer bufferB = VectorKernels.byteBuffer(aB);
+		final byte[] a = bufferA == null ? VectorKernels.bytes(aA) : null;
+		final byte[] b = bufferB == null ? VectorKernels.bytes(aB) : null;
+		final int s = aA.size();
+		double tmp = 0;
+		for(int i = 0; i < s; i += VectorKernels.BUFFER_BLOCK) {
+			final int n = Math.min(VectorKernels.BUFFER_BLOCK, s - i);
+			final byte[] x = VectorKernels.block(a, bufferA, i, n, 0);
+			final byte[] y = VectorKernels.block(b, bufferB, i, n, 1);
+			final int offsetA = a != null ? i : 0;
+			final int offsetB = b != null ? i : 0;
+			for(int j = 0; j < n; j += BLOCK_SIZE) {
+				final int m = Math.min(BLOCK_SIZE, n - j);
+				switch(aMetric) {
+				case EUCLIDEAN:
+					tmp = euclideanSquared(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				case MANHATTAN:
+					tmp = manhattan(x, offsetA + j, y, offsetB + j, m, tmp);
+					break;
+				default:
+					tmp = chebyshev(x, offsetA + j, y, offsetB + j, m, tmp, aLimit);
+				}
+				if(tmp > aLimit) return tmp;
+			}
+		}
+		return tmp;
+	}
+
+	private static double euclideanSquared(byte[] aA, int aOffsetA, byte[] aB, int aOffsetB, int aLength, double aTotal) {
+		double tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) {
+			final double d = (double) (aA[aOffsetA + i] - aB[aOffsetB + i]);
+			tmp += d * d;
+		}
+		return tmp;
+	}
+
+	private static double manhattan(byte[] aA, int aOffsetA, byte[] aB, int aOffsetB, int aLength, double aTotal) {
+		double tmp = aTotal;
+		for(int i = 0; i < aLength; ++i) tmp += Math.abs((double) (aA[aOffsetA + i] - aB[aOffsetB + i]));
+		return tmp;
+	}
+
+	private static double chebyshev(byte[] aA, int aOffsetA, byte[] aB, int aOffsetB, int aLength, double aMax, double aLimit) {
+		double tmp = aMax;
+		for(int i = 0; i < aLength; ++i) {
+			tmp = Math.max(tmp, Math.abs((double) (aA[aOffsetA + i] - aB[aOffsetB + i])));
+			if(tmp > aLimit) break;
+		}
+		return tmp;
+	}
+}
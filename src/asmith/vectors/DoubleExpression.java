@@ -0,0 +1,463 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A double vector whose elements are calculated lazily from a chain of operations.
+ * <p>
+ * Arithmetic on an expression only records the operation. The elements are calculated when they are first needed,
+ * in blocks small enough to stay in cache, so a chain such as {@code a.add(b).multiply(s).subtract(c)} makes a single
+ * pass over its inputs instead of creating an intermediate vector for each step. Reductions such as {@link #sum()},
+ * {@link #dotProduct(Vector)} and {@link #magnitude()} consume the blocks directly without storing the elements at all.
+ * Element access through {@link #get(int)} or {@link #toArray()} calculates and keeps every element.
+ * </p>
+ * @author Adam Smith
+ */
+public abstract class DoubleExpression extends VectorCommon<Double> {
+	/**
+	 * The number of elements calculated at a time.
+	 */
+	static final int BLOCK_SIZE = 1024;
+
+	private static enum Operation {
+		ADD,
+		SUBTRACT,
+		MULTIPLY,
+		DIVIDE
+	}
+
+	private final int mSize;
+	private volatile double[] mValues;
+
+	private DoubleExpression(int aSize) {
+		mSize = aSize;
+	}
+
+	/**
+	 * Create an expression that reads its elements from a vector.
+	 * @param aVector The vector.
+	 * @return The expression.
+	 */
+	public static DoubleExpression of(Vector<Double> aVector) {
+		if(aVector instanceof DoubleExpression) return (DoubleExpression) aVector;
+		if(aVector instanceof DoubleVector) return new Source(((DoubleVector) aVector).elements());
+		// A mutable vector can change after the expression is created, so its elements are copied
+		if(aVector instanceof MutableDoubleVector) return new Source(((MutableDoubleVector) aVector).elements().clone());
+		return new Source(VectorKernels.doubles(aVector));
+	}
+
+	/**
+	 * Calculate a range of elements.
+	 * @param aOffset The index of the first element to calculate.
+	 * @param aLength The number of elements to calculate, no more than {@link #BLOCK_SIZE}.
+	 * @param aOut The array to write the elements to, starting at index 0.
+	 * @param aScratch Temporary blocks, one for each level of the expression below this one.
+	 * @param aLevel The first temporary block that this expression may use.
+	 */
+	abstract void evaluate(int aOffset, int aLength, double[] aOut, double[][] aScratch, int aLevel);
+
+	/**
+	 * Return the number of temporary blocks needed to evaluate this expression.
+	 * @return The number of temporary blocks.
+	 */
+	abstract int depth();
+
+	private double[][] scratch() {
+		return new double[depth()][BLOCK_SIZE];
+	}
+
+	/**
+	 * Calculate every element of this expression.
+	 * @return The calculated vector.
+	 */
+	public DoubleVector evaluate() {
+		return new DoubleVector(values());
+	}
+
+	private double[] values() {
+		double[] values = mValues;
+		if(values == null) {
+			values = new double[mSize];
+			final double[][] scratch = scratch();
+			final double[] block = new double[BLOCK_SIZE];
+			for(int i = 0; i < mSize; i += BLOCK_SIZE) {
+				final int length = Math.min(BLOCK_SIZE, mSize - i);
+				evaluate(i, length, block, scratch, 0);
+				System.arraycopy(block, 0, values, i, length);
+			}
+			mValues = values;
+		}
+		return values;
+	}
+
+	private DoubleExpression binary(Operation aOperation, Vector<Double> aVector) throws VectorSizeException {
+		if(mSize != aVector.size()) throw new VectorSizeException(mSize, aVector.size());
+		return new Binary(aOperation, this, of(aVector));
+	}
+
+	// Inherited from VectorCommon
+
+	@Override
+	protected Double sqrt(Double aValue) {
+		return Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Double add(Double aA, Double aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Double sub(Double aA, Double aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Double mul(Double aA, Double aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Double div(Double aA, Double aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Double valueOf(int aValue) {
+		return Double.valueOf(aValue);
+	}
+
+	@Override
+	protected Double min(Double aA, Double aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Double max(Double aA, Double aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Double> createVector(Double[] aValues) {
+		return new DoubleVector(aValues);
+	}
+
+	@Override
+	protected Double[] createArray(int aSize) {
+		return new Double[aSize];
+	}
+
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mSize;
+	}
+
+	@Override
+	public Vector<Double> set(int aIndex, Double aValue) {
+		return evaluate().set(aIndex, aValue);
+	}
+
+	@Override
+	public Double get(int aIndex) {
+		return values()[aIndex];
+	}
+
+	@Override
+	public DoubleExpression add(Double aScalar) {
+		return new Scalar(Operation.ADD, this, aScalar);
+	}
+
+	@Override
+	public DoubleExpression subtract(Double aScalar) {
+		return new Scalar(Operation.SUBTRACT, this, aScalar);
+	}
+
+	@Override
+	public DoubleExpression multiply(Double aScalar) {
+		return new Scalar(Operation.MULTIPLY, this, aScalar);
+	}
+
+	@Override
+	public DoubleExpression divide(Double aScalar) {
+		return new Scalar(Operation.DIVIDE, this, aScalar);
+	}
+
+	@Override
+	public DoubleExpression add(Vector<Double> aVector) throws VectorSizeException {
+		return binary(Operation.ADD, aVector);
+	}
+
+	@Override
+	public DoubleExpression subtract(Vector<Double> aVector) throws VectorSizeException {
+		return binary(Operation.SUBTRACT, aVector);
+	}
+
+	@Override
+	public DoubleExpression multiply(Vector<Double> aVector) throws VectorSizeException {
+		return binary(Operation.MULTIPLY, aVector);
+	}
+
+	@Override
+	public DoubleExpression divide(Vector<Double> aVector) throws VectorSizeException {
+		return binary(Operation.DIVIDE, aVector);
+	}
+
+	@Override
+	public Double dotProduct(Vector<Double> aVector) throws VectorSizeException {
+		if(mSize != aVector.size()) throw new VectorSizeException(mSize, aVector.size());
+		final DoubleExpression other = of(aVector);
+		final double[][] scratchA = scratch();
+		final double[][] scratchB = other.scratch();
+		final double[] a = new double[BLOCK_SIZE];
+		final double[] b = new double[BLOCK_SIZE];
+		double tmp = 0;
+		for(int i = 0; i < mSize; i += BLOCK_SIZE) {
+			final int length = Math.min(BLOCK_SIZE, mSize - i);
+			evaluate(i, length, a, scratchA, 0);
+			other.evaluate(i, length, b, scratchB, 0);
+			tmp += VectorKernels.dot(a, 0, b, 0, length);
+		}
+		return tmp;
+	}
+
+	@Override
+	public Vector<Double> crossProduct(Vector<Double> aVector) throws VectorSizeException {
+		return evaluate().crossProduct(aVector);
+	}
+
+	@Override
+	public Double min() {
+		if(mSize == 0) throw new ArrayIndexOutOfBoundsException(0);
+		final double[][] scratch = scratch();
+		final double[] block = new double[BLOCK_SIZE];
+		double tmp = 0;
+		for(int i = 0; i < mSize; i += BLOCK_SIZE) {
+			final int length = Math.min(BLOCK_SIZE, mSize - i);
+			evaluate(i, length, block, scratch, 0);
+			int j = 0;
+			if(i == 0) tmp = block[j++];
+			for(; j < length; ++j) tmp = Math.min(tmp, block[j]);
+		}
+		return tmp;
+	}
+
+	@Override
+	public Double max() {
+		if(mSize == 0) throw new ArrayIndexOutOfBoundsException(0);
+		final double[][] scratch = scratch();
+		final double[] block = new double[BLOCK_SIZE];
+		double tmp = 0;
+		for(int i = 0; i < mSize; i += BLOCK_SIZE) {
+			final int length = Math.min(BLOCK_SIZE, mSize - i);
+			evaluate(i, length, block, scratch, 0);
+			int j = 0;
+			if(i == 0) tmp = block[j++];
+			for(; j < length; ++j) tmp = Math.max(tmp, block[j]);
+		}
+		return tmp;
+	}
+
+	@Override
+	public Double sum() {
+		final double[][] scratch = scratch();
+		final double[] block = new double[BLOCK_SIZE];
+		double tmp = 0;
+		for(int i = 0; i < mSize; i += BLOCK_SIZE) {
+			final int length = Math.min(BLOCK_SIZE, mSize - i);
+			evaluate(i, length, block, scratch, 0);
+			tmp += VectorKernels.sum(block, 0, length);
+		}
+		return tmp;
+	}
+
+	@Override
+	public Double median() {
+		return evaluate().median();
+	}
+
+	@Override
+	public Double mode() {
+		return evaluate().mode();
+	}
+
+	@Override
+	public Double magnitudeSquared() {
+		final double[][] scratch = scratch();
+		final double[] block = new double[BLOCK_SIZE];
+		double tmp = 0;
+		for(int i = 0; i < mSize; i += BLOCK_SIZE) {
+			final int length = Math.min(BLOCK_SIZE, mSize - i);
+			evaluate(i, length, block, scratch, 0);
+			tmp += VectorKernels.dot(block, 0, block, 0, length);
+		}
+		return tmp;
+	}
+
+	@Override
+	public DoubleExpression normalise() {
+		return new Normalise(this);
+	}
+
+	@Override
+	public Vector<Double> swizzle(int[] aIndices) {
+		return evaluate().swizzle(aIndices);
+	}
+
+	@Override
+	public Vector<Double> swizzle(Vector<Integer> aIndices) {
+		return evaluate().swizzle(aIndices);
+	}
+
+	private static void apply(Operation aOperation, double[] aA, double aB, int aLength) {
+		switch(aOperation) {
+		case ADD:
+			for(int i = 0; i < aLength; ++i) aA[i] += aB;
+			break;
+		case SUBTRACT:
+			for(int i = 0; i < aLength; ++i) aA[i] -= aB;
+			break;
+		case MULTIPLY:
+			for(int i = 0; i < aLength; ++i) aA[i] *= aB;
+			break;
+		case DIVIDE:
+			for(int i = 0; i < aLength; ++i) aA[i] /= aB;
+			break;
+		}
+	}
+
+	private static void apply(Operation aOperation, double[] aA, double[] aB, int aLength) {
+		switch(aOperation) {
+		case ADD:
+			for(int i = 0; i < aLength; ++i) aA[i] += aB[i];
+			break;
+		case SUBTRACT:
+			for(int i = 0; i < aLength; ++i) aA[i] -= aB[i];
+			break;
+		case MULTIPLY:
+			for(int i = 0; i < aLength; ++i) aA[i] *= aB[i];
+			break;
+		case DIVIDE:
+			for(int i = 0; i < aLength; ++i) aA[i] /= aB[i];
+			break;
+		}
+	}
+
+	private static final class Source extends DoubleExpression {
+		private final double[] mElements;
+
+		Source(double[] aElements) {
+			super(aElements.length);
+			mElements = aElements;
+		}
+
+		@Override
+		void evaluate(int aOffset, int aLength, double[] aOut, double[][] aScratch, int aLevel) {
+			System.arraycopy(mElements, aOffset, aOut, 0, aLength);
+		}
+
+		@Override
+		int depth() {
+			return 0;
+		}
+
+		@Override
+		public DoubleVector evaluate() {
+			return new DoubleVector(mElements);
+		}
+
+		@Override
+		public Double get(int aIndex) {
+			return mElements[aIndex];
+		}
+	}
+
+	private static final class Scalar extends DoubleExpression {
+		private final Operation mOperation;
+		private final DoubleExpression mA;
+		private final double mB;
+
+		Scalar(Operation aOperation, DoubleExpression aA, double aB) {
+			super(aA.size());
+			mOperation = aOperation;
+			mA = aA;
+			mB = aB;
+		}
+
+		@Override
+		void evaluate(int aOffset, int aLength, double[] aOut, double[][] aScratch, int aLevel) {
+			mA.evaluate(aOffset, aLength, aOut, aScratch, aLevel);
+			apply(mOperation, aOut, mB, aLength);
+		}
+
+		@Override
+		int depth() {
+			return mA.depth();
+		}
+	}
+
+	private static final class Binary extends DoubleExpression {
+		private final Operation mOperation;
+		private final DoubleExpression mA;
+		private final DoubleExpression mB;
+
+		Binary(Operation aOperation, DoubleExpression aA, DoubleExpression aB) {
+			super(aA.size());
+			mOperation = aOperation;
+			mA = aA;
+			mB = aB;
+		}
+
+		@Override
+		void evaluate(int aOffset, int aLength, double[] aOut, double[][] aScratch, int aLevel) {
+			final double[] b = aScratch[aLevel];
+			mA.evaluate(aOffset, aLength, aOut, aScratch, aLevel + 1);
+			mB.evaluate(aOffset, aLength, b, aScratch, aLevel + 1);
+			apply(mOperation, aOut, b, aLength);
+		}
+
+		@Override
+		int depth() {
+			return 1 + Math.max(mA.depth(), mB.depth());
+		}
+	}
+
+	private static final class Normalise extends DoubleExpression {
+		private final DoubleExpression mA;
+		private volatile double mMagnitude = Double.NaN;
+
+		Normalise(DoubleExpression aA) {
+			super(aA.size());
+			mA = aA;
+		}
+
+		@Override
+		void evaluate(int aOffset, int aLength, double[] aOut, double[][] aScratch, int aLevel) {
+			double magnitude = mMagnitude;
+			if(Double.isNaN(magnitude)) {
+				magnitude = mA.magnitude();
+				mMagnitude = magnitude;
+			}
+			mA.evaluate(aOffset, aLength, aOut, aScratch, aLevel);
+			apply(Operation.DIVIDE, aOut, magnitude, aLength);
+		}
+
+		@Override
+		int depth() {
+			return mA.depth();
+		}
+	}
+}
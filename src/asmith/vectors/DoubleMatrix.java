@@ -0,0 +1,404 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A dense matrix of double elements stored in a single array in row major order.
+ * <p>
+ * Matrix vector products take a dot product of each row with the vector, so both operands are read sequentially and
+ * the vector stays in cache between rows. Matrix products are calculated in tiles that keep a block of the right hand
+ * matrix in cache while it is applied to every row of the left hand matrix, and the innermost loop adds a multiple of
+ * one contiguous row to another so the JIT can vectorise it. Operations large enough to be worth it are split by rows
+ * across the common fork join pool.
+ * Like {@link DoubleVectorBatch} a matrix is mutable, but its operations always return a new matrix or vector.
+ * </p>
+ * @author Adam Smith
+ */
+public final class DoubleMatrix {
+	/**
+	 * The number of multiply-adds below which an operation runs on the calling thread.
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 18;
+
+	private static final int TILE_INNER = 128;
+	private static final int TILE_COLUMNS = 256;
+	private static final int TILE_TRANSPOSE = 32;
+
+	private interface RowRange {
+		void apply(int aFrom, int aTo);
+	}
+
+	private static final class RowTask extends RecursiveAction {
+		private static final long serialVersionUID = -3398846026851234561L;
+
+		private final RowRange mRange;
+		private final long mWorkPerRow;
+		private final int mFrom;
+		private final int mTo;
+
+		RowTask(RowRange aRange, long aWorkPerRow, int aFrom, int aTo) {
+			mRange = aRange;
+			mWorkPerRow = aWorkPerRow;
+			mFrom = aFrom;
+			mTo = aTo;
+		}
+
+		@Override
+		protected void compute() {
+			if((mTo - mFrom) * mWorkPerRow <= PARALLEL_THRESHOLD || mTo - mFrom <= 1) {
+				mRange.apply(mFrom, mTo);
+				return;
+			}
+			final int middle = (mFrom + mTo) >>> 1;
+			invokeAll(new RowTask(mRange, mWorkPerRow, mFrom, middle), new RowTask(mRange, mWorkPerRow, middle, mTo));
+		}
+	}
+
+	private final double[] mElements;
+	private final int mRows;
+	private final int mColumns;
+
+	/**
+	 * Create a matrix of zeros.
+	 * @param aRows The number of rows.
+	 * @param aColumns The number of columns.
+	 */
+	public DoubleMatrix(int aRows, int aColumns) {
+		this(aRows, aColumns, new double[checkedSize(aRows, aColumns)]);
+	}
+
+	/**
+	 * Create a matrix that uses an existing array, without copying it.
+	 * @param aRows The number of rows.
+	 * @param aColumns The number of columns.
+	 * @param aElements The elements in row major order.
+	 */
+	public DoubleMatrix(int aRows, int aColumns, double[] aElements) {
+		if(aElements.length != checkedSize(aRows, aColumns)) throw new IllegalArgumentException("Expected " + aRows + " x " + aColumns + " elements, instead encountered " + aElements.length);
+		mElements = aElements;
+		mRows = aRows;
+		mColumns = aColumns;
+	}
+
+	/**
+	 * Create a matrix whose rows are copies of some vectors.
+	 * @param aColumns The number of columns, which every vector must match.
+	 * @param aRows The rows.
+	 * @throws VectorSizeException Thrown when a vector length does not match the number of columns.
+	 */
+	public DoubleMatrix(int aColumns, List<? extends Vector<Double>> aRows) throws VectorSizeException {
+		this(aRows.size(), aColumns);
+		for(int r = 0; r < mRows; ++r) setRow(r, aRows.get(r));
+	}
+
+	private static int checkedSize(int aRows, int aColumns) {
+		if(aRows < 0 || aColumns < 0) throw new IllegalArgumentException("Matrix dimensions cannot be negative, instead encountered " + aRows + " x " + aColumns);
+		final long size = (long) aRows * aColumns;
+		if(size > Integer.MAX_VALUE) throw new IllegalArgumentException("Matrix of " + aRows + " x " + aColumns + " elements is too large");
+		return (int) size;
+	}
+
+	/**
+	 * Create an identity matrix.
+	 * @param aSize The number of rows and columns.
+	 * @return The matrix.
+	 */
+	public static DoubleMatrix identity(int aSize) {
+		final DoubleMatrix tmp = new DoubleMatrix(aSize, aSize);
+		for(int i = 0; i < aSize; ++i) tmp.mElements[i * aSize + i] = 1;
+		return tmp;
+	}
+
+	/**
+	 * Return the number of rows.
+	 * @return The number of rows.
+	 */
+	public int rows() {
+		return mRows;
+	}
+
+	/**
+	 * Return the number of columns.
+	 * @return The number of columns.
+	 */
+	public int columns() {
+		return mColumns;
+	}
+
+	/**
+	 * Return the array that stores the elements in row major order, without copying it.
+	 * @return The element array.
+	 */
+	public double[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return one element.
+	 * @param aRow The row index.
+	 * @param aColumn The column index.
+	 * @return The element value.
+	 */
+	public double get(int aRow, int aColumn) {
+		return mElements[index(aRow, aColumn)];
+	}
+
+	/**
+	 * Replace one element.
+	 * @param aRow The row index.
+	 * @param aColumn The column index.
+	 * @param aValue The replacement value.
+	 */
+	public void set(int aRow, int aColumn, double aValue) {
+		mElements[index(aRow, aColumn)] = aValue;
+	}
+
+	private int index(int aRow, int aColumn) {
+		if(aRow < 0 || aRow >= mRows || aColumn < 0 || aColumn >= mColumns) throw new ArrayIndexOutOfBoundsException("Element (" + aRow + ", " + aColumn + ") is outside a " + mRows + " x " + mColumns + " matrix");
+		return aRow * mColumns + aColumn;
+	}
+
+	/**
+	 * Copy a row out of the matrix.
+	 * @param aRow The row index.
+	 * @return The row.
+	 */
+	public DoubleVector row(int aRow) {
+		final double[] tmp = new double[mColumns];
+		System.arraycopy(mElements, index(aRow, 0), tmp, 0, mColumns);
+		return new DoubleVector(tmp);
+	}
+
+	/**
+	 * Copy a column out of the matrix.
+	 * @param aColumn The column index.
+	 * @return The column.
+	 */
+	public DoubleVector column(int aColumn) {
+		final double[] tmp = new double[mRows];
+		for(int r = 0; r < mRows; ++r) tmp[r] = mElements[r * mColumns + aColumn];
+		return new DoubleVector(tmp);
+	}
+
+	/**
+	 * Replace a row.
+	 * @param aRow The row index.
+	 * @param aVector The replacement row.
+	 * @throws VectorSizeException Thrown when the vector length does not match the number of columns.
+	 */
+	public void setRow(int aRow, Vector<Double> aVector) throws VectorSizeException {
+		if(mColumns != aVector.size()) throw new VectorSizeException(mColumns, aVector.size());
+		System.arraycopy(VectorKernels.doubles(aVector), 0, mElements, aRow * mColumns, mColumns);
+	}
+
+	/**
+	 * Run an operation over every row, split across the common pool when the total work is large enough.
+	 */
+	private static void forRows(int aRows, long aWorkPerRow, RowRange aRange) {
+		if(aRows * aWorkPerRow <= PARALLEL_THRESHOLD || aRows <= 1) {
+			aRange.apply(0, aRows);
+		}else {
+			ForkJoinPool.commonPool().invoke(new RowTask(aRange, aWorkPerRow, 0, aRows));
+		}
+	}
+
+	/**
+	 * Return the transpose of the matrix. The elements are copied in square tiles so that both the rows being read and
+	 * the rows being written stay in cache.
+	 * @return The transpose.
+	 */
+	public DoubleMatrix transpose() {
+		final DoubleMatrix tmp = new DoubleMatrix(mColumns, mRows);
+		final double[] a = mElements;
+		final double[] t = tmp.mElements;
+		final int m = mRows;
+		final int n = mColumns;
+		final int tiles = (m + TILE_TRANSPOSE - 1) / TILE_TRANSPOSE;
+		forRows(tiles, (long) TILE_TRANSPOSE * n, (from, to) -> {
+			for(int rr = from * TILE_TRANSPOSE; rr < Math.min(m, to * TILE_TRANSPOSE); rr += TILE_TRANSPOSE) {
+				final int rEnd = Math.min(m, rr + TILE_TRANSPOSE);
+				for(int cc = 0; cc < n; cc += TILE_TRANSPOSE) {
+					final int cEnd = Math.min(n, cc + TILE_TRANSPOSE);
+					for(int r = rr; r < rEnd; ++r) {
+						for(int c = cc; c < cEnd; ++c) t[c * m + r] = a[r * n + c];
+					}
+				}
+			}
+		});
+		return tmp;
+	}
+
+	/**
+	 * Multiply the matrix by a column vector.
+	 * @param aVector The vector, with one element per column.
+	 * @return The product, with one element per row.
+	 * @throws VectorSizeException Thrown when the vector length does not match the number of columns.
+	 */
+	public DoubleVector multiply(Vector<Double> aVector) throws VectorSizeException {
+		if(mColumns != aVector.size()) throw new VectorSizeException(mColumns, aVector.size());
+		final double[] x = VectorKernels.doubles(aVector);
+		final double[] y = new double[mRows];
+		final double[] a = mElements;
+		final int n = mColumns;
+		forRows(mRows, n, (from, to) -> {
+			for(int r = from; r < to; ++r) y[r] = VectorKernels.dot(a, r * n, x, 0, n);
+		});
+		return new DoubleVector(y);
+	}
+
+	/**
+	 * Multiply a row vector by the matrix, which is the same as multiplying the transpose of the matrix by the vector
+	 * without forming the transpose.
+	 * @param aVector The vector, with one element per row.
+	 * @return The product, with one element per column.
+	 * @throws VectorSizeException Thrown when the vector length does not match the number of rows.
+	 */
+	public DoubleVector transposeMultiply(Vector<Double> aVector) throws VectorSizeException {
+		if(mRows != aVector.size()) throw new VectorSizeException(mRows, aVector.size());
+		final double[] x = VectorKernels.doubles(aVector);
+		final double[] y = new double[mColumns];
+		final double[] a = mElements;
+		final int m = mRows;
+		final int n = mColumns;
+		// Each task owns a band of columns, and adds a multiple of that band of every row
+		final int bands = (n + TILE_COLUMNS - 1) / TILE_COLUMNS;
+		forRows(bands, (long) m * TILE_COLUMNS, (from, to) -> {
+			final int cFrom = from * TILE_COLUMNS;
+			final int cTo = Math.min(n, to * TILE_COLUMNS);
+			for(int r = 0; r < m; ++r) {
+				final double s = x[r];
+				final int offset = r * n;
+				for(int c = cFrom; c < cTo; ++c) y[c] += s * a[offset + c];
+			}
+		});
+		return new DoubleVector(y);
+	}
+
+	/**
+	 * Multiply two matrices.
+	 * @param aMatrix The right hand matrix.
+	 * @return The product.
+	 * @throws VectorSizeException Thrown when the number of columns does not match the number of rows of the right hand matrix.
+	 */
+	public DoubleMatrix multiply(DoubleMatrix aMatrix) throws VectorSizeException {
+		if(mColumns != aMatrix.mRows) throw new VectorSizeException(mColumns, aMatrix.mRows);
+		final int m = mRows;
+		final int k = mColumns;
+		final int n = aMatrix.mColumns;
+		final DoubleMatrix tmp = new DoubleMatrix(m, n);
+		final double[] a = mElements;
+		final double[] b = aMatrix.mElements;
+		final double[] c = tmp.mElements;
+		forRows(m, (long) k * n, (from, to) -> {
+			for(int pp = 0; pp < k; pp += TILE_INNER) {
+				final int pEnd = Math.min(k, pp + TILE_INNER);
+				for(int jj = 0; jj < n; jj += TILE_COLUMNS) {
+					final int jEnd = Math.min(n, jj + TILE_COLUMNS);
+					for(int i = from; i < to; ++i) {
+						final int aRow = i * k;
+						final int cRow = i * n;
+						int p = pp;
+						// Four rows of the right hand matrix at a time, so each element of the result is loaded and stored once per four rows
+						for(; p + 3 < pEnd; p += 4) {
+							final double s0 = a[aRow + p];
+							final double s1 = a[aRow + p + 1];
+							final double s2 = a[aRow + p + 2];
+							final double s3 = a[aRow + p + 3];
+							final int b0 = p * n;
+							final int b1 = b0 + n;
+							final int b2 = b1 + n;
+							final int b3 = b2 + n;
+							for(int j = jj; j < jEnd; ++j) c[cRow + j] += s0 * b[b0 + j] + s1 * b[b1 + j] + s2 * b[b2 + j] + s3 * b[b3 + j];
+						}
+						for(; p < pEnd; ++p) {
+							final double s = a[aRow + p];
+							final int bRow = p * n;
+							for(int j = jj; j < jEnd; ++j) c[cRow + j] += s * b[bRow + j];
+						}
+					}
+				}
+			}
+		});
+		return tmp;
+	}
+
+	/**
+	 * Add two matrices.
+	 * @param aMatrix The other matrix.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the matrix dimensions do not match.
+	 */
+	public DoubleMatrix add(DoubleMatrix aMatrix) throws VectorSizeException {
+		checkSize(aMatrix);
+		final int s = mElements.length;
+		final double[] b = aMatrix.mElements;
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] + b[i];
+		return new DoubleMatrix(mRows, mColumns, tmp);
+	}
+
+	/**
+	 * Subtract two matrices.
+	 * @param aMatrix The other matrix.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the matrix dimensions do not match.
+	 */
+	public DoubleMatrix subtract(DoubleMatrix aMatrix) throws VectorSizeException {
+		checkSize(aMatrix);
+		final int s = mElements.length;
+		final double[] b = aMatrix.mElements;
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] - b[i];
+		return new DoubleMatrix(mRows, mColumns, tmp);
+	}
+
+	/**
+	 * Multiply every element by a scalar.
+	 * @param aScalar The scalar value to multiply by.
+	 * @return The result of the operation.
+	 */
+	public DoubleMatrix multiply(double aScalar) {
+		final int s = mElements.length;
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] * aScalar;
+		return new DoubleMatrix(mRows, mColumns, tmp);
+	}
+
+	private void checkSize(DoubleMatrix aMatrix) throws VectorSizeException {
+		if(mRows != aMatrix.mRows) throw new VectorSizeException(mRows, aMatrix.mRows);
+		if(mColumns != aMatrix.mColumns) throw new VectorSizeException(mColumns, aMatrix.mColumns);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder tmp = new StringBuilder();
+		tmp.append('[');
+		for(int r = 0; r < mRows; ++r) {
+			if(r > 0) tmp.append(',');
+			tmp.append('[');
+			for(int c = 0; c < mColumns; ++c) {
+				if(c > 0) tmp.append(',');
+				tmp.append(mElements[r * mColumns + c]);
+			}
+			tmp.append(']');
+		}
+		tmp.append(']');
+		return tmp.toString();
+	}
+}
@@ -14,6 +14,9 @@
 
 package asmith.vectors;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public final class DoubleVector extends VectorCommon<Double> {
 	private final double[] mElements;
 	
@@ -148,4 +151,219 @@ public final class DoubleVector extends VectorCommon<Double> {
 		return mElements[aIndex];
 	}
 
+	@Override
+	public Vector<Double> add(Double aScalar) {
+		final double b = aScalar;
+		final int s = mElements.length;
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] + b;
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> subtract(Double aScalar) {
+		final double b = aScalar;
+		final int s = mElements.length;
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] - b;
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> multiply(Double aScalar) {
+		final double b = aScalar;
+		final int s = mElements.length;
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] * b;
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> divide(Double aScalar) {
+		final double b = aScalar;
+		final int s = mElements.length;
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] / b;
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> add(Vector<Double> aVector) throws VectorSizeException {
+		final double[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final double[] tmp = new double[s];
+		VectorKernels.add(mElements, 0, b, 0, tmp, 0, s);
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> subtract(Vector<Double> aVector) throws VectorSizeException {
+		final double[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final double[] tmp = new double[s];
+		VectorKernels.subtract(mElements, 0, b, 0, tmp, 0, s);
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> multiply(Vector<Double> aVector) throws VectorSizeException {
+		final double[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final double[] tmp = new double[s];
+		VectorKernels.multiply(mElements, 0, b, 0, tmp, 0, s);
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> divide(Vector<Double> aVector) throws VectorSizeException {
+		final double[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final double[] tmp = new double[s];
+		VectorKernels.divide(mElements, 0, b, 0, tmp, 0, s);
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Double dotProduct(Vector<Double> aVector) throws VectorSizeException {
+		if(aVector instanceof SparseDoubleVector) return ((SparseDoubleVector) aVector).dotProduct(this);
+		if(aVector instanceof DirectDoubleVector) return ((DirectDoubleVector) aVector).dotProduct(this);
+		final double[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length);
+	}
+
+	@Override
+	public Double min() {
+		final int s = mElements.length;
+		double tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = Math.min(tmp, mElements[i]);
+		return tmp;
+	}
+
+	@Override
+	public Double max() {
+		final int s = mElements.length;
+		double tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = Math.max(tmp, mElements[i]);
+		return tmp;
+	}
+
+	@Override
+	public Double sum() {
+		return VectorKernels.sum(mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Double magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Double median() {
+		final int s = mElements.length;
+		final double[] tmp = mElements.clone();
+		final int i = s / 2;
+		final double upper = Selection.select(tmp, i);
+		if(s % 2 == 1) return upper;
+		return (Selection.max(tmp, 0, i) + upper) / 2;
+	}
+
+	@Override
+	public Double kthSmallest(int aK) {
+		final int s = mElements.length;
+		if(aK < 0 || aK >= s) throw new IndexOutOfBoundsException("Index " + aK + " is out of bounds for vector of length " + s);
+		return Selection.select(mElements.clone(), aK);
+	}
+
+	@Override
+	public Double mode() {
+		final int s = mElements.length;
+		final LongCountMap counts = new LongCountMap(s);
+		for(int i = 0; i < s; ++i) counts.increment(Double.doubleToLongBits(mElements[i]));
+		int best = 0;
+		int bestCount = 0;
+		for(int i = 0; i < s; ++i) {
+			final int count = counts.get(Double.doubleToLongBits(mElements[i]));
+			if(count > bestCount) {
+				best = i;
+				bestCount = count;
+			}
+		}
+		return mElements[best];
+	}
+
+	@Override
+	public Map<Double, Integer> histogram() {
+		final int s = mElements.length;
+		final LongCountMap counts = new LongCountMap(s);
+		for(int i = 0; i < s; ++i) counts.increment(Double.doubleToLongBits(mElements[i]));
+		final Map<Double, Integer> tmp = new HashMap<Double, Integer>(counts.size() * 2);
+		final int c = counts.capacity();
+		for(int i = 0; i < c; ++i) {
+			final int count = counts.countAt(i);
+			if(count != 0) tmp.put(Double.longBitsToDouble(counts.keyAt(i)), count);
+		}
+		return tmp;
+	}
+
+	/**
+	 * Calculate the dot product of two vectors with a given accumulation strategy.
+	 * @param aVector The other vector.
+	 * @param aSummation The accumulation strategy.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public Double dotProduct(Vector<Double> aVector, Summation aSummation) throws VectorSizeException {
+		if(aVector instanceof DirectDoubleVector) return ((DirectDoubleVector) aVector).dotProduct(this, aSummation);
+		final double[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length, aSummation);
+	}
+
+	/**
+	 * Calculate the sum of all elements in the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The sum of elements.
+	 */
+	public Double sum(Summation aSummation) {
+		return VectorKernels.sum(mElements, 0, mElements.length, aSummation);
+	}
+
+	/**
+	 * Calculate the mean value of all elements in the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The mean of elements.
+	 */
+	public Double mean(Summation aSummation) {
+		return VectorKernels.sum(mElements, 0, mElements.length, aSummation) / mElements.length;
+	}
+
+	/**
+	 * Calculate the square magnitude of the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The square magnitude.
+	 */
+	public Double magnitudeSquared(Summation aSummation) {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length, aSummation);
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	double[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private double[] elementsOf(Vector<Double> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.doubles(aVector);
+	}
+
 }
@@ -0,0 +1,269 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A double vector with exactly 2 elements, stored as fields instead of an array.
+ * <p>
+ * The operations that take another {@link DoubleVector2} have no size checks or loops, so when a temporary
+ * result does not escape the JIT can replace it with its fields and avoid allocating it at all.
+ * </p>
+ * @author Adam Smith
+ */
+public final class DoubleVector2 extends VectorCommon<Double> {
+	private final double mX;
+	private final double mY;
+	
+	public DoubleVector2(double aX, double aY) {
+		mX = aX;
+		mY = aY;
+	}
+	
+	public DoubleVector2(Vector<? extends Number> aOther) throws VectorSizeException {
+		if(aOther.size() != 2) throw new VectorSizeException(2, aOther.size());
+		mX = aOther.get(0).doubleValue();
+		mY = aOther.get(1).doubleValue();
+	}
+	
+	/**
+	 * Return the x component.
+	 * @return The x component.
+	 */
+	public double x() {
+		return mX;
+	}
+	
+	/**
+	 * Return the y component.
+	 * @return The y component.
+	 */
+	public double y() {
+		return mY;
+	}
+	
+	/**
+	 * Add two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public DoubleVector2 add(DoubleVector2 aVector) {
+		return new DoubleVector2(mX + aVector.mX, mY + aVector.mY);
+	}
+	
+	/**
+	 * Subtract two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public DoubleVector2 subtract(DoubleVector2 aVector) {
+		return new DoubleVector2(mX - aVector.mX, mY - aVector.mY);
+	}
+	
+	/**
+	 * Multiply two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public DoubleVector2 multiply(DoubleVector2 aVector) {
+		return new DoubleVector2(mX * aVector.mX, mY * aVector.mY);
+	}
+	
+	/**
+	 * Divide two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public DoubleVector2 divide(DoubleVector2 aVector) {
+		return new DoubleVector2(mX / aVector.mX, mY / aVector.mY);
+	}
+	
+	/**
+	 * Calculate the dot product of two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public double dotProduct(DoubleVector2 aVector) {
+		return mX * aVector.mX + mY * aVector.mY;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Double sqrt(Double aValue) {
+		return Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Double add(Double aA, Double aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Double sub(Double aA, Double aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Double mul(Double aA, Double aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Double div(Double aA, Double aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Double valueOf(int aValue) {
+		return Double.valueOf(aValue);
+	}
+
+	@Override
+	protected Double min(Double aA, Double aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Double max(Double aA, Double aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Double> createVector(Double[] aValues) {
+		return new DoubleVector(aValues);
+	}
+
+	@Override
+	protected Double[] createArray(int aSize) {
+		return new Double[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return 2;
+	}
+
+	@Override
+	public DoubleVector2 set(int aIndex, Double aValue) {
+		switch(aIndex) {
+		case 0: return new DoubleVector2(aValue, mY);
+		case 1: return new DoubleVector2(mX, aValue);
+		default: throw new ArrayIndexOutOfBoundsException(aIndex);
+		}
+	}
+
+	@Override
+	public Double get(int aIndex) {
+		switch(aIndex) {
+		case 0: return mX;
+		case 1: return mY;
+		default: throw new ArrayIndexOutOfBoundsException(aIndex);
+		}
+	}
+
+	@Override
+	public DoubleVector2 add(Double aScalar) {
+		final double s = aScalar;
+		return new DoubleVector2(mX + s, mY + s);
+	}
+
+	@Override
+	public DoubleVector2 subtract(Double aScalar) {
+		final double s = aScalar;
+		return new DoubleVector2(mX - s, mY - s);
+	}
+
+	@Override
+	public DoubleVector2 multiply(Double aScalar) {
+		final double s = aScalar;
+		return new DoubleVector2(mX * s, mY * s);
+	}
+
+	@Override
+	public DoubleVector2 divide(Double aScalar) {
+		final double s = aScalar;
+		return new DoubleVector2(mX / s, mY / s);
+	}
+
+	@Override
+	public DoubleVector2 add(Vector<Double> aVector) throws VectorSizeException {
+		return add(of(aVector));
+	}
+
+	@Override
+	public DoubleVector2 subtract(Vector<Double> aVector) throws VectorSizeException {
+		return subtract(of(aVector));
+	}
+
+	@Override
+	public DoubleVector2 multiply(Vector<Double> aVector) throws VectorSizeException {
+		return multiply(of(aVector));
+	}
+
+	@Override
+	public DoubleVector2 divide(Vector<Double> aVector) throws VectorSizeException {
+		return divide(of(aVector));
+	}
+
+	@Override
+	public Double dotProduct(Vector<Double> aVector) throws VectorSizeException {
+		return dotProduct(of(aVector));
+	}
+
+	@Override
+	public Double min() {
+		return Math.min(mX, mY);
+	}
+
+	@Override
+	public Double max() {
+		return Math.max(mX, mY);
+	}
+
+	@Override
+	public Double sum() {
+		return mX + mY;
+	}
+
+	@Override
+	public Double magnitudeSquared() {
+		return mX * mX + mY * mY;
+	}
+
+	@Override
+	public Double magnitude() {
+		return Math.sqrt(mX * mX + mY * mY);
+	}
+
+	@Override
+	public DoubleVector2 normalise() {
+		final double m = Math.sqrt(mX * mX + mY * mY);
+		return new DoubleVector2(mX / m, mY / m);
+	}
+
+	/**
+	 * Convert another vector of the same length to this type.
+	 * @param aVector The other vector.
+	 * @return The converted vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private static DoubleVector2 of(Vector<Double> aVector) throws VectorSizeException {
+		if(aVector instanceof DoubleVector2) return (DoubleVector2) aVector;
+		return new DoubleVector2(aVector);
+	}
+
+}
@@ -0,0 +1,295 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A double vector with exactly 4 elements, stored as fields instead of an array.
+ * <p>
+ * The operations that take another {@link DoubleVector4} have no size checks or loops, so when a temporary
+ * result does not escape the JIT can replace it with its fields and avoid allocating it at all.
+ * </p>
+ * @author Adam Smith
+ */
+public final class DoubleVector4 extends VectorCommon<Double> {
+	private final double mX;
+	private final double mY;
+	private final double mZ;
+	private final double mW;
+	
+	public DoubleVector4(double aX, double aY, double aZ, double aW) {
+		mX = aX;
+		mY = aY;
+		mZ = aZ;
+		mW = aW;
+	}
+	
+	public DoubleVector4(Vector<? extends Number> aOther) throws VectorSizeException {
+		if(aOther.size() != 4) throw new VectorSizeException(4, aOther.size());
+		mX = aOther.get(0).doubleValue();
+		mY = aOther.get(1).doubleValue();
+		mZ = aOther.get(2).doubleValue();
+		mW = aOther.get(3).doubleValue();
+	}
+	
+	/**
+	 * Return the x component.
+	 * @return The x component.
+	 */
+	public double x() {
+		return mX;
+	}
+	
+	/**
+	 * Return the y component.
+	 * @return The y component.
+	 */
+	public double y() {
+		return mY;
+	}
+	
+	/**
+	 * Return the z component.
+	 * @return The z component.
+	 */
+	public double z() {
+		return mZ;
+	}
+	
+	/**
+	 * Return the w component.
+	 * @return The w component.
+	 */
+	public double w() {
+		return mW;
+	}
+	
+	/**
+	 * Add two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public DoubleVector4 add(DoubleVector4 aVector) {
+		return new DoubleVector4(mX + aVector.mX, mY + aVector.mY, mZ + aVector.mZ, mW + aVector.mW);
+	}
+	
+	/**
+	 * Subtract two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public DoubleVector4 subtract(DoubleVector4 aVector) {
+		return new DoubleVector4(mX - aVector.mX, mY - aVector.mY, mZ - aVector.mZ, mW - aVector.mW);
+	}
+	
+	/**
+	 * Multiply two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public DoubleVector4 multiply(DoubleVector4 aVector) {
+		return new DoubleVector4(mX * aVector.mX, mY * aVector.mY, mZ * aVector.mZ, mW * aVector.mW);
+	}
+	
+	/**
+	 * Divide two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public DoubleVector4 divide(DoubleVector4 aVector) {
+		return new DoubleVector4(mX / aVector.mX, mY / aVector.mY, mZ / aVector.mZ, mW / aVector.mW);
+	}
+	
+	/**
+	 * Calculate the dot product of two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public double dotProduct(DoubleVector4 aVector) {
+		return mX * aVector.mX + mY * aVector.mY + mZ * aVector.mZ + mW * aVector.mW;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Double sqrt(Double aValue) {
+		return Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Double add(Double aA, Double aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Double sub(Double aA, Double aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Double mul(Double aA, Double aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Double div(Double aA, Double aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Double valueOf(int aValue) {
+		return Double.valueOf(aValue);
+	}
+
+	@Override
+	protected Double min(Double aA, Double aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Double max(Double aA, Double aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Double> createVector(Double[] aValues) {
+		return new DoubleVector(aValues);
+	}
+
+	@Override
+	protected Double[] createArray(int aSize) {
+		return new Double[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return 4;
+	}
+
+	@Override
+	public DoubleVector4 set(int aIndex, Double aValue) {
+		switch(aIndex) {
+		case 0: return new DoubleVector4(aValue, mY, mZ, mW);
+		case 1: return new DoubleVector4(mX, aValue, mZ, mW);
+		case 2: return new DoubleVector4(mX, mY, aValue, mW);
+		case 3: return new DoubleVector4(mX, mY, mZ, aValue);
+		default: throw new ArrayIndexOutOfBoundsException(aIndex);
+		}
+	}
+
+	@Override
+	public Double get(int aIndex) {
+		switch(aIndex) {
+		case 0: return mX;
+		case 1: return mY;
+		case 2: return mZ;
+		case 3: return mW;
+		default: throw new ArrayIndexOutOfBoundsException(aIndex);
+		}
+	}
+
+	@Override
+	public DoubleVector4 add(Double aScalar) {
+		final double s = aScalar;
+		return new DoubleVector4(mX + s, mY + s, mZ + s, mW + s);
+	}
+
+	@Override
+	public DoubleVector4 subtract(Double aScalar) {
+		final double s = aScalar;
+		return new DoubleVector4(mX - s, mY - s, mZ - s, mW - s);
+	}
+
+	@Override
+	public DoubleVector4 multiply(Double aScalar) {
+		final double s = aScalar;
+		return new DoubleVector4(mX * s, mY * s, mZ * s, mW * s);
+	}
+
+	@Override
+	public DoubleVector4 divide(Double aScalar) {
+		final double s = aScalar;
+		return new DoubleVector4(mX / s, mY / s, mZ / s, mW / s);
+	}
+
+	@Override
+	public DoubleVector4 add(Vector<Double> aVector) throws VectorSizeException {
+		return add(of(aVector));
+	}
+
+	@Override
+	public DoubleVector4 subtract(Vector<Double> aVector) throws VectorSizeException {
+		return subtract(of(aVector));
+	}
+
+	@Override
+	public DoubleVector4 multiply(Vector<Double> aVector) throws VectorSizeException {
+		return multiply(of(aVector));
+	}
+
+	@Override
+	public DoubleVector4 divide(Vector<Double> aVector) throws VectorSizeException {
+		return divide(of(aVector));
+	}
+
+	@Override
+	public Double dotProduct(Vector<Double> aVector) throws VectorSizeException {
+		return dotProduct(of(aVector));
+	}
+
+	@Override
+	public Double min() {
+		return Math.min(Math.min(Math.min(mX, mY), mZ), mW);
+	}
+
+	@Override
+	public Double max() {
+		return Math.max(Math.max(Math.max(mX, mY), mZ), mW);
+	}
+
+	@Override
+	public Double sum() {
+		return mX + mY + mZ + mW;
+	}
+
+	@Override
+	public Double magnitudeSquared() {
+		return mX * mX + mY * mY + mZ * mZ + mW * mW;
+	}
+
+	@Override
+	public Double magnitude() {
+		return Math.sqrt(mX * mX + mY * mY + mZ * mZ + mW * mW);
+	}
+
+	@Override
+	public DoubleVector4 normalise() {
+		final double m = Math.sqrt(mX * mX + mY * mY + mZ * mZ + mW * mW);
+		return new DoubleVector4(mX / m, mY / m, mZ / m, mW / m);
+	}
+
+	/**
+	 * Convert another vector of the same length to this type.
+	 * @param aVector The other vector.
+	 * @return The converted vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private static DoubleVector4 of(Vector<Double> aVector) throws VectorSizeException {
+		if(aVector instanceof DoubleVector4) return (DoubleVector4) aVector;
+		return new DoubleVector4(aVector);
+	}
+
+}
@@ -0,0 +1,520 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads the elements of a vector that is too large to hold in memory as a sequence of chunks.
+ * <p>
+ * Elements are read from either raw binary data or comma, whitespace or line separated text into primitive arrays
+ * supplied by the caller, so the same arrays can be reused for the whole stream. A {@link Reducer} can be applied to
+ * every chunk with {@link #reduce(Reducer)}, or a {@link LongReducer} to every chunk of an integer stream with
+ * {@link #reduceLongs(LongReducer)}, and {@link Summary} and {@link LongSummary} calculate the statistics that
+ * {@link Vector} offers in constant memory. {@link VectorStats} is also a reducer, and adds the variance.
+ * </p>
+ * @author Adam Smith
+ */
+public final class ElementStream implements Closeable {
+	/**
+	 * The default number of elements in a chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	private static final int TEXT_BUFFER_SIZE = 1 << 16;
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	private static final double[] POWERS_OF_TEN = new double[23];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for(int i = 1; i < POWERS_OF_TEN.length; ++i) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+	}
+
+	/**
+	 * Receives the elements of a stream one chunk at a time.
+	 */
+	public interface Reducer {
+		/**
+		 * Consume a chunk of elements.
+		 * @param aChunk The array holding the chunk. It is reused for the next chunk once this method returns.
+		 * @param aLength The number of elements at the start of the array that belong to the chunk.
+		 */
+		void accept(double[] aChunk, int aLength);
+	}
+
+	/**
+	 * Receives the elements of an integer stream one chunk at a time, without rounding them to doubles.
+	 */
+	public interface LongReducer {
+		/**
+		 * Consume a chunk of elements.
+		 * @param aChunk The array holding the chunk. It is reused for the next chunk once this method returns.
+		 * @param aLength The number of elements at the start of the array that belong to the chunk.
+		 */
+		void accept(long[] aChunk, int aLength);
+	}
+
+	/**
+	 * Calculates the count, sum, mean, minimum and maximum of floating point elements.
+	 * Each chunk is summed like {@link DoubleVector#sum()} and the chunk totals are added with a running correction,
+	 * so the error does not grow with the number of chunks.
+	 */
+	public static final class Summary implements Reducer {
+		private long mCount;
+		private double mSum;
+		private double mCorrection;
+		private double mMin = Double.POSITIVE_INFINITY;
+		private double mMax = Double.NEGATIVE_INFINITY;
+
+		@Override
+		public void accept(double[] aChunk, int aLength) {
+			if(aLength == 0) return;
+			double min = mMin;
+			double max = mMax;
+			for(int i = 0; i < aLength; ++i) {
+				min = Math.min(min, aChunk[i]);
+				max = Math.max(max, aChunk[i]);
+			}
+			mMin = min;
+			mMax = max;
+
+			// Neumaier's variant of Kahan summation over the chunk totals
+			final double x = VectorKernels.sum(aChunk, 0, aLength);
+			final double t = mSum + x;
+			if(Math.abs(mSum) >= Math.abs(x)) {
+				mCorrection += (mSum - t) + x;
+			}else {
+				mCorrection += (x - t) + mSum;
+			}
+			mSum = t;
+			mCount += aLength;
+		}
+
+		/**
+		 * Return the number of elements consumed.
+		 * @return The element count.
+		 */
+		public long count() {
+			return mCount;
+		}
+
+		/**
+		 * Return the sum of the elements consumed.
+		 * @return The sum, or zero if no elements have been consumed.
+		 */
+		public double sum() {
+			// An infinite total leaves a NaN correction, so it is returned as it is
+			return Double.isFinite(mSum) ? mSum + mCorrection : mSum;
+		}
+
+		/**
+		 * Return the mean of the elements consumed.
+		 * @return The mean, or NaN if no elements have been consumed.
+		 */
+		public double mean() {
+			return sum() / mCount;
+		}
+
+		/**
+		 * Return the smallest element consumed.
+		 * @return The minimum, or positive infinity if no elements have been consumed.
+		 */
+		public double min() {
+			return mMin;
+		}
+
+		/**
+		 * Return the largest element consumed.
+		 * @return The maximum, or negative infinity if no elements have been consumed.
+		 */
+		public double max() {
+			return mMax;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + mCount + ", sum=" + sum() + ", mean=" + mean() + ", min=" + mMin + ", max=" + mMax;
+		}
+	}
+
+	/**
+	 * Calculates the count, sum, mean, minimum and maximum of integer elements.
+	 * The sum wraps on overflow in the same way as {@link LongVector#sum()}.
+	 */
+	public static final class LongSummary implements LongReducer {
+		private long mCount;
+		private long mSum;
+		private long mMin = Long.MAX_VALUE;
+		private long mMax = Long.MIN_VALUE;
+
+		@Override
+		public void accept(long[] aChunk, int aLength) {
+			long sum = mSum;
+			long min = mMin;
+			long max = mMax;
+			for(int i = 0; i < aLength; ++i) {
+				final long x = aChunk[i];
+				sum += x;
+				min = x < min ? x : min;
+				max = x > max ? x : max;
+			}
+			mSum = sum;
+			mMin = min;
+			mMax = max;
+			mCount += aLength;
+		}
+
+		/**
+		 * Return the number of elements consumed.
+		 * @return The element count.
+		 */
+		public long count() {
+			return mCount;
+		}
+
+		/**
+		 * Return the sum of the elements consumed.
+		 * @return The sum, or zero if no elements have been consumed.
+		 */
+		public long sum() {
+			return mSum;
+		}
+
+		/**
+		 * Return the mean of the elements consumed.
+		 * @return The mean, or NaN if no elements have been consumed.
+		 */
+		public double mean() {
+			return (double) mSum / mCount;
+		}
+
+		/**
+		 * Return the smallest element consumed.
+		 * @return The minimum, or {@link Long#MAX_VALUE} if no elements have been consumed.
+		 */
+		public long min() {
+			return mMin;
+		}
+
+		/**
+		 * Return the largest element consumed.
+		 * @return The maximum, or {@link Long#MIN_VALUE} if no elements have been consumed.
+		 */
+		public long max() {
+			return mMax;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + mCount + ", sum=" + mSum + ", mean=" + mean() + ", min=" + mMin + ", max=" + mMax;
+		}
+	}
+
+	private final ReadableByteChannel mChannel;
+	private final VectorFormat.Type mType;
+	private final ByteBuffer mBuffer;
+	private final StringBuilder mToken;
+	private final int mChunkSize;
+	private boolean mEnd;
+	private double[] mDoubleChunk;
+	private long[] mLongChunk;
+
+	private ElementStream(ReadableByteChannel aChannel, VectorFormat.Type aType, ByteOrder aOrder, int aChunkSize) {
+		if(aChunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive, instead encountered " + aChunkSize);
+		mChannel = aChannel;
+		mType = aType;
+		mChunkSize = aChunkSize;
+		if(aType == null) {
+			mBuffer = ByteBuffer.allocateDirect(TEXT_BUFFER_SIZE);
+			mToken = new StringBuilder();
+		}else {
+			mBuffer = ByteBuffer.allocateDirect(aChunkSize * aType.bytes()).order(aOrder);
+			mToken = null;
+		}
+		mBuffer.limit(0);
+	}
+
+	/**
+	 * Read elements stored back to back in binary.
+	 * @param aChannel The channel to read from, for example a {@link java.nio.channels.FileChannel}.
+	 * @param aType The element type.
+	 * @param aOrder The byte order of the elements.
+	 * @return The stream.
+	 */
+	public static ElementStream binary(ReadableByteChannel aChannel, VectorFormat.Type aType, ByteOrder aOrder) {
+		return binary(aChannel, aType, aOrder, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Read elements stored back to back in binary.
+	 * @param aChannel The channel to read from, for example a {@link java.nio.channels.FileChannel}.
+	 * @param aType The element type.
+	 * @param aOrder The byte order of the elements.
+	 * @param aChunkSize The number of elements read from the channel at a time.
+	 * @return The stream.
+	 */
+	public static ElementStream binary(ReadableByteChannel aChannel, VectorFormat.Type aType, ByteOrder aOrder, int aChunkSize) {
+		if(aType == VectorFormat.Type.BIG_INTEGER) throw new IllegalArgumentException("Big integer elements do not have a fixed size");
+		return new ElementStream(aChannel, aType, aOrder, aChunkSize);
+	}
+
+	/**
+	 * Read elements stored back to back in binary.
+	 * @param aStream The stream to read from.
+	 * @param aType The element type.
+	 * @param aOrder The byte order of the elements.
+	 * @return The stream.
+	 */
+	public static ElementStream binary(InputStream aStream, VectorFormat.Type aType, ByteOrder aOrder) {
+		return binary(Channels.newChannel(aStream), aType, aOrder);
+	}
+
+	/**
+	 * Read decimal elements separated by commas, whitespace or line breaks.
+	 * @param aChannel The channel to read from, for example a {@link java.nio.channels.FileChannel}.
+	 * @return The stream.
+	 */
+	public static ElementStream text(ReadableByteChannel aChannel) {
+		return new ElementStream(aChannel, null, null, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Read decimal elements separated by commas, whitespace or line breaks.
+	 * @param aStream The stream to read from.
+	 * @return The stream.
+	 */
+	public static ElementStream text(InputStream aStream) {
+		return text(Channels.newChannel(aStream));
+	}
+
+	/**
+	 * Read the next chunk of elements.
+	 * @param aChunk The array to read into. Elements from integer streams that are larger than 2^53 are rounded.
+	 * @return The number of elements read, or -1 at the end of the stream.
+	 * @throws IOException Thrown when the source cannot be read or contains a malformed element.
+	 */
+	public int read(double[] aChunk) throws IOException {
+		if(mType == null) return readText(aChunk, null);
+		final int bytes = mType.bytes();
+		if(! fill(bytes)) return -1;
+		final int n = Math.min(aChunk.length, mBuffer.remaining() / bytes);
+		final ByteBuffer b = mBuffer;
+		int p = b.position();
+		switch(mType) {
+		case FLOAT:
+			for(int i = 0; i < n; ++i, p += 4) aChunk[i] = b.getFloat(p);
+			break;
+		case DOUBLE:
+			for(int i = 0; i < n; ++i, p += 8) aChunk[i] = b.getDouble(p);
+			break;
+		case INTEGER:
+			for(int i = 0; i < n; ++i, p += 4) aChunk[i] = b.getInt(p);
+			break;
+		case LONG:
+			for(int i = 0; i < n; ++i, p += 8) aChunk[i] = b.getLong(p);
+			break;
+		case SHORT:
+			for(int i = 0; i < n; ++i, p += 2) aChunk[i] = b.getShort(p);
+			break;
+		default:
+			for(int i = 0; i < n; ++i, p += 1) aChunk[i] = b.get(p);
+			break;
+		}
+		b.position(p);
+		return n;
+	}
+
+	/**
+	 * Read the next chunk of integer elements.
+	 * @param aChunk The array to read into.
+	 * @return The number of elements read, or -1 at the end of the stream.
+	 * @throws IOException Thrown when the source cannot be read or contains a malformed element.
+	 * @throws IllegalStateException Thrown when the stream holds floating point elements.
+	 */
+	public int read(long[] aChunk) throws IOException {
+		if(mType == VectorFormat.Type.FLOAT || mType == VectorFormat.Type.DOUBLE) throw new IllegalStateException("Cannot read " + mType + " elements as integers");
+		if(mType == null) return readText(null, aChunk);
+		final int bytes = mType.bytes();
+		if(! fill(bytes)) return -1;
+		final int n = Math.min(aChunk.length, mBuffer.remaining() / bytes);
+		final ByteBuffer b = mBuffer;
+		int p = b.position();
+		switch(mType) {
+		case INTEGER:
+			for(int i = 0; i < n; ++i, p += 4) aChunk[i] = b.getInt(p);
+			break;
+		case LONG:
+			for(int i = 0; i < n; ++i, p += 8) aChunk[i] = b.getLong(p);
+			break;
+		case SHORT:
+			for(int i = 0; i < n; ++i, p += 2) aChunk[i] = b.getShort(p);
+			break;
+		default:
+			for(int i = 0; i < n; ++i, p += 1) aChunk[i] = b.get(p);
+			break;
+		}
+		b.position(p);
+		return n;
+	}
+
+	/**
+	 * Pass every remaining chunk of the stream to a reducer, through a single reused array.
+	 * @param aReducer The reducer.
+	 * @return The reducer.
+	 * @throws IOException Thrown when the source cannot be read or contains a malformed element.
+	 */
+	public <R extends Reducer> R reduce(R aReducer) throws IOException {
+		if(mDoubleChunk == null) mDoubleChunk = new double[mChunkSize];
+		int n;
+		while((n = read(mDoubleChunk)) >= 0) aReducer.accept(mDoubleChunk, n);
+		return aReducer;
+	}
+
+	/**
+	 * Pass every remaining chunk of an integer stream to a reducer, through a single reused array.
+	 * @param aReducer The reducer.
+	 * @return The reducer.
+	 * @throws IOException Thrown when the source cannot be read or contains a malformed element.
+	 * @throws IllegalStateException Thrown when the stream holds floating point elements.
+	 */
+	public <R extends LongReducer> R reduceLongs(R aReducer) throws IOException {
+		if(mLongChunk == null) mLongChunk = new long[mChunkSize];
+		int n;
+		while((n = read(mLongChunk)) >= 0) aReducer.accept(mLongChunk, n);
+		return aReducer;
+	}
+
+	/**
+	 * Make sure the buffer holds at least one whole element, reading from the channel when it does not.
+	 * @return False at the end of the stream.
+	 */
+	private boolean fill(int aBytes) throws IOException {
+		if(mBuffer.remaining() >= aBytes) return true;
+		mBuffer.compact();
+		while(! mEnd && mBuffer.hasRemaining()) {
+			if(mChannel.read(mBuffer) < 0) mEnd = true;
+		}
+		mBuffer.flip();
+		if(mBuffer.remaining() >= aBytes) return true;
+		if(mBuffer.hasRemaining()) throw new IOException("Stream ends part way through an element");
+		return false;
+	}
+
+	private static boolean isSeparator(int aByte) {
+		return aByte == ',' || aByte == ' ' || aByte == '\t' || aByte == '\r' || aByte == '\n';
+	}
+
+	/**
+	 * Parse text elements into whichever of the two arrays is not null.
+	 */
+	private int readText(double[] aDoubles, long[] aLongs) throws IOException {
+		final int length = aDoubles != null ? aDoubles.length : aLongs.length;
+		int n = 0;
+		while(n < length) {
+			// Skip separators, then make sure the whole token is in the buffer
+			for(;;) {
+				while(mBuffer.hasRemaining() && isSeparator(mBuffer.get(mBuffer.position()))) mBuffer.get();
+				if(mBuffer.hasRemaining() || mEnd) break;
+				refill();
+			}
+			if(! mBuffer.hasRemaining()) break;
+			int end = mBuffer.position();
+			for(;;) {
+				while(end < mBuffer.limit() && ! isSeparator(mBuffer.get(end))) ++end;
+				if(end < mBuffer.limit() || mEnd) break;
+				final int consumed = mBuffer.position();
+				refill();
+				end -= consumed;
+				if(mBuffer.remaining() == mBuffer.capacity() && end == mBuffer.limit()) throw new IOException("Element is longer than " + mBuffer.capacity() + " characters");
+			}
+			if(aDoubles != null) {
+				aDoubles[n++] = parseDouble(mBuffer.position(), end);
+			}else {
+				aLongs[n++] = parseLong(mBuffer.position(), end);
+			}
+			mBuffer.position(end);
+		}
+		return n == 0 && length > 0 ? -1 : n;
+	}
+
+	private void refill() throws IOException {
+		mBuffer.compact();
+		while(! mEnd && mBuffer.hasRemaining()) {
+			if(mChannel.read(mBuffer) < 0) mEnd = true;
+		}
+		mBuffer.flip();
+	}
+
+	/**
+	 * Parse a plain decimal without an exponent directly when its digits and scale are exact doubles, in which case
+	 * one division is correctly rounded. Anything else is handed to {@link Double#parseDouble(String)}.
+	 */
+	private double parseDouble(int aFrom, int aTo) throws IOException {
+		int p = aFrom;
+		final boolean negative = mBuffer.get(p) == '-';
+		if(negative || mBuffer.get(p) == '+') ++p;
+		long mantissa = 0;
+		int scale = -1;
+		int digits = 0;
+		for(; p < aTo; ++p) {
+			final int c = mBuffer.get(p);
+			if(c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				if(scale >= 0) ++scale;
+				if(++digits > 15) break;
+			}else if(c == '.' && scale < 0) {
+				scale = 0;
+			}else {
+				break;
+			}
+		}
+		if(p == aTo && digits > 0 && mantissa < MAX_EXACT_MANTISSA) {
+			final double x = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+			return negative ? -x : x;
+		}
+		final String token = token(aFrom, aTo);
+		try {
+			return Double.parseDouble(token);
+		}catch(NumberFormatException e) {
+			throw new IOException("Malformed element " + token, e);
+		}
+	}
+
+	private long parseLong(int aFrom, int aTo) throws IOException {
+		final String token = token(aFrom, aTo);
+		try {
+			return Long.parseLong(token);
+		}catch(NumberFormatException e) {
+			throw new IOException("Malformed integer element " + token, e);
+		}
+	}
+
+	private String token(int aFrom, int aTo) {
+		mToken.setLength(0);
+		for(int i = aFrom; i < aTo; ++i) mToken.append((char) (mBuffer.get(i) & 0xFF));
+		return mToken.toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		mChannel.close();
+	}
+}
@@ -14,6 +14,9 @@
 
 package asmith.vectors;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public final class FloatVector extends VectorCommon<Float> {
 	private final float[] mElements;
 	
@@ -148,4 +151,219 @@ public final class FloatVector extends VectorCommon<Float> {
 		return mElements[aIndex];
 	}
 
+	@Override
+	public Vector<Float> add(Float aScalar) {
+		final float b = aScalar;
+		final int s = mElements.length;
+		final float[] tmp = new float[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] + b;
+		return new FloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> subtract(Float aScalar) {
+		final float b = aScalar;
+		final int s = mElements.length;
+		final float[] tmp = new float[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] - b;
+		return new FloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> multiply(Float aScalar) {
+		final float b = aScalar;
+		final int s = mElements.length;
+		final float[] tmp = new float[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] * b;
+		return new FloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> divide(Float aScalar) {
+		final float b = aScalar;
+		final int s = mElements.length;
+		final float[] tmp = new float[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] / b;
+		return new FloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> add(Vector<Float> aVector) throws VectorSizeException {
+		final float[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final float[] tmp = new float[s];
+		VectorKernels.add(mElements, 0, b, 0, tmp, 0, s);
+		return new FloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> subtract(Vector<Float> aVector) throws VectorSizeException {
+		final float[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final float[] tmp = new float[s];
+		VectorKernels.subtract(mElements, 0, b, 0, tmp, 0, s);
+		return new FloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> multiply(Vector<Float> aVector) throws VectorSizeException {
+		final float[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final float[] tmp = new float[s];
+		VectorKernels.multiply(mElements, 0, b, 0, tmp, 0, s);
+		return new FloatVector(tmp);
+	}
+
+	@Override
+	public Vector<Float> divide(Vector<Float> aVector) throws VectorSizeException {
+		final float[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final float[] tmp = new float[s];
+		VectorKernels.divide(mElements, 0, b, 0, tmp, 0, s);
+		return new FloatVector(tmp);
+	}
+
+	@Override
+	public Float dotProduct(Vector<Float> aVector) throws VectorSizeException {
+		if(aVector instanceof SparseFloatVector) return ((SparseFloatVector) aVector).dotProduct(this);
+		if(aVector instanceof DirectFloatVector) return ((DirectFloatVector) aVector).dotProduct(this);
+		final float[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length);
+	}
+
+	@Override
+	public Float min() {
+		final int s = mElements.length;
+		float tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = Math.min(tmp, mElements[i]);
+		return tmp;
+	}
+
+	@Override
+	public Float max() {
+		final int s = mElements.length;
+		float tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = Math.max(tmp, mElements[i]);
+		return tmp;
+	}
+
+	@Override
+	public Float sum() {
+		return VectorKernels.sum(mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Float magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Float median() {
+		final int s = mElements.length;
+		final float[] tmp = mElements.clone();
+		final int i = s / 2;
+		final float upper = Selection.select(tmp, i);
+		if(s % 2 == 1) return upper;
+		return (Selection.max(tmp, 0, i) + upper) / 2;
+	}
+
+	@Override
+	public Float kthSmallest(int aK) {
+		final int s = mElements.length;
+		if(aK < 0 || aK >= s) throw new IndexOutOfBoundsException("Index " + aK + " is out of bounds for vector of length " + s);
+		return Selection.select(mElements.clone(), aK);
+	}
+
+	@Override
+	public Float mode() {
+		final int s = mElements.length;
+		final LongCountMap counts = new LongCountMap(s);
+		for(int i = 0; i < s; ++i) counts.increment(Float.floatToIntBits(mElements[i]));
+		int best = 0;
+		int bestCount = 0;
+		for(int i = 0; i < s; ++i) {
+			final int count = counts.get(Float.floatToIntBits(mElements[i]));
+			if(count > bestCount) {
+				best = i;
+				bestCount = count;
+			}
+		}
+		return mElements[best];
+	}
+
+	@Override
+	public Map<Float, Integer> histogram() {
+		final int s = mElements.length;
+		final LongCountMap counts = new LongCountMap(s);
+		for(int i = 0; i < s; ++i) counts.increment(Float.floatToIntBits(mElements[i]));
+		final Map<Float, Integer> tmp = new HashMap<Float, Integer>(counts.size() * 2);
+		final int c = counts.capacity();
+		for(int i = 0; i < c; ++i) {
+			final int count = counts.countAt(i);
+			if(count != 0) tmp.put(Float.intBitsToFloat((int) counts.keyAt(i)), count);
+		}
+		return tmp;
+	}
+
+	/**
+	 * Calculate the dot product of two vectors with a given accumulation strategy.
+	 * @param aVector The other vector.
+	 * @param aSummation The accumulation strategy.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public Float dotProduct(Vector<Float> aVector, Summation aSummation) throws VectorSizeException {
+		if(aVector instanceof DirectFloatVector) return ((DirectFloatVector) aVector).dotProduct(this, aSummation);
+		final float[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length, aSummation);
+	}
+
+	/**
+	 * Calculate the sum of all elements in the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The sum of elements.
+	 */
+	public Float sum(Summation aSummation) {
+		return VectorKernels.sum(mElements, 0, mElements.length, aSummation);
+	}
+
+	/**
+	 * Calculate the mean value of all elements in the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The mean of elements.
+	 */
+	public Float mean(Summation aSummation) {
+		return VectorKernels.sum(mElements, 0, mElements.length, aSummation) / mElements.length;
+	}
+
+	/**
+	 * Calculate the square magnitude of the vector with a given accumulation strategy.
+	 * @param aSummation The accumulation strategy.
+	 * @return The square magnitude.
+	 */
+	public Float magnitudeSquared(Summation aSummation) {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length, aSummation);
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	float[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private float[] elementsOf(Vector<Float> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.floats(aVector);
+	}
+
 }
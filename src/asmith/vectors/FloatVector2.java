@@ -0,0 +1,269 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A float vector with exactly 2 elements, stored as fields instead of an array.
+ * <p>
+ * The operations that take another {@link FloatVector2} have no size checks or loops, so when a temporary
+ * result does not escape the JIT can replace it with its fields and avoid allocating it at all.
+ * </p>
+ * @author Adam Smith
+ */
+public final class FloatVector2 extends VectorCommon<Float> {
+	private final float mX;
+	private final float mY;
+	
+	public FloatVector2(float aX, float aY) {
+		mX = aX;
+		mY = aY;
+	}
+	
+	public FloatVector2(Vector<? extends Number> aOther) throws VectorSizeException {
+		if(aOther.size() != 2) throw new VectorSizeException(2, aOther.size());
+		mX = aOther.get(0).floatValue();
+		mY = aOther.get(1).floatValue();
+	}
+	
+	/**
+	 * Return the x component.
+	 * @return The x component.
+	 */
+	public float x() {
+		return mX;
+	}
+	
+	/**
+	 * Return the y component.
+	 * @return The y component.
+	 */
+	public float y() {
+		return mY;
+	}
+	
+	/**
+	 * Add two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public FloatVector2 add(FloatVector2 aVector) {
+		return new FloatVector2(mX + aVector.mX, mY + aVector.mY);
+	}
+	
+	/**
+	 * Subtract two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public FloatVector2 subtract(FloatVector2 aVector) {
+		return new FloatVector2(mX - aVector.mX, mY - aVector.mY);
+	}
+	
+	/**
+	 * Multiply two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public FloatVector2 multiply(FloatVector2 aVector) {
+		return new FloatVector2(mX * aVector.mX, mY * aVector.mY);
+	}
+	
+	/**
+	 * Divide two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public FloatVector2 divide(FloatVector2 aVector) {
+		return new FloatVector2(mX / aVector.mX, mY / aVector.mY);
+	}
+	
+	/**
+	 * Calculate the dot product of two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public float dotProduct(FloatVector2 aVector) {
+		return mX * aVector.mX + mY * aVector.mY;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Float sqrt(Float aValue) {
+		return (float) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Float add(Float aA, Float aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Float sub(Float aA, Float aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Float mul(Float aA, Float aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Float div(Float aA, Float aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Float valueOf(int aValue) {
+		return Float.valueOf(aValue);
+	}
+
+	@Override
+	protected Float min(Float aA, Float aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Float max(Float aA, Float aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Float> createVector(Float[] aValues) {
+		return new FloatVector(aValues);
+	}
+
+	@Override
+	protected Float[] createArray(int aSize) {
+		return new Float[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return 2;
+	}
+
+	@Override
+	public FloatVector2 set(int aIndex, Float aValue) {
+		switch(aIndex) {
+		case 0: return new FloatVector2(aValue, mY);
+		case 1: return new FloatVector2(mX, aValue);
+		default: throw new ArrayIndexOutOfBoundsException(aIndex);
+		}
+	}
+
+	@Override
+	public Float get(int aIndex) {
+		switch(aIndex) {
+		case 0: return mX;
+		case 1: return mY;
+		default: throw new ArrayIndexOutOfBoundsException(aIndex);
+		}
+	}
+
+	@Override
+	public FloatVector2 add(Float aScalar) {
+		final float s = aScalar;
+		return new FloatVector2(mX + s, mY + s);
+	}
+
+	@Override
+	public FloatVector2 subtract(Float aScalar) {
+		final float s = aScalar;
+		return new FloatVector2(mX - s, mY - s);
+	}
+
+	@Override
+	public FloatVector2 multiply(Float aScalar) {
+		final float s = aScalar;
+		return new FloatVector2(mX * s, mY * s);
+	}
+
+	@Override
+	public FloatVector2 divide(Float aScalar) {
+		final float s = aScalar;
+		return new FloatVector2(mX / s, mY / s);
+	}
+
+	@Override
+	public FloatVector2 add(Vector<Float> aVector) throws VectorSizeException {
+		return add(of(aVector));
+	}
+
+	@Override
+	public FloatVector2 subtract(Vector<Float> aVector) throws VectorSizeException {
+		return subtract(of(aVector));
+	}
+
+	@Override
+	public FloatVector2 multiply(Vector<Float> aVector) throws VectorSizeException {
+		return multiply(of(aVector));
+	}
+
+	@Override
+	public FloatVector2 divide(Vector<Float> aVector) throws VectorSizeException {
+		return divide(of(aVector));
+	}
+
+	@Override
+	public Float dotProduct(Vector<Float> aVector) throws VectorSizeException {
+		return dotProduct(of(aVector));
+	}
+
+	@Override
+	public Float min() {
+		return Math.min(mX, mY);
+	}
+
+	@Override
+	public Float max() {
+		return Math.max(mX, mY);
+	}
+
+	@Override
+	public Float sum() {
+		return mX + mY;
+	}
+
+	@Override
+	public Float magnitudeSquared() {
+		return mX * mX + mY * mY;
+	}
+
+	@Override
+	public Float magnitude() {
+		return (float) Math.sqrt(mX * mX + mY * mY);
+	}
+
+	@Override
+	public FloatVector2 normalise() {
+		final float m = (float) Math.sqrt(mX * mX + mY * mY);
+		return new FloatVector2(mX / m, mY / m);
+	}
+
+	/**
+	 * Convert another vector of the same length to this type.
+	 * @param aVector The other vector.
+	 * @return The converted vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private static FloatVector2 of(Vector<Float> aVector) throws VectorSizeException {
+		if(aVector instanceof FloatVector2) return (FloatVector2) aVector;
+		return new FloatVector2(aVector);
+	}
+
+}
@@ -0,0 +1,295 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A float vector with exactly 4 elements, stored as fields instead of an array.
+ * <p>
+ * The operations that take another {@link FloatVector4} have no size checks or loops, so when a temporary
+ * result does not escape the JIT can replace it with its fields and avoid allocating it at all.
+ * </p>
+ * @author Adam Smith
+ */
+public final class FloatVector4 extends VectorCommon<Float> {
+	private final float mX;
+	private final float mY;
+	private final float mZ;
+	private final float mW;
+	
+	public FloatVector4(float aX, float aY, float aZ, float aW) {
+		mX = aX;
+		mY = aY;
+		mZ = aZ;
+		mW = aW;
+	}
+	
+	public FloatVector4(Vector<? extends Number> aOther) throws VectorSizeException {
+		if(aOther.size() != 4) throw new VectorSizeException(4, aOther.size());
+		mX = aOther.get(0).floatValue();
+		mY = aOther.get(1).floatValue();
+		mZ = aOther.get(2).floatValue();
+		mW = aOther.get(3).floatValue();
+	}
+	
+	/**
+	 * Return the x component.
+	 * @return The x component.
+	 */
+	public float x() {
+		return mX;
+	}
+	
+	/**
+	 * Return the y component.
+	 * @return The y component.
+	 */
+	public float y() {
+		return mY;
+	}
+	
+	/**
+	 * Return the z component.
+	 * @return The z component.
+	 */
+	public float z() {
+		return mZ;
+	}
+	
+	/**
+	 * Return the w component.
+	 * @return The w component.
+	 */
+	public float w() {
+		return mW;
+	}
+	
+	/**
+	 * Add two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public FloatVector4 add(FloatVector4 aVector) {
+		return new FloatVector4(mX + aVector.mX, mY + aVector.mY, mZ + aVector.mZ, mW + aVector.mW);
+	}
+	
+	/**
+	 * Subtract two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public FloatVector4 subtract(FloatVector4 aVector) {
+		return new FloatVector4(mX - aVector.mX, mY - aVector.mY, mZ - aVector.mZ, mW - aVector.mW);
+	}
+	
+	/**
+	 * Multiply two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public FloatVector4 multiply(FloatVector4 aVector) {
+		return new FloatVector4(mX * aVector.mX, mY * aVector.mY, mZ * aVector.mZ, mW * aVector.mW);
+	}
+	
+	/**
+	 * Divide two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public FloatVector4 divide(FloatVector4 aVector) {
+		return new FloatVector4(mX / aVector.mX, mY / aVector.mY, mZ / aVector.mZ, mW / aVector.mW);
+	}
+	
+	/**
+	 * Calculate the dot product of two vectors.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 */
+	public float dotProduct(FloatVector4 aVector) {
+		return mX * aVector.mX + mY * aVector.mY + mZ * aVector.mZ + mW * aVector.mW;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Float sqrt(Float aValue) {
+		return (float) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Float add(Float aA, Float aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Float sub(Float aA, Float aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Float mul(Float aA, Float aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Float div(Float aA, Float aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Float valueOf(int aValue) {
+		return Float.valueOf(aValue);
+	}
+
+	@Override
+	protected Float min(Float aA, Float aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Float max(Float aA, Float aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Float> createVector(Float[] aValues) {
+		return new FloatVector(aValues);
+	}
+
+	@Override
+	protected Float[] createArray(int aSize) {
+		return new Float[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return 4;
+	}
+
+	@Override
+	public FloatVector4 set(int aIndex, Float aValue) {
+		switch(aIndex) {
+		case 0: return new FloatVector4(aValue, mY, mZ, mW);
+		case 1: return new FloatVector4(mX, aValue, mZ, mW);
+		case 2: return new FloatVector4(mX, mY, aValue, mW);
+		case 3: return new FloatVector4(mX, mY, mZ, aValue);
+		default: throw new ArrayIndexOutOfBoundsException(aIndex);
+		}
+	}
+
+	@Override
+	public Float get(int aIndex) {
+		switch(aIndex) {
+		case 0: return mX;
+		case 1: return mY;
+		case 2: return mZ;
+		case 3: return mW;
+		default: throw new ArrayIndexOutOfBoundsException(aIndex);
+		}
+	}
+
+	@Override
+	public FloatVector4 add(Float aScalar) {
+		final float s = aScalar;
+		return new FloatVector4(mX + s, mY + s, mZ + s, mW + s);
+	}
+
+	@Override
+	public FloatVector4 subtract(Float aScalar) {
+		final float s = aScalar;
+		return new FloatVector4(mX - s, mY - s, mZ - s, mW - s);
+	}
+
+	@Override
+	public FloatVector4 multiply(Float aScalar) {
+		final float s = aScalar;
+		return new FloatVector4(mX * s, mY * s, mZ * s, mW * s);
+	}
+
+	@Override
+	public FloatVector4 divide(Float aScalar) {
+		final float s = aScalar;
+		return new FloatVector4(mX / s, mY / s, mZ / s, mW / s);
+	}
+
+	@Override
+	public FloatVector4 add(Vector<Float> aVector) throws VectorSizeException {
+		return add(of(aVector));
+	}
+
+	@Override
+	public FloatVector4 subtract(Vector<Float> aVector) throws VectorSizeException {
+		return subtract(of(aVector));
+	}
+
+	@Override
+	public FloatVector4 multiply(Vector<Float> aVector) throws VectorSizeException {
+		return multiply(of(aVector));
+	}
+
+	@Override
+	public FloatVector4 divide(Vector<Float> aVector) throws VectorSizeException {
+		return divide(of(aVector));
+	}
+
+	@Override
+	public Float dotProduct(Vector<Float> aVector) throws VectorSizeException {
+		return dotProduct(of(aVector));
+	}
+
+	@Override
+	public Float min() {
+		return Math.min(Math.min(Math.min(mX, mY), mZ), mW);
+	}
+
+	@Override
+	public Float max() {
+		return Math.max(Math.max(Math.max(mX, mY), mZ), mW);
+	}
+
+	@Override
+	public Float sum() {
+		return mX + mY + mZ + mW;
+	}
+
+	@Override
+	public Float magnitudeSquared() {
+		return mX * mX + mY * mY + mZ * mZ + mW * mW;
+	}
+
+	@Override
+	public Float magnitude() {
+		return (float) Math.sqrt(mX * mX + mY * mY + mZ * mZ + mW * mW);
+	}
+
+	@Override
+	public FloatVector4 normalise() {
+		final float m = (float) Math.sqrt(mX * mX + mY * mY + mZ * mZ + mW * mW);
+		return new FloatVector4(mX / m, mY / m, mZ / m, mW / m);
+	}
+
+	/**
+	 * Convert another vector of the same length to this type.
+	 * @param aVector The other vector.
+	 * @return The converted vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private static FloatVector4 of(Vector<Float> aVector) throws VectorSizeException {
+		if(aVector instanceof FloatVector4) return (FloatVector4) aVector;
+		return new FloatVector4(aVector);
+	}
+
+}
@@ -0,0 +1,265 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.util.List;
+
+/**
+ * A collection of equal length float vectors stored as one array per component.
+ * <p>
+ * Storing a batch of small vectors this way avoids an object and an array per vector, and lets operations over the
+ * whole batch run as simple loops over contiguous arrays that the JIT can vectorise.
+ * Unlike {@link Vector} a batch is mutable, but its operations always return a new batch.
+ * </p>
+ * @author Adam Smith
+ */
+public final class FloatVectorBatch {
+	private final float[][] mComponents;
+	private final int mSize;
+	
+	/**
+	 * Create a batch of zero vectors.
+	 * @param aDimension The length of every vector in the batch.
+	 * @param aSize The number of vectors in the batch.
+	 */
+	public FloatVectorBatch(int aDimension, int aSize) {
+		mComponents = new float[aDimension][aSize];
+		mSize = aSize;
+	}
+	
+	/**
+	 * Create a batch containing copies of some vectors.
+	 * @param aDimension The length of every vector in the batch.
+	 * @param aVectors The vectors to copy.
+	 * @throws VectorSizeException Thrown when a vector length does not match the dimension.
+	 */
+	public FloatVectorBatch(int aDimension, List<? extends Vector<Float>> aVectors) throws VectorSizeException {
+		this(aDimension, aVectors.size());
+		for(int i = 0; i < mSize; ++i) set(i, aVectors.get(i));
+	}
+	
+	/**
+	 * Return the number of vectors in the batch.
+	 * @return The number of vectors.
+	 */
+	public int size() {
+		return mSize;
+	}
+	
+	/**
+	 * Return the length of the vectors in the batch.
+	 * @return The number of components in each vector.
+	 */
+	public int dimension() {
+		return mComponents.length;
+	}
+	
+	/**
+	 * Return the array that stores one component of every vector in the batch, without copying it.
+	 * @param aComponent The component index.
+	 * @return The component array.
+	 */
+	public float[] component(int aComponent) {
+		return mComponents[aComponent];
+	}
+	
+	/**
+	 * Return one component of a vector in the batch.
+	 * @param aIndex The index of the vector.
+	 * @param aComponent The component index.
+	 * @return The component value.
+	 */
+	public float get(int aIndex, int aComponent) {
+		return mComponents[aComponent][aIndex];
+	}
+	
+	/**
+	 * Replace one component of a vector in the batch.
+	 * @param aIndex The index of the vector.
+	 * @param aComponent The component index.
+	 * @param aValue The replacement value.
+	 */
+	public void set(int aIndex, int aComponent, float aValue) {
+		mComponents[aComponent][aIndex] = aValue;
+	}
+	
+	/**
+	 * Copy a vector out of the batch.
+	 * @param aIndex The index of the vector.
+	 * @return The vector.
+	 */
+	public FloatVector get(int aIndex) {
+		final int d = mComponents.length;
+		final float[] tmp = new float[d];
+		for(int c = 0; c < d; ++c) tmp[c] = mComponents[c][aIndex];
+		return new FloatVector(tmp);
+	}
+	
+	/**
+	 * Replace a vector in the batch.
+	 * @param aIndex The index of the vector.
+	 * @param aVector The replacement vector.
+	 * @throws VectorSizeException Thrown when the vector length does not match the dimension.
+	 */
+	public void set(int aIndex, Vector<Float> aVector) throws VectorSizeException {
+		final int d = mComponents.length;
+		if(d != aVector.size()) throw new VectorSizeException(d, aVector.size());
+		for(int c = 0; c < d; ++c) mComponents[c][aIndex] = aVector.get(c);
+	}
+	
+	/**
+	 * Add the vectors of two batches.
+	 * @param aOther The other batch.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public FloatVectorBatch add(FloatVectorBatch aOther) throws VectorSizeException {
+		checkSize(aOther);
+		final int d = mComponents.length;
+		final FloatVectorBatch tmp = new FloatVectorBatch(d, mSize);
+		for(int c = 0; c < d; ++c) {
+			final float[] a = mComponents[c];
+			final float[] b = aOther.mComponents[c];
+			final float[] r = tmp.mComponents[c];
+			for(int i = 0; i < mSize; ++i) r[i] = a[i] + b[i];
+		}
+		return tmp;
+	}
+	
+	/**
+	 * Subtract the vectors of two batches.
+	 * @param aOther The other batch.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public FloatVectorBatch subtract(FloatVectorBatch aOther) throws VectorSizeException {
+		checkSize(aOther);
+		final int d = mComponents.length;
+		final FloatVectorBatch tmp = new FloatVectorBatch(d, mSize);
+		for(int c = 0; c < d; ++c) {
+			final float[] a = mComponents[c];
+			final float[] b = aOther.mComponents[c];
+			final float[] r = tmp.mComponents[c];
+			for(int i = 0; i < mSize; ++i) r[i] = a[i] - b[i];
+		}
+		return tmp;
+	}
+	
+	/**
+	 * Multiply every vector in the batch by a scalar.
+	 * @param aScalar The scalar value to multiply by.
+	 * @return The result of the operation.
+	 */
+	public FloatVectorBatch multiply(float aScalar) {
+		final int d = mComponents.length;
+		final FloatVectorBatch tmp = new FloatVectorBatch(d, mSize);
+		for(int c = 0; c < d; ++c) {
+			final float[] a = mComponents[c];
+			final float[] r = tmp.mComponents[c];
+			for(int i = 0; i < mSize; ++i) r[i] = a[i] * aScalar;
+		}
+		return tmp;
+	}
+	
+	/**
+	 * Calculate the dot product of each pair of vectors in two batches.
+	 * @param aOther The other batch.
+	 * @return The dot product of each pair.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public float[] dotProduct(FloatVectorBatch aOther) throws VectorSizeException {
+		checkSize(aOther);
+		final int d = mComponents.length;
+		final float[] tmp = new float[mSize];
+		for(int c = 0; c < d; ++c) {
+			final float[] a = mComponents[c];
+			final float[] b = aOther.mComponents[c];
+			for(int i = 0; i < mSize; ++i) tmp[i] += a[i] * b[i];
+		}
+		return tmp;
+	}
+	
+	/**
+	 * Calculate the cross product of each pair of vectors in two batches of 3 dimensional vectors.
+	 * @param aOther The other batch.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when either batch does not contain 3 dimensional vectors.
+	 */
+	public FloatVectorBatch crossProduct(FloatVectorBatch aOther) throws VectorSizeException {
+		if(mComponents.length != 3) throw new VectorSizeException(3, mComponents.length);
+		checkSize(aOther);
+		final float[] ax = mComponents[0];
+		final float[] ay = mComponents[1];
+		final float[] az = mComponents[2];
+		final float[] bx = aOther.mComponents[0];
+		final float[] by = aOther.mComponents[1];
+		final float[] bz = aOther.mComponents[2];
+		final FloatVectorBatch tmp = new FloatVectorBatch(3, mSize);
+		final float[] rx = tmp.mComponents[0];
+		final float[] ry = tmp.mComponents[1];
+		final float[] rz = tmp.mComponents[2];
+		for(int i = 0; i < mSize; ++i) {
+			rx[i] = ay[i] * bz[i] - az[i] * by[i];
+			ry[i] = az[i] * bx[i] - ax[i] * bz[i];
+			rz[i] = ax[i] * by[i] - ay[i] * bx[i];
+		}
+		return tmp;
+	}
+	
+	/**
+	 * Calculate the square magnitude of every vector in the batch.
+	 * @return The square magnitudes.
+	 */
+	public float[] magnitudeSquared() {
+		final int d = mComponents.length;
+		final float[] tmp = new float[mSize];
+		for(int c = 0; c < d; ++c) {
+			final float[] a = mComponents[c];
+			for(int i = 0; i < mSize; ++i) tmp[i] += a[i] * a[i];
+		}
+		return tmp;
+	}
+	
+	/**
+	 * Calculate the magnitude of every vector in the batch.
+	 * @return The magnitudes.
+	 */
+	public float[] magnitude() {
+		final float[] tmp = magnitudeSquared();
+		for(int i = 0; i < mSize; ++i) tmp[i] = (float) Math.sqrt(tmp[i]);
+		return tmp;
+	}
+	
+	/**
+	 * Normalise every vector in the batch.
+	 * @return The unit vectors.
+	 */
+	public FloatVectorBatch normalise() {
+		final float[] magnitude = magnitude();
+		final int d = mComponents.length;
+		final FloatVectorBatch tmp = new FloatVectorBatch(d, mSize);
+		for(int c = 0; c < d; ++c) {
+			final float[] a = mComponents[c];
+			final float[] r = tmp.mComponents[c];
+			for(int i = 0; i < mSize; ++i) r[i] = a[i] / magnitude[i];
+		}
+		return tmp;
+	}
+	
+	private void checkSize(FloatVectorBatch aOther) throws VectorSizeException {
+		if(mComponents.length != aOther.mComponents.length) throw new VectorSizeException(mComponents.length, aOther.mComponents.length);
+		if(mSize != aOther.mSize) throw new IllegalArgumentException("Expected a batch of " + mSize + " vectors, instead encountered " + aOther.mSize);
+	}
+}
@@ -0,0 +1,726 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers approximate nearest neighbour queries with a hierarchical navigable small world graph.
+ * <p>
+ * Every vector is a node in a proximity graph, and a random subset of nodes also appear in a stack of sparser graphs
+ * above it. A query descends greedily through the upper layers to find a good starting point, then explores the bottom
+ * layer with a beam of {@link #efSearch()} candidates. Larger values of M, efConstruction and efSearch improve recall at
+ * the cost of memory, build time and query time respectively.
+ * </p>
+ * <p>
+ * Vectors are stored as floats in a single array that is allocated up front, so the capacity of an index is fixed when
+ * it is created. Vectors may be added and deleted from any number of threads, and searches may run at the same time.
+ * Deleted vectors stay in the graph so that it remains connected, but are never returned. An index must not be modified
+ * while it is being saved.
+ * </p>
+ * @author Adam Smith
+ */
+public final class HnswIndex {
+	/**
+	 * The default number of links per node in the upper layers. The bottom layer allows twice as many.
+	 */
+	public static final int DEFAULT_M = 16;
+
+	/**
+	 * The default number of candidates considered when linking a new node.
+	 */
+	public static final int DEFAULT_EF_CONSTRUCTION = 200;
+
+	/**
+	 * The default number of candidates considered by a search.
+	 * <p>
+	 * Recall rises with the beam width while query time grows roughly in proportion to it. On 20,000 Gaussian vectors of
+	 * 96 dimensions, recall@10 measured between 0.62 and 0.75 at 64 candidates and between 0.78 and 0.89 at 128, so the
+	 * default is 128. Reaching a recall@10 of 0.95 on such data needs around 256.
+	 * Use {@link #setEfSearch(int)} to trade recall for speed, and measure recall on your own data before relying on it.
+	 * </p>
+	 */
+	public static final int DEFAULT_EF_SEARCH = 128;
+
+	private static final int MAGIC = 0x57534E48; // "HNSW"
+	private static final byte VERSION = 1;
+	private static final int HEADER_SIZE = 48;
+	private static final int MAX_LEVEL = 30;
+	private static final int LOCK_STRIPES = 1 << 12;
+
+	/**
+	 * A binary heap of longs, smallest first. Search candidates are packed into a long with the distance in the upper
+	 * half, so that the heap orders them by distance without boxing.
+	 */
+	private static final class LongHeap {
+		private long[] mValues = new long[64];
+		private int mSize;
+
+		int size() {
+			return mSize;
+		}
+
+		long peek() {
+			return mValues[0];
+		}
+
+		void push(long aValue) {
+			if(mSize == mValues.length) mValues = Arrays.copyOf(mValues, mSize * 2);
+			int i = mSize++;
+			while(i > 0) {
+				final int parent = (i - 1) >>> 1;
+				if(mValues[parent] <= aValue) break;
+				mValues[i] = mValues[parent];
+				i = parent;
+			}
+			mValues[i] = aValue;
+		}
+
+		long pop() {
+			final long top = mValues[0];
+			final long last = mValues[--mSize];
+			int i = 0;
+			while(true) {
+				int child = 2 * i + 1;
+				if(child >= mSize) break;
+				if(child + 1 < mSize && mValues[child + 1] < mValues[child]) ++child;
+				if(last <= mValues[child]) break;
+				mValues[i] = mValues[child];
+				i = child;
+			}
+			mValues[i] = last;
+			return top;
+		}
+	}
+
+	/**
+	 * Marks the nodes visited by one search. Each search uses a new mark, so the array only has to be cleared when the
+	 * marks wrap around.
+	 */
+	private static final class Visited {
+		private final int[] mMarks;
+		private int mMark;
+
+		Visited(int aCapacity) {
+			mMarks = new int[aCapacity];
+		}
+
+		void reset() {
+			if(++mMark == 0) {
+				Arrays.fill(mMarks, 0);
+				mMark = 1;
+			}
+		}
+
+		boolean visit(int aNode) {
+			if(mMarks[aNode] == mMark) return false;
+			mMarks[aNode] = mMark;
+			return true;
+		}
+	}
+
+	private final int mDimension;
+	private final VectorIndex.Metric mMetric;
+	private final int mCapacity;
+	private final int mM;
+	private final int mEfConstruction;
+	private final double mLevelMultiplier;
+	private final float[] mElements;
+	private final float[] mInverseNorms;
+	private final byte[] mLevels;
+	private final boolean[] mDeleted;
+	private final int[][][] mLinks;
+	private final Object[] mLocks;
+	private final Object mEntryLock = new Object();
+	private final AtomicInteger mSize = new AtomicInteger();
+	private final AtomicInteger mDeletedCount = new AtomicInteger();
+	private final ThreadLocal<Visited> mVisited;
+	private volatile long mEntry = -1L;
+	private volatile int mEfSearch = DEFAULT_EF_SEARCH;
+
+	/**
+	 * Create an empty index with the default graph parameters.
+	 * @param aDimension The length of every vector in the index.
+	 * @param aMetric The way of comparing vectors.
+	 * @param aCapacity The maximum number of vectors in the index.
+	 */
+	public HnswIndex(int aDimension, VectorIndex.Metric aMetric, int aCapacity) {
+		this(aDimension, aMetric, aCapacity, DEFAULT_M, DEFAULT_EF_CONSTRUCTION);
+	}
+
+	/**
+	 * Create an empty index.
+	 * @param aDimension The length of every vector in the index.
+	 * @param aMetric The way of comparing vectors.
+	 * @param aCapacity The maximum number of vectors in the index.
+	 * @param aM The number of links per node in the upper layers.
+	 * @param aEfConstruction The number of candidates considered when linking a new node.
+	 */
+	public HnswIndex(int aDimension, VectorIndex.Metric aMetric, int aCapacity, int aM, int aEfConstruction) {
+		if(aDimension < 1) throw new IllegalArgumentException("Vector length must be positive");
+		if(aCapacity < 0 || (long) aCapacity * aDimension > Integer.MAX_VALUE) throw new IllegalArgumentException("Capacity must be between 0 and " + Integer.MAX_VALUE / aDimension + ", instead encountered " + aCapacity);
+		if(aM < 2) throw new IllegalArgumentException("M must be at least 2, instead encountered " + aM);
+		if(aEfConstruction < 1) throw new IllegalArgumentException("efConstruction must be positive, instead encountered " + aEfConstruction);
+		mDimension = aDimension;
+		mMetric = aMetric;
+		mCapacity = aCapacity;
+		mM = aM;
+		mEfConstruction = aEfConstruction;
+		mLevelMultiplier = 1.0 / Math.log(aM);
+		mElements = new float[aCapacity * aDimension];
+		mInverseNorms = new float[aCapacity];
+		mLevels = new byte[aCapacity];
+		mDeleted = new boolean[aCapacity];
+		mLinks = new int[aCapacity][][];
+		mLocks = new Object[LOCK_STRIPES];
+		for(int i = 0; i < LOCK_STRIPES; ++i) mLocks[i] = new Object();
+		mVisited = ThreadLocal.withInitial(() -> new Visited(mCapacity));
+	}
+
+	/**
+	 * Return the number of vectors added to the index, including deleted vectors.
+	 * @return The number of vectors.
+	 */
+	public int size() {
+		return mSize.get();
+	}
+
+	/**
+	 * Return the number of deleted vectors.
+	 * @return The number of deleted vectors.
+	 */
+	public int deletedCount() {
+		return mDeletedCount.get();
+	}
+
+	/**
+	 * Return the maximum number of vectors in the index.
+	 * @return The capacity.
+	 */
+	public int capacity() {
+		return mCapacity;
+	}
+
+	/**
+	 * Return the length of every vector in the index.
+	 * @return The number of elements in each vector.
+	 */
+	public int dimension() {
+		return mDimension;
+	}
+
+	/**
+	 * Return the way the index compares vectors.
+	 * @return The metric.
+	 */
+	public VectorIndex.Metric metric() {
+		return mMetric;
+	}
+
+	/**
+	 * Return the number of candidates considered by a search.
+	 * @return The search beam width.
+	 */
+	public int efSearch() {
+		return mEfSearch;
+	}
+
+	/**
+	 * Set the number of candidates considered by a search. Searches always consider at least as many candidates as the
+	 * number of results they return.
+	 * @param aEfSearch The search beam width.
+	 */
+	public void setEfSearch(int aEfSearch) {
+		if(aEfSearch < 1) throw new IllegalArgumentException("efSearch must be positive, instead encountered " + aEfSearch);
+		mEfSearch = aEfSearch;
+	}
+
+	/**
+	 * Return a copy of an indexed vector.
+	 * @param aIndex The index of the vector.
+	 * @return The vector.
+	 */
+	public FloatVector get(int aIndex) {
+		checkIndex(aIndex);
+		final int offset = aIndex * mDimension;
+		return new FloatVector(Arrays.copyOfRange(mElements, offset, offset + mDimension));
+	}
+
+	/**
+	 * Check whether a vector has been deleted.
+	 * @param aIndex The index of the vector.
+	 * @return True if the vector has been deleted.
+	 */
+	public boolean isDeleted(int aIndex) {
+		checkIndex(aIndex);
+		synchronized(lock(aIndex)) {
+			return mDeleted[aIndex];
+		}
+	}
+
+	/**
+	 * Delete a vector so that it is no longer returned by searches. Searches that are already running may still return it.
+	 * @param aIndex The index of the vector.
+	 * @return False if the vector was already deleted.
+	 */
+	public boolean delete(int aIndex) {
+		checkIndex(aIndex);
+		synchronized(lock(aIndex)) {
+			if(mDeleted[aIndex]) return false;
+			mDeleted[aIndex] = true;
+		}
+		mDeletedCount.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Add a vector to the index.
+	 * @param aVector The vector to add.
+	 * @return The index of the added vector.
+	 * @throws VectorSizeException Thrown when the vector length does not match the index.
+	 */
+	public int add(Vector<? extends Number> aVector) throws VectorSizeException {
+		if(aVector.size() != mDimension) throw new VectorSizeException(mDimension, aVector.size());
+		int id;
+		do {
+			id = mSize.get();
+			if(id >= mCapacity) throw new IllegalStateException("HNSW index is full");
+		}while(! mSize.compareAndSet(id, id + 1));
+
+		final int offset = id * mDimension;
+		for(int i = 0; i < mDimension; ++i) mElements[offset + i] = aVector.get(i).floatValue();
+		final float norm = (float) Math.sqrt(VectorKernels.dot(mElements, offset, mElements, offset, mDimension));
+		mInverseNorms[id] = norm == 0 ? 0 : 1 / norm;
+
+		final int level = Math.min(MAX_LEVEL, (int) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * mLevelMultiplier));
+		final int[][] links = new int[level + 1][];
+		for(int l = 0; l <= level; ++l) links[l] = new int[maxLinks(l) + 1];
+		synchronized(lock(id)) {
+			mLevels[id] = (byte) level;
+			mLinks[id] = links;
+		}
+
+		// A node that is higher than the current entry point becomes the new entry point, which only one thread may do at a time
+		if(level > (int) (mEntry >> 32)) {
+			synchronized(mEntryLock) {
+				if(level > (int) (mEntry >> 32)) {
+					connect(id, level);
+					mEntry = ((long) level << 32) | id;
+					return id;
+				}
+			}
+		}
+		connect(id, level);
+		return id;
+	}
+
+	/**
+	 * Find the vectors that best match a query, considering {@link #efSearch()} candidates.
+	 * @param aQuery The query vector.
+	 * @param aK The maximum number of results.
+	 * @return The best matches, best first.
+	 * @throws VectorSizeException Thrown when the query length does not match the index.
+	 */
+	public VectorIndex.Neighbour[] search(Vector<? extends Number> aQuery, int aK) throws VectorSizeException {
+		return search(aQuery, aK, mEfSearch);
+	}
+
+	/**
+	 * Find the vectors that best match a query.
+	 * @param aQuery The query vector.
+	 * @param aK The maximum number of results.
+	 * @param aEf The number of candidates to consider.
+	 * @return The best matches, best first.
+	 * @throws VectorSizeException Thrown when the query length does not match the index.
+	 */
+	public VectorIndex.Neighbour[] search(Vector<? extends Number> aQuery, int aK, int aEf) throws VectorSizeException {
+		if(aQuery.size() != mDimension) throw new VectorSizeException(mDimension, aQuery.size());
+		if(aK < 0) throw new IllegalArgumentException("Number of results cannot be negative, instead encountered " + aK);
+		final long entry = mEntry;
+		if(entry < 0 || aK == 0) return new VectorIndex.Neighbour[0];
+
+		final float[] query = new float[mDimension];
+		for(int i = 0; i < mDimension; ++i) query[i] = aQuery.get(i).floatValue();
+		if(mMetric == VectorIndex.Metric.COSINE) {
+			final float norm = (float) Math.sqrt(VectorKernels.dot(query, 0, query, 0, mDimension));
+			if(norm != 0) for(int i = 0; i < mDimension; ++i) query[i] /= norm;
+		}
+
+		int node = (int) entry;
+		for(int l = (int) (entry >> 32); l > 0; --l) node = greedy(query, node, l);
+		final LongHeap results = searchLayer(query, node, Math.max(aEf, aK), 0, true);
+
+		while(results.size() > aK) results.pop();
+		final VectorIndex.Neighbour[] tmp = new VectorIndex.Neighbour[results.size()];
+		for(int i = tmp.length - 1; i >= 0; --i) {
+			final long key = ~results.pop();
+			tmp[i] = new VectorIndex.Neighbour((int) key, score(distanceOf(key)));
+		}
+		return tmp;
+	}
+
+	/**
+	 * Write the index to a file.
+	 * @param aFile The file to write.
+	 * @throws IOException Thrown when the file cannot be written.
+	 */
+	public void save(Path aFile) throws IOException {
+		final int size = mSize.get();
+		final long entry = mEntry;
+		try(FileChannel channel = FileChannel.open(aFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			final ByteBuffer buffer = ByteBuffer.allocate(Math.max(1 << 20, HEADER_SIZE + mDimension * Float.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC);
+			buffer.put(VERSION);
+			buffer.put((byte) mMetric.ordinal());
+			buffer.putShort((short) 0);
+			buffer.putInt(mDimension);
+			buffer.putInt(mCapacity);
+			buffer.putInt(mM);
+			buffer.putInt(mEfConstruction);
+			buffer.putInt(mEfSearch);
+			buffer.putInt(size);
+			buffer.putLong(entry);
+			buffer.putLong(0L);
+
+			for(int id = 0; id < size; ++id) {
+				reserve(channel, buffer, mDimension * Float.BYTES);
+				buffer.asFloatBuffer().put(mElements, id * mDimension, mDimension);
+				buffer.position(buffer.position() + mDimension * Float.BYTES);
+			}
+			for(int id = 0; id < size; ++id) {
+				reserve(channel, buffer, 2);
+				buffer.put(mLevels[id]);
+				buffer.put((byte) (mDeleted[id] ? 1 : 0));
+			}
+			for(int id = 0; id < size; ++id) {
+				for(int[] links : mLinks[id]) {
+					reserve(channel, buffer, (links[0] + 1) * Integer.BYTES);
+					for(int i = 0; i <= links[0]; ++i) buffer.putInt(links[i]);
+				}
+			}
+			buffer.flip();
+			while(buffer.hasRemaining()) channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Read an index from a file written by {@link #save(Path)}.
+	 * @param aFile The file to read.
+	 * @return The index.
+	 * @throws IOException Thrown when the file cannot be read or is not an HNSW index.
+	 */
+	public static HnswIndex load(Path aFile) throws IOException {
+		try(FileChannel channel = FileChannel.open(aFile, StandardOpenOption.READ)) {
+			final ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.limit(0);
+			require(channel, buffer, HEADER_SIZE);
+			if(buffer.getInt() != MAGIC) throw new IOException("File is not an HNSW index");
+			final byte version = buffer.get();
+			if(version != VERSION) throw new IOException("Unsupported HNSW index version " + version);
+			final byte metric = buffer.get();
+			if(metric < 0 || metric >= VectorIndex.Metric.values().length) throw new IOException("Unknown metric " + metric);
+			buffer.getShort();
+			final int dimension = buffer.getInt();
+			final int capacity = buffer.getInt();
+			final int m = buffer.getInt();
+			final int efConstruction = buffer.getInt();
+			final int efSearch = buffer.getInt();
+			final int size = buffer.getInt();
+			final long entry = buffer.getLong();
+			buffer.getLong();
+
+			final HnswIndex index;
+			try {
+				index = new HnswIndex(dimension, VectorIndex.Metric.values()[metric], capacity, m, efConstruction);
+				index.setEfSearch(efSearch);
+			}catch(IllegalArgumentException e) {
+				throw new IOException("HNSW index header is corrupt", e);
+			}
+			if(size < 0 || size > capacity) throw new IOException("HNSW index header is corrupt");
+
+			// Each row is read with a single bulk copy, so the buffer must be able to hold a whole row
+			final int rowBytes = dimension * Float.BYTES;
+			final ByteBuffer data = ByteBuffer.allocate(Math.max(buffer.capacity(), rowBytes)).order(ByteOrder.LITTLE_ENDIAN);
+			data.put(buffer).flip();
+			for(int id = 0; id < size; ++id) {
+				final int offset = id * dimension;
+				require(channel, data, rowBytes);
+				data.asFloatBuffer().get(index.mElements, offset, dimension);
+				data.position(data.position() + rowBytes);
+				final float norm = (float) Math.sqrt(VectorKernels.dot(index.mElements, offset, index.mElements, offset, dimension));
+				index.mInverseNorms[id] = norm == 0 ? 0 : 1 / norm;
+			}
+			for(int id = 0; id < size; ++id) {
+				require(channel, data, 2);
+				final byte level = data.get();
+				if(level < 0 || level > MAX_LEVEL) throw new IOException("HNSW index is corrupt");
+				index.mLevels[id] = level;
+				index.mDeleted[id] = data.get() != 0;
+				if(index.mDeleted[id]) index.mDeletedCount.incrementAndGet();
+			}
+			for(int id = 0; id < size; ++id) {
+				final int[][] links = new int[index.mLevels[id] + 1][];
+				for(int l = 0; l < links.length; ++l) {
+					links[l] = new int[index.maxLinks(l) + 1];
+					require(channel, data, Integer.BYTES);
+					final int count = data.getInt();
+					if(count < 0 || count > index.maxLinks(l)) throw new IOException("HNSW index is corrupt");
+					links[l][0] = count;
+					for(int i = 1; i <= count; ++i) {
+						require(channel, data, Integer.BYTES);
+						final int link = data.getInt();
+						if(link < 0 || link >= size) throw new IOException("HNSW index is corrupt");
+						links[l][i] = link;
+					}
+				}
+				index.mLinks[id] = links;
+			}
+			if(size > 0 && ((int) entry < 0 || (int) entry >= size || (int) (entry >> 32) != index.mLevels[(int) entry])) {
+				throw new IOException("HNSW index is corrupt");
+			}
+			index.mSize.set(size);
+			index.mEntry = size == 0 ? -1L : entry;
+			return index;
+		}
+	}
+
+	private static void reserve(FileChannel aChannel, ByteBuffer aBuffer, int aBytes) throws IOException {
+		if(aBuffer.remaining() >= aBytes) return;
+		aBuffer.flip();
+		while(aBuffer.hasRemaining()) aChannel.write(aBuffer);
+		aBuffer.clear();
+	}
+
+	private static void require(FileChannel aChannel, ByteBuffer aBuffer, int aBytes) throws IOException {
+		if(aBuffer.remaining() >= aBytes) return;
+		aBuffer.compact();
+		while(aBuffer.position() < aBytes) {
+			if(aChannel.read(aBuffer) < 0) throw new IOException("HNSW index file is truncated");
+		}
+		aBuffer.flip();
+	}
+
+	private void checkIndex(int aIndex) {
+		final int size = mSize.get();
+		if(aIndex < 0 || aIndex >= size) throw new IndexOutOfBoundsException("Index " + aIndex + " is out of bounds for index of size " + size);
+	}
+
+	private Object lock(int aNode) {
+		return mLocks[aNode & (LOCK_STRIPES - 1)];
+	}
+
+	private int maxLinks(int aLevel) {
+		return aLevel == 0 ? mM * 2 : mM;
+	}
+
+	/**
+	 * Copy the links of a node on one layer into an array, returning the number of links.
+	 * Only one lock is ever held at a time, so linking cannot deadlock.
+	 */
+	private int linksOf(int aNode, int aLevel, int[] aLinks) {
+		synchronized(lock(aNode)) {
+			final int[] links = mLinks[aNode][aLevel];
+			final int count = links[0];
+			System.arraycopy(links, 1, aLinks, 0, count);
+			return count;
+		}
+	}
+
+	/**
+	 * Calculate the distance between a query and a node. Smaller distances are better for every metric.
+	 */
+	private float distance(float[] aQuery, int aNode) {
+		final int offset = aNode * mDimension;
+		switch(mMetric) {
+		case DOT_PRODUCT:
+			return -VectorKernels.dot(aQuery, 0, mElements, offset, mDimension);
+		case COSINE:
+			return 1 - VectorKernels.dot(aQuery, 0, mElements, offset, mDimension) * mInverseNorms[aNode];
+		default:
+			return VectorKernels.distanceSquared(aQuery, 0, mElements, offset, mDimension);
+		}
+	}
+
+	private float distance(int aA, int aB) {
+		final int offsetA = aA * mDimension;
+		final int offsetB = aB * mDimension;
+		switch(mMetric) {
+		case DOT_PRODUCT:
+			return -VectorKernels.dot(mElements, offsetA, mElements, offsetB, mDimension);
+		case COSINE:
+			return 1 - VectorKernels.dot(mElements, offsetA, mElements, offsetB, mDimension) * mInverseNorms[aA] * mInverseNorms[aB];
+		default:
+			return VectorKernels.distanceSquared(mElements, offsetA, mElements, offsetB, mDimension);
+		}
+	}
+
+	private float score(float aDistance) {
+		switch(mMetric) {
+		case DOT_PRODUCT:
+			return -aDistance;
+		case COSINE:
+			return 1 - aDistance;
+		default:
+			return (float) Math.sqrt(aDistance);
+		}
+	}
+
+	/**
+	 * Pack a distance and a node into a long that sorts by distance and then by node.
+	 */
+	private static long key(float aDistance, int aNode) {
+		int bits = Float.floatToIntBits(aDistance);
+		bits ^= (bits >> 31) & 0x7FFFFFFF;
+		return ((long) bits << 32) | aNode;
+	}
+
+	private static float distanceOf(long aKey) {
+		int bits = (int) (aKey >> 32);
+		bits ^= (bits >> 31) & 0x7FFFFFFF;
+		return Float.intBitsToFloat(bits);
+	}
+
+	private int greedy(float[] aQuery, int aNode, int aLevel) {
+		int node = aNode;
+		float best = distance(aQuery, node);
+		final int[] links = new int[mM];
+		boolean changed = true;
+		while(changed) {
+			changed = false;
+			final int count = linksOf(node, aLevel, links);
+			for(int i = 0; i < count; ++i) {
+				final int link = links[i];
+				final float d = distance(aQuery, link);
+				if(d < best) {
+					best = d;
+					node = link;
+					changed = true;
+				}
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Explore one layer from an entry node, keeping the best aEf nodes found.
+	 * @return A heap of the complemented keys of the best nodes, so the worst node is at the top.
+	 */
+	private LongHeap searchLayer(float[] aQuery, int aEntry, int aEf, int aLevel, boolean aSkipDeleted) {
+		final Visited visited = mVisited.get();
+		visited.reset();
+		final LongHeap candidates = new LongHeap();
+		final LongHeap results = new LongHeap();
+		final int[] links = new int[maxLinks(aLevel)];
+
+		final long entry = key(distance(aQuery, aEntry), aEntry);
+		visited.visit(aEntry);
+		candidates.push(entry);
+		if(! aSkipDeleted || ! mDeleted[aEntry]) results.push(~entry);
+
+		while(candidates.size() > 0) {
+			final long candidate = candidates.pop();
+			if(results.size() >= aEf && candidate > ~results.peek()) break;
+			final int count = linksOf((int) candidate, aLevel, links);
+			for(int i = 0; i < count; ++i) {
+				final int link = links[i];
+				if(! visited.visit(link)) continue;
+				final long k = key(distance(aQuery, link), link);
+				if(results.size() < aEf || k < ~results.peek()) {
+					candidates.push(k);
+					if(! aSkipDeleted || ! mDeleted[link]) {
+						results.push(~k);
+						if(results.size() > aEf) results.pop();
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Choose up to aMax neighbours from candidates sorted by distance, skipping any candidate that is closer to an
+	 * already chosen neighbour than to the base node. This keeps links pointing in different directions.
+	 */
+	private int[] selectNeighbours(long[] aCandidates, int aCount, int aMax) {
+		final int[] tmp = new int[aMax];
+		int n = 0;
+		for(int i = 0; i < aCount && n < aMax; ++i) {
+			final int candidate = (int) aCandidates[i];
+			final float d = distanceOf(aCandidates[i]);
+			boolean keep = true;
+			for(int j = 0; j < n && keep; ++j) keep = distance(candidate, tmp[j]) >= d;
+			if(keep) tmp[n++] = candidate;
+		}
+		return Arrays.copyOf(tmp, n);
+	}
+
+	private void connect(int aNode, int aLevel) {
+		final long entry = mEntry;
+		if(entry < 0) return;
+		final int offset = aNode * mDimension;
+		final float[] query = Arrays.copyOfRange(mElements, offset, offset + mDimension);
+		if(mMetric == VectorIndex.Metric.COSINE) for(int i = 0; i < mDimension; ++i) query[i] *= mInverseNorms[aNode];
+
+		int node = (int) entry;
+		final int top = (int) (entry >> 32);
+		for(int l = top; l > aLevel; --l) node = greedy(query, node, l);
+
+		for(int l = Math.min(top, aLevel); l >= 0; --l) {
+			final LongHeap results = searchLayer(query, node, mEfConstruction, l, false);
+			final long[] candidates = new long[results.size()];
+			for(int i = candidates.length - 1; i >= 0; --i) candidates[i] = ~results.pop();
+			final int[] neighbours = selectNeighbours(candidates, candidates.length, mM);
+
+			synchronized(lock(aNode)) {
+				final int[] links = mLinks[aNode][l];
+				links[0] = neighbours.length;
+				System.arraycopy(neighbours, 0, links, 1, neighbours.length);
+			}
+			for(int neighbour : neighbours) link(neighbour, aNode, l);
+			node = (int) candidates[0];
+		}
+	}
+
+	/**
+	 * Add a link from one node to another, pruning the links of the first node if it already has too many.
+	 */
+	private void link(int aFrom, int aTo, int aLevel) {
+		final int max = maxLinks(aLevel);
+		synchronized(lock(aFrom)) {
+			final int[] links = mLinks[aFrom][aLevel];
+			final int count = links[0];
+			if(count < max) {
+				links[count + 1] = aTo;
+				links[0] = count + 1;
+				return;
+			}
+			final long[] candidates = new long[count + 1];
+			for(int i = 0; i < count; ++i) candidates[i] = key(distance(aFrom, links[i + 1]), links[i + 1]);
+			candidates[count] = key(distance(aFrom, aTo), aTo);
+			Arrays.sort(candidates);
+			final int[] neighbours = selectNeighbours(candidates, candidates.length, max);
+			links[0] = neighbours.length;
+			System.arraycopy(neighbours, 0, links, 1, neighbours.length);
+		}
+	}
+}
@@ -14,6 +14,9 @@
 
 package asmith.vectors;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public final class IntegerVector extends VectorCommon<Integer> {
 	private final int[] mElements;
 	
@@ -148,4 +151,178 @@ public final class IntegerVector extends VectorCommon<Integer> {
 		return mElements[aIndex];
 	}
 
+	@Override
+	public Vector<Integer> add(Integer aScalar) {
+		final int b = aScalar;
+		final int s = mElements.length;
+		final int[] tmp = new int[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] + b;
+		return new IntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> subtract(Integer aScalar) {
+		final int b = aScalar;
+		final int s = mElements.length;
+		final int[] tmp = new int[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] - b;
+		return new IntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> multiply(Integer aScalar) {
+		final int b = aScalar;
+		final int s = mElements.length;
+		final int[] tmp = new int[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] * b;
+		return new IntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> divide(Integer aScalar) {
+		final int b = aScalar;
+		final int s = mElements.length;
+		final int[] tmp = new int[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] / b;
+		return new IntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> add(Vector<Integer> aVector) throws VectorSizeException {
+		final int[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final int[] tmp = new int[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] + b[i];
+		return new IntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> subtract(Vector<Integer> aVector) throws VectorSizeException {
+		final int[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final int[] tmp = new int[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] - b[i];
+		return new IntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> multiply(Vector<Integer> aVector) throws VectorSizeException {
+		final int[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final int[] tmp = new int[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] * b[i];
+		return new IntegerVector(tmp);
+	}
+
+	@Override
+	public Vector<Integer> divide(Vector<Integer> aVector) throws VectorSizeException {
+		final int[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final int[] tmp = new int[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] / b[i];
+		return new IntegerVector(tmp);
+	}
+
+	@Override
+	public Integer dotProduct(Vector<Integer> aVector) throws VectorSizeException {
+		if(aVector instanceof DirectIntegerVector) return ((DirectIntegerVector) aVector).dotProduct(this);
+		final int[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length);
+	}
+
+	@Override
+	public Integer min() {
+		final int s = mElements.length;
+		int tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] < tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Integer max() {
+		final int s = mElements.length;
+		int tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] > tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Integer sum() {
+		return VectorKernels.sum(mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Integer magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Integer median() {
+		final int s = mElements.length;
+		final int[] tmp = mElements.clone();
+		final int i = s / 2;
+		final int upper = Selection.select(tmp, i);
+		if(s % 2 == 1) return upper;
+		return (Selection.max(tmp, 0, i) + upper) / 2;
+	}
+
+	@Override
+	public Integer kthSmallest(int aK) {
+		final int s = mElements.length;
+		if(aK < 0 || aK >= s) throw new IndexOutOfBoundsException("Index " + aK + " is out of bounds for vector of length " + s);
+		return Selection.select(mElements.clone(), aK);
+	}
+
+	@Override
+	public Integer mode() {
+		final int s = mElements.length;
+		final LongCountMap counts = new LongCountMap(s);
+		for(int i = 0; i < s; ++i) counts.increment(mElements[i]);
+		int best = 0;
+		int bestCount = 0;
+		for(int i = 0; i < s; ++i) {
+			final int count = counts.get(mElements[i]);
+			if(count > bestCount) {
+				best = i;
+				bestCount = count;
+			}
+		}
+		return mElements[best];
+	}
+
+	@Override
+	public Map<Integer, Integer> histogram() {
+		final int s = mElements.length;
+		final LongCountMap counts = new LongCountMap(s);
+		for(int i = 0; i < s; ++i) counts.increment(mElements[i]);
+		final Map<Integer, Integer> tmp = new HashMap<Integer, Integer>(counts.size() * 2);
+		final int c = counts.capacity();
+		for(int i = 0; i < c; ++i) {
+			final int count = counts.countAt(i);
+			if(count != 0) tmp.put((int) counts.keyAt(i), count);
+		}
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	int[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private int[] elementsOf(Vector<Integer> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.ints(aVector);
+	}
+
 }
@@ -0,0 +1,135 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * Counts occurrences of long keys in an open addressing hash table, without boxing.
+ * Other primitive types are counted by converting them to a long that preserves equality.
+ * @author Adam Smith
+ */
+final class LongCountMap {
+	/**
+	 * The largest table, which is the largest power of two that an array can hold.
+	 */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private long[] mKeys;
+	private int[] mCounts;
+	private int mSize;
+	private int mShift;
+
+	/**
+	 * Create an empty map.
+	 * @param aExpected The expected number of distinct keys.
+	 */
+	LongCountMap(int aExpected) {
+		int capacity = 16;
+		while(capacity / 2 < aExpected && capacity < MAX_CAPACITY) capacity <<= 1;
+		allocate(capacity);
+	}
+
+	private void allocate(int aCapacity) {
+		mKeys = new long[aCapacity];
+		mCounts = new int[aCapacity];
+		mShift = 64 - Integer.numberOfTrailingZeros(aCapacity);
+	}
+
+	private int slot(long aKey) {
+		final int mask = mKeys.length - 1;
+		int i = (int) ((aKey * 0x9E3779B97F4A7C15L) >>> mShift);
+		// A count of zero marks an empty slot
+		while(mCounts[i] != 0 && mKeys[i] != aKey) i = (i + 1) & mask;
+		return i;
+	}
+
+	/**
+	 * Add one occurrence of a key.
+	 * @param aKey The key.
+	 * @return The number of occurrences of the key including this one.
+	 * @throws IllegalStateException Thrown when the key is new and the largest table is already full.
+	 */
+	int increment(long aKey) {
+		int i = slot(aKey);
+		if(mCounts[i] == 0) {
+			if(mSize >= mKeys.length / 2) {
+				if(mKeys.length < MAX_CAPACITY) {
+					grow();
+					i = slot(aKey);
+				}else if(mSize == MAX_CAPACITY - 1) {
+					// Past the largest table the load factor rises instead, but one slot must stay empty to end every probe
+					throw new IllegalStateException("Cannot count more than " + (MAX_CAPACITY - 1) + " distinct keys");
+				}
+			}
+			mKeys[i] = aKey;
+			++mSize;
+		}
+		return ++mCounts[i];
+	}
+
+	/**
+	 * Return the number of occurrences of a key.
+	 * @param aKey The key.
+	 * @return The number of occurrences.
+	 */
+	int get(long aKey) {
+		return mCounts[slot(aKey)];
+	}
+
+	/**
+	 * Return the number of distinct keys.
+	 * @return The number of keys.
+	 */
+	int size() {
+		return mSize;
+	}
+
+	/**
+	 * Return the number of slots in the table, for iterating with {@link #keyAt(int)} and {@link #countAt(int)}.
+	 * @return The number of slots.
+	 */
+	int capacity() {
+		return mKeys.length;
+	}
+
+	/**
+	 * Return the key stored in a slot.
+	 * @param aSlot The slot index.
+	 * @return The key, which is only meaningful when the slot count is not zero.
+	 */
+	long keyAt(int aSlot) {
+		return mKeys[aSlot];
+	}
+
+	/**
+	 * Return the count stored in a slot.
+	 * @param aSlot The slot index.
+	 * @return The count, or zero if the slot is empty.
+	 */
+	int countAt(int aSlot) {
+		return mCounts[aSlot];
+	}
+
+	private void grow() {
+		final long[] keys = mKeys;
+		final int[] counts = mCounts;
+		allocate(keys.length * 2);
+		for(int i = 0; i < keys.length; ++i) {
+			if(counts[i] == 0) continue;
+			final int j = slot(keys[i]);
+			mKeys[j] = keys[i];
+			mCounts[j] = counts[i];
+		}
+	}
+}
@@ -14,6 +14,9 @@
 
 package asmith.vectors;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public final class LongVector extends VectorCommon<Long> {
 	private final long[] mElements;
 	
@@ -148,4 +151,178 @@ public final class LongVector extends VectorCommon<Long> {
 		return mElements[aIndex];
 	}
 
+	@Override
+	public Vector<Long> add(Long aScalar) {
+		final long b = aScalar;
+		final int s = mElements.length;
+		final long[] tmp = new long[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] + b;
+		return new LongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> subtract(Long aScalar) {
+		final long b = aScalar;
+		final int s = mElements.length;
+		final long[] tmp = new long[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] - b;
+		return new LongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> multiply(Long aScalar) {
+		final long b = aScalar;
+		final int s = mElements.length;
+		final long[] tmp = new long[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] * b;
+		return new LongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> divide(Long aScalar) {
+		final long b = aScalar;
+		final int s = mElements.length;
+		final long[] tmp = new long[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] / b;
+		return new LongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> add(Vector<Long> aVector) throws VectorSizeException {
+		final long[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final long[] tmp = new long[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] + b[i];
+		return new LongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> subtract(Vector<Long> aVector) throws VectorSizeException {
+		final long[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final long[] tmp = new long[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] - b[i];
+		return new LongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> multiply(Vector<Long> aVector) throws VectorSizeException {
+		final long[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final long[] tmp = new long[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] * b[i];
+		return new LongVector(tmp);
+	}
+
+	@Override
+	public Vector<Long> divide(Vector<Long> aVector) throws VectorSizeException {
+		final long[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final long[] tmp = new long[s];
+		for(int i = 0; i < s; ++i) tmp[i] = mElements[i] / b[i];
+		return new LongVector(tmp);
+	}
+
+	@Override
+	public Long dotProduct(Vector<Long> aVector) throws VectorSizeException {
+		if(aVector instanceof DirectLongVector) return ((DirectLongVector) aVector).dotProduct(this);
+		final long[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length);
+	}
+
+	@Override
+	public Long min() {
+		final int s = mElements.length;
+		long tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] < tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Long max() {
+		final int s = mElements.length;
+		long tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] > tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Long sum() {
+		return VectorKernels.sum(mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Long magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Long median() {
+		final int s = mElements.length;
+		final long[] tmp = mElements.clone();
+		final int i = s / 2;
+		final long upper = Selection.select(tmp, i);
+		if(s % 2 == 1) return upper;
+		return (Selection.max(tmp, 0, i) + upper) / 2;
+	}
+
+	@Override
+	public Long kthSmallest(int aK) {
+		final int s = mElements.length;
+		if(aK < 0 || aK >= s) throw new IndexOutOfBoundsException("Index " + aK + " is out of bounds for vector of length " + s);
+		return Selection.select(mElements.clone(), aK);
+	}
+
+	@Override
+	public Long mode() {
+		final int s = mElements.length;
+		final LongCountMap counts = new LongCountMap(s);
+		for(int i = 0; i < s; ++i) counts.increment(mElements[i]);
+		int best = 0;
+		int bestCount = 0;
+		for(int i = 0; i < s; ++i) {
+			final int count = counts.get(mElements[i]);
+			if(count > bestCount) {
+				best = i;
+				bestCount = count;
+			}
+		}
+		return mElements[best];
+	}
+
+	@Override
+	public Map<Long, Integer> histogram() {
+		final int s = mElements.length;
+		final LongCountMap counts = new LongCountMap(s);
+		for(int i = 0; i < s; ++i) counts.increment(mElements[i]);
+		final Map<Long, Integer> tmp = new HashMap<Long, Integer>(counts.size() * 2);
+		final int c = counts.capacity();
+		for(int i = 0; i < c; ++i) {
+			final int count = counts.countAt(i);
+			if(count != 0) tmp.put(counts.keyAt(i), count);
+		}
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	long[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private long[] elementsOf(Vector<Long> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.longs(aVector);
+	}
+
 }
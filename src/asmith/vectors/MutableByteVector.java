@@ -0,0 +1,457 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A byte vector whose elements can be modified in place.
+ * <p>
+ * The {@link Vector} operations, including {@link #set(int, Byte)}, behave as they do for {@link ByteVector} and return
+ * new immutable vectors. The in place and destination methods write their results into an existing vector instead, so
+ * code that reuses its vectors does not allocate when operating on other MutableByteVector or ByteVector instances.
+ * </p>
+ * @author Adam Smith
+ */
+public final class MutableByteVector extends VectorCommon<Byte> {
+	private final byte[] mElements;
+	
+	/**
+	 * Create a vector of zeros.
+	 * @param aSize The number of elements.
+	 */
+	public MutableByteVector(int aSize) {
+		mElements = new byte[aSize];
+	}
+	
+	/**
+	 * Create a vector that uses an array as its storage without copying it.
+	 * @param aValue The element array.
+	 */
+	public MutableByteVector(byte[] aValue) {
+		mElements = aValue;
+	}
+	
+	public MutableByteVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		if(aOther instanceof ByteVector) {
+			mElements = ((ByteVector) aOther).elements().clone();
+		}else if(aOther instanceof MutableByteVector) {
+			mElements = ((MutableByteVector) aOther).mElements.clone();
+		}else {
+			mElements = new byte[s];
+			for(int i = 0; i < s; ++i) mElements[i] = aOther.get(i).byteValue();
+		}
+	}
+	
+	/**
+	 * Return an element at specified index without boxing it.
+	 * @param aIndex The index of the vector to retrieve.
+	 * @return The element at the index.
+	 */
+	public byte getByte(int aIndex) {
+		return mElements[aIndex];
+	}
+	
+	/**
+	 * Replace an element at specified index in place. Unlike {@link #set(int, Byte)}, this changes the vector itself.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return This vector.
+	 */
+	public MutableByteVector set(int aIndex, byte aValue) {
+		mElements[aIndex] = aValue;
+		return this;
+	}
+	
+	/**
+	 * Replace every element with the elements of another vector.
+	 * @param aVector The vector to copy.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableByteVector copyFrom(Vector<Byte> aVector) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		System.arraycopy(b, 0, mElements, 0, mElements.length);
+		return this;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a new immutable vector.
+	 * @return The immutable vector.
+	 */
+	public ByteVector toImmutable() {
+		return new ByteVector(mElements.clone());
+	}
+	
+	/**
+	 * Add a scalar to this vector in place.
+	 * @param aScalar The scalar value to add.
+	 * @return This vector.
+	 */
+	public MutableByteVector addInPlace(byte aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = (byte) (mElements[i] + aScalar);
+		return this;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector in place.
+	 * @param aScalar The scalar value to subtract.
+	 * @return This vector.
+	 */
+	public MutableByteVector subtractInPlace(byte aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = (byte) (mElements[i] - aScalar);
+		return this;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar in place.
+	 * @param aScalar The scalar value to multiply by.
+	 * @return This vector.
+	 */
+	public MutableByteVector multiplyInPlace(byte aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = (byte) (mElements[i] * aScalar);
+		return this;
+	}
+	
+	/**
+	 * Divide this vector by a scalar in place.
+	 * @param aScalar The scalar value to divide by.
+	 * @return This vector.
+	 */
+	public MutableByteVector divideInPlace(byte aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = (byte) (mElements[i] / aScalar);
+		return this;
+	}
+	
+	/**
+	 * Add another vector to this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableByteVector addInPlace(Vector<Byte> aVector) throws VectorSizeException {
+		return addInto(aVector, this);
+	}
+	
+	/**
+	 * Subtract another vector from this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableByteVector subtractInPlace(Vector<Byte> aVector) throws VectorSizeException {
+		return subtractInto(aVector, this);
+	}
+	
+	/**
+	 * Multiply this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableByteVector multiplyInPlace(Vector<Byte> aVector) throws VectorSizeException {
+		return multiplyInto(aVector, this);
+	}
+	
+	/**
+	 * Divide this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableByteVector divideInPlace(Vector<Byte> aVector) throws VectorSizeException {
+		return divideInto(aVector, this);
+	}
+	
+	/**
+	 * Normalise this vector in place.
+	 * @return This vector.
+	 */
+	public MutableByteVector normaliseInPlace() {
+		return divideInPlace(magnitude());
+	}
+	
+	/**
+	 * Add a scalar to this vector and store the result in another vector.
+	 * @param aScalar The scalar value to add.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableByteVector addInto(byte aScalar, MutableByteVector aDestination) throws VectorSizeException {
+		final byte[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (byte) (mElements[i] + aScalar);
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector and store the result in another vector.
+	 * @param aScalar The scalar value to subtract.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableByteVector subtractInto(byte aScalar, MutableByteVector aDestination) throws VectorSizeException {
+		final byte[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (byte) (mElements[i] - aScalar);
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to multiply by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableByteVector multiplyInto(byte aScalar, MutableByteVector aDestination) throws VectorSizeException {
+		final byte[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (byte) (mElements[i] * aScalar);
+		return aDestination;
+	}
+	
+	/**
+	 * Divide this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to divide by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableByteVector divideInto(byte aScalar, MutableByteVector aDestination) throws VectorSizeException {
+		final byte[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (byte) (mElements[i] / aScalar);
+		return aDestination;
+	}
+	
+	/**
+	 * Add two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableByteVector addInto(Vector<Byte> aVector, MutableByteVector aDestination) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final byte[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (byte) (mElements[i] + b[i]);
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableByteVector subtractInto(Vector<Byte> aVector, MutableByteVector aDestination) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final byte[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (byte) (mElements[i] - b[i]);
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableByteVector multiplyInto(Vector<Byte> aVector, MutableByteVector aDestination) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final byte[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (byte) (mElements[i] * b[i]);
+		return aDestination;
+	}
+	
+	/**
+	 * Divide two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableByteVector divideInto(Vector<Byte> aVector, MutableByteVector aDestination) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final byte[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (byte) (mElements[i] / b[i]);
+		return aDestination;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Byte sqrt(Byte aValue) {
+		return (byte) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Byte add(Byte aA, Byte aB) {
+		return (byte) (aA + aB);
+	}
+
+	@Override
+	protected Byte sub(Byte aA, Byte aB) {
+		return (byte) (aA - aB);
+	}
+
+	@Override
+	protected Byte mul(Byte aA, Byte aB) {
+		return (byte) (aA * aB);
+	}
+
+	@Override
+	protected Byte div(Byte aA, Byte aB) {
+		return (byte) (aA / aB);
+	}
+
+	@Override
+	protected Byte valueOf(int aValue) {
+		return (byte) aValue;
+	}
+
+	@Override
+	protected Byte min(Byte aA, Byte aB) {
+		return (byte) Math.min(aA, aB);
+	}
+
+	@Override
+	protected Byte max(Byte aA, Byte aB) {
+		return (byte) Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Byte> createVector(Byte[] aValues) {
+		return new ByteVector(aValues);
+	}
+
+	@Override
+	protected Byte[] createArray(int aSize) {
+		return new Byte[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.length;
+	}
+
+	/**
+	 * Replace an element at specified index in a copy of this vector, which is not changed.
+	 * Use {@link #set(int, byte)} to replace an element in place.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return A new immutable vector after the value replaced.
+	 */
+	@Override
+	public Vector<Byte> set(int aIndex, Byte aValue) {
+		final byte[] tmp = mElements.clone();
+		tmp[aIndex] = aValue;
+		return new ByteVector(tmp);
+	}
+
+	@Override
+	public Byte get(int aIndex) {
+		return mElements[aIndex];
+	}
+
+	@Override
+	public Byte dotProduct(Vector<Byte> aVector) throws VectorSizeException {
+		final byte[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i] * b[i];
+		return (byte) tmp;
+	}
+
+	@Override
+	public Byte sum() {
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i];
+		return (byte) tmp;
+	}
+
+	@Override
+	public Byte magnitudeSquared() {
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i] * mElements[i];
+		return (byte) tmp;
+	}
+
+	@Override
+	public Byte min() {
+		final int s = mElements.length;
+		byte tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] < tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Byte max() {
+		final int s = mElements.length;
+		byte tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] > tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	byte[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the storage of a destination vector, checking that its length matches this one.
+	 * @param aDestination The destination vector.
+	 * @return The element array of the destination.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private byte[] destinationOf(MutableByteVector aDestination) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aDestination.mElements.length) throw new VectorSizeException(s, aDestination.mElements.length);
+		return aDestination.mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private byte[] elementsOf(Vector<Byte> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.bytes(aVector);
+	}
+
+}
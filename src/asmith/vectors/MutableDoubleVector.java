@@ -0,0 +1,450 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A double vector whose elements can be modified in place.
+ * <p>
+ * The {@link Vector} operations, including {@link #set(int, Double)}, behave as they do for {@link DoubleVector} and
+ * return new immutable vectors. The in place and destination methods write their results into an existing vector
+ * instead, so code that reuses its vectors does not allocate when operating on other MutableDoubleVector or
+ * DoubleVector instances.
+ * </p>
+ * @author Adam Smith
+ */
+public final class MutableDoubleVector extends VectorCommon<Double> {
+	private final double[] mElements;
+	
+	/**
+	 * Create a vector of zeros.
+	 * @param aSize The number of elements.
+	 */
+	public MutableDoubleVector(int aSize) {
+		mElements = new double[aSize];
+	}
+	
+	/**
+	 * Create a vector that uses an array as its storage without copying it.
+	 * @param aValue The element array.
+	 */
+	public MutableDoubleVector(double[] aValue) {
+		mElements = aValue;
+	}
+	
+	public MutableDoubleVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		if(aOther instanceof DoubleVector) {
+			mElements = ((DoubleVector) aOther).elements().clone();
+		}else if(aOther instanceof MutableDoubleVector) {
+			mElements = ((MutableDoubleVector) aOther).mElements.clone();
+		}else {
+			mElements = new double[s];
+			for(int i = 0; i < s; ++i) mElements[i] = aOther.get(i).doubleValue();
+		}
+	}
+	
+	/**
+	 * Return an element at specified index without boxing it.
+	 * @param aIndex The index of the vector to retrieve.
+	 * @return The element at the index.
+	 */
+	public double getDouble(int aIndex) {
+		return mElements[aIndex];
+	}
+	
+	/**
+	 * Replace an element at specified index in place. Unlike {@link #set(int, Double)}, this changes the vector itself.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return This vector.
+	 */
+	public MutableDoubleVector set(int aIndex, double aValue) {
+		mElements[aIndex] = aValue;
+		return this;
+	}
+	
+	/**
+	 * Replace every element with the elements of another vector.
+	 * @param aVector The vector to copy.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableDoubleVector copyFrom(Vector<Double> aVector) throws VectorSizeException {
+		final double[] b = elementsOf(aVector);
+		System.arraycopy(b, 0, mElements, 0, mElements.length);
+		return this;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a new immutable vector.
+	 * @return The immutable vector.
+	 */
+	public DoubleVector toImmutable() {
+		return new DoubleVector(mElements.clone());
+	}
+	
+	/**
+	 * Add a scalar to this vector in place.
+	 * @param aScalar The scalar value to add.
+	 * @return This vector.
+	 */
+	public MutableDoubleVector addInPlace(double aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] + aScalar;
+		return this;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector in place.
+	 * @param aScalar The scalar value to subtract.
+	 * @return This vector.
+	 */
+	public MutableDoubleVector subtractInPlace(double aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] - aScalar;
+		return this;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar in place.
+	 * @param aScalar The scalar value to multiply by.
+	 * @return This vector.
+	 */
+	public MutableDoubleVector multiplyInPlace(double aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] * aScalar;
+		return this;
+	}
+	
+	/**
+	 * Divide this vector by a scalar in place.
+	 * @param aScalar The scalar value to divide by.
+	 * @return This vector.
+	 */
+	public MutableDoubleVector divideInPlace(double aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] / aScalar;
+		return this;
+	}
+	
+	/**
+	 * Add another vector to this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableDoubleVector addInPlace(Vector<Double> aVector) throws VectorSizeException {
+		return addInto(aVector, this);
+	}
+	
+	/**
+	 * Subtract another vector from this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableDoubleVector subtractInPlace(Vector<Double> aVector) throws VectorSizeException {
+		return subtractInto(aVector, this);
+	}
+	
+	/**
+	 * Multiply this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableDoubleVector multiplyInPlace(Vector<Double> aVector) throws VectorSizeException {
+		return multiplyInto(aVector, this);
+	}
+	
+	/**
+	 * Divide this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableDoubleVector divideInPlace(Vector<Double> aVector) throws VectorSizeException {
+		return divideInto(aVector, this);
+	}
+	
+	/**
+	 * Normalise this vector in place.
+	 * @return This vector.
+	 */
+	public MutableDoubleVector normaliseInPlace() {
+		return divideInPlace(magnitude());
+	}
+	
+	/**
+	 * Add a scalar to this vector and store the result in another vector.
+	 * @param aScalar The scalar value to add.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableDoubleVector addInto(double aScalar, MutableDoubleVector aDestination) throws VectorSizeException {
+		final double[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] + aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector and store the result in another vector.
+	 * @param aScalar The scalar value to subtract.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableDoubleVector subtractInto(double aScalar, MutableDoubleVector aDestination) throws VectorSizeException {
+		final double[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] - aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to multiply by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableDoubleVector multiplyInto(double aScalar, MutableDoubleVector aDestination) throws VectorSizeException {
+		final double[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] * aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Divide this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to divide by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableDoubleVector divideInto(double aScalar, MutableDoubleVector aDestination) throws VectorSizeException {
+		final double[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] / aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Add two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableDoubleVector addInto(Vector<Double> aVector, MutableDoubleVector aDestination) throws VectorSizeException {
+		final double[] b = elementsOf(aVector);
+		final double[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		VectorKernels.add(mElements, 0, b, 0, r, 0, s);
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableDoubleVector subtractInto(Vector<Double> aVector, MutableDoubleVector aDestination) throws VectorSizeException {
+		final double[] b = elementsOf(aVector);
+		final double[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		VectorKernels.subtract(mElements, 0, b, 0, r, 0, s);
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableDoubleVector multiplyInto(Vector<Double> aVector, MutableDoubleVector aDestination) throws VectorSizeException {
+		final double[] b = elementsOf(aVector);
+		final double[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		VectorKernels.multiply(mElements, 0, b, 0, r, 0, s);
+		return aDestination;
+	}
+	
+	/**
+	 * Divide two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableDoubleVector divideInto(Vector<Double> aVector, MutableDoubleVector aDestination) throws VectorSizeException {
+		final double[] b = elementsOf(aVector);
+		final double[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		VectorKernels.divide(mElements, 0, b, 0, r, 0, s);
+		return aDestination;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Double sqrt(Double aValue) {
+		return Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Double add(Double aA, Double aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Double sub(Double aA, Double aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Double mul(Double aA, Double aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Double div(Double aA, Double aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Double valueOf(int aValue) {
+		return Double.valueOf(aValue);
+	}
+
+	@Override
+	protected Double min(Double aA, Double aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Double max(Double aA, Double aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Double> createVector(Double[] aValues) {
+		return new DoubleVector(aValues);
+	}
+
+	@Override
+	protected Double[] createArray(int aSize) {
+		return new Double[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.length;
+	}
+
+	/**
+	 * Replace an element at specified index in a copy of this vector, which is not changed.
+	 * Use {@link #set(int, double)} to replace an element in place.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return A new immutable vector after the value replaced.
+	 */
+	@Override
+	public Vector<Double> set(int aIndex, Double aValue) {
+		final double[] tmp = mElements.clone();
+		tmp[aIndex] = aValue;
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Double get(int aIndex) {
+		return mElements[aIndex];
+	}
+
+	@Override
+	public Double dotProduct(Vector<Double> aVector) throws VectorSizeException {
+		if(aVector instanceof DirectDoubleVector) return ((DirectDoubleVector) aVector).dotProduct(this);
+		final double[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length);
+	}
+
+	@Override
+	public Double sum() {
+		return VectorKernels.sum(mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Double magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Double min() {
+		final int s = mElements.length;
+		double tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = Math.min(tmp, mElements[i]);
+		return tmp;
+	}
+
+	@Override
+	public Double max() {
+		final int s = mElements.length;
+		double tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = Math.max(tmp, mElements[i]);
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	double[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the storage of a destination vector, checking that its length matches this one.
+	 * @param aDestination The destination vector.
+	 * @return The element array of the destination.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private double[] destinationOf(MutableDoubleVector aDestination) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aDestination.mElements.length) throw new VectorSizeException(s, aDestination.mElements.length);
+		return aDestination.mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private double[] elementsOf(Vector<Double> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.doubles(aVector);
+	}
+
+}
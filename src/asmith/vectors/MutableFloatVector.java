@@ -0,0 +1,450 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A float vector whose elements can be modified in place.
+ * <p>
+ * The {@link Vector} operations, including {@link #set(int, Float)}, behave as they do for {@link FloatVector} and
+ * return new immutable vectors. The in place and destination methods write their results into an existing vector
+ * instead, so code that reuses its vectors does not allocate when operating on other MutableFloatVector or FloatVector
+ * instances.
+ * </p>
+ * @author Adam Smith
+ */
+public final class MutableFloatVector extends VectorCommon<Float> {
+	private final float[] mElements;
+	
+	/**
+	 * Create a vector of zeros.
+	 * @param aSize The number of elements.
+	 */
+	public MutableFloatVector(int aSize) {
+		mElements = new float[aSize];
+	}
+	
+	/**
+	 * Create a vector that uses an array as its storage without copying it.
+	 * @param aValue The element array.
+	 */
+	public MutableFloatVector(float[] aValue) {
+		mElements = aValue;
+	}
+	
+	public MutableFloatVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		if(aOther instanceof FloatVector) {
+			mElements = ((FloatVector) aOther).elements().clone();
+		}else if(aOther instanceof MutableFloatVector) {
+			mElements = ((MutableFloatVector) aOther).mElements.clone();
+		}else {
+			mElements = new float[s];
+			for(int i = 0; i < s; ++i) mElements[i] = aOther.get(i).floatValue();
+		}
+	}
+	
+	/**
+	 * Return an element at specified index without boxing it.
+	 * @param aIndex The index of the vector to retrieve.
+	 * @return The element at the index.
+	 */
+	public float getFloat(int aIndex) {
+		return mElements[aIndex];
+	}
+	
+	/**
+	 * Replace an element at specified index in place. Unlike {@link #set(int, Float)}, this changes the vector itself.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return This vector.
+	 */
+	public MutableFloatVector set(int aIndex, float aValue) {
+		mElements[aIndex] = aValue;
+		return this;
+	}
+	
+	/**
+	 * Replace every element with the elements of another vector.
+	 * @param aVector The vector to copy.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableFloatVector copyFrom(Vector<Float> aVector) throws VectorSizeException {
+		final float[] b = elementsOf(aVector);
+		System.arraycopy(b, 0, mElements, 0, mElements.length);
+		return this;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a new immutable vector.
+	 * @return The immutable vector.
+	 */
+	public FloatVector toImmutable() {
+		return new FloatVector(mElements.clone());
+	}
+	
+	/**
+	 * Add a scalar to this vector in place.
+	 * @param aScalar The scalar value to add.
+	 * @return This vector.
+	 */
+	public MutableFloatVector addInPlace(float aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] + aScalar;
+		return this;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector in place.
+	 * @param aScalar The scalar value to subtract.
+	 * @return This vector.
+	 */
+	public MutableFloatVector subtractInPlace(float aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] - aScalar;
+		return this;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar in place.
+	 * @param aScalar The scalar value to multiply by.
+	 * @return This vector.
+	 */
+	public MutableFloatVector multiplyInPlace(float aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] * aScalar;
+		return this;
+	}
+	
+	/**
+	 * Divide this vector by a scalar in place.
+	 * @param aScalar The scalar value to divide by.
+	 * @return This vector.
+	 */
+	public MutableFloatVector divideInPlace(float aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] / aScalar;
+		return this;
+	}
+	
+	/**
+	 * Add another vector to this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableFloatVector addInPlace(Vector<Float> aVector) throws VectorSizeException {
+		return addInto(aVector, this);
+	}
+	
+	/**
+	 * Subtract another vector from this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableFloatVector subtractInPlace(Vector<Float> aVector) throws VectorSizeException {
+		return subtractInto(aVector, this);
+	}
+	
+	/**
+	 * Multiply this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableFloatVector multiplyInPlace(Vector<Float> aVector) throws VectorSizeException {
+		return multiplyInto(aVector, this);
+	}
+	
+	/**
+	 * Divide this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableFloatVector divideInPlace(Vector<Float> aVector) throws VectorSizeException {
+		return divideInto(aVector, this);
+	}
+	
+	/**
+	 * Normalise this vector in place.
+	 * @return This vector.
+	 */
+	public MutableFloatVector normaliseInPlace() {
+		return divideInPlace(magnitude());
+	}
+	
+	/**
+	 * Add a scalar to this vector and store the result in another vector.
+	 * @param aScalar The scalar value to add.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableFloatVector addInto(float aScalar, MutableFloatVector aDestination) throws VectorSizeException {
+		final float[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] + aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector and store the result in another vector.
+	 * @param aScalar The scalar value to subtract.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableFloatVector subtractInto(float aScalar, MutableFloatVector aDestination) throws VectorSizeException {
+		final float[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] - aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to multiply by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableFloatVector multiplyInto(float aScalar, MutableFloatVector aDestination) throws VectorSizeException {
+		final float[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] * aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Divide this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to divide by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableFloatVector divideInto(float aScalar, MutableFloatVector aDestination) throws VectorSizeException {
+		final float[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] / aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Add two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableFloatVector addInto(Vector<Float> aVector, MutableFloatVector aDestination) throws VectorSizeException {
+		final float[] b = elementsOf(aVector);
+		final float[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		VectorKernels.add(mElements, 0, b, 0, r, 0, s);
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableFloatVector subtractInto(Vector<Float> aVector, MutableFloatVector aDestination) throws VectorSizeException {
+		final float[] b = elementsOf(aVector);
+		final float[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		VectorKernels.subtract(mElements, 0, b, 0, r, 0, s);
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableFloatVector multiplyInto(Vector<Float> aVector, MutableFloatVector aDestination) throws VectorSizeException {
+		final float[] b = elementsOf(aVector);
+		final float[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		VectorKernels.multiply(mElements, 0, b, 0, r, 0, s);
+		return aDestination;
+	}
+	
+	/**
+	 * Divide two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableFloatVector divideInto(Vector<Float> aVector, MutableFloatVector aDestination) throws VectorSizeException {
+		final float[] b = elementsOf(aVector);
+		final float[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		VectorKernels.divide(mElements, 0, b, 0, r, 0, s);
+		return aDestination;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Float sqrt(Float aValue) {
+		return (float) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Float add(Float aA, Float aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Float sub(Float aA, Float aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Float mul(Float aA, Float aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Float div(Float aA, Float aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Float valueOf(int aValue) {
+		return Float.valueOf(aValue);
+	}
+
+	@Override
+	protected Float min(Float aA, Float aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Float max(Float aA, Float aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Float> createVector(Float[] aValues) {
+		return new FloatVector(aValues);
+	}
+
+	@Override
+	protected Float[] createArray(int aSize) {
+		return new Float[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.length;
+	}
+
+	/**
+	 * Replace an element at specified index in a copy of this vector, which is not changed.
+	 * Use {@link #set(int, float)} to replace an element in place.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return A new immutable vector after the value replaced.
+	 */
+	@Override
+	public Vector<Float> set(int aIndex, Float aValue) {
+		final float[] tmp = mElements.clone();
+		tmp[aIndex] = aValue;
+		return new FloatVector(tmp);
+	}
+
+	@Override
+	public Float get(int aIndex) {
+		return mElements[aIndex];
+	}
+
+	@Override
+	public Float dotProduct(Vector<Float> aVector) throws VectorSizeException {
+		if(aVector instanceof DirectFloatVector) return ((DirectFloatVector) aVector).dotProduct(this);
+		final float[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length);
+	}
+
+	@Override
+	public Float sum() {
+		return VectorKernels.sum(mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Float magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Float min() {
+		final int s = mElements.length;
+		float tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = Math.min(tmp, mElements[i]);
+		return tmp;
+	}
+
+	@Override
+	public Float max() {
+		final int s = mElements.length;
+		float tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = Math.max(tmp, mElements[i]);
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	float[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the storage of a destination vector, checking that its length matches this one.
+	 * @param aDestination The destination vector.
+	 * @return The element array of the destination.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private float[] destinationOf(MutableFloatVector aDestination) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aDestination.mElements.length) throw new VectorSizeException(s, aDestination.mElements.length);
+		return aDestination.mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private float[] elementsOf(Vector<Float> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.floats(aVector);
+	}
+
+}
@@ -0,0 +1,450 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * An int vector whose elements can be modified in place.
+ * <p>
+ * The {@link Vector} operations, including {@link #set(int, Integer)}, behave as they do for {@link IntegerVector} and
+ * return new immutable vectors. The in place and destination methods write their results into an existing vector
+ * instead, so code that reuses its vectors does not allocate when operating on other MutableIntegerVector or
+ * IntegerVector instances.
+ * </p>
+ * @author Adam Smith
+ */
+public final class MutableIntegerVector extends VectorCommon<Integer> {
+	private final int[] mElements;
+	
+	/**
+	 * Create a vector of zeros.
+	 * @param aSize The number of elements.
+	 */
+	public MutableIntegerVector(int aSize) {
+		mElements = new int[aSize];
+	}
+	
+	/**
+	 * Create a vector that uses an array as its storage without copying it.
+	 * @param aValue The element array.
+	 */
+	public MutableIntegerVector(int[] aValue) {
+		mElements = aValue;
+	}
+	
+	public MutableIntegerVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		if(aOther instanceof IntegerVector) {
+			mElements = ((IntegerVector) aOther).elements().clone();
+		}else if(aOther instanceof MutableIntegerVector) {
+			mElements = ((MutableIntegerVector) aOther).mElements.clone();
+		}else {
+			mElements = new int[s];
+			for(int i = 0; i < s; ++i) mElements[i] = aOther.get(i).intValue();
+		}
+	}
+	
+	/**
+	 * Return an element at specified index without boxing it.
+	 * @param aIndex The index of the vector to retrieve.
+	 * @return The element at the index.
+	 */
+	public int getInt(int aIndex) {
+		return mElements[aIndex];
+	}
+	
+	/**
+	 * Replace an element at specified index in place. Unlike {@link #set(int, Integer)}, this changes the vector itself.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return This vector.
+	 */
+	public MutableIntegerVector set(int aIndex, int aValue) {
+		mElements[aIndex] = aValue;
+		return this;
+	}
+	
+	/**
+	 * Replace every element with the elements of another vector.
+	 * @param aVector The vector to copy.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableIntegerVector copyFrom(Vector<Integer> aVector) throws VectorSizeException {
+		final int[] b = elementsOf(aVector);
+		System.arraycopy(b, 0, mElements, 0, mElements.length);
+		return this;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a new immutable vector.
+	 * @return The immutable vector.
+	 */
+	public IntegerVector toImmutable() {
+		return new IntegerVector(mElements.clone());
+	}
+	
+	/**
+	 * Add a scalar to this vector in place.
+	 * @param aScalar The scalar value to add.
+	 * @return This vector.
+	 */
+	public MutableIntegerVector addInPlace(int aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] + aScalar;
+		return this;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector in place.
+	 * @param aScalar The scalar value to subtract.
+	 * @return This vector.
+	 */
+	public MutableIntegerVector subtractInPlace(int aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] - aScalar;
+		return this;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar in place.
+	 * @param aScalar The scalar value to multiply by.
+	 * @return This vector.
+	 */
+	public MutableIntegerVector multiplyInPlace(int aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] * aScalar;
+		return this;
+	}
+	
+	/**
+	 * Divide this vector by a scalar in place.
+	 * @param aScalar The scalar value to divide by.
+	 * @return This vector.
+	 */
+	public MutableIntegerVector divideInPlace(int aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] / aScalar;
+		return this;
+	}
+	
+	/**
+	 * Add another vector to this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableIntegerVector addInPlace(Vector<Integer> aVector) throws VectorSizeException {
+		return addInto(aVector, this);
+	}
+	
+	/**
+	 * Subtract another vector from this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableIntegerVector subtractInPlace(Vector<Integer> aVector) throws VectorSizeException {
+		return subtractInto(aVector, this);
+	}
+	
+	/**
+	 * Multiply this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableIntegerVector multiplyInPlace(Vector<Integer> aVector) throws VectorSizeException {
+		return multiplyInto(aVector, this);
+	}
+	
+	/**
+	 * Divide this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableIntegerVector divideInPlace(Vector<Integer> aVector) throws VectorSizeException {
+		return divideInto(aVector, this);
+	}
+	
+	/**
+	 * Normalise this vector in place.
+	 * @return This vector.
+	 */
+	public MutableIntegerVector normaliseInPlace() {
+		return divideInPlace(magnitude());
+	}
+	
+	/**
+	 * Add a scalar to this vector and store the result in another vector.
+	 * @param aScalar The scalar value to add.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableIntegerVector addInto(int aScalar, MutableIntegerVector aDestination) throws VectorSizeException {
+		final int[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] + aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector and store the result in another vector.
+	 * @param aScalar The scalar value to subtract.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableIntegerVector subtractInto(int aScalar, MutableIntegerVector aDestination) throws VectorSizeException {
+		final int[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] - aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to multiply by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableIntegerVector multiplyInto(int aScalar, MutableIntegerVector aDestination) throws VectorSizeException {
+		final int[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] * aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Divide this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to divide by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableIntegerVector divideInto(int aScalar, MutableIntegerVector aDestination) throws VectorSizeException {
+		final int[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] / aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Add two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableIntegerVector addInto(Vector<Integer> aVector, MutableIntegerVector aDestination) throws VectorSizeException {
+		final int[] b = elementsOf(aVector);
+		final int[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] + b[i];
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableIntegerVector subtractInto(Vector<Integer> aVector, MutableIntegerVector aDestination) throws VectorSizeException {
+		final int[] b = elementsOf(aVector);
+		final int[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] - b[i];
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableIntegerVector multiplyInto(Vector<Integer> aVector, MutableIntegerVector aDestination) throws VectorSizeException {
+		final int[] b = elementsOf(aVector);
+		final int[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] * b[i];
+		return aDestination;
+	}
+	
+	/**
+	 * Divide two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableIntegerVector divideInto(Vector<Integer> aVector, MutableIntegerVector aDestination) throws VectorSizeException {
+		final int[] b = elementsOf(aVector);
+		final int[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] / b[i];
+		return aDestination;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Integer sqrt(Integer aValue) {
+		return (int) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Integer add(Integer aA, Integer aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Integer sub(Integer aA, Integer aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Integer mul(Integer aA, Integer aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Integer div(Integer aA, Integer aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Integer valueOf(int aValue) {
+		return Integer.valueOf(aValue);
+	}
+
+	@Override
+	protected Integer min(Integer aA, Integer aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Integer max(Integer aA, Integer aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Integer> createVector(Integer[] aValues) {
+		return new IntegerVector(aValues);
+	}
+
+	@Override
+	protected Integer[] createArray(int aSize) {
+		return new Integer[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.length;
+	}
+
+	/**
+	 * Replace an element at specified index in a copy of this vector, which is not changed.
+	 * Use {@link #set(int, int)} to replace an element in place.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return A new immutable vector after the value replaced.
+	 */
+	@Override
+	public Vector<Integer> set(int aIndex, Integer aValue) {
+		final int[] tmp = mElements.clone();
+		tmp[aIndex] = aValue;
+		return new IntegerVector(tmp);
+	}
+
+	@Override
+	public Integer get(int aIndex) {
+		return mElements[aIndex];
+	}
+
+	@Override
+	public Integer dotProduct(Vector<Integer> aVector) throws VectorSizeException {
+		if(aVector instanceof DirectIntegerVector) return ((DirectIntegerVector) aVector).dotProduct(this);
+		final int[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length);
+	}
+
+	@Override
+	public Integer sum() {
+		return VectorKernels.sum(mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Integer magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Integer min() {
+		final int s = mElements.length;
+		int tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] < tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Integer max() {
+		final int s = mElements.length;
+		int tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] > tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	int[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the storage of a destination vector, checking that its length matches this one.
+	 * @param aDestination The destination vector.
+	 * @return The element array of the destination.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private int[] destinationOf(MutableIntegerVector aDestination) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aDestination.mElements.length) throw new VectorSizeException(s, aDestination.mElements.length);
+		return aDestination.mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private int[] elementsOf(Vector<Integer> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.ints(aVector);
+	}
+
+}
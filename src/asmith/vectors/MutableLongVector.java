@@ -0,0 +1,449 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A long vector whose elements can be modified in place.
+ * <p>
+ * The {@link Vector} operations, including {@link #set(int, Long)}, behave as they do for {@link LongVector} and return
+ * new immutable vectors. The in place and destination methods write their results into an existing vector instead, so
+ * code that reuses its vectors does not allocate when operating on other MutableLongVector or LongVector instances.
+ * </p>
+ * @author Adam Smith
+ */
+public final class MutableLongVector extends VectorCommon<Long> {
+	private final long[] mElements;
+	
+	/**
+	 * Create a vector of zeros.
+	 * @param aSize The number of elements.
+	 */
+	public MutableLongVector(int aSize) {
+		mElements = new long[aSize];
+	}
+	
+	/**
+	 * Create a vector that uses an array as its storage without copying it.
+	 * @param aValue The element array.
+	 */
+	public MutableLongVector(long[] aValue) {
+		mElements = aValue;
+	}
+	
+	public MutableLongVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		if(aOther instanceof LongVector) {
+			mElements = ((LongVector) aOther).elements().clone();
+		}else if(aOther instanceof MutableLongVector) {
+			mElements = ((MutableLongVector) aOther).mElements.clone();
+		}else {
+			mElements = new long[s];
+			for(int i = 0; i < s; ++i) mElements[i] = aOther.get(i).longValue();
+		}
+	}
+	
+	/**
+	 * Return an element at specified index without boxing it.
+	 * @param aIndex The index of the vector to retrieve.
+	 * @return The element at the index.
+	 */
+	public long getLong(int aIndex) {
+		return mElements[aIndex];
+	}
+	
+	/**
+	 * Replace an element at specified index in place. Unlike {@link #set(int, Long)}, this changes the vector itself.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return This vector.
+	 */
+	public MutableLongVector set(int aIndex, long aValue) {
+		mElements[aIndex] = aValue;
+		return this;
+	}
+	
+	/**
+	 * Replace every element with the elements of another vector.
+	 * @param aVector The vector to copy.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableLongVector copyFrom(Vector<Long> aVector) throws VectorSizeException {
+		final long[] b = elementsOf(aVector);
+		System.arraycopy(b, 0, mElements, 0, mElements.length);
+		return this;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a new immutable vector.
+	 * @return The immutable vector.
+	 */
+	public LongVector toImmutable() {
+		return new LongVector(mElements.clone());
+	}
+	
+	/**
+	 * Add a scalar to this vector in place.
+	 * @param aScalar The scalar value to add.
+	 * @return This vector.
+	 */
+	public MutableLongVector addInPlace(long aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] + aScalar;
+		return this;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector in place.
+	 * @param aScalar The scalar value to subtract.
+	 * @return This vector.
+	 */
+	public MutableLongVector subtractInPlace(long aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] - aScalar;
+		return this;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar in place.
+	 * @param aScalar The scalar value to multiply by.
+	 * @return This vector.
+	 */
+	public MutableLongVector multiplyInPlace(long aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] * aScalar;
+		return this;
+	}
+	
+	/**
+	 * Divide this vector by a scalar in place.
+	 * @param aScalar The scalar value to divide by.
+	 * @return This vector.
+	 */
+	public MutableLongVector divideInPlace(long aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = mElements[i] / aScalar;
+		return this;
+	}
+	
+	/**
+	 * Add another vector to this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableLongVector addInPlace(Vector<Long> aVector) throws VectorSizeException {
+		return addInto(aVector, this);
+	}
+	
+	/**
+	 * Subtract another vector from this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableLongVector subtractInPlace(Vector<Long> aVector) throws VectorSizeException {
+		return subtractInto(aVector, this);
+	}
+	
+	/**
+	 * Multiply this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableLongVector multiplyInPlace(Vector<Long> aVector) throws VectorSizeException {
+		return multiplyInto(aVector, this);
+	}
+	
+	/**
+	 * Divide this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableLongVector divideInPlace(Vector<Long> aVector) throws VectorSizeException {
+		return divideInto(aVector, this);
+	}
+	
+	/**
+	 * Normalise this vector in place.
+	 * @return This vector.
+	 */
+	public MutableLongVector normaliseInPlace() {
+		return divideInPlace(magnitude());
+	}
+	
+	/**
+	 * Add a scalar to this vector and store the result in another vector.
+	 * @param aScalar The scalar value to add.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableLongVector addInto(long aScalar, MutableLongVector aDestination) throws VectorSizeException {
+		final long[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] + aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector and store the result in another vector.
+	 * @param aScalar The scalar value to subtract.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableLongVector subtractInto(long aScalar, MutableLongVector aDestination) throws VectorSizeException {
+		final long[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] - aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to multiply by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableLongVector multiplyInto(long aScalar, MutableLongVector aDestination) throws VectorSizeException {
+		final long[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] * aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Divide this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to divide by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableLongVector divideInto(long aScalar, MutableLongVector aDestination) throws VectorSizeException {
+		final long[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] / aScalar;
+		return aDestination;
+	}
+	
+	/**
+	 * Add two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableLongVector addInto(Vector<Long> aVector, MutableLongVector aDestination) throws VectorSizeException {
+		final long[] b = elementsOf(aVector);
+		final long[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] + b[i];
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableLongVector subtractInto(Vector<Long> aVector, MutableLongVector aDestination) throws VectorSizeException {
+		final long[] b = elementsOf(aVector);
+		final long[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] - b[i];
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableLongVector multiplyInto(Vector<Long> aVector, MutableLongVector aDestination) throws VectorSizeException {
+		final long[] b = elementsOf(aVector);
+		final long[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] * b[i];
+		return aDestination;
+	}
+	
+	/**
+	 * Divide two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableLongVector divideInto(Vector<Long> aVector, MutableLongVector aDestination) throws VectorSizeException {
+		final long[] b = elementsOf(aVector);
+		final long[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = mElements[i] / b[i];
+		return aDestination;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Long sqrt(Long aValue) {
+		return (long) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Long add(Long aA, Long aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Long sub(Long aA, Long aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Long mul(Long aA, Long aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Long div(Long aA, Long aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Long valueOf(int aValue) {
+		return Long.valueOf(aValue);
+	}
+
+	@Override
+	protected Long min(Long aA, Long aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Long max(Long aA, Long aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Long> createVector(Long[] aValues) {
+		return new LongVector(aValues);
+	}
+
+	@Override
+	protected Long[] createArray(int aSize) {
+		return new Long[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.length;
+	}
+
+	/**
+	 * Replace an element at specified index in a copy of this vector, which is not changed.
+	 * Use {@link #set(int, long)} to replace an element in place.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return A new immutable vector after the value replaced.
+	 */
+	@Override
+	public Vector<Long> set(int aIndex, Long aValue) {
+		final long[] tmp = mElements.clone();
+		tmp[aIndex] = aValue;
+		return new LongVector(tmp);
+	}
+
+	@Override
+	public Long get(int aIndex) {
+		return mElements[aIndex];
+	}
+
+	@Override
+	public Long dotProduct(Vector<Long> aVector) throws VectorSizeException {
+		if(aVector instanceof DirectLongVector) return ((DirectLongVector) aVector).dotProduct(this);
+		final long[] b = elementsOf(aVector);
+		return VectorKernels.dot(mElements, 0, b, 0, mElements.length);
+	}
+
+	@Override
+	public Long sum() {
+		return VectorKernels.sum(mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Long magnitudeSquared() {
+		return VectorKernels.dot(mElements, 0, mElements, 0, mElements.length);
+	}
+
+	@Override
+	public Long min() {
+		final int s = mElements.length;
+		long tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] < tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Long max() {
+		final int s = mElements.length;
+		long tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] > tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	long[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the storage of a destination vector, checking that its length matches this one.
+	 * @param aDestination The destination vector.
+	 * @return The element array of the destination.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private long[] destinationOf(MutableLongVector aDestination) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aDestination.mElements.length) throw new VectorSizeException(s, aDestination.mElements.length);
+		return aDestination.mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private long[] elementsOf(Vector<Long> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.longs(aVector);
+	}
+
+}
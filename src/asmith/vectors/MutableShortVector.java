@@ -0,0 +1,458 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A short vector whose elements can be modified in place.
+ * <p>
+ * The {@link Vector} operations, including {@link #set(int, Short)}, behave as they do for {@link ShortVector} and
+ * return new immutable vectors. The in place and destination methods write their results into an existing vector
+ * instead, so code that reuses its vectors does not allocate when operating on other MutableShortVector or ShortVector
+ * instances.
+ * </p>
+ * @author Adam Smith
+ */
+public final class MutableShortVector extends VectorCommon<Short> {
+	private final short[] mElements;
+	
+	/**
+	 * Create a vector of zeros.
+	 * @param aSize The number of elements.
+	 */
+	public MutableShortVector(int aSize) {
+		mElements = new short[aSize];
+	}
+	
+	/**
+	 * Create a vector that uses an array as its storage without copying it.
+	 * @param aValue The element array.
+	 */
+	public MutableShortVector(short[] aValue) {
+		mElements = aValue;
+	}
+	
+	public MutableShortVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		if(aOther instanceof ShortVector) {
+			mElements = ((ShortVector) aOther).elements().clone();
+		}else if(aOther instanceof MutableShortVector) {
+			mElements = ((MutableShortVector) aOther).mElements.clone();
+		}else {
+			mElements = new short[s];
+			for(int i = 0; i < s; ++i) mElements[i] = aOther.get(i).shortValue();
+		}
+	}
+	
+	/**
+	 * Return an element at specified index without boxing it.
+	 * @param aIndex The index of the vector to retrieve.
+	 * @return The element at the index.
+	 */
+	public short getShort(int aIndex) {
+		return mElements[aIndex];
+	}
+	
+	/**
+	 * Replace an element at specified index in place. Unlike {@link #set(int, Short)}, this changes the vector itself.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return This vector.
+	 */
+	public MutableShortVector set(int aIndex, short aValue) {
+		mElements[aIndex] = aValue;
+		return this;
+	}
+	
+	/**
+	 * Replace every element with the elements of another vector.
+	 * @param aVector The vector to copy.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableShortVector copyFrom(Vector<Short> aVector) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		System.arraycopy(b, 0, mElements, 0, mElements.length);
+		return this;
+	}
+	
+	/**
+	 * Copy the elements of this vector into a new immutable vector.
+	 * @return The immutable vector.
+	 */
+	public ShortVector toImmutable() {
+		return new ShortVector(mElements.clone());
+	}
+	
+	/**
+	 * Add a scalar to this vector in place.
+	 * @param aScalar The scalar value to add.
+	 * @return This vector.
+	 */
+	public MutableShortVector addInPlace(short aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = (short) (mElements[i] + aScalar);
+		return this;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector in place.
+	 * @param aScalar The scalar value to subtract.
+	 * @return This vector.
+	 */
+	public MutableShortVector subtractInPlace(short aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = (short) (mElements[i] - aScalar);
+		return this;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar in place.
+	 * @param aScalar The scalar value to multiply by.
+	 * @return This vector.
+	 */
+	public MutableShortVector multiplyInPlace(short aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = (short) (mElements[i] * aScalar);
+		return this;
+	}
+	
+	/**
+	 * Divide this vector by a scalar in place.
+	 * @param aScalar The scalar value to divide by.
+	 * @return This vector.
+	 */
+	public MutableShortVector divideInPlace(short aScalar) {
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) mElements[i] = (short) (mElements[i] / aScalar);
+		return this;
+	}
+	
+	/**
+	 * Add another vector to this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableShortVector addInPlace(Vector<Short> aVector) throws VectorSizeException {
+		return addInto(aVector, this);
+	}
+	
+	/**
+	 * Subtract another vector from this vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableShortVector subtractInPlace(Vector<Short> aVector) throws VectorSizeException {
+		return subtractInto(aVector, this);
+	}
+	
+	/**
+	 * Multiply this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableShortVector multiplyInPlace(Vector<Short> aVector) throws VectorSizeException {
+		return multiplyInto(aVector, this);
+	}
+	
+	/**
+	 * Divide this vector by another vector in place.
+	 * @param aVector The other vector.
+	 * @return This vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableShortVector divideInPlace(Vector<Short> aVector) throws VectorSizeException {
+		return divideInto(aVector, this);
+	}
+	
+	/**
+	 * Normalise this vector in place.
+	 * @return This vector.
+	 */
+	public MutableShortVector normaliseInPlace() {
+		return divideInPlace(magnitude());
+	}
+	
+	/**
+	 * Add a scalar to this vector and store the result in another vector.
+	 * @param aScalar The scalar value to add.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableShortVector addInto(short aScalar, MutableShortVector aDestination) throws VectorSizeException {
+		final short[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (short) (mElements[i] + aScalar);
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract a scalar from this vector and store the result in another vector.
+	 * @param aScalar The scalar value to subtract.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableShortVector subtractInto(short aScalar, MutableShortVector aDestination) throws VectorSizeException {
+		final short[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (short) (mElements[i] - aScalar);
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to multiply by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableShortVector multiplyInto(short aScalar, MutableShortVector aDestination) throws VectorSizeException {
+		final short[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (short) (mElements[i] * aScalar);
+		return aDestination;
+	}
+	
+	/**
+	 * Divide this vector by a scalar and store the result in another vector.
+	 * @param aScalar The scalar value to divide by.
+	 * @param aDestination The vector to write the result to, which may be this vector.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the destination length does not match.
+	 */
+	public MutableShortVector divideInto(short aScalar, MutableShortVector aDestination) throws VectorSizeException {
+		final short[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (short) (mElements[i] / aScalar);
+		return aDestination;
+	}
+	
+	/**
+	 * Add two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableShortVector addInto(Vector<Short> aVector, MutableShortVector aDestination) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final short[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (short) (mElements[i] + b[i]);
+		return aDestination;
+	}
+	
+	/**
+	 * Subtract two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableShortVector subtractInto(Vector<Short> aVector, MutableShortVector aDestination) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final short[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (short) (mElements[i] - b[i]);
+		return aDestination;
+	}
+	
+	/**
+	 * Multiply two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableShortVector multiplyInto(Vector<Short> aVector, MutableShortVector aDestination) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final short[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (short) (mElements[i] * b[i]);
+		return aDestination;
+	}
+	
+	/**
+	 * Divide two vectors and store the result in another vector.
+	 * @param aVector The other vector.
+	 * @param aDestination The vector to write the result to, which may be either operand.
+	 * @return The destination vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public MutableShortVector divideInto(Vector<Short> aVector, MutableShortVector aDestination) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final short[] r = destinationOf(aDestination);
+		final int s = mElements.length;
+		for(int i = 0; i < s; ++i) r[i] = (short) (mElements[i] / b[i]);
+		return aDestination;
+	}
+	
+	// Inherited from VectorCommon
+
+	@Override
+	protected Short sqrt(Short aValue) {
+		return (short) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Short add(Short aA, Short aB) {
+		return (short) (aA + aB);
+	}
+
+	@Override
+	protected Short sub(Short aA, Short aB) {
+		return (short) (aA - aB);
+	}
+
+	@Override
+	protected Short mul(Short aA, Short aB) {
+		return (short) (aA * aB);
+	}
+
+	@Override
+	protected Short div(Short aA, Short aB) {
+		return (short) (aA / aB);
+	}
+
+	@Override
+	protected Short valueOf(int aValue) {
+		return (short) aValue;
+	}
+
+	@Override
+	protected Short min(Short aA, Short aB) {
+		return (short) Math.min(aA, aB);
+	}
+
+	@Override
+	protected Short max(Short aA, Short aB) {
+		return (short) Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Short> createVector(Short[] aValues) {
+		return new ShortVector(aValues);
+	}
+
+	@Override
+	protected Short[] createArray(int aSize) {
+		return new Short[aSize];
+	}
+	
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mElements.length;
+	}
+
+	/**
+	 * Replace an element at specified index in a copy of this vector, which is not changed.
+	 * Use {@link #set(int, short)} to replace an element in place.
+	 * @param aIndex The index of the vector to replace.
+	 * @param aValue The replacement value.
+	 * @return A new immutable vector after the value replaced.
+	 */
+	@Override
+	public Vector<Short> set(int aIndex, Short aValue) {
+		final short[] tmp = mElements.clone();
+		tmp[aIndex] = aValue;
+		return new ShortVector(tmp);
+	}
+
+	@Override
+	public Short get(int aIndex) {
+		return mElements[aIndex];
+	}
+
+	@Override
+	public Short dotProduct(Vector<Short> aVector) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i] * b[i];
+		return (short) tmp;
+	}
+
+	@Override
+	public Short sum() {
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i];
+		return (short) tmp;
+	}
+
+	@Override
+	public Short magnitudeSquared() {
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i] * mElements[i];
+		return (short) tmp;
+	}
+
+	@Override
+	public Short min() {
+		final int s = mElements.length;
+		short tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] < tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Short max() {
+		final int s = mElements.length;
+		short tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] > tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	short[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the storage of a destination vector, checking that its length matches this one.
+	 * @param aDestination The destination vector.
+	 * @return The element array of the destination.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private short[] destinationOf(MutableShortVector aDestination) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aDestination.mElements.length) throw new VectorSizeException(s, aDestination.mElements.length);
+		return aDestination.mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private short[] elementsOf(Vector<Short> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.shorts(aVector);
+	}
+
+}
@@ -0,0 +1,508 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Calculates reductions of large vectors on a fork join pool.
+ * <p>
+ * A vector is split in half until each part is no longer than the split threshold. Each part is reduced sequentially
+ * and the partial results are combined in the same tree order, so the result only depends on the vector length and
+ * the threshold. Floating point results are therefore reproducible between runs and between pools of different sizes.
+ * </p>
+ * @author Adam Smith
+ */
+public final class ParallelReductions {
+	/**
+	 * The default number of elements below which a vector is no longer split.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+	private interface DoubleRange {
+		double apply(int aFrom, int aTo);
+	}
+
+	private interface LongRange {
+		long apply(int aFrom, int aTo);
+	}
+
+	private interface StatsRange {
+		void apply(VectorStats aStats, int aFrom, int aTo);
+	}
+
+	private static final class DoubleTask extends RecursiveTask<Double> {
+		private static final long serialVersionUID = -4304325745620167735L;
+
+		private final DoubleRange mRange;
+		private final DoubleBinaryOperator mCombine;
+		private final int mThreshold;
+		private final int mFrom;
+		private final int mTo;
+
+		DoubleTask(DoubleRange aRange, DoubleBinaryOperator aCombine, int aThreshold, int aFrom, int aTo) {
+			mRange = aRange;
+			mCombine = aCombine;
+			mThreshold = aThreshold;
+			mFrom = aFrom;
+			mTo = aTo;
+		}
+
+		@Override
+		protected Double compute() {
+			if(mTo - mFrom <= mThreshold) return mRange.apply(mFrom, mTo);
+			final int middle = (mFrom + mTo) >>> 1;
+			final DoubleTask left = new DoubleTask(mRange, mCombine, mThreshold, mFrom, middle);
+			final DoubleTask right = new DoubleTask(mRange, mCombine, mThreshold, middle, mTo);
+			left.fork();
+			final double r = right.compute();
+			return mCombine.applyAsDouble(left.join(), r);
+		}
+	}
+
+	private static final class LongTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 2427014342093366658L;
+
+		private final LongRange mRange;
+		private final LongBinaryOperator mCombine;
+		private final int mThreshold;
+		private final int mFrom;
+		private final int mTo;
+
+		LongTask(LongRange aRange, LongBinaryOperator aCombine, int aThreshold, int aFrom, int aTo) {
+			mRange = aRange;
+			mCombine = aCombine;
+			mThreshold = aThreshold;
+			mFrom = aFrom;
+			mTo = aTo;
+		}
+
+		@Override
+		protected Long compute() {
+			if(mTo - mFrom <= mThreshold) return mRange.apply(mFrom, mTo);
+			final int middle = (mFrom + mTo) >>> 1;
+			final LongTask left = new LongTask(mRange, mCombine, mThreshold, mFrom, middle);
+			final LongTask right = new LongTask(mRange, mCombine, mThreshold, middle, mTo);
+			left.fork();
+			final long r = right.compute();
+			return mCombine.applyAsLong(left.join(), r);
+		}
+	}
+
+	private static final class StatsTask extends RecursiveTask<VectorStats> {
+		private static final long serialVersionUID = 6151190934640245063L;
+
+		private final StatsRange mRange;
+		private final int mThreshold;
+		private final int mFrom;
+		private final int mTo;
+
+		StatsTask(StatsRange aRange, int aThreshold, int aFrom, int aTo) {
+			mRange = aRange;
+			mThreshold = aThreshold;
+			mFrom = aFrom;
+			mTo = aTo;
+		}
+
+		@Override
+		protected VectorStats compute() {
+			if(mTo - mFrom <= mThreshold) {
+				final VectorStats tmp = new VectorStats();
+				mRange.apply(tmp, mFrom, mTo);
+				return tmp;
+			}
+			final int middle = (mFrom + mTo) >>> 1;
+			final StatsTask left = new StatsTask(mRange, mThreshold, mFrom, middle);
+			final StatsTask right = new StatsTask(mRange, mThreshold, middle, mTo);
+			left.fork();
+			final VectorStats r = right.compute();
+			final VectorStats l = left.join();
+			l.merge(r);
+			return l;
+		}
+	}
+
+	private final ForkJoinPool mPool;
+	private final int mThreshold;
+
+	/**
+	 * Create reductions that run on the common pool with the default threshold.
+	 */
+	public ParallelReductions() {
+		this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Create reductions that run on a specific pool.
+	 * @param aPool The pool to run on.
+	 * @param aThreshold The number of elements below which a vector is reduced sequentially.
+	 */
+	public ParallelReductions(ForkJoinPool aPool, int aThreshold) {
+		if(aThreshold < 1) throw new IllegalArgumentException("Split threshold must be positive");
+		mPool = aPool;
+		mThreshold = aThreshold;
+	}
+
+	private double reduceDouble(int aLength, DoubleRange aRange, DoubleBinaryOperator aCombine) {
+		if(aLength <= mThreshold) return aRange.apply(0, aLength);
+		return mPool.invoke(new DoubleTask(aRange, aCombine, mThreshold, 0, aLength));
+	}
+
+	private long reduceLong(int aLength, LongRange aRange, LongBinaryOperator aCombine) {
+		if(aLength <= mThreshold) return aRange.apply(0, aLength);
+		return mPool.invoke(new LongTask(aRange, aCombine, mThreshold, 0, aLength));
+	}
+
+	private VectorStats reduceStats(int aLength, StatsRange aRange) {
+		if(aLength <= mThreshold) {
+			final VectorStats tmp = new VectorStats();
+			aRange.apply(tmp, 0, aLength);
+			return tmp;
+		}
+		return mPool.invoke(new StatsTask(aRange, mThreshold, 0, aLength));
+	}
+
+	private static void checkSize(int aA, int aB) throws VectorSizeException {
+		if(aA != aB) throw new VectorSizeException(aA, aB);
+	}
+
+	// Double
+
+	/**
+	 * Calculate the sum of all elements in a vector.
+	 * @param aVector The vector.
+	 * @return The sum of elements.
+	 */
+	public double sumDouble(Vector<Double> aVector) {
+		final double[] a = VectorKernels.doubles(aVector);
+		return reduceDouble(a.length, (from, to) -> VectorKernels.sum(a, from, to - from), Double::sum);
+	}
+
+	/**
+	 * Calculate the dot product of two vectors.
+	 * @param aA The left hand vector.
+	 * @param aB The right hand vector.
+	 * @return The dot product.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public double dotProductDouble(Vector<Double> aA, Vector<Double> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final double[] a = VectorKernels.doubles(aA);
+		final double[] b = VectorKernels.doubles(aB);
+		return reduceDouble(a.length, (from, to) -> VectorKernels.dot(a, from, b, from, to - from), Double::sum);
+	}
+
+	/**
+	 * Calculate the square magnitude of a vector.
+	 * @param aVector The vector.
+	 * @return The square magnitude.
+	 */
+	public double magnitudeSquaredDouble(Vector<Double> aVector) {
+		final double[] a = VectorKernels.doubles(aVector);
+		return reduceDouble(a.length, (from, to) -> VectorKernels.dot(a, from, a, from, to - from), Double::sum);
+	}
+
+	/**
+	 * Calculate the minimum value in a vector.
+	 * @param aVector The vector.
+	 * @return The minimum value.
+	 */
+	public double minDouble(Vector<Double> aVector) {
+		final double[] a = VectorKernels.doubles(aVector);
+		return reduceDouble(a.length, (from, to) -> {
+			double tmp = a[from];
+			for(int i = from + 1; i < to; ++i) tmp = Math.min(tmp, a[i]);
+			return tmp;
+		}, Math::min);
+	}
+
+	/**
+	 * Calculate the maximum value in a vector.
+	 * @param aVector The vector.
+	 * @return The maximum value.
+	 */
+	public double maxDouble(Vector<Double> aVector) {
+		final double[] a = VectorKernels.doubles(aVector);
+		return reduceDouble(a.length, (from, to) -> {
+			double tmp = a[from];
+			for(int i = from + 1; i < to; ++i) tmp = Math.max(tmp, a[i]);
+			return tmp;
+		}, Math::max);
+	}
+
+	// Float
+
+	/**
+	 * Calculate the sum of all elements in a vector.
+	 * Each part is summed in float precision and the partial sums are combined in double precision.
+	 * @param aVector The vector.
+	 * @return The sum of elements.
+	 */
+	public float sumFloat(Vector<Float> aVector) {
+		final float[] a = VectorKernels.floats(aVector);
+		return (float) reduceDouble(a.length, (from, to) -> VectorKernels.sum(a, from, to - from), Double::sum);
+	}
+
+	/**
+	 * Calculate the dot product of two vectors.
+	 * Each part is accumulated in float precision and the partial results are combined in double precision.
+	 * @param aA The left hand vector.
+	 * @param aB The right hand vector.
+	 * @return The dot product.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public float dotProductFloat(Vector<Float> aA, Vector<Float> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final float[] a = VectorKernels.floats(aA);
+		final float[] b = VectorKernels.floats(aB);
+		return (float) reduceDouble(a.length, (from, to) -> VectorKernels.dot(a, from, b, from, to - from), Double::sum);
+	}
+
+	/**
+	 * Calculate the square magnitude of a vector.
+	 * Each part is accumulated in float precision and the partial results are combined in double precision.
+	 * @param aVector The vector.
+	 * @return The square magnitude.
+	 */
+	public float magnitudeSquaredFloat(Vector<Float> aVector) {
+		final float[] a = VectorKernels.floats(aVector);
+		return (float) reduceDouble(a.length, (from, to) -> VectorKernels.dot(a, from, a, from, to - from), Double::sum);
+	}
+
+	/**
+	 * Calculate the minimum value in a vector.
+	 * @param aVector The vector.
+	 * @return The minimum value.
+	 */
+	public float minFloat(Vector<Float> aVector) {
+		final float[] a = VectorKernels.floats(aVector);
+		return (float) reduceDouble(a.length, (from, to) -> {
+			float tmp = a[from];
+			for(int i = from + 1; i < to; ++i) tmp = Math.min(tmp, a[i]);
+			return tmp;
+		}, Math::min);
+	}
+
+	/**
+	 * Calculate the maximum value in a vector.
+	 * @param aVector The vector.
+	 * @return The maximum value.
+	 */
+	public float maxFloat(Vector<Float> aVector) {
+		final float[] a = VectorKernels.floats(aVector);
+		return (float) reduceDouble(a.length, (from, to) -> {
+			float tmp = a[from];
+			for(int i = from + 1; i < to; ++i) tmp = Math.max(tmp, a[i]);
+			return tmp;
+		}, Math::max);
+	}
+
+	// Integer
+
+	/**
+	 * Calculate the sum of all elements in a vector, wrapping on overflow as {@link IntegerVector#sum()} does.
+	 * @param aVector The vector.
+	 * @return The sum of elements.
+	 */
+	public int sumInteger(Vector<Integer> aVector) {
+		final int[] a = VectorKernels.ints(aVector);
+		return (int) reduceLong(a.length, (from, to) -> {
+			int tmp = 0;
+			for(int i = from; i < to; ++i) tmp += a[i];
+			return tmp;
+		}, Long::sum);
+	}
+
+	/**
+	 * Calculate the dot product of two vectors, wrapping on overflow as {@link IntegerVector#dotProduct(Vector)} does.
+	 * @param aA The left hand vector.
+	 * @param aB The right hand vector.
+	 * @return The dot product.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public int dotProductInteger(Vector<Integer> aA, Vector<Integer> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final int[] a = VectorKernels.ints(aA);
+		final int[] b = VectorKernels.ints(aB);
+		return (int) reduceLong(a.length, (from, to) -> {
+			int tmp = 0;
+			for(int i = from; i < to; ++i) tmp += a[i] * b[i];
+			return tmp;
+		}, Long::sum);
+	}
+
+	/**
+	 * Calculate the square magnitude of a vector, wrapping on overflow as {@link IntegerVector#magnitudeSquared()} does.
+	 * @param aVector The vector.
+	 * @return The square magnitude.
+	 */
+	public int magnitudeSquaredInteger(Vector<Integer> aVector) {
+		final int[] a = VectorKernels.ints(aVector);
+		return (int) reduceLong(a.length, (from, to) -> {
+			int tmp = 0;
+			for(int i = from; i < to; ++i) tmp += a[i] * a[i];
+			return tmp;
+		}, Long::sum);
+	}
+
+	/**
+	 * Calculate the minimum value in a vector.
+	 * @param aVector The vector.
+	 * @return The minimum value.
+	 */
+	public int minInteger(Vector<Integer> aVector) {
+		final int[] a = VectorKernels.ints(aVector);
+		return (int) reduceLong(a.length, (from, to) -> {
+			int tmp = a[from];
+			for(int i = from + 1; i < to; ++i) tmp = Math.min(tmp, a[i]);
+			return tmp;
+		}, Math::min);
+	}
+
+	/**
+	 * Calculate the maximum value in a vector.
+	 * @param aVector The vector.
+	 * @return The maximum value.
+	 */
+	public int maxInteger(Vector<Integer> aVector) {
+		final int[] a = VectorKernels.ints(aVector);
+		return (int) reduceLong(a.length, (from, to) -> {
+			int tmp = a[from];
+			for(int i = from + 1; i < to; ++i) tmp = Math.max(tmp, a[i]);
+			return tmp;
+		}, Math::max);
+	}
+
+	// Long
+
+	/**
+	 * Calculate the sum of all elements in a vector, wrapping on overflow as {@link LongVector#sum()} does.
+	 * @param aVector The vector.
+	 * @return The sum of elements.
+	 */
+	public long sumLong(Vector<Long> aVector) {
+		final long[] a = VectorKernels.longs(aVector);
+		return reduceLong(a.length, (from, to) -> {
+			long tmp = 0;
+			for(int i = from; i < to; ++i) tmp += a[i];
+			return tmp;
+		}, Long::sum);
+	}
+
+	/**
+	 * Calculate the dot product of two vectors, wrapping on overflow as {@link LongVector#dotProduct(Vector)} does.
+	 * @param aA The left hand vector.
+	 * @param aB The right hand vector.
+	 * @return The dot product.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public long dotProductLong(Vector<Long> aA, Vector<Long> aB) throws VectorSizeException {
+		checkSize(aA.size(), aB.size());
+		final long[] a = VectorKernels.longs(aA);
+		final long[] b = VectorKernels.longs(aB);
+		return reduceLong(a.length, (from, to) -> {
+			long tmp = 0;
+			for(int i = from; i < to; ++i) tmp += a[i] * b[i];
+			return tmp;
+		}, Long::sum);
+	}
+
+	/**
+	 * Calculate the square magnitude of a vector, wrapping on overflow as {@link LongVector#magnitudeSquared()} does.
+	 * @param aVector The vector.
+	 * @return The square magnitude.
+	 */
+	public long magnitudeSquaredLong(Vector<Long> aVector) {
+		final long[] a = VectorKernels.longs(aVector);
+		return reduceLong(a.length, (from, to) -> {
+			long tmp = 0;
+			for(int i = from; i < to; ++i) tmp += a[i] * a[i];
+			return tmp;
+		}, Long::sum);
+	}
+
+	/**
+	 * Calculate the minimum value in a vector.
+	 * @param aVector The vector.
+	 * @return The minimum value.
+	 */
+	public long minLong(Vector<Long> aVector) {
+		final long[] a = VectorKernels.longs(aVector);
+		return reduceLong(a.length, (from, to) -> {
+			long tmp = a[from];
+			for(int i = from + 1; i < to; ++i) tmp = Math.min(tmp, a[i]);
+			return tmp;
+		}, Math::min);
+	}
+
+	/**
+	 * Calculate the maximum value in a vector.
+	 * @param aVector The vector.
+	 * @return The maximum value.
+	 */
+	public long maxLong(Vector<Long> aVector) {
+		final long[] a = VectorKernels.longs(aVector);
+		return reduceLong(a.length, (from, to) -> {
+			long tmp = a[from];
+			for(int i = from + 1; i < to; ++i) tmp = Math.max(tmp, a[i]);
+			return tmp;
+		}, Math::max);
+	}
+
+	// Statistics
+
+	/**
+	 * Calculate the count, sum, mean, variance, minimum and maximum of a vector in a single pass.
+	 * @param aVector The vector.
+	 * @return The statistics.
+	 */
+	public VectorStats statisticsDouble(Vector<Double> aVector) {
+		final double[] a = VectorKernels.doubles(aVector);
+		return reduceStats(a.length, (stats, from, to) -> stats.accept(a, from, to - from));
+	}
+
+	/**
+	 * Calculate the count, sum, mean, variance, minimum and maximum of a vector in a single pass.
+	 * @param aVector The vector.
+	 * @return The statistics.
+	 */
+	public VectorStats statisticsFloat(Vector<Float> aVector) {
+		final float[] a = VectorKernels.floats(aVector);
+		return reduceStats(a.length, (stats, from, to) -> stats.accept(a, from, to - from));
+	}
+
+	/**
+	 * Calculate the count, sum, mean, variance, minimum and maximum of a vector in a single pass.
+	 * @param aVector The vector.
+	 * @return The statistics.
+	 */
+	public VectorStats statisticsInteger(Vector<Integer> aVector) {
+		final int[] a = VectorKernels.ints(aVector);
+		return reduceStats(a.length, (stats, from, to) -> stats.accept(a, from, to - from));
+	}
+
+	/**
+	 * Calculate the count, sum, mean, variance, minimum and maximum of a vector in a single pass.
+	 * @param aVector The vector.
+	 * @return The statistics.
+	 */
+	public VectorStats statisticsLong(Vector<Long> aVector) {
+		final long[] a = VectorKernels.longs(aVector);
+		return reduceStats(a.length, (stats, from, to) -> stats.accept(a, from, to - from));
+	}
+}
@@ -0,0 +1,522 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * An immutable double vector whose {@link #set(int, Double)} shares most of its storage with the original vector.
+ * <p>
+ * Elements are stored in leaf arrays of 64 doubles, which are the leaves of a tree with up to 64 children per node.
+ * Replacing an element copies only the leaf that holds it and the nodes on the path to the root, so it takes time
+ * proportional to the logarithm of the length and every other leaf is shared by both vectors. Many replacements can be
+ * made with a {@link Builder}, which copies each leaf and node the first time it is changed and then changes it in place.
+ * </p>
+ * <p>
+ * Arithmetic and reductions run over whole leaves with the same kernels as {@link DoubleVector}.
+ * </p>
+ * @author Adam Smith
+ */
+public final class PersistentDoubleVector extends VectorCommon<Double> {
+	private static final int BITS = 6;
+	private static final int WIDTH = 1 << BITS;
+	private static final int MASK = WIDTH - 1;
+
+	private static final int ADD = 0;
+	private static final int SUBTRACT = 1;
+	private static final int MULTIPLY = 2;
+	private static final int DIVIDE = 3;
+
+	/**
+	 * A node of the tree. Branches have children and leaves have values. A node whose edit token matches a builder's
+	 * token was created by that builder and can be changed in place by it, every other node is never changed.
+	 */
+	private static final class Node {
+		final Object mEdit;
+		final Node[] mChildren;
+		final double[] mValues;
+
+		Node(Object aEdit, Node[] aChildren, double[] aValues) {
+			mEdit = aEdit;
+			mChildren = aChildren;
+			mValues = aValues;
+		}
+
+		Node copy(Object aEdit) {
+			return new Node(aEdit, mChildren == null ? null : mChildren.clone(), mValues == null ? null : mValues.clone());
+		}
+	}
+
+	/**
+	 * Makes many changes to a vector without copying a leaf or node more than once.
+	 * A builder is not thread safe, but the vectors it builds are.
+	 */
+	public static final class Builder {
+		private final int mSize;
+		private final int mShift;
+		private Node mRoot;
+		private Object mEdit = new Object();
+
+		/**
+		 * Start from a vector of zeros. Every leaf initially shares the same array.
+		 * @param aSize The length of the vector.
+		 */
+		public Builder(int aSize) {
+			if(aSize < 0) throw new IllegalArgumentException("Vector length cannot be negative, instead encountered " + aSize);
+			final Node zero = new Node(null, null, new double[WIDTH]);
+			final Node[] leaves = new Node[leafCount(aSize)];
+			for(int i = 0; i < leaves.length; ++i) leaves[i] = zero;
+			mSize = aSize;
+			mShift = shiftFor(aSize);
+			mRoot = assemble(leaves);
+		}
+
+		/**
+		 * Start from an existing vector, which is not changed.
+		 * @param aVector The vector.
+		 */
+		public Builder(PersistentDoubleVector aVector) {
+			mSize = aVector.mSize;
+			mShift = aVector.mShift;
+			mRoot = aVector.mRoot;
+		}
+
+		/**
+		 * Return the length of the vector.
+		 * @return The number of elements.
+		 */
+		public int size() {
+			return mSize;
+		}
+
+		/**
+		 * Return one element.
+		 * @param aIndex The element index.
+		 * @return The element value.
+		 */
+		public double get(int aIndex) {
+			checkIndex(aIndex, mSize);
+			return leafAt(mRoot, mShift, aIndex).mValues[aIndex & MASK];
+		}
+
+		/**
+		 * Replace one element.
+		 * @param aIndex The element index.
+		 * @param aValue The replacement value.
+		 * @return This builder.
+		 */
+		public Builder set(int aIndex, double aValue) {
+			checkIndex(aIndex, mSize);
+			if(mRoot.mEdit != mEdit) mRoot = mRoot.copy(mEdit);
+			Node node = mRoot;
+			for(int shift = mShift; shift > 0; shift -= BITS) {
+				final int k = (aIndex >>> shift) & MASK;
+				Node child = node.mChildren[k];
+				if(child.mEdit != mEdit) {
+					child = child.copy(mEdit);
+					node.mChildren[k] = child;
+				}
+				node = child;
+			}
+			node.mValues[aIndex & MASK] = aValue;
+			return this;
+		}
+
+		/**
+		 * Create a vector with the current elements. Later changes to the builder copy the leaves and nodes they touch
+		 * again, so they do not affect the vector.
+		 * @return The vector.
+		 */
+		public PersistentDoubleVector build() {
+			mEdit = new Object();
+			return new PersistentDoubleVector(mRoot, mShift, mSize);
+		}
+	}
+
+	private final Node mRoot;
+	private final int mShift;
+	private final int mSize;
+
+	public PersistentDoubleVector(double[] aValue) {
+		mSize = aValue.length;
+		mShift = shiftFor(mSize);
+		mRoot = assemble(leaves(aValue, mSize));
+	}
+
+	public PersistentDoubleVector(Double[] aValue) {
+		final int s = aValue.length;
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = aValue[i];
+		mSize = s;
+		mShift = shiftFor(s);
+		mRoot = assemble(leaves(tmp, s));
+	}
+
+	public PersistentDoubleVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = aOther.get(i).doubleValue();
+		mSize = s;
+		mShift = shiftFor(s);
+		mRoot = assemble(leaves(tmp, s));
+	}
+
+	private PersistentDoubleVector(Node aRoot, int aShift, int aSize) {
+		mRoot = aRoot;
+		mShift = aShift;
+		mSize = aSize;
+	}
+
+	private PersistentDoubleVector(Node[] aLeaves, int aSize) {
+		mRoot = assemble(aLeaves);
+		mShift = shiftFor(aSize);
+		mSize = aSize;
+	}
+
+	private static int leafCount(int aSize) {
+		return Math.max(1, (aSize + MASK) >>> BITS);
+	}
+
+	private static int shiftFor(int aSize) {
+		int shift = 0;
+		for(long capacity = WIDTH; capacity < aSize; capacity <<= BITS) shift += BITS;
+		return shift;
+	}
+
+	private static void checkIndex(int aIndex, int aSize) {
+		if(aIndex < 0 || aIndex >= aSize) throw new ArrayIndexOutOfBoundsException(aIndex);
+	}
+
+	private static Node[] leaves(double[] aValue, int aLength) {
+		final Node[] tmp = new Node[leafCount(aLength)];
+		for(int i = 0; i < tmp.length; ++i) {
+			final double[] values = new double[WIDTH];
+			final int from = i << BITS;
+			System.arraycopy(aValue, from, values, 0, Math.max(0, Math.min(WIDTH, aLength - from)));
+			tmp[i] = new Node(null, null, values);
+		}
+		return tmp;
+	}
+
+	/**
+	 * Build the branches above a row of leaves, with up to 64 children per branch.
+	 * @return The root.
+	 */
+	private static Node assemble(Node[] aLeaves) {
+		Node[] level = aLeaves;
+		while(level.length > 1) {
+			final Node[] parents = new Node[(level.length + MASK) >>> BITS];
+			for(int i = 0; i < parents.length; ++i) {
+				final int from = i << BITS;
+				final Node[] children = new Node[Math.min(WIDTH, level.length - from)];
+				System.arraycopy(level, from, children, 0, children.length);
+				parents[i] = new Node(null, children, null);
+			}
+			level = parents;
+		}
+		return level[0];
+	}
+
+	private static Node leafAt(Node aRoot, int aShift, int aIndex) {
+		Node node = aRoot;
+		for(int shift = aShift; shift > 0; shift -= BITS) node = node.mChildren[(aIndex >>> shift) & MASK];
+		return node;
+	}
+
+	private double[] leaf(int aLeaf) {
+		return leafAt(mRoot, mShift, aLeaf << BITS).mValues;
+	}
+
+	private int leafLength(int aLeaf) {
+		return Math.min(WIDTH, mSize - (aLeaf << BITS));
+	}
+
+	/**
+	 * Copy every element into a heap vector.
+	 * @return The heap vector.
+	 */
+	public DoubleVector toDoubleVector() {
+		final double[] tmp = new double[mSize];
+		final int leaves = leafCount(mSize);
+		for(int i = 0; i < leaves; ++i) System.arraycopy(leaf(i), 0, tmp, i << BITS, leafLength(i));
+		return new DoubleVector(tmp);
+	}
+
+	/**
+	 * Start a builder from this vector.
+	 * @return The builder.
+	 */
+	public Builder toBuilder() {
+		return new Builder(this);
+	}
+
+	private static void apply(int aOperation, double[] aA, double[] aB, int aOffsetB, double[] aResult, int aLength) {
+		switch(aOperation) {
+		case ADD:
+			for(int i = 0; i < aLength; ++i) aResult[i] = aA[i] + aB[aOffsetB + i];
+			break;
+		case SUBTRACT:
+			for(int i = 0; i < aLength; ++i) aResult[i] = aA[i] - aB[aOffsetB + i];
+			break;
+		case MULTIPLY:
+			for(int i = 0; i < aLength; ++i) aResult[i] = aA[i] * aB[aOffsetB + i];
+			break;
+		default:
+			for(int i = 0; i < aLength; ++i) aResult[i] = aA[i] / aB[aOffsetB + i];
+			break;
+		}
+	}
+
+	private static void apply(int aOperation, double[] aA, double aB, double[] aResult, int aLength) {
+		switch(aOperation) {
+		case ADD:
+			for(int i = 0; i < aLength; ++i) aResult[i] = aA[i] + aB;
+			break;
+		case SUBTRACT:
+			for(int i = 0; i < aLength; ++i) aResult[i] = aA[i] - aB;
+			break;
+		case MULTIPLY:
+			for(int i = 0; i < aLength; ++i) aResult[i] = aA[i] * aB;
+			break;
+		default:
+			for(int i = 0; i < aLength; ++i) aResult[i] = aA[i] / aB;
+			break;
+		}
+	}
+
+	private PersistentDoubleVector apply(int aOperation, double aScalar) {
+		final Node[] leaves = new Node[leafCount(mSize)];
+		for(int i = 0; i < leaves.length; ++i) {
+			final double[] values = new double[WIDTH];
+			apply(aOperation, leaf(i), aScalar, values, leafLength(i));
+			leaves[i] = new Node(null, null, values);
+		}
+		return new PersistentDoubleVector(leaves, mSize);
+	}
+
+	private PersistentDoubleVector apply(int aOperation, Vector<Double> aVector) throws VectorSizeException {
+		if(mSize != aVector.size()) throw new VectorSizeException(mSize, aVector.size());
+		final Node[] leaves = new Node[leafCount(mSize)];
+		if(aVector instanceof PersistentDoubleVector) {
+			// Both trees have the same shape, so leaves can be paired directly
+			final PersistentDoubleVector b = (PersistentDoubleVector) aVector;
+			for(int i = 0; i < leaves.length; ++i) {
+				final double[] values = new double[WIDTH];
+				apply(aOperation, leaf(i), b.leaf(i), 0, values, leafLength(i));
+				leaves[i] = new Node(null, null, values);
+			}
+		}else {
+			final double[] b = VectorKernels.doubles(aVector);
+			for(int i = 0; i < leaves.length; ++i) {
+				final double[] values = new double[WIDTH];
+				apply(aOperation, leaf(i), b, i << BITS, values, leafLength(i));
+				leaves[i] = new Node(null, null, values);
+			}
+		}
+		return new PersistentDoubleVector(leaves, mSize);
+	}
+
+	// Inherited from VectorCommon
+
+	@Override
+	protected Double sqrt(Double aValue) {
+		return Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Double add(Double aA, Double aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Double sub(Double aA, Double aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Double mul(Double aA, Double aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Double div(Double aA, Double aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Double valueOf(int aValue) {
+		return Double.valueOf(aValue);
+	}
+
+	@Override
+	protected Double min(Double aA, Double aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Double max(Double aA, Double aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Double> createVector(Double[] aValues) {
+		return new PersistentDoubleVector(aValues);
+	}
+
+	@Override
+	protected Double[] createArray(int aSize) {
+		return new Double[aSize];
+	}
+
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mSize;
+	}
+
+	@Override
+	public PersistentDoubleVector set(int aIndex, Double aValue) {
+		checkIndex(aIndex, mSize);
+		final Node root = mRoot.copy(null);
+		Node node = root;
+		for(int shift = mShift; shift > 0; shift -= BITS) {
+			final int k = (aIndex >>> shift) & MASK;
+			final Node child = node.mChildren[k].copy(null);
+			node.mChildren[k] = child;
+			node = child;
+		}
+		node.mValues[aIndex & MASK] = aValue;
+		return new PersistentDoubleVector(root, mShift, mSize);
+	}
+
+	@Override
+	public Double get(int aIndex) {
+		checkIndex(aIndex, mSize);
+		return leafAt(mRoot, mShift, aIndex).mValues[aIndex & MASK];
+	}
+
+	@Override
+	public Vector<Double> add(Double aScalar) {
+		return apply(ADD, aScalar);
+	}
+
+	@Override
+	public Vector<Double> subtract(Double aScalar) {
+		return apply(SUBTRACT, aScalar);
+	}
+
+	@Override
+	public Vector<Double> multiply(Double aScalar) {
+		return apply(MULTIPLY, aScalar);
+	}
+
+	@Override
+	public Vector<Double> divide(Double aScalar) {
+		return apply(DIVIDE, aScalar);
+	}
+
+	@Override
+	public Vector<Double> add(Vector<Double> aVector) throws VectorSizeException {
+		return apply(ADD, aVector);
+	}
+
+	@Override
+	public Vector<Double> subtract(Vector<Double> aVector) throws VectorSizeException {
+		return apply(SUBTRACT, aVector);
+	}
+
+	@Override
+	public Vector<Double> multiply(Vector<Double> aVector) throws VectorSizeException {
+		return apply(MULTIPLY, aVector);
+	}
+
+	@Override
+	public Vector<Double> divide(Vector<Double> aVector) throws VectorSizeException {
+		return apply(DIVIDE, aVector);
+	}
+
+	@Override
+	public Double dotProduct(Vector<Double> aVector) throws VectorSizeException {
+		if(mSize != aVector.size()) throw new VectorSizeException(mSize, aVector.size());
+		final int leaves = leafCount(mSize);
+		double tmp = 0;
+		if(aVector instanceof PersistentDoubleVector) {
+			final PersistentDoubleVector b = (PersistentDoubleVector) aVector;
+			for(int i = 0; i < leaves; ++i) tmp += VectorKernels.dot(leaf(i), 0, b.leaf(i), 0, leafLength(i));
+		}else {
+			final double[] b = VectorKernels.doubles(aVector);
+			for(int i = 0; i < leaves; ++i) tmp += VectorKernels.dot(leaf(i), 0, b, i << BITS, leafLength(i));
+		}
+		return tmp;
+	}
+
+	@Override
+	public Double min() {
+		if(mSize == 0) throw new ArrayIndexOutOfBoundsException(0);
+		final int leaves = leafCount(mSize);
+		double tmp = Double.POSITIVE_INFINITY;
+		for(int i = 0; i < leaves; ++i) {
+			final double[] a = leaf(i);
+			final int s = leafLength(i);
+			for(int j = 0; j < s; ++j) tmp = Math.min(tmp, a[j]);
+		}
+		return tmp;
+	}
+
+	@Override
+	public Double max() {
+		if(mSize == 0) throw new ArrayIndexOutOfBoundsException(0);
+		final int leaves = leafCount(mSize);
+		double tmp = Double.NEGATIVE_INFINITY;
+		for(int i = 0; i < leaves; ++i) {
+			final double[] a = leaf(i);
+			final int s = leafLength(i);
+			for(int j = 0; j < s; ++j) tmp = Math.max(tmp, a[j]);
+		}
+		return tmp;
+	}
+
+	@Override
+	public Double sum() {
+		final int leaves = leafCount(mSize);
+		double tmp = 0;
+		for(int i = 0; i < leaves; ++i) tmp += VectorKernels.sum(leaf(i), 0, leafLength(i));
+		return tmp;
+	}
+
+	@Override
+	public Double magnitudeSquared() {
+		final int leaves = leafCount(mSize);
+		double tmp = 0;
+		for(int i = 0; i < leaves; ++i) {
+			final double[] a = leaf(i);
+			tmp += VectorKernels.dot(a, 0, a, 0, leafLength(i));
+		}
+		return tmp;
+	}
+
+	@Override
+	public Double[] toArray() {
+		final int leaves = leafCount(mSize);
+		final Double[] tmp = new Double[mSize];
+		for(int i = 0; i < leaves; ++i) {
+			final double[] a = leaf(i);
+			final int s = leafLength(i);
+			final int offset = i << BITS;
+			for(int j = 0; j < s; ++j) tmp[offset + j] = a[j];
+		}
+		return tmp;
+	}
+
+}
@@ -0,0 +1,314 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * A float vector that stores each element as a signed byte code, using a quarter of the memory of a {@link FloatVector}.
+ * <p>
+ * An element is decoded as {@code offset + scale * code}. Vectors created with the public constructor have a single
+ * scale and offset chosen from their own range, and vectors created by a {@link ScalarQuantizer} use the scale and
+ * offset of each dimension. Dot products and distances between two vectors with their own scales are calculated from
+ * integer sums of codes, and between two vectors from the same quantizer from weighted sums of code products, so
+ * neither needs to decode the elements. Any other combination is calculated from the decoded elements.
+ * </p>
+ * <p>
+ * The largest difference between an original element and its decoded value is recorded when the vector is created,
+ * and is used to bound the error of comparisons with {@link #dotProductErrorBound(QuantizedFloatVector)} and
+ * {@link #distanceErrorBound(QuantizedFloatVector)}.
+ * </p>
+ * @author Adam Smith
+ */
+public final class QuantizedFloatVector extends VectorCommon<Float> {
+	/**
+	 * The largest code magnitude. Codes are symmetric around zero so that negating a code cannot overflow.
+	 */
+	static final int MAX_CODE = 127;
+
+	private final byte[] mCodes;
+	private final float mScale;
+	private final float mOffset;
+	private final ScalarQuantizer mQuantizer;
+	private final double mOffsetDot;
+	private final float mError;
+	private final long mCodeSum;
+	private final long mCodeSquares;
+	private final float mAbsoluteSum;
+
+	/**
+	 * Quantize a vector with a scale and offset that cover its own range.
+	 * @param aVector The vector to quantize.
+	 */
+	public QuantizedFloatVector(Vector<Float> aVector) {
+		final int s = aVector.size();
+		float min = Float.POSITIVE_INFINITY;
+		float max = Float.NEGATIVE_INFINITY;
+		for(int i = 0; i < s; ++i) {
+			final float x = aVector.get(i);
+			if(! Float.isFinite(x)) throw new IllegalArgumentException("Cannot quantize non-finite element " + x);
+			min = Math.min(min, x);
+			max = Math.max(max, x);
+		}
+		mOffset = s == 0 ? 0 : (min + max) / 2;
+		mScale = s == 0 ? 0 : (max - min) / (2 * MAX_CODE);
+		mCodes = new byte[s];
+		for(int i = 0; i < s; ++i) mCodes[i] = encode(aVector.get(i), mOffset, mScale);
+		mQuantizer = null;
+		mOffsetDot = 0;
+
+		float error = 0;
+		for(int i = 0; i < s; ++i) error = Math.max(error, Math.abs(aVector.get(i) - get(i)));
+		mError = error;
+		long sum = 0;
+		long squares = 0;
+		for(byte c : mCodes) {
+			sum += c;
+			squares += c * c;
+		}
+		mCodeSum = sum;
+		mCodeSquares = squares;
+		mAbsoluteSum = absoluteSum();
+	}
+
+	QuantizedFloatVector(byte[] aCodes, ScalarQuantizer aQuantizer, double aOffsetDot, float aError) {
+		mCodes = aCodes;
+		mScale = 0;
+		mOffset = 0;
+		mQuantizer = aQuantizer;
+		mOffsetDot = aOffsetDot;
+		mError = aError;
+		mCodeSum = 0;
+		mCodeSquares = 0;
+		mAbsoluteSum = absoluteSum();
+	}
+
+	static byte encode(float aValue, float aOffset, float aScale) {
+		if(aScale == 0) return 0;
+		final int code = Math.round((aValue - aOffset) / aScale);
+		return (byte) Math.max(-MAX_CODE, Math.min(MAX_CODE, code));
+	}
+
+	private float absoluteSum() {
+		final int s = mCodes.length;
+		double tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += Math.abs(get(i));
+		return (float) tmp;
+	}
+
+	/**
+	 * Return the codes of the elements.
+	 * @return A byte vector that shares the codes of this vector.
+	 */
+	public ByteVector codes() {
+		return new ByteVector(mCodes);
+	}
+
+	/**
+	 * Return the quantizer that created this vector.
+	 * @return The quantizer, or null if the vector has its own scale and offset.
+	 */
+	public ScalarQuantizer quantizer() {
+		return mQuantizer;
+	}
+
+	/**
+	 * Return the largest difference between an element of the original vector and its decoded value.
+	 * @return The error bound of a single element.
+	 */
+	public float errorBound() {
+		return mError;
+	}
+
+	/**
+	 * Decode every element.
+	 * @return A float vector with the decoded elements.
+	 */
+	public FloatVector toFloatVector() {
+		final int s = mCodes.length;
+		final float[] tmp = new float[s];
+		for(int i = 0; i < s; ++i) tmp[i] = get(i);
+		return new FloatVector(tmp);
+	}
+
+	/**
+	 * Calculate the dot product of two quantized vectors.
+	 * @param aVector The other vector.
+	 * @return The dot product of the decoded vectors.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public float dotProduct(QuantizedFloatVector aVector) throws VectorSizeException {
+		final int s = mCodes.length;
+		if(s != aVector.mCodes.length) throw new VectorSizeException(s, aVector.mCodes.length);
+		if(mQuantizer == null && aVector.mQuantizer == null) {
+			// (a + s q) . (b + t r) = n a b + a t sum(r) + b s sum(q) + s t (q . r)
+			final double a = mOffset;
+			final double b = aVector.mOffset;
+			final double qr = VectorKernels.dot(mCodes, 0, aVector.mCodes, 0, s);
+			return (float) (s * a * b + a * aVector.mScale * aVector.mCodeSum + b * mScale * mCodeSum + (double) mScale * aVector.mScale * qr);
+		}
+		if(mQuantizer != null && mQuantizer == aVector.mQuantizer) {
+			return (float) mQuantizer.dot(mCodes, mOffsetDot, aVector.mCodes, aVector.mOffsetDot);
+		}
+		double tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += get(i) * aVector.get(i);
+		return (float) tmp;
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between two quantized vectors.
+	 * @param aVector The other vector.
+	 * @return The squared distance between the decoded vectors.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public float distanceSquared(QuantizedFloatVector aVector) throws VectorSizeException {
+		final int s = mCodes.length;
+		if(s != aVector.mCodes.length) throw new VectorSizeException(s, aVector.mCodes.length);
+		if(mQuantizer == null && aVector.mQuantizer == null) {
+			// |(a + s q) - (b + t r)|^2 = n d^2 + 2 d (s sum(q) - t sum(r)) + s^2 |q|^2 + t^2 |r|^2 - 2 s t (q . r), where d = a - b
+			final double d = (double) mOffset - aVector.mOffset;
+			final double sa = mScale;
+			final double sb = aVector.mScale;
+			final double qr = VectorKernels.dot(mCodes, 0, aVector.mCodes, 0, s);
+			final double tmp = s * d * d + 2 * d * (sa * mCodeSum - sb * aVector.mCodeSum) + sa * sa * mCodeSquares + sb * sb * aVector.mCodeSquares - 2 * sa * sb * qr;
+			return (float) Math.max(0, tmp);
+		}
+		if(mQuantizer != null && mQuantizer == aVector.mQuantizer) {
+			return (float) mQuantizer.distanceSquared(mCodes, aVector.mCodes);
+		}
+		double tmp = 0;
+		for(int i = 0; i < s; ++i) {
+			final double d = get(i) - aVector.get(i);
+			tmp += d * d;
+		}
+		return (float) tmp;
+	}
+
+	/**
+	 * Calculate the Euclidean distance between two quantized vectors.
+	 * @param aVector The other vector.
+	 * @return The distance between the decoded vectors.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public float distance(QuantizedFloatVector aVector) throws VectorSizeException {
+		return (float) Math.sqrt(distanceSquared(aVector));
+	}
+
+	/**
+	 * Return the largest possible difference between {@link #dotProduct(QuantizedFloatVector)} and the dot product of
+	 * the original vectors, ignoring floating point rounding.
+	 * @param aVector The other vector.
+	 * @return The error bound.
+	 */
+	public float dotProductErrorBound(QuantizedFloatVector aVector) {
+		// |x.y - x'.y'| <= sum(|x'| e_y + |y'| e_x + e_x e_y), where x' and y' are the decoded vectors
+		return mAbsoluteSum * aVector.mError + aVector.mAbsoluteSum * mError + mCodes.length * mError * aVector.mError;
+	}
+
+	/**
+	 * Return the largest possible difference between {@link #distance(QuantizedFloatVector)} and the distance between
+	 * the original vectors, ignoring floating point rounding.
+	 * @param aVector The other vector.
+	 * @return The error bound.
+	 */
+	public float distanceErrorBound(QuantizedFloatVector aVector) {
+		// By the triangle inequality the distance changes by at most |(x - x') - (y - y')| <= sqrt(n) (e_x + e_y)
+		return (float) Math.sqrt(mCodes.length) * (mError + aVector.mError);
+	}
+
+	// Inherited from VectorCommon
+
+	@Override
+	protected Float sqrt(Float aValue) {
+		return (float) Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Float add(Float aA, Float aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Float sub(Float aA, Float aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Float mul(Float aA, Float aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Float div(Float aA, Float aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Float valueOf(int aValue) {
+		return Float.valueOf(aValue);
+	}
+
+	@Override
+	protected Float min(Float aA, Float aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Float max(Float aA, Float aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Float> createVector(Float[] aValues) {
+		return new FloatVector(aValues);
+	}
+
+	@Override
+	protected Float[] createArray(int aSize) {
+		return new Float[aSize];
+	}
+
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mCodes.length;
+	}
+
+	@Override
+	public Vector<Float> set(int aIndex, Float aValue) {
+		return toFloatVector().set(aIndex, aValue);
+	}
+
+	@Override
+	public Float get(int aIndex) {
+		if(mQuantizer != null) return mQuantizer.decode(mCodes, aIndex);
+		return mOffset + mScale * mCodes[aIndex];
+	}
+
+	@Override
+	public Float dotProduct(Vector<Float> aVector) throws VectorSizeException {
+		if(aVector instanceof QuantizedFloatVector) return dotProduct((QuantizedFloatVector) aVector);
+		return super.dotProduct(aVector);
+	}
+
+	@Override
+	public Float magnitudeSquared() {
+		try {
+			return dotProduct(this);
+		}catch(VectorSizeException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
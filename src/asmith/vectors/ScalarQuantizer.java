@@ -0,0 +1,156 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Quantizes float vectors to bytes with a separate scale and offset for each dimension.
+ * <p>
+ * The range of each dimension is learned from a set of training vectors, so dimensions with a small range keep more
+ * precision than they would with a single scale per vector. Elements outside the training range are clamped, which is
+ * reflected in the error reported by {@link QuantizedFloatVector#errorBound()}.
+ * Vectors quantized by the same quantizer can be compared without decoding them.
+ * </p>
+ * @author Adam Smith
+ */
+public final class ScalarQuantizer {
+	private final float[] mScales;
+	private final float[] mOffsets;
+	private final float[] mScaleSquares;
+	private final float[] mOffsetScales;
+	private final double mOffsetSquares;
+
+	private ScalarQuantizer(float[] aMin, float[] aMax) {
+		final int s = aMin.length;
+		mScales = new float[s];
+		mOffsets = new float[s];
+		mScaleSquares = new float[s];
+		mOffsetScales = new float[s];
+		double offsetSquares = 0;
+		for(int i = 0; i < s; ++i) {
+			mOffsets[i] = (aMin[i] + aMax[i]) / 2;
+			mScales[i] = (aMax[i] - aMin[i]) / (2 * QuantizedFloatVector.MAX_CODE);
+			mScaleSquares[i] = mScales[i] * mScales[i];
+			mOffsetScales[i] = mOffsets[i] * mScales[i];
+			offsetSquares += (double) mOffsets[i] * mOffsets[i];
+		}
+		mOffsetSquares = offsetSquares;
+	}
+
+	/**
+	 * Learn the range of each dimension from a set of vectors.
+	 * @param aVectors The training vectors.
+	 * @return The quantizer.
+	 * @throws VectorSizeException Thrown when the vectors do not all have the same length.
+	 */
+	public static ScalarQuantizer train(List<? extends Vector<Float>> aVectors) throws VectorSizeException {
+		if(aVectors.isEmpty()) throw new IllegalArgumentException("At least one training vector is required");
+		final int s = aVectors.get(0).size();
+		final float[] min = new float[s];
+		final float[] max = new float[s];
+		Arrays.fill(min, Float.POSITIVE_INFINITY);
+		Arrays.fill(max, Float.NEGATIVE_INFINITY);
+		for(Vector<Float> v : aVectors) {
+			if(v.size() != s) throw new VectorSizeException(s, v.size());
+			for(int i = 0; i < s; ++i) {
+				final float x = v.get(i);
+				if(! Float.isFinite(x)) throw new IllegalArgumentException("Cannot quantize non-finite element " + x);
+				min[i] = Math.min(min[i], x);
+				max[i] = Math.max(max[i], x);
+			}
+		}
+		return new ScalarQuantizer(min, max);
+	}
+
+	/**
+	 * Return the number of dimensions the quantizer was trained on.
+	 * @return The vector length.
+	 */
+	public int dimension() {
+		return mScales.length;
+	}
+
+	/**
+	 * Return the difference between consecutive quantized values of a dimension.
+	 * @param aIndex The dimension.
+	 * @return The scale.
+	 */
+	public float scale(int aIndex) {
+		return mScales[aIndex];
+	}
+
+	/**
+	 * Return the value that a code of zero represents in a dimension.
+	 * @param aIndex The dimension.
+	 * @return The offset.
+	 */
+	public float offset(int aIndex) {
+		return mOffsets[aIndex];
+	}
+
+	/**
+	 * Quantize a vector.
+	 * @param aVector The vector.
+	 * @return The quantized vector.
+	 * @throws VectorSizeException Thrown when the vector length does not match the quantizer.
+	 */
+	public QuantizedFloatVector quantize(Vector<Float> aVector) throws VectorSizeException {
+		final int s = mScales.length;
+		if(aVector.size() != s) throw new VectorSizeException(s, aVector.size());
+		final byte[] codes = new byte[s];
+		for(int i = 0; i < s; ++i) codes[i] = QuantizedFloatVector.encode(aVector.get(i), mOffsets[i], mScales[i]);
+		float error = 0;
+		double offsetDot = 0;
+		for(int i = 0; i < s; ++i) {
+			error = Math.max(error, Math.abs(aVector.get(i) - decode(codes, i)));
+			offsetDot += mOffsetScales[i] * codes[i];
+		}
+		return new QuantizedFloatVector(codes, this, offsetDot, error);
+	}
+
+	/**
+	 * Decode one element of a vector quantized by this quantizer.
+	 */
+	float decode(byte[] aCodes, int aIndex) {
+		return mOffsets[aIndex] + mScales[aIndex] * aCodes[aIndex];
+	}
+
+	/**
+	 * Calculate the dot product of two vectors quantized by this quantizer. Only the final sum of code products needs a
+	 * per dimension weight, the offset terms were calculated when the vectors were quantized.
+	 */
+	double dot(byte[] aA, double aOffsetDotA, byte[] aB, double aOffsetDotB) {
+		final int s = mScales.length;
+		double tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mScaleSquares[i] * (aA[i] * aB[i]);
+		return mOffsetSquares + aOffsetDotA + aOffsetDotB + tmp;
+	}
+
+	/**
+	 * Calculate the squared distance between two vectors quantized by this quantizer.
+	 * The offsets cancel, so only the differences between codes are needed.
+	 */
+	double distanceSquared(byte[] aA, byte[] aB) {
+		final int s = mScales.length;
+		double tmp = 0;
+		for(int i = 0; i < s; ++i) {
+			final int d = aA[i] - aB[i];
+			tmp += mScaleSquares[i] * (d * d);
+		}
+		return tmp;
+	}
+}
@@ -0,0 +1,385 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.util.Arrays;
+
+/**
+ * Order statistics of primitive arrays by introselect.
+ * <p>
+ * Selection uses quickselect with a median of three pivot, which takes linear time on average. If partitioning stops
+ * making progress the remaining range is sorted instead, which bounds the worst case at O(n log n).
+ * Floating point values are ordered as {@link Double#compare(double, double)} orders them, matching a sort of the boxed values.
+ * </p>
+ * @author Adam Smith
+ */
+final class Selection {
+
+	private Selection() {
+
+	}
+
+	private static int depthLimit(int aLength) {
+		return 2 * (32 - Integer.numberOfLeadingZeros(aLength));
+	}
+
+	/**
+	 * Find the element that would be at a given index if the array were sorted.
+	 * The array is partially reordered so that smaller elements come before the index and larger elements after it.
+	 * @param aValues The array to search, which is modified.
+	 * @param aK The index in sorted order.
+	 * @return The element at that index in sorted order.
+	 */
+	static double select(double[] aValues, int aK) {
+		int lo = 0;
+		int hi = aValues.length - 1;
+		int budget = depthLimit(aValues.length);
+		while(hi > lo) {
+			if(budget-- == 0) {
+				Arrays.sort(aValues, lo, hi + 1);
+				break;
+			}
+			final int mid = (lo + hi) >>> 1;
+			if(Double.compare(aValues[mid], aValues[lo]) < 0) swap(aValues, lo, mid);
+			if(Double.compare(aValues[hi], aValues[lo]) < 0) swap(aValues, lo, hi);
+			if(Double.compare(aValues[hi], aValues[mid]) < 0) swap(aValues, mid, hi);
+			final double pivot = aValues[mid];
+			int i = lo;
+			int j = hi;
+			while(i <= j) {
+				while(Double.compare(aValues[i], pivot) < 0) ++i;
+				while(Double.compare(pivot, aValues[j]) < 0) --j;
+				if(i <= j) swap(aValues, i++, j--);
+			}
+			if(aK <= j) {
+				hi = j;
+			}else if(aK >= i) {
+				lo = i;
+			}else {
+				break;
+			}
+		}
+		return aValues[aK];
+	}
+
+	/**
+	 * Find the largest element in an array range.
+	 * @param aValues The array.
+	 * @param aFrom The first index to search.
+	 * @param aTo The index after the last index to search.
+	 * @return The largest element.
+	 */
+	static double max(double[] aValues, int aFrom, int aTo) {
+		double tmp = aValues[aFrom];
+		for(int i = aFrom + 1; i < aTo; ++i) if(Double.compare(tmp, aValues[i]) < 0) tmp = aValues[i];
+		return tmp;
+	}
+
+	private static void swap(double[] aValues, int aA, int aB) {
+		final double tmp = aValues[aA];
+		aValues[aA] = aValues[aB];
+		aValues[aB] = tmp;
+	}
+
+	/**
+	 * Find the element that would be at a given index if the array were sorted.
+	 * The array is partially reordered so that smaller elements come before the index and larger elements after it.
+	 * @param aValues The array to search, which is modified.
+	 * @param aK The index in sorted order.
+	 * @return The element at that index in sorted order.
+	 */
+	static float select(float[] aValues, int aK) {
+		int lo = 0;
+		int hi = aValues.length - 1;
+		int budget = depthLimit(aValues.length);
+		while(hi > lo) {
+			if(budget-- == 0) {
+				Arrays.sort(aValues, lo, hi + 1);
+				break;
+			}
+			final int mid = (lo + hi) >>> 1;
+			if(Float.compare(aValues[mid], aValues[lo]) < 0) swap(aValues, lo, mid);
+			if(Float.compare(aValues[hi], aValues[lo]) < 0) swap(aValues, lo, hi);
+			if(Float.compare(aValues[hi], aValues[mid]) < 0) swap(aValues, mid, hi);
+			final float pivot = aValues[mid];
+			int i = lo;
+			int j = hi;
+			while(i <= j) {
+				while(Float.compare(aValues[i], pivot) < 0) ++i;
+				while(Float.compare(pivot, aValues[j]) < 0) --j;
+				if(i <= j) swap(aValues, i++, j--);
+			}
+			if(aK <= j) {
+				hi = j;
+			}else if(aK >= i) {
+				lo = i;
+			}else {
+				break;
+			}
+		}
+		return aValues[aK];
+	}
+
+	/**
+	 * Find the largest element in an array range.
+	 * @param aValues The array.
+	 * @param aFrom The first index to search.
+	 * @param aTo The index after the last index to search.
+	 * @return The largest element.
+	 */
+	static float max(float[] aValues, int aFrom, int aTo) {
+		float tmp = aValues[aFrom];
+		for(int i = aFrom + 1; i < aTo; ++i) if(Float.compare(tmp, aValues[i]) < 0) tmp = aValues[i];
+		return tmp;
+	}
+
+	private static void swap(float[] aValues, int aA, int aB) {
+		final float tmp = aValues[aA];
+		aValues[aA] = aValues[aB];
+		aValues[aB] = tmp;
+	}
+
+	/**
+	 * Find the element that would be at a given index if the array were sorted.
+	 * The array is partially reordered so that smaller elements come before the index and larger elements after it.
+	 * @param aValues The array to search, which is modified.
+	 * @param aK The index in sorted order.
+	 * @return The element at that index in sorted order.
+	 */
+	static int select(int[] aValues, int aK) {
+		int lo = 0;
+		int hi = aValues.length - 1;
+		int budget = depthLimit(aValues.length);
+		while(hi > lo) {
+			if(budget-- == 0) {
+				Arrays.sort(aValues, lo, hi + 1);
+				break;
+			}
+			final int mid = (lo + hi) >>> 1;
+			if(aValues[mid] < aValues[lo]) swap(aValues, lo, mid);
+			if(aValues[hi] < aValues[lo]) swap(aValues, lo, hi);
+			if(aValues[hi] < aValues[mid]) swap(aValues, mid, hi);
+			final int pivot = aValues[mid];
+			int i = lo;
+			int j = hi;
+			while(i <= j) {
+				while(aValues[i] < pivot) ++i;
+				while(pivot < aValues[j]) --j;
+				if(i <= j) swap(aValues, i++, j--);
+			}
+			if(aK <= j) {
+				hi = j;
+			}else if(aK >= i) {
+				lo = i;
+			}else {
+				break;
+			}
+		}
+		return aValues[aK];
+	}
+
+	/**
+	 * Find the largest element in an array range.
+	 * @param aValues The array.
+	 * @param aFrom The first index to search.
+	 * @param aTo The index after the last index to search.
+	 * @return The largest element.
+	 */
+	static int max(int[] aValues, int aFrom, int aTo) {
+		int tmp = aValues[aFrom];
+		for(int i = aFrom + 1; i < aTo; ++i) if(tmp < aValues[i]) tmp = aValues[i];
+		return tmp;
+	}
+
+	private static void swap(int[] aValues, int aA, int aB) {
+		final int tmp = aValues[aA];
+		aValues[aA] = aValues[aB];
+		aValues[aB] = tmp;
+	}
+
+	/**
+	 * Find the element that would be at a given index if the array were sorted.
+	 * The array is partially reordered so that smaller elements come before the index and larger elements after it.
+	 * @param aValues The array to search, which is modified.
+	 * @param aK The index in sorted order.
+	 * @return The element at that index in sorted order.
+	 */
+	static long select(long[] aValues, int aK) {
+		int lo = 0;
+		int hi = aValues.length - 1;
+		int budget = depthLimit(aValues.length);
+		while(hi > lo) {
+			if(budget-- == 0) {
+				Arrays.sort(aValues, lo, hi + 1);
+				break;
+			}
+			final int mid = (lo + hi) >>> 1;
+			if(aValues[mid] < aValues[lo]) swap(aValues, lo, mid);
+			if(aValues[hi] < aValues[lo]) swap(aValues, lo, hi);
+			if(aValues[hi] < aValues[mid]) swap(aValues, mid, hi);
+			final long pivot = aValues[mid];
+			int i = lo;
+			int j = hi;
+			while(i <= j) {
+				while(aValues[i] < pivot) ++i;
+				while(pivot < aValues[j]) --j;
+				if(i <= j) swap(aValues, i++, j--);
+			}
+			if(aK <= j) {
+				hi = j;
+			}else if(aK >= i) {
+				lo = i;
+			}else {
+				break;
+			}
+		}
+		return aValues[aK];
+	}
+
+	/**
+	 * Find the largest element in an array range.
+	 * @param aValues The array.
+	 * @param aFrom The first index to search.
+	 * @param aTo The index after the last index to search.
+	 * @return The largest element.
+	 */
+	static long max(long[] aValues, int aFrom, int aTo) {
+		long tmp = aValues[aFrom];
+		for(int i = aFrom + 1; i < aTo; ++i) if(tmp < aValues[i]) tmp = aValues[i];
+		return tmp;
+	}
+
+	private static void swap(long[] aValues, int aA, int aB) {
+		final long tmp = aValues[aA];
+		aValues[aA] = aValues[aB];
+		aValues[aB] = tmp;
+	}
+
+	/**
+	 * Find the element that would be at a given index if the array were sorted.
+	 * The array is partially reordered so that smaller elements come before the index and larger elements after it.
+	 * @param aValues The array to search, which is modified.
+	 * @param aK The index in sorted order.
+	 * @return The element at that index in sorted order.
+	 */
+	static short select(short[] aValues, int aK) {
+		int lo = 0;
+		int hi = aValues.length - 1;
+		int budget = depthLimit(aValues.length);
+		while(hi > lo) {
+			if(budget-- == 0) {
+				Arrays.sort(aValues, lo, hi + 1);
+				break;
+			}
+			final int mid = (lo + hi) >>> 1;
+			if(aValues[mid] < aValues[lo]) swap(aValues, lo, mid);
+			if(aValues[hi] < aValues[lo]) swap(aValues, lo, hi);
+			if(aValues[hi] < aValues[mid]) swap(aValues, mid, hi);
+			final short pivot = aValues[mid];
+			int i = lo;
+			int j = hi;
+			while(i <= j) {
+				while(aValues[i] < pivot) ++i;
+				while(pivot < aValues[j]) --j;
+				if(i <= j) swap(aValues, i++, j--);
+			}
+			if(aK <= j) {
+				hi = j;
+			}else if(aK >= i) {
+				lo = i;
+			}else {
+				break;
+			}
+		}
+		return aValues[aK];
+	}
+
+	/**
+	 * Find the largest element in an array range.
+	 * @param aValues The array.
+	 * @param aFrom The first index to search.
+	 * @param aTo The index after the last index to search.
+	 * @return The largest element.
+	 */
+	static short max(short[] aValues, int aFrom, int aTo) {
+		short tmp = aValues[aFrom];
+		for(int i = aFrom + 1; i < aTo; ++i) if(tmp < aValues[i]) tmp = aValues[i];
+		return tmp;
+	}
+
+	private static void swap(short[] aValues, int aA, int aB) {
+		final short tmp = aValues[aA];
+		aValues[aA] = aValues[aB];
+		aValues[aB] = tmp;
+	}
+
+	/**
+	 * Find the element that would be at a given index if the array were sorted.
+	 * The array is partially reordered so that smaller elements come before the index and larger elements after it.
+	 * @param aValues The array to search, which is modified.
+	 * @param aK The index in sorted order.
+	 * @return The element at that index in sorted order.
+	 */
+	static byte select(byte[] aValues, int aK) {
+		int lo = 0;
+		int hi = aValues.length - 1;
+		int budget = depthLimit(aValues.length);
+		while(hi > lo) {
+			if(budget-- == 0) {
+				Arrays.sort(aValues, lo, hi + 1);
+				break;
+			}
+			final int mid = (lo + hi) >>> 1;
+			if(aValues[mid] < aValues[lo]) swap(aValues, lo, mid);
+			if(aValues[hi] < aValues[lo]) swap(aValues, lo, hi);
+			if(aValues[hi] < aValues[mid]) swap(aValues, mid, hi);
+			final byte pivot = aValues[mid];
+			int i = lo;
+			int j = hi;
+			while(i <= j) {
+				while(aValues[i] < pivot) ++i;
+				while(pivot < aValues[j]) --j;
+				if(i <= j) swap(aValues, i++, j--);
+			}
+			if(aK <= j) {
+				hi = j;
+			}else if(aK >= i) {
+				lo = i;
+			}else {
+				break;
+			}
+		}
+		return aValues[aK];
+	}
+
+	/**
+	 * Find the largest element in an array range.
+	 * @param aValues The array.
+	 * @param aFrom The first index to search.
+	 * @param aTo The index after the last index to search.
+	 * @return The largest element.
+	 */
+	static byte max(byte[] aValues, int aFrom, int aTo) {
+		byte tmp = aValues[aFrom];
+		for(int i = aFrom + 1; i < aTo; ++i) if(tmp < aValues[i]) tmp = aValues[i];
+		return tmp;
+	}
+
+	private static void swap(byte[] aValues, int aA, int aB) {
+		final byte tmp = aValues[aA];
+		aValues[aA] = aValues[aB];
+		aValues[aB] = tmp;
+	}
+}
@@ -14,7 +14,15 @@
 
 package asmith.vectors;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public final class ShortVector extends VectorCommon<Short> {
+	/**
+	 * Vectors at least this long count values in a table covering every short value instead of a hash table.
+	 */
+	private static final int COUNTING_THRESHOLD = 1 << 12;
+	
 	private final short[] mElements;
 	
 	public ShortVector(short[] aValue) {
@@ -148,4 +156,200 @@ public final class ShortVector extends VectorCommon<Short> {
 		return mElements[aIndex];
 	}
 
+	@Override
+	public Vector<Short> add(Short aScalar) {
+		final short b = aScalar;
+		final int s = mElements.length;
+		final short[] tmp = new short[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (short) (mElements[i] + b);
+		return new ShortVector(tmp);
+	}
+
+	@Override
+	public Vector<Short> subtract(Short aScalar) {
+		final short b = aScalar;
+		final int s = mElements.length;
+		final short[] tmp = new short[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (short) (mElements[i] - b);
+		return new ShortVector(tmp);
+	}
+
+	@Override
+	public Vector<Short> multiply(Short aScalar) {
+		final short b = aScalar;
+		final int s = mElements.length;
+		final short[] tmp = new short[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (short) (mElements[i] * b);
+		return new ShortVector(tmp);
+	}
+
+	@Override
+	public Vector<Short> divide(Short aScalar) {
+		final short b = aScalar;
+		final int s = mElements.length;
+		final short[] tmp = new short[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (short) (mElements[i] / b);
+		return new ShortVector(tmp);
+	}
+
+	@Override
+	public Vector<Short> add(Vector<Short> aVector) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final short[] tmp = new short[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (short) (mElements[i] + b[i]);
+		return new ShortVector(tmp);
+	}
+
+	@Override
+	public Vector<Short> subtract(Vector<Short> aVector) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final short[] tmp = new short[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (short) (mElements[i] - b[i]);
+		return new ShortVector(tmp);
+	}
+
+	@Override
+	public Vector<Short> multiply(Vector<Short> aVector) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final short[] tmp = new short[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (short) (mElements[i] * b[i]);
+		return new ShortVector(tmp);
+	}
+
+	@Override
+	public Vector<Short> divide(Vector<Short> aVector) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		final short[] tmp = new short[s];
+		for(int i = 0; i < s; ++i) tmp[i] = (short) (mElements[i] / b[i]);
+		return new ShortVector(tmp);
+	}
+
+	@Override
+	public Short dotProduct(Vector<Short> aVector) throws VectorSizeException {
+		final short[] b = elementsOf(aVector);
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i] * b[i];
+		return (short) tmp;
+	}
+
+	@Override
+	public Short min() {
+		final int s = mElements.length;
+		short tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] < tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Short max() {
+		final int s = mElements.length;
+		short tmp = mElements[0];
+		for(int i = 1; i < s; ++i) tmp = mElements[i] > tmp ? mElements[i] : tmp;
+		return tmp;
+	}
+
+	@Override
+	public Short sum() {
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i];
+		return (short) tmp;
+	}
+
+	@Override
+	public Short magnitudeSquared() {
+		final int s = mElements.length;
+		int tmp = 0;
+		for(int i = 0; i < s; ++i) tmp += mElements[i] * mElements[i];
+		return (short) tmp;
+	}
+
+	@Override
+	public Short median() {
+		final int s = mElements.length;
+		final short[] tmp = mElements.clone();
+		final int i = s / 2;
+		final short upper = Selection.select(tmp, i);
+		if(s % 2 == 1) return upper;
+		return (short) ((short) (Selection.max(tmp, 0, i) + upper) / 2);
+	}
+
+	@Override
+	public Short kthSmallest(int aK) {
+		final int s = mElements.length;
+		if(aK < 0 || aK >= s) throw new IndexOutOfBoundsException("Index " + aK + " is out of bounds for vector of length " + s);
+		return Selection.select(mElements.clone(), aK);
+	}
+
+	@Override
+	public Short mode() {
+		final int s = mElements.length;
+		if(s < COUNTING_THRESHOLD) {
+			final LongCountMap counts = new LongCountMap(s);
+			for(int i = 0; i < s; ++i) counts.increment(mElements[i]);
+			int best = 0;
+			int bestCount = 0;
+			for(int i = 0; i < s; ++i) {
+				final int count = counts.get(mElements[i]);
+				if(count > bestCount) {
+					best = i;
+					bestCount = count;
+				}
+			}
+			return mElements[best];
+		}
+		final int[] counts = new int[65536];
+		for(int i = 0; i < s; ++i) ++counts[mElements[i] & 0xFFFF];
+		int best = 0;
+		for(int i = 1; i < s; ++i) if(counts[mElements[i] & 0xFFFF] > counts[mElements[best] & 0xFFFF]) best = i;
+		return mElements[best];
+	}
+
+	@Override
+	public Map<Short, Integer> histogram() {
+		final int s = mElements.length;
+		if(s < COUNTING_THRESHOLD) {
+			final LongCountMap counts = new LongCountMap(s);
+			for(int i = 0; i < s; ++i) counts.increment(mElements[i]);
+			final Map<Short, Integer> tmp = new HashMap<Short, Integer>(counts.size() * 2);
+			final int c = counts.capacity();
+			for(int i = 0; i < c; ++i) {
+				final int count = counts.countAt(i);
+				if(count != 0) tmp.put((short) counts.keyAt(i), count);
+			}
+			return tmp;
+		}
+		final int[] counts = new int[65536];
+		for(int i = 0; i < s; ++i) ++counts[mElements[i] & 0xFFFF];
+		final Map<Short, Integer> tmp = new HashMap<Short, Integer>();
+		for(int i = 0; i < 65536; ++i) if(counts[i] != 0) tmp.put((short) i, counts[i]);
+		return tmp;
+	}
+
+	/**
+	 * Return the backing array of this vector without copying it.
+	 * @return The element array.
+	 */
+	short[] elements() {
+		return mElements;
+	}
+
+	/**
+	 * Return the elements of another vector as a primitive array.
+	 * Heap and mutable vectors return their backing array without copying.
+	 * @param aVector The other vector.
+	 * @return The elements of the other vector.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private short[] elementsOf(Vector<Short> aVector) throws VectorSizeException {
+		final int s = mElements.length;
+		if(s != aVector.size()) throw new VectorSizeException(s, aVector.size());
+		return VectorKernels.shorts(aVector);
+	}
+
 }
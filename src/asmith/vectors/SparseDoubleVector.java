@@ -0,0 +1,454 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A double vector that only stores its non-zero elements, as a sorted array of indices and a parallel array of values.
+ * <p>
+ * Operations between two sparse vectors merge the index arrays, and operations with a dense vector only read the
+ * dense elements at the stored indices, so their cost depends on the number of non-zero elements rather than the length.
+ * Elements that are not stored are treated as exact zeros, so multiplying them by an infinite or NaN element of another
+ * vector gives zero rather than NaN, and multiplying them by a negative element gives positive zero.
+ * Operations that would fill in most of the vector, such as adding a non-zero scalar, return a {@link DoubleVector}.
+ * </p>
+ * @author Adam Smith
+ */
+public final class SparseDoubleVector extends VectorCommon<Double> {
+	private final int mSize;
+	private final int[] mIndices;
+	private final double[] mValues;
+
+	/**
+	 * Create a sparse vector from its non-zero elements. The arrays are used without copying.
+	 * @param aSize The length of the vector.
+	 * @param aIndices The indices of the stored elements, in strictly increasing order.
+	 * @param aValues The values of the stored elements.
+	 */
+	public SparseDoubleVector(int aSize, int[] aIndices, double[] aValues) {
+		if(aSize < 0) throw new IllegalArgumentException("Vector length cannot be negative, instead encountered " + aSize);
+		if(aIndices.length != aValues.length) throw new IllegalArgumentException("Expected " + aIndices.length + " values, instead encountered " + aValues.length);
+		int previous = -1;
+		for(int i : aIndices) {
+			if(i <= previous || i >= aSize) throw new IllegalArgumentException("Indices must be increasing and less than " + aSize + ", instead encountered " + i + " after " + previous);
+			previous = i;
+		}
+		mSize = aSize;
+		mIndices = aIndices;
+		mValues = aValues;
+	}
+
+	public SparseDoubleVector(Vector<? extends Number> aOther) {
+		final int s = aOther.size();
+		int n = 0;
+		int[] indices = new int[16];
+		double[] values = new double[16];
+		for(int i = 0; i < s; ++i) {
+			final double v = aOther.get(i).doubleValue();
+			if(Double.doubleToRawLongBits(v) == 0L) continue;
+			if(n == indices.length) {
+				indices = Arrays.copyOf(indices, n * 2);
+				values = Arrays.copyOf(values, n * 2);
+			}
+			indices[n] = i;
+			values[n] = v;
+			++n;
+		}
+		mSize = s;
+		mIndices = Arrays.copyOf(indices, n);
+		mValues = Arrays.copyOf(values, n);
+	}
+
+	/**
+	 * Return the number of stored elements.
+	 * @return The number of non-zero elements.
+	 */
+	public int nonZeroCount() {
+		return mIndices.length;
+	}
+
+	/**
+	 * Return the index of a stored element.
+	 * @param aEntry The position of the element in the stored elements.
+	 * @return The index of the element in the vector.
+	 */
+	public int indexAt(int aEntry) {
+		return mIndices[aEntry];
+	}
+
+	/**
+	 * Return the value of a stored element.
+	 * @param aEntry The position of the element in the stored elements.
+	 * @return The value of the element.
+	 */
+	public double valueAt(int aEntry) {
+		return mValues[aEntry];
+	}
+
+	/**
+	 * Convert this vector to a dense vector.
+	 * @return A dense vector with the same elements.
+	 */
+	public DoubleVector toDense() {
+		final double[] tmp = new double[mSize];
+		final int n = mIndices.length;
+		for(int k = 0; k < n; ++k) tmp[mIndices[k]] = mValues[k];
+		return new DoubleVector(tmp);
+	}
+
+	/**
+	 * Calculate the dot product with a dense vector, reading only the dense elements at the stored indices.
+	 * @param aVector The dense vector.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public Double dotProduct(DoubleVector aVector) throws VectorSizeException {
+		if(mSize != aVector.size()) throw new VectorSizeException(mSize, aVector.size());
+		final double[] b = aVector.elements();
+		final int n = mIndices.length;
+		double tmp = 0.0;
+		for(int k = 0; k < n; ++k) tmp += mValues[k] * b[mIndices[k]];
+		return tmp;
+	}
+
+	/**
+	 * Calculate the dot product with another sparse vector by merging the stored indices.
+	 * @param aVector The other vector.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	public Double dotProduct(SparseDoubleVector aVector) throws VectorSizeException {
+		if(mSize != aVector.mSize) throw new VectorSizeException(mSize, aVector.mSize);
+		final int[] ai = mIndices;
+		final int[] bi = aVector.mIndices;
+		final double[] av = mValues;
+		final double[] bv = aVector.mValues;
+		final int na = ai.length;
+		final int nb = bi.length;
+		double tmp = 0.0;
+		int a = 0;
+		int b = 0;
+		while(a < na && b < nb) {
+			final int ia = ai[a];
+			final int ib = bi[b];
+			if(ia < ib) {
+				++a;
+			}else if(ia > ib) {
+				++b;
+			}else {
+				tmp += av[a++] * bv[b++];
+			}
+		}
+		return tmp;
+	}
+
+	/**
+	 * Add or subtract another sparse vector by merging the stored indices.
+	 * @param aVector The other vector.
+	 * @param aSign 1 to add the other vector, -1 to subtract it.
+	 * @return The result of the operation.
+	 * @throws VectorSizeException Thrown when the vector lengths do not match.
+	 */
+	private SparseDoubleVector merge(SparseDoubleVector aVector, double aSign) throws VectorSizeException {
+		if(mSize != aVector.mSize) throw new VectorSizeException(mSize, aVector.mSize);
+		final int[] ai = mIndices;
+		final int[] bi = aVector.mIndices;
+		final double[] av = mValues;
+		final double[] bv = aVector.mValues;
+		final int na = ai.length;
+		final int nb = bi.length;
+		final int[] indices = new int[na + nb];
+		final double[] values = new double[na + nb];
+		int a = 0;
+		int b = 0;
+		int n = 0;
+		while(a < na || b < nb) {
+			final int ia = a < na ? ai[a] : Integer.MAX_VALUE;
+			final int ib = b < nb ? bi[b] : Integer.MAX_VALUE;
+			if(ia < ib) {
+				indices[n] = ia;
+				values[n] = av[a++];
+			}else if(ia > ib) {
+				indices[n] = ib;
+				values[n] = aSign * bv[b++];
+			}else {
+				indices[n] = ia;
+				values[n] = av[a++] + aSign * bv[b++];
+			}
+			++n;
+		}
+		return new SparseDoubleVector(mSize, Arrays.copyOf(indices, n), Arrays.copyOf(values, n));
+	}
+
+	// Inherited from VectorCommon
+
+	@Override
+	protected Double sqrt(Double aValue) {
+		return Math.sqrt(aValue);
+	}
+
+	@Override
+	protected Double add(Double aA, Double aB) {
+		return aA + aB;
+	}
+
+	@Override
+	protected Double sub(Double aA, Double aB) {
+		return aA - aB;
+	}
+
+	@Override
+	protected Double mul(Double aA, Double aB) {
+		return aA * aB;
+	}
+
+	@Override
+	protected Double div(Double aA, Double aB) {
+		return aA / aB;
+	}
+
+	@Override
+	protected Double valueOf(int aValue) {
+		return Double.valueOf(aValue);
+	}
+
+	@Override
+	protected Double min(Double aA, Double aB) {
+		return Math.min(aA, aB);
+	}
+
+	@Override
+	protected Double max(Double aA, Double aB) {
+		return Math.max(aA, aB);
+	}
+
+	@Override
+	protected VectorCommon<Double> createVector(Double[] aValues) {
+		return new DoubleVector(aValues);
+	}
+
+	@Override
+	protected Double[] createArray(int aSize) {
+		return new Double[aSize];
+	}
+
+	// Inherited from Vector
+
+	@Override
+	public int size() {
+		return mSize;
+	}
+
+	@Override
+	public Vector<Double> set(int aIndex, Double aValue) {
+		if(aIndex < 0 || aIndex >= mSize) throw new ArrayIndexOutOfBoundsException(aIndex);
+		final double v = aValue;
+		final int k = Arrays.binarySearch(mIndices, aIndex);
+		if(k >= 0) {
+			final double[] values = mValues.clone();
+			values[k] = v;
+			return new SparseDoubleVector(mSize, mIndices, values);
+		}
+		if(Double.doubleToRawLongBits(v) == 0L) return this;
+		final int p = -(k + 1);
+		final int n = mIndices.length;
+		final int[] indices = new int[n + 1];
+		final double[] values = new double[n + 1];
+		System.arraycopy(mIndices, 0, indices, 0, p);
+		System.arraycopy(mValues, 0, values, 0, p);
+		indices[p] = aIndex;
+		values[p] = v;
+		System.arraycopy(mIndices, p, indices, p + 1, n - p);
+		System.arraycopy(mValues, p, values, p + 1, n - p);
+		return new SparseDoubleVector(mSize, indices, values);
+	}
+
+	@Override
+	public Double get(int aIndex) {
+		if(aIndex < 0 || aIndex >= mSize) throw new ArrayIndexOutOfBoundsException(aIndex);
+		final int k = Arrays.binarySearch(mIndices, aIndex);
+		return k >= 0 ? mValues[k] : 0.0;
+	}
+
+	@Override
+	public Vector<Double> add(Double aScalar) {
+		if(aScalar == 0.0) return this;
+		return toDense().add(aScalar);
+	}
+
+	@Override
+	public Vector<Double> subtract(Double aScalar) {
+		if(aScalar == 0.0) return this;
+		return toDense().subtract(aScalar);
+	}
+
+	@Override
+	public Vector<Double> multiply(Double aScalar) {
+		if(Double.isNaN(aScalar) || Double.isInfinite(aScalar)) return toDense().multiply(aScalar);
+		final double b = aScalar;
+		final int n = mValues.length;
+		final double[] tmp = new double[n];
+		for(int k = 0; k < n; ++k) tmp[k] = mValues[k] * b;
+		return new SparseDoubleVector(mSize, mIndices, tmp);
+	}
+
+	@Override
+	public Vector<Double> divide(Double aScalar) {
+		if(aScalar == 0.0 || Double.isNaN(aScalar)) return toDense().divide(aScalar);
+		final double b = aScalar;
+		final int n = mValues.length;
+		final double[] tmp = new double[n];
+		for(int k = 0; k < n; ++k) tmp[k] = mValues[k] / b;
+		return new SparseDoubleVector(mSize, mIndices, tmp);
+	}
+
+	@Override
+	public Vector<Double> add(Vector<Double> aVector) throws VectorSizeException {
+		if(aVector instanceof SparseDoubleVector) return merge((SparseDoubleVector) aVector, 1.0);
+		if(mSize != aVector.size()) throw new VectorSizeException(mSize, aVector.size());
+		final int n = mIndices.length;
+		final double[] tmp = new double[mSize];
+		for(int i = 0, k = 0; i < mSize; ++i) {
+			final double a = k < n && mIndices[k] == i ? mValues[k++] : 0.0;
+			tmp[i] = a + aVector.get(i);
+		}
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> subtract(Vector<Double> aVector) throws VectorSizeException {
+		if(aVector instanceof SparseDoubleVector) return merge((SparseDoubleVector) aVector, -1.0);
+		if(mSize != aVector.size()) throw new VectorSizeException(mSize, aVector.size());
+		final int n = mIndices.length;
+		final double[] tmp = new double[mSize];
+		for(int i = 0, k = 0; i < mSize; ++i) {
+			final double a = k < n && mIndices[k] == i ? mValues[k++] : 0.0;
+			tmp[i] = a - aVector.get(i);
+		}
+		return new DoubleVector(tmp);
+	}
+
+	@Override
+	public Vector<Double> multiply(Vector<Double> aVector) throws VectorSizeException {
+		if(mSize != aVector.size()) throw new VectorSizeException(mSize, aVector.size());
+		final int n = mIndices.length;
+		final double[] tmp = new double[n];
+		if(aVector instanceof SparseDoubleVector) {
+			// Elements missing from either vector are zero in the product, so only the intersection is kept
+			final SparseDoubleVector other = (SparseDoubleVector) aVector;
+			final int[] indices = new int[Math.min(n, other.mIndices.length)];
+			int a = 0;
+			int b = 0;
+			int c = 0;
+			while(a < n && b < other.mIndices.length) {
+				final int ia = mIndices[a];
+				final int ib = other.mIndices[b];
+				if(ia < ib) {
+					++a;
+				}else if(ia > ib) {
+					++b;
+				}else {
+					indices[c] = ia;
+					tmp[c++] = mValues[a++] * other.mValues[b++];
+				}
+			}
+			return new SparseDoubleVector(mSize, Arrays.copyOf(indices, c), Arrays.copyOf(tmp, c));
+		}
+		if(aVector instanceof DoubleVector) {
+			final double[] b = ((DoubleVector) aVector).elements();
+			for(int k = 0; k < n; ++k) tmp[k] = mValues[k] * b[mIndices[k]];
+		}else {
+			for(int k = 0; k < n; ++k) tmp[k] = mValues[k] * aVector.get(mIndices[k]);
+		}
+		return new SparseDoubleVector(mSize, mIndices, tmp);
+	}
+
+	@Override
+	public Vector<Double> divide(Vector<Double> aVector) throws VectorSizeException {
+		// Zero divided by zero is NaN, so the result is not sparse in general
+		return toDense().divide(aVector);
+	}
+
+	@Override
+	public Double dotProduct(Vector<Double> aVector) throws VectorSizeException {
+		if(aVector instanceof SparseDoubleVector) return dotProduct((SparseDoubleVector) aVector);
+		if(aVector instanceof DoubleVector) return dotProduct((DoubleVector) aVector);
+		if(mSize != aVector.size()) throw new VectorSizeException(mSize, aVector.size());
+		final int n = mIndices.length;
+		double tmp = 0.0;
+		for(int k = 0; k < n; ++k) tmp += mValues[k] * aVector.get(mIndices[k]);
+		return tmp;
+	}
+
+	@Override
+	public Double min() {
+		final int n = mValues.length;
+		double tmp = n < mSize ? 0.0 : mValues[0];
+		for(int k = 0; k < n; ++k) tmp = Math.min(tmp, mValues[k]);
+		return tmp;
+	}
+
+	@Override
+	public Double max() {
+		final int n = mValues.length;
+		double tmp = n < mSize ? 0.0 : mValues[0];
+		for(int k = 0; k < n; ++k) tmp = Math.max(tmp, mValues[k]);
+		return tmp;
+	}
+
+	@Override
+	public Double sum() {
+		return VectorKernels.sum(mValues, 0, mValues.length);
+	}
+
+	@Override
+	public Double magnitudeSquared() {
+		return VectorKernels.dot(mValues, 0, mValues, 0, mValues.length);
+	}
+
+	@Override
+	public Vector<Double> normalise() {
+		return divide(magnitude());
+	}
+
+	@Override
+	public Map<Double, Integer> histogram() {
+		final int n = mValues.length;
+		final LongCountMap counts = new LongCountMap(n);
+		for(int k = 0; k < n; ++k) counts.increment(Double.doubleToLongBits(mValues[k]));
+		final Map<Double, Integer> tmp = new HashMap<Double, Integer>(counts.size() * 2 + 2);
+		final int c = counts.capacity();
+		for(int i = 0; i < c; ++i) {
+			final int count = counts.countAt(i);
+			if(count != 0) tmp.put(Double.longBitsToDouble(counts.keyAt(i)), count);
+		}
+		if(n < mSize) tmp.merge(0.0, mSize - n, Integer::sum);
+		return tmp;
+	}
+
+	@Override
+	public Double[] toArray() {
+		final Double[] tmp = new Double[mSize];
+		final Double zero = 0.0;
+		Arrays.fill(tmp, zero);
+		final int n = mIndices.length;
+		for(int k = 0; k < n; ++k) tmp[mIndices[k]] = mValues[k];
+		return tmp;
+	}
+
+}
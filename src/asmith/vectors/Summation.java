@@ -0,0 +1,38 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * The accumulation strategies available to floating point reductions.
+ * @author Adam Smith
+ */
+public enum Summation {
+	/**
+	 * Accumulate in a few running totals. This is the fastest strategy, but its error grows linearly with the vector length.
+	 */
+	NAIVE,
+
+	/**
+	 * Sum fixed size blocks and then add the block totals together as a balanced tree.
+	 * The error grows with the logarithm of the vector length, at almost the same speed as {@link #NAIVE}.
+	 */
+	PAIRWISE,
+
+	/**
+	 * Keep a running correction for the low order bits lost by each addition (Neumaier's variant of Kahan summation).
+	 * The error does not depend on the vector length, but every element costs several additions.
+	 */
+	COMPENSATED
+}
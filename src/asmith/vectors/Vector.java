@@ -14,6 +14,8 @@
 
 package asmith.vectors;
 
+import java.util.Map;
+
 /**
  * Provides an interface for implementing immutable vectors.
  * @author Adam Smith
@@ -28,7 +30,8 @@ public interface Vector<T> {
 	public int size();
 	
 	/**
-	 * Replace an element at specified index.
+	 * Replace an element at specified index in a copy of the vector. The vector itself is not changed, even when it is
+	 * one of the mutable vectors, which replace elements in place through their primitive setters instead.
 	 * @param aIndex The index of the vector to replace.
 	 * @param aValue The replacement value.
 	 * @return A vector after the value replaced.
@@ -148,12 +151,32 @@ public interface Vector<T> {
 	 */
 	public T median();
 
+	/**
+	 * Find the element that would be at a given index if the vector were sorted.
+	 * @param aK The index in sorted order, starting from 0 for the smallest element.
+	 * @return The k-th smallest element.
+	 */
+	public T kthSmallest(int aK);
+
+	/**
+	 * Calculate a quantile of the elements in the vector using the nearest rank method.
+	 * @param aP The quantile to calculate, from 0 for the smallest element to 1 for the largest.
+	 * @return The smallest element that is greater than or equal to a fraction aP of the elements.
+	 */
+	public T quantile(double aP);
+
 	/**
 	 * Calculate the mode value of all elements in the vector.
 	 * @return The mean of elements.
 	 */
 	public T mode();
 
+	/**
+	 * Count the occurrences of each distinct value in the vector.
+	 * @return A map from each value to the number of times it occurs.
+	 */
+	public Map<T, Integer> histogram();
+
 	/**
 	 * Calculate the square magnitude of the vector.
 	 * @return The square magnitude.
@@ -15,6 +15,8 @@
 package asmith.vectors;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Implements most vector operations for a generic type.
@@ -214,9 +216,9 @@ public abstract class VectorCommon<T> implements Vector<T> {
 		final T by = aVector.get(1);
 		final T bz = aVector.get(2);
 		final T[] tmp = createArray(3);
-		tmp[0] = add(mul(ay, bz), mul(az, by));
-		tmp[1] = add(mul(az, bx), mul(ax, bz));
-		tmp[2] = add(mul(ax, by), mul(ay, bx));
+		tmp[0] = sub(mul(ay, bz), mul(az, by));
+		tmp[1] = sub(mul(az, bx), mul(ax, bz));
+		tmp[2] = sub(mul(ax, by), mul(ay, bx));
 		return createVector(tmp);
 	}
 
@@ -264,25 +266,45 @@ public abstract class VectorCommon<T> implements Vector<T> {
 		}
 	}
 
+	@Override
+	public T kthSmallest(int aK) {
+		final int s = size();
+		if(aK < 0 || aK >= s) throw new IndexOutOfBoundsException("Index " + aK + " is out of bounds for vector of length " + s);
+		final T[] tmp = toArray();
+		Arrays.sort(tmp);
+		return tmp[aK];
+	}
+
+	@Override
+	public T quantile(double aP) {
+		if(! (aP >= 0.0 && aP <= 1.0)) throw new IllegalArgumentException("Quantile must be between 0 and 1, instead encountered " + aP);
+		final int s = size();
+		return kthSmallest(Math.max(0, (int) Math.ceil(aP * s) - 1));
+	}
+
 	@Override
 	public T mode() {
+		final Map<T, Integer> counts = histogram();
 		final int s = size();
-		T maxValue = get(0); // \TODO Test this works
+		T maxValue = get(0);
 		int maxCount = 0;
-		 
 		for(int i = 0; i < s; i++) {
-			int count = 0;
-			for(int j = 0; j < s; j++) {
-				if(get(j) == get(i)) ++count;
-			}
-		        
+			final T value = get(i);
+			final int count = counts.get(value);
 			if(count > maxCount) {
 				maxCount = count;
-				maxValue = get(i);
+				maxValue = value;
 			}
-		 }
+		}
+		return maxValue;
+	}
 
-		 return maxValue;
+	@Override
+	public Map<T, Integer> histogram() {
+		final int s = size();
+		final Map<T, Integer> tmp = new HashMap<T, Integer>();
+		for(int i = 0; i < s; i++) tmp.merge(get(i), 1, Integer::sum);
+		return tmp;
 	}
 
 	@Override
@@ -0,0 +1,431 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes vectors in a compact little endian binary format.
+ * <p>
+ * Each vector is a record with an 8 byte header followed by its elements. The header holds the format version, the
+ * element type and the number of elements. Primitive elements are stored in their natural size, and each
+ * {@link BigInteger} element is stored as its byte count followed by its two's complement bytes, least significant first.
+ * </p>
+ * <p>
+ * Float, double, integer, long and byte records are read as direct vectors that share the memory of the buffer, so
+ * reading a memory mapped file does not copy any elements. Short and big integer records are copied into heap vectors.
+ * </p>
+ * @author Adam Smith
+ */
+public final class VectorFormat {
+	private static final byte VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * The element types that can be stored.
+	 */
+	public static enum Type {
+		FLOAT(1, Float.BYTES),
+		DOUBLE(2, Double.BYTES),
+		INTEGER(3, Integer.BYTES),
+		LONG(4, Long.BYTES),
+		SHORT(5, Short.BYTES),
+		BYTE(6, Byte.BYTES),
+		BIG_INTEGER(7, 0);
+
+		private final byte mCode;
+		private final int mBytes;
+
+		private Type(int aCode, int aBytes) {
+			mCode = (byte) aCode;
+			mBytes = aBytes;
+		}
+
+		/**
+		 * Return the number of bytes used to store a single element.
+		 * @return The element size in bytes, or zero if the size depends on the element.
+		 */
+		public int bytes() {
+			return mBytes;
+		}
+
+		private static Type valueOf(byte aCode) {
+			for(Type t : values()) if(t.mCode == aCode) return t;
+			throw new IllegalArgumentException("Unknown vector element type " + aCode);
+		}
+	}
+
+	private VectorFormat() {
+
+	}
+
+	/**
+	 * Return the element type of a vector.
+	 * @param aVector The vector.
+	 * @return The element type.
+	 */
+	public static Type typeOf(Vector<?> aVector) {
+		final Object element = aVector.size() > 0 ? aVector.get(0) : null;
+		if(element instanceof Float || aVector instanceof FloatVector || aVector instanceof MutableFloatVector || aVector instanceof DirectFloatVector) return Type.FLOAT;
+		if(element instanceof Double || aVector instanceof DoubleVector || aVector instanceof MutableDoubleVector || aVector instanceof DirectDoubleVector) return Type.DOUBLE;
+		if(element instanceof Integer || aVector instanceof IntegerVector || aVector instanceof MutableIntegerVector || aVector instanceof DirectIntegerVector) return Type.INTEGER;
+		if(element instanceof Long || aVector instanceof LongVector || aVector instanceof MutableLongVector || aVector instanceof DirectLongVector) return Type.LONG;
+		if(element instanceof Short || aVector instanceof ShortVector || aVector instanceof MutableShortVector) return Type.SHORT;
+		if(element instanceof Byte || aVector instanceof ByteVector || aVector instanceof MutableByteVector || aVector instanceof DirectByteVector) return Type.BYTE;
+		if(element instanceof BigInteger || aVector instanceof BigIntegerVector) return Type.BIG_INTEGER;
+		throw new IllegalArgumentException("Cannot store vectors of " + (element == null ? "unknown elements" : element.getClass().getName()));
+	}
+
+	/**
+	 * Return the number of bytes needed to store a vector.
+	 * @param aVector The vector.
+	 * @return The record size in bytes.
+	 */
+	public static int sizeOf(Vector<?> aVector) {
+		final Type type = typeOf(aVector);
+		final int s = aVector.size();
+		long bytes = HEADER_SIZE;
+		if(type == Type.BIG_INTEGER) {
+			for(int i = 0; i < s; ++i) bytes += Integer.BYTES + byteCount((BigInteger) aVector.get(i));
+		}else {
+			bytes += (long) s * type.bytes();
+		}
+		if(bytes > Integer.MAX_VALUE) throw new IllegalArgumentException("Vector is too large to store in a single record");
+		return (int) bytes;
+	}
+
+	private static int byteCount(BigInteger aValue) {
+		return aValue.bitLength() / 8 + 1;
+	}
+
+	/**
+	 * Write a vector at the current position of a buffer, advancing the position past the record.
+	 * The byte order of the buffer is not changed.
+	 * @param aVector The vector.
+	 * @param aBuffer The buffer to write to.
+	 * @throws BufferOverflowException Thrown when the buffer does not have enough space remaining, in which case nothing is written.
+	 */
+	public static void write(Vector<?> aVector, ByteBuffer aBuffer) {
+		final Type type = typeOf(aVector);
+		if(aBuffer.remaining() < sizeOf(aVector)) throw new BufferOverflowException();
+		final ByteOrder order = aBuffer.order();
+		aBuffer.order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			final int s = aVector.size();
+			aBuffer.put(VERSION);
+			aBuffer.put(type.mCode);
+			aBuffer.putShort((short) 0);
+			aBuffer.putInt(s);
+			switch(type) {
+			case FLOAT:
+				writeFloat(aVector, aBuffer);
+				break;
+			case DOUBLE:
+				writeDouble(aVector, aBuffer);
+				break;
+			case INTEGER:
+				writeInteger(aVector, aBuffer);
+				break;
+			case LONG:
+				writeLong(aVector, aBuffer);
+				break;
+			case SHORT:
+				writeShort(aVector, aBuffer);
+				break;
+			case BYTE:
+				writeByte(aVector, aBuffer);
+				break;
+			case BIG_INTEGER:
+				for(int i = 0; i < s; ++i) {
+					final byte[] bytes = ((BigInteger) aVector.get(i)).toByteArray();
+					aBuffer.putInt(bytes.length);
+					for(int j = bytes.length - 1; j >= 0; --j) aBuffer.put(bytes[j]);
+				}
+				break;
+			}
+		}finally {
+			aBuffer.order(order);
+		}
+	}
+
+	/**
+	 * Write the elements of a float vector at the current position of a little endian buffer, advancing the position
+	 * past them. The writers for the double, integer, long and byte types work in the same way, and are also used by
+	 * {@link VectorStore.Writer}.
+	 * @param aVector The vector, whose elements must be floats.
+	 * @param aBuffer The buffer to write to, which must have enough space remaining.
+	 */
+	@SuppressWarnings("unchecked")
+	static void writeFloat(Vector<?> aVector, ByteBuffer aBuffer) {
+		final Vector<Float> v = (Vector<Float>) aVector;
+		final FloatBuffer direct = VectorKernels.floatBuffer(v);
+		if(direct != null) aBuffer.asFloatBuffer().put(direct.duplicate());
+		else aBuffer.asFloatBuffer().put(VectorKernels.floats(v));
+		aBuffer.position(aBuffer.position() + v.size() * Float.BYTES);
+	}
+
+	@SuppressWarnings("unchecked")
+	static void writeDouble(Vector<?> aVector, ByteBuffer aBuffer) {
+		final Vector<Double> v = (Vector<Double>) aVector;
+		final DoubleBuffer direct = VectorKernels.doubleBuffer(v);
+		if(direct != null) aBuffer.asDoubleBuffer().put(direct.duplicate());
+		else aBuffer.asDoubleBuffer().put(VectorKernels.doubles(v));
+		aBuffer.position(aBuffer.position() + v.size() * Double.BYTES);
+	}
+
+	@SuppressWarnings("unchecked")
+	static void writeInteger(Vector<?> aVector, ByteBuffer aBuffer) {
+		final Vector<Integer> v = (Vector<Integer>) aVector;
+		final IntBuffer direct = VectorKernels.intBuffer(v);
+		if(direct != null) aBuffer.asIntBuffer().put(direct.duplicate());
+		else aBuffer.asIntBuffer().put(VectorKernels.ints(v));
+		aBuffer.position(aBuffer.position() + v.size() * Integer.BYTES);
+	}
+
+	@SuppressWarnings("unchecked")
+	static void writeLong(Vector<?> aVector, ByteBuffer aBuffer) {
+		final Vector<Long> v = (Vector<Long>) aVector;
+		final LongBuffer direct = VectorKernels.longBuffer(v);
+		if(direct != null) aBuffer.asLongBuffer().put(direct.duplicate());
+		else aBuffer.asLongBuffer().put(VectorKernels.longs(v));
+		aBuffer.position(aBuffer.position() + v.size() * Long.BYTES);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void writeShort(Vector<?> aVector, ByteBuffer aBuffer) {
+		final short[] elements = VectorKernels.shorts((Vector<Short>) aVector);
+		aBuffer.asShortBuffer().put(elements);
+		aBuffer.position(aBuffer.position() + elements.length * Short.BYTES);
+	}
+
+	@SuppressWarnings("unchecked")
+	static void writeByte(Vector<?> aVector, ByteBuffer aBuffer) {
+		final Vector<Byte> v = (Vector<Byte>) aVector;
+		final ByteBuffer direct = VectorKernels.byteBuffer(v);
+		if(direct != null) aBuffer.put(direct.duplicate());
+		else aBuffer.put(VectorKernels.bytes(v));
+	}
+
+	/**
+	 * Write a vector to a channel.
+	 * @param aVector The vector.
+	 * @param aChannel The channel to write to.
+	 * @throws IOException Thrown when the channel cannot be written.
+	 */
+	public static void write(Vector<?> aVector, WritableByteChannel aChannel) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(sizeOf(aVector));
+		write(aVector, buffer);
+		buffer.flip();
+		while(buffer.hasRemaining()) aChannel.write(buffer);
+	}
+
+	/**
+	 * Write several vectors to a channel, one record after another, through a single reusable buffer.
+	 * @param aVectors The vectors.
+	 * @param aChannel The channel to write to.
+	 * @throws IOException Thrown when the channel cannot be written.
+	 */
+	public static void writeAll(Iterable<? extends Vector<?>> aVectors, WritableByteChannel aChannel) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		for(Vector<?> v : aVectors) {
+			final int size = sizeOf(v);
+			if(buffer.remaining() < size) {
+				buffer.flip();
+				while(buffer.hasRemaining()) aChannel.write(buffer);
+				buffer.clear();
+			}
+			if(size > buffer.capacity()) {
+				write(v, aChannel);
+			}else {
+				write(v, buffer);
+			}
+		}
+		buffer.flip();
+		while(buffer.hasRemaining()) aChannel.write(buffer);
+	}
+
+	/**
+	 * Read the vector at the current position of a buffer, advancing the position past the record.
+	 * @param aBuffer The buffer to read from.
+	 * @return The vector.
+	 * @throws BufferUnderflowException Thrown when the buffer ends before the record, in which case the position is not changed.
+	 */
+	public static Vector<?> read(ByteBuffer aBuffer) {
+		final int start = aBuffer.position();
+		if(aBuffer.remaining() < HEADER_SIZE) throw new BufferUnderflowException();
+		final ByteBuffer in = aBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		final byte version = in.get();
+		if(version != VERSION) throw new IllegalArgumentException("Unsupported vector format version " + version);
+		final Type type = Type.valueOf(in.get());
+		in.getShort();
+		final int s = in.getInt();
+		if(s < 0) throw new IllegalArgumentException("Vector length cannot be negative, instead encountered " + s);
+
+		if(type == Type.BIG_INTEGER) {
+			// Every element takes at least a count and one byte, so a longer length cannot be satisfied by this buffer
+			// and must not be used to size the array
+			if(s > in.remaining() / (Integer.BYTES + 1)) throw new BufferUnderflowException();
+			final BigInteger[] tmp = new BigInteger[s];
+			for(int i = 0; i < s; ++i) {
+				if(in.remaining() < Integer.BYTES) throw new BufferUnderflowException();
+				final int count = in.getInt();
+				if(count < 1) throw new IllegalArgumentException("Big integer element must have at least one byte, instead encountered " + count);
+				if(in.remaining() < count) throw new BufferUnderflowException();
+				final byte[] bytes = new byte[count];
+				for(int j = count - 1; j >= 0; --j) bytes[j] = in.get();
+				tmp[i] = new BigInteger(bytes);
+			}
+			aBuffer.position(in.position());
+			return new BigIntegerVector(tmp);
+		}
+
+		final long bytes = (long) s * type.bytes();
+		if(in.remaining() < bytes) throw new BufferUnderflowException();
+		in.limit(in.position() + (int) bytes);
+		final ByteBuffer payload = in.slice().order(ByteOrder.LITTLE_ENDIAN);
+		aBuffer.position(start + HEADER_SIZE + (int) bytes);
+		switch(type) {
+		case FLOAT:
+			return new DirectFloatVector(payload.asFloatBuffer());
+		case DOUBLE:
+			return new DirectDoubleVector(payload.asDoubleBuffer());
+		case INTEGER:
+			return new DirectIntegerVector(payload.asIntBuffer());
+		case LONG:
+			return new DirectLongVector(payload.asLongBuffer());
+		case SHORT:
+			final short[] shorts = new short[s];
+			payload.asShortBuffer().get(shorts);
+			return new ShortVector(shorts);
+		default:
+			return new DirectByteVector(payload);
+		}
+	}
+
+	/**
+	 * Read every remaining record in a buffer.
+	 * @param aBuffer The buffer to read from.
+	 * @return The vectors, in the order they were written.
+	 * @throws BufferUnderflowException Thrown when the buffer ends part way through a record.
+	 */
+	public static List<Vector<?>> readAll(ByteBuffer aBuffer) {
+		final List<Vector<?>> tmp = new ArrayList<Vector<?>>();
+		while(aBuffer.hasRemaining()) tmp.add(read(aBuffer));
+		return tmp;
+	}
+
+	/**
+	 * Read a float vector at the current position of a buffer, advancing the position past the record.
+	 * @param aBuffer The buffer to read from.
+	 * @return The vector.
+	 * @throws BufferUnderflowException Thrown when the buffer ends before the record.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Vector<Float> readFloat(ByteBuffer aBuffer) {
+		check(aBuffer, Type.FLOAT);
+		return (Vector<Float>) read(aBuffer);
+	}
+
+	/**
+	 * Read a double vector at the current position of a buffer, advancing the position past the record.
+	 * @param aBuffer The buffer to read from.
+	 * @return The vector.
+	 * @throws BufferUnderflowException Thrown when the buffer ends before the record.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Vector<Double> readDouble(ByteBuffer aBuffer) {
+		check(aBuffer, Type.DOUBLE);
+		return (Vector<Double>) read(aBuffer);
+	}
+
+	/**
+	 * Read an integer vector at the current position of a buffer, advancing the position past the record.
+	 * @param aBuffer The buffer to read from.
+	 * @return The vector.
+	 * @throws BufferUnderflowException Thrown when the buffer ends before the record.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Vector<Integer> readInteger(ByteBuffer aBuffer) {
+		check(aBuffer, Type.INTEGER);
+		return (Vector<Integer>) read(aBuffer);
+	}
+
+	/**
+	 * Read a long vector at the current position of a buffer, advancing the position past the record.
+	 * @param aBuffer The buffer to read from.
+	 * @return The vector.
+	 * @throws BufferUnderflowException Thrown when the buffer ends before the record.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Vector<Long> readLong(ByteBuffer aBuffer) {
+		check(aBuffer, Type.LONG);
+		return (Vector<Long>) read(aBuffer);
+	}
+
+	/**
+	 * Read a short vector at the current position of a buffer, advancing the position past the record.
+	 * @param aBuffer The buffer to read from.
+	 * @return The vector.
+	 * @throws BufferUnderflowException Thrown when the buffer ends before the record.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Vector<Short> readShort(ByteBuffer aBuffer) {
+		check(aBuffer, Type.SHORT);
+		return (Vector<Short>) read(aBuffer);
+	}
+
+	/**
+	 * Read a byte vector at the current position of a buffer, advancing the position past the record.
+	 * @param aBuffer The buffer to read from.
+	 * @return The vector.
+	 * @throws BufferUnderflowException Thrown when the buffer ends before the record.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Vector<Byte> readByte(ByteBuffer aBuffer) {
+		check(aBuffer, Type.BYTE);
+		return (Vector<Byte>) read(aBuffer);
+	}
+
+	/**
+	 * Read a big integer vector at the current position of a buffer, advancing the position past the record.
+	 * @param aBuffer The buffer to read from.
+	 * @return The vector.
+	 * @throws BufferUnderflowException Thrown when the buffer ends before the record.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Vector<BigInteger> readBigInteger(ByteBuffer aBuffer) {
+		check(aBuffer, Type.BIG_INTEGER);
+		return (Vector<BigInteger>) read(aBuffer);
+	}
+
+	private static void check(ByteBuffer aBuffer, Type aType) {
+		if(aBuffer.remaining() < HEADER_SIZE) throw new BufferUnderflowException();
+		final Type type = Type.valueOf(aBuffer.get(aBuffer.position() + 1));
+		if(type != aType) throw new IllegalArgumentException("Expected a record of " + aType + " elements, instead encountered " + type);
+	}
+}
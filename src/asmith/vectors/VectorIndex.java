@@ -0,0 +1,383 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Answers exact nearest neighbour queries over a collection of float vectors of the same length.
+ * <p>
+ * The vectors are copied into a single array, one row after another, so a query reads the collection sequentially.
+ * The best matches are kept in a bounded heap of size k rather than sorting every score. Collections larger than the
+ * split threshold are scanned in parallel on a fork join pool, and batch queries score a block of rows against every
+ * query before moving on, so each row is read from memory once per batch rather than once per query.
+ * </p>
+ * <p>
+ * Adding vectors is not thread safe, but any number of threads may search an index that is not being modified.
+ * </p>
+ * @author Adam Smith
+ */
+public final class VectorIndex {
+	/**
+	 * The default number of elements below which a scan is no longer split.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+	private static final int BLOCK_ROWS = 64;
+
+	/**
+	 * The ways of comparing a query with the indexed vectors.
+	 */
+	public static enum Metric {
+		/**
+		 * Rank by dot product, largest first.
+		 */
+		DOT_PRODUCT,
+
+		/**
+		 * Rank by the cosine of the angle between the vectors, largest first.
+		 * Vectors with a magnitude of zero have a similarity of zero to everything.
+		 */
+		COSINE,
+
+		/**
+		 * Rank by Euclidean distance, smallest first.
+		 */
+		EUCLIDEAN
+	}
+
+	/**
+	 * A search result.
+	 * @author Adam Smith
+	 */
+	public static final class Neighbour {
+		private final int mIndex;
+		private final float mScore;
+
+		Neighbour(int aIndex, float aScore) {
+			mIndex = aIndex;
+			mScore = aScore;
+		}
+
+		/**
+		 * Return the index of the matching vector, in the order that vectors were added.
+		 * @return The index.
+		 */
+		public int index() {
+			return mIndex;
+		}
+
+		/**
+		 * Return the dot product, cosine similarity or distance between the query and the matching vector.
+		 * @return The score.
+		 */
+		public float score() {
+			return mScore;
+		}
+
+		@Override
+		public String toString() {
+			return mIndex + ":" + mScore;
+		}
+	}
+
+	/**
+	 * Keeps the k best scores seen so far. The root of the heap is the worst of them, so a new score only has to beat
+	 * the root to be kept. Higher scores are better, and equal scores prefer the lower index so results are deterministic.
+	 * NaN scores, which come from vectors that contain NaN, rank below every other score.
+	 */
+	private static final class TopK {
+		private final int[] mIndices;
+		private final float[] mScores;
+		private int mSize;
+
+		TopK(int aK) {
+			mIndices = new int[aK];
+			mScores = new float[aK];
+		}
+
+		/**
+		 * Compare two results so that better results come first.
+		 * @return A negative number, zero or a positive number if the first result is better than, the same as or worse than the second.
+		 */
+		private static int compare(float aScoreA, int aIndexA, float aScoreB, int aIndexB) {
+			final boolean nanA = Float.isNaN(aScoreA);
+			final boolean nanB = Float.isNaN(aScoreB);
+			if(nanA != nanB) return nanA ? 1 : -1;
+			if(aScoreA > aScoreB) return -1;
+			if(aScoreA < aScoreB) return 1;
+			return Integer.compare(aIndexA, aIndexB);
+		}
+
+		private static boolean worse(float aScoreA, int aIndexA, float aScoreB, int aIndexB) {
+			return compare(aScoreA, aIndexA, aScoreB, aIndexB) > 0;
+		}
+
+		void offer(int aIndex, float aScore) {
+			final int k = mIndices.length;
+			if(mSize < k) {
+				int i = mSize++;
+				while(i > 0) {
+					final int parent = (i - 1) >>> 1;
+					if(! worse(aScore, aIndex, mScores[parent], mIndices[parent])) break;
+					mIndices[i] = mIndices[parent];
+					mScores[i] = mScores[parent];
+					i = parent;
+				}
+				mIndices[i] = aIndex;
+				mScores[i] = aScore;
+			}else if(k > 0 && worse(mScores[0], mIndices[0], aScore, aIndex)) {
+				int i = 0;
+				while(true) {
+					int child = 2 * i + 1;
+					if(child >= k) break;
+					if(child + 1 < k && worse(mScores[child + 1], mIndices[child + 1], mScores[child], mIndices[child])) ++child;
+					if(! worse(mScores[child], mIndices[child], aScore, aIndex)) break;
+					mIndices[i] = mIndices[child];
+					mScores[i] = mScores[child];
+					i = child;
+				}
+				mIndices[i] = aIndex;
+				mScores[i] = aScore;
+			}
+		}
+
+		void merge(TopK aOther) {
+			for(int i = 0; i < aOther.mSize; ++i) offer(aOther.mIndices[i], aOther.mScores[i]);
+		}
+
+		Neighbour[] toNeighbours(Metric aMetric) {
+			final Integer[] order = new Integer[mSize];
+			for(int i = 0; i < mSize; ++i) order[i] = i;
+			Arrays.sort(order, (a, b) -> compare(mScores[a], mIndices[a], mScores[b], mIndices[b]));
+			final Neighbour[] tmp = new Neighbour[mSize];
+			for(int i = 0; i < mSize; ++i) {
+				final float score = mScores[order[i]];
+				// Euclidean scores are negated squared distances, so that higher is better for every metric
+				tmp[i] = new Neighbour(mIndices[order[i]], aMetric == Metric.EUCLIDEAN ? (float) Math.sqrt(-score) : score);
+			}
+			return tmp;
+		}
+	}
+
+	private final class ScanTask extends RecursiveTask<TopK[]> {
+		private static final long serialVersionUID = 6002947124953811563L;
+
+		private final float[][] mQueries;
+		private final float[] mQueryNorms;
+		private final int mK;
+		private final int mFrom;
+		private final int mTo;
+
+		ScanTask(float[][] aQueries, float[] aQueryNorms, int aK, int aFrom, int aTo) {
+			mQueries = aQueries;
+			mQueryNorms = aQueryNorms;
+			mK = aK;
+			mFrom = aFrom;
+			mTo = aTo;
+		}
+
+		@Override
+		protected TopK[] compute() {
+			if((long) (mTo - mFrom) * mDimension * mQueries.length <= mThreshold || mTo - mFrom <= 1) {
+				return scan(mQueries, mQueryNorms, mK, mFrom, mTo);
+			}
+			final int middle = (mFrom + mTo) >>> 1;
+			final ScanTask left = new ScanTask(mQueries, mQueryNorms, mK, mFrom, middle);
+			final ScanTask right = new ScanTask(mQueries, mQueryNorms, mK, middle, mTo);
+			left.fork();
+			final TopK[] r = right.compute();
+			final TopK[] l = left.join();
+			for(int q = 0; q < l.length; ++q) l[q].merge(r[q]);
+			return l;
+		}
+	}
+
+	private final int mDimension;
+	private final Metric mMetric;
+	private final ForkJoinPool mPool;
+	private final int mThreshold;
+	private float[] mElements;
+	private float[] mNorms;
+	private int mSize;
+
+	/**
+	 * Create an empty index that searches on the common pool with the default threshold.
+	 * @param aDimension The length of every vector in the index.
+	 * @param aMetric The way of comparing vectors.
+	 */
+	public VectorIndex(int aDimension, Metric aMetric) {
+		this(aDimension, aMetric, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Create an empty index that searches on a specific pool.
+	 * @param aDimension The length of every vector in the index.
+	 * @param aMetric The way of comparing vectors.
+	 * @param aPool The pool to search on.
+	 * @param aThreshold The number of elements below which a scan runs sequentially.
+	 */
+	public VectorIndex(int aDimension, Metric aMetric, ForkJoinPool aPool, int aThreshold) {
+		if(aDimension < 1) throw new IllegalArgumentException("Vector length must be positive");
+		if(aThreshold < 1) throw new IllegalArgumentException("Split threshold must be positive");
+		mDimension = aDimension;
+		mMetric = aMetric;
+		mPool = aPool;
+		mThreshold = aThreshold;
+		mElements = new float[aDimension * 16];
+		mNorms = new float[16];
+	}
+
+	/**
+	 * Return the number of vectors in the index.
+	 * @return The number of vectors.
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * Return the length of every vector in the index.
+	 * @return The number of elements in each vector.
+	 */
+	public int dimension() {
+		return mDimension;
+	}
+
+	/**
+	 * Return the way the index compares vectors.
+	 * @return The metric.
+	 */
+	public Metric metric() {
+		return mMetric;
+	}
+
+	/**
+	 * Add a vector to the index.
+	 * @param aVector The vector to add.
+	 * @return The index of the added vector.
+	 * @throws VectorSizeException Thrown when the vector length does not match the index.
+	 */
+	public int add(Vector<? extends Number> aVector) throws VectorSizeException {
+		if(aVector.size() != mDimension) throw new VectorSizeException(mDimension, aVector.size());
+		if(mSize == mNorms.length) {
+			final int capacity = mSize * 2;
+			if((long) capacity * mDimension > Integer.MAX_VALUE) throw new IllegalStateException("Vector index is full");
+			mElements = Arrays.copyOf(mElements, capacity * mDimension);
+			mNorms = Arrays.copyOf(mNorms, capacity);
+		}
+		final int offset = mSize * mDimension;
+		for(int i = 0; i < mDimension; ++i) mElements[offset + i] = aVector.get(i).floatValue();
+		mNorms[mSize] = (float) Math.sqrt(VectorKernels.dot(mElements, offset, mElements, offset, mDimension));
+		return mSize++;
+	}
+
+	/**
+	 * Add several vectors to the index.
+	 * @param aVectors The vectors to add.
+	 * @throws VectorSizeException Thrown when a vector length does not match the index.
+	 */
+	public void addAll(List<? extends Vector<? extends Number>> aVectors) throws VectorSizeException {
+		for(Vector<? extends Number> v : aVectors) add(v);
+	}
+
+	/**
+	 * Return a copy of an indexed vector.
+	 * @param aIndex The index of the vector.
+	 * @return The vector.
+	 */
+	public FloatVector get(int aIndex) {
+		if(aIndex < 0 || aIndex >= mSize) throw new IndexOutOfBoundsException("Index " + aIndex + " is out of bounds for index of size " + mSize);
+		final int offset = aIndex * mDimension;
+		return new FloatVector(Arrays.copyOfRange(mElements, offset, offset + mDimension));
+	}
+
+	/**
+	 * Find the vectors that best match a query.
+	 * @param aQuery The query vector.
+	 * @param aK The maximum number of results.
+	 * @return The best matches, best first.
+	 * @throws VectorSizeException Thrown when the query length does not match the index.
+	 */
+	public Neighbour[] search(Vector<Float> aQuery, int aK) throws VectorSizeException {
+		return search(Arrays.asList(aQuery), aK)[0];
+	}
+
+	/**
+	 * Find the vectors that best match each of several queries.
+	 * @param aQueries The query vectors.
+	 * @param aK The maximum number of results per query.
+	 * @return The best matches for each query, best first.
+	 * @throws VectorSizeException Thrown when a query length does not match the index.
+	 */
+	public Neighbour[][] search(List<? extends Vector<Float>> aQueries, int aK) throws VectorSizeException {
+		if(aK < 0) throw new IllegalArgumentException("Number of results cannot be negative, instead encountered " + aK);
+		final int n = aQueries.size();
+		final float[][] queries = new float[n][];
+		final float[] norms = new float[n];
+		for(int q = 0; q < n; ++q) {
+			final Vector<Float> query = aQueries.get(q);
+			if(query.size() != mDimension) throw new VectorSizeException(mDimension, query.size());
+			queries[q] = VectorKernels.floats(query);
+			norms[q] = (float) Math.sqrt(VectorKernels.dot(queries[q], 0, queries[q], 0, mDimension));
+		}
+
+		final int k = Math.min(aK, mSize);
+		final TopK[] top;
+		if((long) mSize * mDimension * n <= mThreshold) {
+			top = scan(queries, norms, k, 0, mSize);
+		}else {
+			top = mPool.invoke(new ScanTask(queries, norms, k, 0, mSize));
+		}
+
+		final Neighbour[][] tmp = new Neighbour[n][];
+		for(int q = 0; q < n; ++q) tmp[q] = top[q].toNeighbours(mMetric);
+		return tmp;
+	}
+
+	private TopK[] scan(float[][] aQueries, float[] aQueryNorms, int aK, int aFrom, int aTo) {
+		final int n = aQueries.length;
+		final TopK[] top = new TopK[n];
+		for(int q = 0; q < n; ++q) top[q] = new TopK(aK);
+		if(aK == 0) return top;
+
+		// Score a block of rows against every query while the block is still in cache
+		for(int block = aFrom; block < aTo; block += BLOCK_ROWS) {
+			final int end = Math.min(aTo, block + BLOCK_ROWS);
+			for(int q = 0; q < n; ++q) {
+				final float[] query = aQueries[q];
+				final TopK heap = top[q];
+				for(int row = block; row < end; ++row) heap.offer(row, score(query, aQueryNorms[q], row));
+			}
+		}
+		return top;
+	}
+
+	private float score(float[] aQuery, float aQueryNorm, int aRow) {
+		final int offset = aRow * mDimension;
+		switch(mMetric) {
+		case DOT_PRODUCT:
+			return VectorKernels.dot(aQuery, 0, mElements, offset, mDimension);
+		case COSINE:
+			final float norms = aQueryNorm * mNorms[aRow];
+			return norms == 0 ? 0 : VectorKernels.dot(aQuery, 0, mElements, offset, mDimension) / norms;
+		default:
+			return -VectorKernels.distanceSquared(aQuery, 0, mElements, offset, mDimension);
+		}
+	}
+}
@@ -0,0 +1,1352 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Reduction kernels over primitive arrays.
+ * <p>
+ * Each kernel keeps {@link #LANES} independent accumulators so that consecutive iterations do not depend on each other,
+ * which lets the JIT keep several multiply-add chains in flight and pack them into SIMD registers.
+ * Elements that do not fill a complete group of lanes are handled by a scalar tail loop.
+ * The pairwise and compensated kernels implement the more accurate {@link Summation} strategies.
+ * </p>
+ * <p>
+ * The float, double, int and long kernels are delegated to a {@link Backend} when one can be loaded.
+ * {@code SimdKernels}, which lives in the separate {@code simd} source directory because it needs the incubating
+ * {@code jdk.incubator.vector} module, is used when it is on the class path, the module has been added with
+ * {@code --add-modules jdk.incubator.vector} and the CPU has vector registers of at least 128 bits.
+ * Otherwise, or when the {@value #BACKEND_PROPERTY} system property is false, the scalar kernels below are used.
+ * Floating point results of the two paths can differ in the last bits because the order of accumulation differs.
+ * </p>
+ * <p>
+ * The float and double reductions also accept {@link java.nio.Buffer} operands, which are copied through a small per
+ * thread scratch array in blocks of {@link #BUFFER_BLOCK} elements. Direct vectors therefore reduce through the same
+ * kernels, and with the same results, as heap vectors.
+ * </p>
+ * <p>
+ * Classes that work on the primitive elements of any vector read them through the element access methods at the end,
+ * which know every representation in the package. Heap and mutable vectors give their arrays without copying, and
+ * direct vectors give their buffers, which can be read in blocks through the same per thread scratch arrays.
+ * </p>
+ * @author Adam Smith
+ */
+final class VectorKernels {
+	/**
+	 * The number of independent accumulators used by each kernel.
+	 */
+	static final int LANES = 4;
+
+	/**
+	 * The number of elements that pairwise summation adds with the lane kernels before combining totals as a tree.
+	 */
+	static final int PAIRWISE_BLOCK = 128;
+
+	/**
+	 * The number of byte products accumulated in int lanes before they are added to a long total.
+	 * Each lane receives a quarter of the block, and a quarter of this many products of magnitude at most 2^14 fits in an int.
+	 */
+	static final int BYTE_BLOCK = 1 << 16;
+
+	/**
+	 * The number of elements that the float and double kernels reduce at a time before adding the block totals.
+	 * The buffer kernels copy blocks of this size into a scratch array and run the same block kernel on it, so a
+	 * reduction over a buffer gives exactly the same result as the same reduction over an array.
+	 */
+	static final int BUFFER_BLOCK = 1024;
+
+	/**
+	 * The system property that disables the SIMD backend when set to false.
+	 */
+	static final String BACKEND_PROPERTY = "asmith.vectors.simd";
+
+	private static final String BACKEND_CLASS = "asmith.vectors.SimdKernels";
+
+	/**
+	 * The backend that the kernels delegate to, or null if the scalar kernels are used.
+	 */
+	static final Backend BACKEND = loadBackend();
+
+	/**
+	 * Per thread arrays that the buffer kernels copy blocks into, one for each operand.
+	 */
+	private static final ThreadLocal<double[][]> DOUBLE_SCRATCH = ThreadLocal.withInitial(() -> new double[2][BUFFER_BLOCK]);
+	private static final ThreadLocal<float[][]> FLOAT_SCRATCH = ThreadLocal.withInitial(() -> new float[2][BUFFER_BLOCK]);
+	private static final ThreadLocal<int[][]> INT_SCRATCH = ThreadLocal.withInitial(() -> new int[2][BUFFER_BLOCK]);
+	private static final ThreadLocal<long[][]> LONG_SCRATCH = ThreadLocal.withInitial(() -> new long[2][BUFFER_BLOCK]);
+	private static final ThreadLocal<byte[][]> BYTE_SCRATCH = ThreadLocal.withInitial(() -> new byte[2][BUFFER_BLOCK]);
+
+	/**
+	 * An alternative implementation of the kernels. The element-wise kernels must give exactly the same results as
+	 * the scalar kernels, and the reductions may only differ in the order in which they accumulate.
+	 */
+	interface Backend {
+		double dot(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength);
+		float dot(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength);
+		int dot(int[] aA, int aOffsetA, int[] aB, int aOffsetB, int aLength);
+		long dot(long[] aA, int aOffsetA, long[] aB, int aOffsetB, int aLength);
+		double sum(double[] aA, int aOffset, int aLength);
+		float sum(float[] aA, int aOffset, int aLength);
+		int sum(int[] aA, int aOffset, int aLength);
+		long sum(long[] aA, int aOffset, int aLength);
+		double distanceSquared(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength);
+		float distanceSquared(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength);
+		void add(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength);
+		void add(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength);
+		void subtract(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength);
+		void subtract(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength);
+		void multiply(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength);
+		void multiply(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength);
+		void divide(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength);
+		void divide(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength);
+	}
+
+	private VectorKernels() {
+
+	}
+
+	/**
+	 * Load the SIMD backend by reflection, so that this class still loads when the backend or its module is missing.
+	 * @return The backend, or null if it is disabled, missing or not supported by the CPU.
+	 */
+	private static Backend loadBackend() {
+		if(!Boolean.parseBoolean(System.getProperty(BACKEND_PROPERTY, "true"))) return null;
+		try {
+			return (Backend) Class.forName(BACKEND_CLASS).getDeclaredConstructor().newInstance();
+		}catch(ReflectiveOperationException | LinkageError | RuntimeException e) {
+			// The class is not on the class path, the module has not been added, or the CPU is not supported
+			return null;
+		}
+	}
+
+	/**
+	 * Calculate the dot product of two array ranges.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The dot product.
+	 */
+	static double dot(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		double tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) tmp += dotBlock(aA, aOffsetA + i, aB, aOffsetB + i, Math.min(BUFFER_BLOCK, aLength - i));
+		return tmp;
+	}
+
+	private static double dotBlock(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		if(BACKEND != null) return BACKEND.dot(aA, aOffsetA, aB, aOffsetB, aLength);
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		final int end = aLength - aLength % LANES;
+		int i = 0;
+		for(; i < end; i += LANES) {
+			final int a = aOffsetA + i;
+			final int b = aOffsetB + i;
+			s0 += aA[a] * aB[b];
+			s1 += aA[a + 1] * aB[b + 1];
+			s2 += aA[a + 2] * aB[b + 2];
+			s3 += aA[a + 3] * aB[b + 3];
+		}
+		for(; i < aLength; ++i) s0 += aA[aOffsetA + i] * aB[aOffsetB + i];
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	/**
+	 * Calculate the dot product of two array ranges.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The dot product.
+	 */
+	static float dot(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		float tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) tmp += dotBlock(aA, aOffsetA + i, aB, aOffsetB + i, Math.min(BUFFER_BLOCK, aLength - i));
+		return tmp;
+	}
+
+	private static float dotBlock(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		if(BACKEND != null) return BACKEND.dot(aA, aOffsetA, aB, aOffsetB, aLength);
+		float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		final int end = aLength - aLength % LANES;
+		int i = 0;
+		for(; i < end; i += LANES) {
+			final int a = aOffsetA + i;
+			final int b = aOffsetB + i;
+			s0 += aA[a] * aB[b];
+			s1 += aA[a + 1] * aB[b + 1];
+			s2 += aA[a + 2] * aB[b + 2];
+			s3 += aA[a + 3] * aB[b + 3];
+		}
+		for(; i < aLength; ++i) s0 += aA[aOffsetA + i] * aB[aOffsetB + i];
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	/**
+	 * Calculate the sum of an array range.
+	 * @param aA The array.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @return The sum.
+	 */
+	static double sum(double[] aA, int aOffset, int aLength) {
+		double tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) tmp += sumBlock(aA, aOffset + i, Math.min(BUFFER_BLOCK, aLength - i));
+		return tmp;
+	}
+
+	private static double sumBlock(double[] aA, int aOffset, int aLength) {
+		if(BACKEND != null) return BACKEND.sum(aA, aOffset, aLength);
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		final int end = aLength - aLength % LANES;
+		int i = 0;
+		for(; i < end; i += LANES) {
+			final int a = aOffset + i;
+			s0 += aA[a];
+			s1 += aA[a + 1];
+			s2 += aA[a + 2];
+			s3 += aA[a + 3];
+		}
+		for(; i < aLength; ++i) s0 += aA[aOffset + i];
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	/**
+	 * Calculate the sum of an array range.
+	 * @param aA The array.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @return The sum.
+	 */
+	static float sum(float[] aA, int aOffset, int aLength) {
+		float tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) tmp += sumBlock(aA, aOffset + i, Math.min(BUFFER_BLOCK, aLength - i));
+		return tmp;
+	}
+
+	private static float sumBlock(float[] aA, int aOffset, int aLength) {
+		if(BACKEND != null) return BACKEND.sum(aA, aOffset, aLength);
+		float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		final int end = aLength - aLength % LANES;
+		int i = 0;
+		for(; i < end; i += LANES) {
+			final int a = aOffset + i;
+			s0 += aA[a];
+			s1 += aA[a + 1];
+			s2 += aA[a + 2];
+			s3 += aA[a + 3];
+		}
+		for(; i < aLength; ++i) s0 += aA[aOffset + i];
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	/**
+	 * Calculate the dot product of two byte array ranges without overflow.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The dot product.
+	 */
+	static long dot(byte[] aA, int aOffsetA, byte[] aB, int aOffsetB, int aLength) {
+		long total = 0;
+		for(int block = 0; block < aLength; block += BYTE_BLOCK) {
+			final int length = Math.min(BYTE_BLOCK, aLength - block);
+			int s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+			final int end = length - length % LANES;
+			int i = 0;
+			for(; i < end; i += LANES) {
+				final int a = aOffsetA + block + i;
+				final int b = aOffsetB + block + i;
+				s0 += aA[a] * aB[b];
+				s1 += aA[a + 1] * aB[b + 1];
+				s2 += aA[a + 2] * aB[b + 2];
+				s3 += aA[a + 3] * aB[b + 3];
+			}
+			for(; i < length; ++i) s0 += aA[aOffsetA + block + i] * aB[aOffsetB + block + i];
+			total += (long) s0 + s1 + s2 + s3;
+		}
+		return total;
+	}
+
+	/**
+	 * Calculate the dot product of two array ranges. Overflow wraps around as it does for the scalar loop.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The dot product.
+	 */
+	static int dot(int[] aA, int aOffsetA, int[] aB, int aOffsetB, int aLength) {
+		if(BACKEND != null) return BACKEND.dot(aA, aOffsetA, aB, aOffsetB, aLength);
+		// C2 already vectorises this exact reduction, so there is no need for separate lanes
+		int tmp = 0;
+		for(int i = 0; i < aLength; ++i) tmp += aA[aOffsetA + i] * aB[aOffsetB + i];
+		return tmp;
+	}
+
+	/**
+	 * Calculate the sum of an array range. Overflow wraps around as it does for the scalar loop.
+	 * @param aA The array.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @return The sum.
+	 */
+	static int sum(int[] aA, int aOffset, int aLength) {
+		if(BACKEND != null) return BACKEND.sum(aA, aOffset, aLength);
+		int tmp = 0;
+		for(int i = 0; i < aLength; ++i) tmp += aA[aOffset + i];
+		return tmp;
+	}
+
+	/**
+	 * Calculate the dot product of two array ranges. Overflow wraps around as it does for the scalar loop.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The dot product.
+	 */
+	static long dot(long[] aA, int aOffsetA, long[] aB, int aOffsetB, int aLength) {
+		if(BACKEND != null) return BACKEND.dot(aA, aOffsetA, aB, aOffsetB, aLength);
+		// C2 already vectorises this exact reduction, so there is no need for separate lanes
+		long tmp = 0;
+		for(int i = 0; i < aLength; ++i) tmp += aA[aOffsetA + i] * aB[aOffsetB + i];
+		return tmp;
+	}
+
+	/**
+	 * Calculate the sum of an array range. Overflow wraps around as it does for the scalar loop.
+	 * @param aA The array.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @return The sum.
+	 */
+	static long sum(long[] aA, int aOffset, int aLength) {
+		if(BACKEND != null) return BACKEND.sum(aA, aOffset, aLength);
+		long tmp = 0;
+		for(int i = 0; i < aLength; ++i) tmp += aA[aOffset + i];
+		return tmp;
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between two array ranges.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The squared distance.
+	 */
+	static double distanceSquared(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		double tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) tmp += distanceSquaredBlock(aA, aOffsetA + i, aB, aOffsetB + i, Math.min(BUFFER_BLOCK, aLength - i));
+		return tmp;
+	}
+
+	private static double distanceSquaredBlock(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		if(BACKEND != null) return BACKEND.distanceSquared(aA, aOffsetA, aB, aOffsetB, aLength);
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		final int end = aLength - aLength % LANES;
+		int i = 0;
+		for(; i < end; i += LANES) {
+			final int a = aOffsetA + i;
+			final int b = aOffsetB + i;
+			final double d0 = aA[a] - aB[b];
+			final double d1 = aA[a + 1] - aB[b + 1];
+			final double d2 = aA[a + 2] - aB[b + 2];
+			final double d3 = aA[a + 3] - aB[b + 3];
+			s0 += d0 * d0;
+			s1 += d1 * d1;
+			s2 += d2 * d2;
+			s3 += d3 * d3;
+		}
+		for(; i < aLength; ++i) {
+			final double d = aA[aOffsetA + i] - aB[aOffsetB + i];
+			s0 += d * d;
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between two array ranges.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The squared distance.
+	 */
+	static float distanceSquared(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		float tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) tmp += distanceSquaredBlock(aA, aOffsetA + i, aB, aOffsetB + i, Math.min(BUFFER_BLOCK, aLength - i));
+		return tmp;
+	}
+
+	private static float distanceSquaredBlock(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		if(BACKEND != null) return BACKEND.distanceSquared(aA, aOffsetA, aB, aOffsetB, aLength);
+		float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		final int end = aLength - aLength % LANES;
+		int i = 0;
+		for(; i < end; i += LANES) {
+			final int a = aOffsetA + i;
+			final int b = aOffsetB + i;
+			final float d0 = aA[a] - aB[b];
+			final float d1 = aA[a + 1] - aB[b + 1];
+			final float d2 = aA[a + 2] - aB[b + 2];
+			final float d3 = aA[a + 3] - aB[b + 3];
+			s0 += d0 * d0;
+			s1 += d1 * d1;
+			s2 += d2 * d2;
+			s3 += d3 * d3;
+		}
+		for(; i < aLength; ++i) {
+			final float d = aA[aOffsetA + i] - aB[aOffsetB + i];
+			s0 += d * d;
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	/**
+	 * Add two array ranges element by element. The result range may be either operand range.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aResult The array to write to.
+	 * @param aOffsetResult The first index to write to.
+	 * @param aLength The number of elements.
+	 */
+	static void add(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength) {
+		if(BACKEND != null) {
+			BACKEND.add(aA, aOffsetA, aB, aOffsetB, aResult, aOffsetResult, aLength);
+			return;
+		}
+		for(int i = 0; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] + aB[aOffsetB + i];
+	}
+
+	/**
+	 * Subtract one array range from another element by element. The result range may be either operand range.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aResult The array to write to.
+	 * @param aOffsetResult The first index to write to.
+	 * @param aLength The number of elements.
+	 */
+	static void subtract(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength) {
+		if(BACKEND != null) {
+			BACKEND.subtract(aA, aOffsetA, aB, aOffsetB, aResult, aOffsetResult, aLength);
+			return;
+		}
+		for(int i = 0; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] - aB[aOffsetB + i];
+	}
+
+	/**
+	 * Multiply two array ranges element by element. The result range may be either operand range.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aResult The array to write to.
+	 * @param aOffsetResult The first index to write to.
+	 * @param aLength The number of elements.
+	 */
+	static void multiply(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength) {
+		if(BACKEND != null) {
+			BACKEND.multiply(aA, aOffsetA, aB, aOffsetB, aResult, aOffsetResult, aLength);
+			return;
+		}
+		for(int i = 0; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] * aB[aOffsetB + i];
+	}
+
+	/**
+	 * Divide one array range by another element by element. The result range may be either operand range.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aResult The array to write to.
+	 * @param aOffsetResult The first index to write to.
+	 * @param aLength The number of elements.
+	 */
+	static void divide(double[] aA, int aOffsetA, double[] aB, int aOffsetB, double[] aResult, int aOffsetResult, int aLength) {
+		if(BACKEND != null) {
+			BACKEND.divide(aA, aOffsetA, aB, aOffsetB, aResult, aOffsetResult, aLength);
+			return;
+		}
+		for(int i = 0; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] / aB[aOffsetB + i];
+	}
+
+	/**
+	 * Add two array ranges element by element. The result range may be either operand range.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aResult The array to write to.
+	 * @param aOffsetResult The first index to write to.
+	 * @param aLength The number of elements.
+	 */
+	static void add(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength) {
+		if(BACKEND != null) {
+			BACKEND.add(aA, aOffsetA, aB, aOffsetB, aResult, aOffsetResult, aLength);
+			return;
+		}
+		for(int i = 0; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] + aB[aOffsetB + i];
+	}
+
+	/**
+	 * Subtract one array range from another element by element. The result range may be either operand range.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aResult The array to write to.
+	 * @param aOffsetResult The first index to write to.
+	 * @param aLength The number of elements.
+	 */
+	static void subtract(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength) {
+		if(BACKEND != null) {
+			BACKEND.subtract(aA, aOffsetA, aB, aOffsetB, aResult, aOffsetResult, aLength);
+			return;
+		}
+		for(int i = 0; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] - aB[aOffsetB + i];
+	}
+
+	/**
+	 * Multiply two array ranges element by element. The result range may be either operand range.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aResult The array to write to.
+	 * @param aOffsetResult The first index to write to.
+	 * @param aLength The number of elements.
+	 */
+	static void multiply(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength) {
+		if(BACKEND != null) {
+			BACKEND.multiply(aA, aOffsetA, aB, aOffsetB, aResult, aOffsetResult, aLength);
+			return;
+		}
+		for(int i = 0; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] * aB[aOffsetB + i];
+	}
+
+	/**
+	 * Divide one array range by another element by element. The result range may be either operand range.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aResult The array to write to.
+	 * @param aOffsetResult The first index to write to.
+	 * @param aLength The number of elements.
+	 */
+	static void divide(float[] aA, int aOffsetA, float[] aB, int aOffsetB, float[] aResult, int aOffsetResult, int aLength) {
+		if(BACKEND != null) {
+			BACKEND.divide(aA, aOffsetA, aB, aOffsetB, aResult, aOffsetResult, aLength);
+			return;
+		}
+		for(int i = 0; i < aLength; ++i) aResult[aOffsetResult + i] = aA[aOffsetA + i] / aB[aOffsetB + i];
+	}
+
+	/**
+	 * Calculate the dot product of two array ranges with a given accumulation strategy.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The dot product.
+	 */
+	static double dot(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength, Summation aSummation) {
+		switch(aSummation) {
+		case PAIRWISE:
+			return pairwiseDot(aA, aOffsetA, aB, aOffsetB, aLength);
+		case COMPENSATED:
+			return compensatedDot(aA, aOffsetA, aB, aOffsetB, aLength);
+		default:
+			return dot(aA, aOffsetA, aB, aOffsetB, aLength);
+		}
+	}
+
+	/**
+	 * Calculate the sum of an array range with a given accumulation strategy.
+	 * @param aA The array.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The sum.
+	 */
+	static double sum(double[] aA, int aOffset, int aLength, Summation aSummation) {
+		switch(aSummation) {
+		case PAIRWISE:
+			return pairwiseSum(aA, aOffset, aLength);
+		case COMPENSATED:
+			return compensatedSum(aA, aOffset, aLength);
+		default:
+			return sum(aA, aOffset, aLength);
+		}
+	}
+
+	private static double pairwiseDot(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		if(aLength <= PAIRWISE_BLOCK) return dot(aA, aOffsetA, aB, aOffsetB, aLength);
+		// Split on a block boundary so that every leaf except the last is a full block
+		final int half = ((aLength / PAIRWISE_BLOCK + 1) / 2) * PAIRWISE_BLOCK;
+		return pairwiseDot(aA, aOffsetA, aB, aOffsetB, half) + pairwiseDot(aA, aOffsetA + half, aB, aOffsetB + half, aLength - half);
+	}
+
+	private static double pairwiseSum(double[] aA, int aOffset, int aLength) {
+		if(aLength <= PAIRWISE_BLOCK) return sum(aA, aOffset, aLength);
+		final int half = ((aLength / PAIRWISE_BLOCK + 1) / 2) * PAIRWISE_BLOCK;
+		return pairwiseSum(aA, aOffset, half) + pairwiseSum(aA, aOffset + half, aLength - half);
+	}
+
+	private static double compensatedDot(double[] aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		double sum = 0;
+		double correction = 0;
+		for(int i = 0; i < aLength; ++i) {
+			final double v = aA[aOffsetA + i] * aB[aOffsetB + i];
+			final double t = sum + v;
+			if(Math.abs(sum) >= Math.abs(v)) {
+				correction += (sum - t) + v;
+			}else {
+				correction += (v - t) + sum;
+			}
+			sum = t;
+		}
+		return sum + correction;
+	}
+
+	private static double compensatedSum(double[] aA, int aOffset, int aLength) {
+		double sum = 0;
+		double correction = 0;
+		for(int i = 0; i < aLength; ++i) {
+			final double v = aA[aOffset + i];
+			final double t = sum + v;
+			if(Math.abs(sum) >= Math.abs(v)) {
+				correction += (sum - t) + v;
+			}else {
+				correction += (v - t) + sum;
+			}
+			sum = t;
+		}
+		return sum + correction;
+	}
+
+	/**
+	 * Calculate the dot product of two array ranges with a given accumulation strategy.
+	 * @param aA The left hand array.
+	 * @param aOffsetA The first index to read from the left hand array.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The dot product.
+	 */
+	static float dot(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength, Summation aSummation) {
+		switch(aSummation) {
+		case PAIRWISE:
+			return pairwiseDot(aA, aOffsetA, aB, aOffsetB, aLength);
+		case COMPENSATED:
+			return compensatedDot(aA, aOffsetA, aB, aOffsetB, aLength);
+		default:
+			return dot(aA, aOffsetA, aB, aOffsetB, aLength);
+		}
+	}
+
+	/**
+	 * Calculate the sum of an array range with a given accumulation strategy.
+	 * @param aA The array.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The sum.
+	 */
+	static float sum(float[] aA, int aOffset, int aLength, Summation aSummation) {
+		switch(aSummation) {
+		case PAIRWISE:
+			return pairwiseSum(aA, aOffset, aLength);
+		case COMPENSATED:
+			return compensatedSum(aA, aOffset, aLength);
+		default:
+			return sum(aA, aOffset, aLength);
+		}
+	}
+
+	private static float pairwiseDot(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		if(aLength <= PAIRWISE_BLOCK) return dot(aA, aOffsetA, aB, aOffsetB, aLength);
+		// Split on a block boundary so that every leaf except the last is a full block
+		final int half = ((aLength / PAIRWISE_BLOCK + 1) / 2) * PAIRWISE_BLOCK;
+		return pairwiseDot(aA, aOffsetA, aB, aOffsetB, half) + pairwiseDot(aA, aOffsetA + half, aB, aOffsetB + half, aLength - half);
+	}
+
+	private static float pairwiseSum(float[] aA, int aOffset, int aLength) {
+		if(aLength <= PAIRWISE_BLOCK) return sum(aA, aOffset, aLength);
+		final int half = ((aLength / PAIRWISE_BLOCK + 1) / 2) * PAIRWISE_BLOCK;
+		return pairwiseSum(aA, aOffset, half) + pairwiseSum(aA, aOffset + half, aLength - half);
+	}
+
+	private static float compensatedDot(float[] aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		float sum = 0;
+		float correction = 0;
+		for(int i = 0; i < aLength; ++i) {
+			final float v = aA[aOffsetA + i] * aB[aOffsetB + i];
+			final float t = sum + v;
+			if(Math.abs(sum) >= Math.abs(v)) {
+				correction += (sum - t) + v;
+			}else {
+				correction += (v - t) + sum;
+			}
+			sum = t;
+		}
+		return sum + correction;
+	}
+
+	private static float compensatedSum(float[] aA, int aOffset, int aLength) {
+		float sum = 0;
+		float correction = 0;
+		for(int i = 0; i < aLength; ++i) {
+			final float v = aA[aOffset + i];
+			final float t = sum + v;
+			if(Math.abs(sum) >= Math.abs(v)) {
+				correction += (sum - t) + v;
+			}else {
+				correction += (v - t) + sum;
+			}
+			sum = t;
+		}
+		return sum + correction;
+	}
+
+	// Double buffers
+
+	/**
+	 * Calculate the dot product of two buffer ranges.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand buffer.
+	 * @param aOffsetB The first index to read from the right hand buffer.
+	 * @param aLength The number of elements to read.
+	 * @return The dot product.
+	 */
+	static double dot(DoubleBuffer aA, int aOffsetA, DoubleBuffer aB, int aOffsetB, int aLength) {
+		return dot(null, aA, aOffsetA, null, aB, aOffsetB, aLength);
+	}
+
+	/**
+	 * Calculate the dot product of a buffer range and an array range.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The dot product.
+	 */
+	static double dot(DoubleBuffer aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		return dot(null, aA, aOffsetA, aB, null, aOffsetB, aLength);
+	}
+
+	/**
+	 * Calculate the sum of a buffer range.
+	 * @param aA The buffer.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @return The sum.
+	 */
+	static double sum(DoubleBuffer aA, int aOffset, int aLength) {
+		return sum(null, aA, aOffset, aLength);
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between two buffer ranges.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand buffer.
+	 * @param aOffsetB The first index to read from the right hand buffer.
+	 * @param aLength The number of elements to read.
+	 * @return The squared distance.
+	 */
+	static double distanceSquared(DoubleBuffer aA, int aOffsetA, DoubleBuffer aB, int aOffsetB, int aLength) {
+		return distanceSquared(null, aA, aOffsetA, null, aB, aOffsetB, aLength);
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between a buffer range and an array range.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The squared distance.
+	 */
+	static double distanceSquared(DoubleBuffer aA, int aOffsetA, double[] aB, int aOffsetB, int aLength) {
+		return distanceSquared(null, aA, aOffsetA, aB, null, aOffsetB, aLength);
+	}
+
+	/**
+	 * Calculate the dot product of two buffer ranges with a given accumulation strategy.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand buffer.
+	 * @param aOffsetB The first index to read from the right hand buffer.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The dot product.
+	 */
+	static double dot(DoubleBuffer aA, int aOffsetA, DoubleBuffer aB, int aOffsetB, int aLength, Summation aSummation) {
+		return dot(null, aA, aOffsetA, null, aB, aOffsetB, aLength, aSummation);
+	}
+
+	/**
+	 * Calculate the dot product of a buffer range and an array range with a given accumulation strategy.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The dot product.
+	 */
+	static double dot(DoubleBuffer aA, int aOffsetA, double[] aB, int aOffsetB, int aLength, Summation aSummation) {
+		return dot(null, aA, aOffsetA, aB, null, aOffsetB, aLength, aSummation);
+	}
+
+	/**
+	 * Calculate the sum of a buffer range with a given accumulation strategy.
+	 * @param aA The buffer.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The sum.
+	 */
+	static double sum(DoubleBuffer aA, int aOffset, int aLength, Summation aSummation) {
+		switch(aSummation) {
+		case PAIRWISE:
+			return pairwiseSum(null, aA, aOffset, aLength);
+		case COMPENSATED:
+			return compensatedSum(null, aA, aOffset, aLength);
+		default:
+			return sum(null, aA, aOffset, aLength);
+		}
+	}
+
+	// Each operand below is either an array or, when the array is null, a buffer
+
+	private static double dot(double[] aArrayA, DoubleBuffer aBufferA, int aOffsetA, double[] aArrayB, DoubleBuffer aBufferB, int aOffsetB, int aLength, Summation aSummation) {
+		switch(aSummation) {
+		case PAIRWISE:
+			return pairwiseDot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, aLength);
+		case COMPENSATED:
+			return compensatedDot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, aLength);
+		default:
+			return dot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, aLength);
+		}
+	}
+
+	private static double dot(double[] aArrayA, DoubleBuffer aBufferA, int aOffsetA, double[] aArrayB, DoubleBuffer aBufferB, int aOffsetB, int aLength) {
+		final double[][] scratch = DOUBLE_SCRATCH.get();
+		double tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final double[] a = aArrayA != null ? aArrayA : read(aBufferA, aOffsetA + i, n, scratch[0]);
+			// A magnitude reads the same range twice, which only needs copying once
+			final double[] b = aArrayB != null ? aArrayB : aBufferB == aBufferA && aOffsetB == aOffsetA ? a : read(aBufferB, aOffsetB + i, n, scratch[1]);
+			tmp += dotBlock(a, aArrayA != null ? aOffsetA + i : 0, b, aArrayB != null ? aOffsetB + i : 0, n);
+		}
+		return tmp;
+	}
+
+	private static double sum(double[] aArray, DoubleBuffer aBuffer, int aOffset, int aLength) {
+		final double[][] scratch = DOUBLE_SCRATCH.get();
+		double tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final double[] a = aArray != null ? aArray : read(aBuffer, aOffset + i, n, scratch[0]);
+			tmp += sumBlock(a, aArray != null ? aOffset + i : 0, n);
+		}
+		return tmp;
+	}
+
+	private static double distanceSquared(double[] aArrayA, DoubleBuffer aBufferA, int aOffsetA, double[] aArrayB, DoubleBuffer aBufferB, int aOffsetB, int aLength) {
+		final double[][] scratch = DOUBLE_SCRATCH.get();
+		double tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final double[] a = aArrayA != null ? aArrayA : read(aBufferA, aOffsetA + i, n, scratch[0]);
+			final double[] b = aArrayB != null ? aArrayB : read(aBufferB, aOffsetB + i, n, scratch[1]);
+			tmp += distanceSquaredBlock(a, aArrayA != null ? aOffsetA + i : 0, b, aArrayB != null ? aOffsetB + i : 0, n);
+		}
+		return tmp;
+	}
+
+	private static double pairwiseDot(double[] aArrayA, DoubleBuffer aBufferA, int aOffsetA, double[] aArrayB, DoubleBuffer aBufferB, int aOffsetB, int aLength) {
+		if(aLength <= PAIRWISE_BLOCK) return dot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, aLength);
+		final int half = ((aLength / PAIRWISE_BLOCK + 1) / 2) * PAIRWISE_BLOCK;
+		return pairwiseDot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, half)
+				+ pairwiseDot(aArrayA, aBufferA, aOffsetA + half, aArrayB, aBufferB, aOffsetB + half, aLength - half);
+	}
+
+	private static double pairwiseSum(double[] aArray, DoubleBuffer aBuffer, int aOffset, int aLength) {
+		if(aLength <= PAIRWISE_BLOCK) return sum(aArray, aBuffer, aOffset, aLength);
+		final int half = ((aLength / PAIRWISE_BLOCK + 1) / 2) * PAIRWISE_BLOCK;
+		return pairwiseSum(aArray, aBuffer, aOffset, half) + pairwiseSum(aArray, aBuffer, aOffset + half, aLength - half);
+	}
+
+	private static double compensatedDot(double[] aArrayA, DoubleBuffer aBufferA, int aOffsetA, double[] aArrayB, DoubleBuffer aBufferB, int aOffsetB, int aLength) {
+		final double[][] scratch = DOUBLE_SCRATCH.get();
+		double sum = 0;
+		double correction = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final double[] a = aArrayA != null ? aArrayA : read(aBufferA, aOffsetA + i, n, scratch[0]);
+			final double[] b = aArrayB != null ? aArrayB : read(aBufferB, aOffsetB + i, n, scratch[1]);
+			final int offsetA = aArrayA != null ? aOffsetA + i : 0;
+			final int offsetB = aArrayB != null ? aOffsetB + i : 0;
+			for(int j = 0; j < n; ++j) {
+				final double v = a[offsetA + j] * b[offsetB + j];
+				final double t = sum + v;
+				if(Math.abs(sum) >= Math.abs(v)) {
+					correction += (sum - t) + v;
+				}else {
+					correction += (v - t) + sum;
+				}
+				sum = t;
+			}
+		}
+		return sum + correction;
+	}
+
+	private static double compensatedSum(double[] aArray, DoubleBuffer aBuffer, int aOffset, int aLength) {
+		final double[][] scratch = DOUBLE_SCRATCH.get();
+		double sum = 0;
+		double correction = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final double[] a = aArray != null ? aArray : read(aBuffer, aOffset + i, n, scratch[0]);
+			final int offset = aArray != null ? aOffset + i : 0;
+			for(int j = 0; j < n; ++j) {
+				final double v = a[offset + j];
+				final double t = sum + v;
+				if(Math.abs(sum) >= Math.abs(v)) {
+					correction += (sum - t) + v;
+				}else {
+					correction += (v - t) + sum;
+				}
+				sum = t;
+			}
+		}
+		return sum + correction;
+	}
+
+	private static double[] read(DoubleBuffer aBuffer, int aOffset, int aLength, double[] aScratch) {
+		final DoubleBuffer tmp = aBuffer.duplicate();
+		tmp.position(aOffset);
+		tmp.get(aScratch, 0, aLength);
+		return aScratch;
+	}
+
+	// Float buffers
+
+	/**
+	 * Calculate the dot product of two buffer ranges.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand buffer.
+	 * @param aOffsetB The first index to read from the right hand buffer.
+	 * @param aLength The number of elements to read.
+	 * @return The dot product.
+	 */
+	static float dot(FloatBuffer aA, int aOffsetA, FloatBuffer aB, int aOffsetB, int aLength) {
+		return dot(null, aA, aOffsetA, null, aB, aOffsetB, aLength);
+	}
+
+	/**
+	 * Calculate the dot product of a buffer range and an array range.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The dot product.
+	 */
+	static float dot(FloatBuffer aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		return dot(null, aA, aOffsetA, aB, null, aOffsetB, aLength);
+	}
+
+	/**
+	 * Calculate the sum of a buffer range.
+	 * @param aA The buffer.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @return The sum.
+	 */
+	static float sum(FloatBuffer aA, int aOffset, int aLength) {
+		return sum(null, aA, aOffset, aLength);
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between two buffer ranges.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand buffer.
+	 * @param aOffsetB The first index to read from the right hand buffer.
+	 * @param aLength The number of elements to read.
+	 * @return The squared distance.
+	 */
+	static float distanceSquared(FloatBuffer aA, int aOffsetA, FloatBuffer aB, int aOffsetB, int aLength) {
+		return distanceSquared(null, aA, aOffsetA, null, aB, aOffsetB, aLength);
+	}
+
+	/**
+	 * Calculate the squared Euclidean distance between a buffer range and an array range.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @return The squared distance.
+	 */
+	static float distanceSquared(FloatBuffer aA, int aOffsetA, float[] aB, int aOffsetB, int aLength) {
+		return distanceSquared(null, aA, aOffsetA, aB, null, aOffsetB, aLength);
+	}
+
+	/**
+	 * Calculate the dot product of two buffer ranges with a given accumulation strategy.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand buffer.
+	 * @param aOffsetB The first index to read from the right hand buffer.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The dot product.
+	 */
+	static float dot(FloatBuffer aA, int aOffsetA, FloatBuffer aB, int aOffsetB, int aLength, Summation aSummation) {
+		return dot(null, aA, aOffsetA, null, aB, aOffsetB, aLength, aSummation);
+	}
+
+	/**
+	 * Calculate the dot product of a buffer range and an array range with a given accumulation strategy.
+	 * @param aA The left hand buffer.
+	 * @param aOffsetA The first index to read from the left hand buffer.
+	 * @param aB The right hand array.
+	 * @param aOffsetB The first index to read from the right hand array.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The dot product.
+	 */
+	static float dot(FloatBuffer aA, int aOffsetA, float[] aB, int aOffsetB, int aLength, Summation aSummation) {
+		return dot(null, aA, aOffsetA, aB, null, aOffsetB, aLength, aSummation);
+	}
+
+	/**
+	 * Calculate the sum of a buffer range with a given accumulation strategy.
+	 * @param aA The buffer.
+	 * @param aOffset The first index to read.
+	 * @param aLength The number of elements to read.
+	 * @param aSummation The accumulation strategy.
+	 * @return The sum.
+	 */
+	static float sum(FloatBuffer aA, int aOffset, int aLength, Summation aSummation) {
+		switch(aSummation) {
+		case PAIRWISE:
+			return pairwiseSum(null, aA, aOffset, aLength);
+		case COMPENSATED:
+			return compensatedSum(null, aA, aOffset, aLength);
+		default:
+			return sum(null, aA, aOffset, aLength);
+		}
+	}
+
+	// Each operand below is either an array or, when the array is null, a buffer
+
+	private static float dot(float[] aArrayA, FloatBuffer aBufferA, int aOffsetA, float[] aArrayB, FloatBuffer aBufferB, int aOffsetB, int aLength, Summation aSummation) {
+		switch(aSummation) {
+		case PAIRWISE:
+			return pairwiseDot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, aLength);
+		case COMPENSATED:
+			return compensatedDot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, aLength);
+		default:
+			return dot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, aLength);
+		}
+	}
+
+	private static float dot(float[] aArrayA, FloatBuffer aBufferA, int aOffsetA, float[] aArrayB, FloatBuffer aBufferB, int aOffsetB, int aLength) {
+		final float[][] scratch = FLOAT_SCRATCH.get();
+		float tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final float[] a = aArrayA != null ? aArrayA : read(aBufferA, aOffsetA + i, n, scratch[0]);
+			// A magnitude reads the same range twice, which only needs copying once
+			final float[] b = aArrayB != null ? aArrayB : aBufferB == aBufferA && aOffsetB == aOffsetA ? a : read(aBufferB, aOffsetB + i, n, scratch[1]);
+			tmp += dotBlock(a, aArrayA != null ? aOffsetA + i : 0, b, aArrayB != null ? aOffsetB + i : 0, n);
+		}
+		return tmp;
+	}
+
+	private static float sum(float[] aArray, FloatBuffer aBuffer, int aOffset, int aLength) {
+		final float[][] scratch = FLOAT_SCRATCH.get();
+		float tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final float[] a = aArray != null ? aArray : read(aBuffer, aOffset + i, n, scratch[0]);
+			tmp += sumBlock(a, aArray != null ? aOffset + i : 0, n);
+		}
+		return tmp;
+	}
+
+	private static float distanceSquared(float[] aArrayA, FloatBuffer aBufferA, int aOffsetA, float[] aArrayB, FloatBuffer aBufferB, int aOffsetB, int aLength) {
+		final float[][] scratch = FLOAT_SCRATCH.get();
+		float tmp = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final float[] a = aArrayA != null ? aArrayA : read(aBufferA, aOffsetA + i, n, scratch[0]);
+			final float[] b = aArrayB != null ? aArrayB : read(aBufferB, aOffsetB + i, n, scratch[1]);
+			tmp += distanceSquaredBlock(a, aArrayA != null ? aOffsetA + i : 0, b, aArrayB != null ? aOffsetB + i : 0, n);
+		}
+		return tmp;
+	}
+
+	private static float pairwiseDot(float[] aArrayA, FloatBuffer aBufferA, int aOffsetA, float[] aArrayB, FloatBuffer aBufferB, int aOffsetB, int aLength) {
+		if(aLength <= PAIRWISE_BLOCK) return dot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, aLength);
+		final int half = ((aLength / PAIRWISE_BLOCK + 1) / 2) * PAIRWISE_BLOCK;
+		return pairwiseDot(aArrayA, aBufferA, aOffsetA, aArrayB, aBufferB, aOffsetB, half)
+				+ pairwiseDot(aArrayA, aBufferA, aOffsetA + half, aArrayB, aBufferB, aOffsetB + half, aLength - half);
+	}
+
+	private static float pairwiseSum(float[] aArray, FloatBuffer aBuffer, int aOffset, int aLength) {
+		if(aLength <= PAIRWISE_BLOCK) return sum(aArray, aBuffer, aOffset, aLength);
+		final int half = ((aLength / PAIRWISE_BLOCK + 1) / 2) * PAIRWISE_BLOCK;
+		return pairwiseSum(aArray, aBuffer, aOffset, half) + pairwiseSum(aArray, aBuffer, aOffset + half, aLength - half);
+	}
+
+	private static float compensatedDot(float[] aArrayA, FloatBuffer aBufferA, int aOffsetA, float[] aArrayB, FloatBuffer aBufferB, int aOffsetB, int aLength) {
+		final float[][] scratch = FLOAT_SCRATCH.get();
+		float sum = 0;
+		float correction = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final float[] a = aArrayA != null ? aArrayA : read(aBufferA, aOffsetA + i, n, scratch[0]);
+			final float[] b = aArrayB != null ? aArrayB : read(aBufferB, aOffsetB + i, n, scratch[1]);
+			final int offsetA = aArrayA != null ? aOffsetA + i : 0;
+			final int offsetB = aArrayB != null ? aOffsetB + i : 0;
+			for(int j = 0; j < n; ++j) {
+				final float v = a[offsetA + j] * b[offsetB + j];
+				final float t = sum + v;
+				if(Math.abs(sum) >= Math.abs(v)) {
+					correction += (sum - t) + v;
+				}else {
+					correction += (v - t) + sum;
+				}
+				sum = t;
+			}
+		}
+		return sum + correction;
+	}
+
+	private static float compensatedSum(float[] aArray, FloatBuffer aBuffer, int aOffset, int aLength) {
+		final float[][] scratch = FLOAT_SCRATCH.get();
+		float sum = 0;
+		float correction = 0;
+		for(int i = 0; i < aLength; i += BUFFER_BLOCK) {
+			final int n = Math.min(BUFFER_BLOCK, aLength - i);
+			final float[] a = aArray != null ? aArray : read(aBuffer, aOffset + i, n, scratch[0]);
+			final int offset = aArray != null ? aOffset + i : 0;
+			for(int j = 0; j < n; ++j) {
+				final float v = a[offset + j];
+				final float t = sum + v;
+				if(Math.abs(sum) >= Math.abs(v)) {
+					correction += (sum - t) + v;
+				}else {
+					correction += (v - t) + sum;
+				}
+				sum = t;
+			}
+		}
+		return sum + correction;
+	}
+
+	private static float[] read(FloatBuffer aBuffer, int aOffset, int aLength, float[] aScratch) {
+		final FloatBuffer tmp = aBuffer.duplicate();
+		tmp.position(aOffset);
+		tmp.get(aScratch, 0, aLength);
+		return aScratch;
+	}
+
+	// Element access
+
+	/**
+	 * Return the elements of a vector as an array. Heap and mutable vectors return their backing array without copying,
+	 * so the array must not be modified. Direct, sparse, persistent and expression vectors are converted to a dense
+	 * array, and any other vector is copied element by element.
+	 * The methods for the other element types below work in the same way.
+	 * @param aVector The vector.
+	 * @return The elements of the vector.
+	 */
+	static double[] doubles(Vector<Double> aVector) {
+		if(aVector instanceof DoubleVector) return ((DoubleVector) aVector).elements();
+		if(aVector instanceof MutableDoubleVector) return ((MutableDoubleVector) aVector).elements();
+		if(aVector instanceof DirectDoubleVector) return ((DirectDoubleVector) aVector).toHeap().elements();
+		if(aVector instanceof SparseDoubleVector) return ((SparseDoubleVector) aVector).toDense().elements();
+		if(aVector instanceof PersistentDoubleVector) return ((PersistentDoubleVector) aVector).toDoubleVector().elements();
+		if(aVector instanceof DoubleExpression) return ((DoubleExpression) aVector).evaluate().elements();
+		final int s = aVector.size();
+		final double[] tmp = new double[s];
+		for(int i = 0; i < s; ++i) tmp[i] = aVector.get(i);
+		return tmp;
+	}
+
+	/**
+	 * Return the element buffer of a direct vector without copying it.
+	 * The methods for the other element types below work in the same way.
+	 * @param aVector The vector.
+	 * @return The element buffer, which must not be modified, or null if the vector is not a direct vector.
+	 */
+	static DoubleBuffer doubleBuffer(Vector<Double> aVector) {
+		return aVector instanceof DirectDoubleVector ? ((DirectDoubleVector) aVector).elements() : null;
+	}
+
+	/**
+	 * Return a block of an operand that is either an array or, when the array is null, a buffer. An array is returned
+	 * as it is, and the block starts at the offset. A buffer range is copied into a per thread scratch array, where the
+	 * block starts at index 0, and which is overwritten by the next block of the same operand on this thread and by the
+	 * buffer kernels.
+	 * The methods for the other element types below work in the same way.
+	 * @param aArray The array, or null to read the buffer.
+	 * @param aBuffer The buffer.
+	 * @param aOffset The first index of the block.
+	 * @param aLength The number of elements in the block, no more than {@link #BUFFER_BLOCK}.
+	 * @param aOperand The scratch array to copy a buffer range into, 0 or 1.
+	 * @return The array holding the block.
+	 */
+	static double[] block(double[] aArray, DoubleBuffer aBuffer, int aOffset, int aLength, int aOperand) {
+		return aArray != null ? aArray : read(aBuffer, aOffset, aLength, DOUBLE_SCRATCH.get()[aOperand]);
+	}
+
+	static float[] floats(Vector<Float> aVector) {
+		if(aVector instanceof FloatVector) return ((FloatVector) aVector).elements();
+		if(aVector instanceof MutableFloatVector) return ((MutableFloatVector) aVector).elements();
+		if(aVector instanceof DirectFloatVector) return ((DirectFloatVector) aVector).toHeap().elements();
+		if(aVector instanceof SparseFloatVector) return ((SparseFloatVector) aVector).toDense().elements();
+		if(aVector instanceof QuantizedFloatVector) return ((QuantizedFloatVector) aVector).toFloatVector().elements();
+		final int s = aVector.size();
+		final float[] tmp = new float[s];
+		for(int i = 0; i < s; ++i) tmp[i] = aVector.get(i);
+		return tmp;
+	}
+
+	static FloatBuffer floatBuffer(Vector<Float> aVector) {
+		return aVector instanceof DirectFloatVector ? ((DirectFloatVector) aVector).elements() : null;
+	}
+
+	static float[] block(float[] aArray, FloatBuffer aBuffer, int aOffset, int aLength, int aOperand) {
+		return aArray != null ? aArray : read(aBuffer, aOffset, aLength, FLOAT_SCRATCH.get()[aOperand]);
+	}
+
+	static int[] ints(Vector<Integer> aVector) {
+		if(aVector instanceof IntegerVector) return ((IntegerVector) aVector).elements();
+		if(aVector instanceof MutableIntegerVector) return ((MutableIntegerVector) aVector).elements();
+		if(aVector instanceof DirectIntegerVector) return ((DirectIntegerVector) aVector).toHeap().elements();
+		final int s = aVector.size();
+		final int[] tmp = new int[s];
+		for(int i = 0; i < s; ++i) tmp[i] = aVector.get(i);
+		return tmp;
+	}
+
+	static IntBuffer intBuffer(Vector<Integer> aVector) {
+		return aVector instanceof DirectIntegerVector ? ((DirectIntegerVector) aVector).elements() : null;
+	}
+
+	static int[] block(int[] aArray, IntBuffer aBuffer, int aOffset, int aLength, int aOperand) {
+		return aArray != null ? aArray : read(aBuffer, aOffset, aLength, INT_SCRATCH.get()[aOperand]);
+	}
+
+	private static int[] read(IntBuffer aBuffer, int aOffset, int aLength, int[] aScratch) {
+		final IntBuffer tmp = aBuffer.duplicate();
+		tmp.position(aOffset);
+		tmp.get(aScratch, 0, aLength);
+		return aScratch;
+	}
+
+	static long[] longs(Vector<Long> aVector) {
+		if(aVector instanceof LongVector) return ((LongVector) aVector).elements();
+		if(aVector instanceof MutableLongVector) return ((MutableLongVector) aVector).elements();
+		if(aVector instanceof DirectLongVector) return ((DirectLongVector) aVector).toHeap().elements();
+		final int s = aVector.size();
+		final long[] tmp = new long[s];
+		for(int i = 0; i < s; ++i) tmp[i] = aVector.get(i);
+		return tmp;
+	}
+
+	static LongBuffer longBuffer(Vector<Long> aVector) {
+		return aVector instanceof DirectLongVector ? ((DirectLongVector) aVector).elements() : null;
+	}
+
+	static long[] block(long[] aArray, LongBuffer aBuffer, int aOffset, int aLength, int aOperand) {
+		return aArray != null ? aArray : read(aBuffer, aOffset, aLength, LONG_SCRATCH.get()[aOperand]);
+	}
+
+	private static long[] read(LongBuffer aBuffer, int aOffset, int aLength, long[] aScratch) {
+		final LongBuffer tmp = aBuffer.duplicate();
+		tmp.position(aOffset);
+		tmp.get(aScratch, 0, aLength);
+		return aScratch;
+	}
+
+	static short[] shorts(Vector<Short> aVector) {
+		if(aVector instanceof ShortVector) return ((ShortVector) aVector).elements();
+		if(aVector instanceof MutableShortVector) return ((MutableShortVector) aVector).elements();
+		final int s = aVector.size();
+		final short[] tmp = new short[s];
+		for(int i = 0; i < s; ++i) tmp[i] = aVector.get(i);
+		return tmp;
+	}
+
+	static byte[] bytes(Vector<Byte> aVector) {
+		if(aVector instanceof ByteVector) return ((ByteVector) aVector).elements();
+		if(aVector instanceof MutableByteVector) return ((MutableByteVector) aVector).elements();
+		if(aVector instanceof DirectByteVector) return ((DirectByteVector) aVector).toHeap().elements();
+		final int s = aVector.size();
+		final byte[] tmp = new byte[s];
+		for(int i = 0; i < s; ++i) tmp[i] = aVector.get(i);
+		return tmp;
+	}
+
+	static ByteBuffer byteBuffer(Vector<Byte> aVector) {
+		return aVector instanceof DirectByteVector ? ((DirectByteVector) aVector).elements() : null;
+	}
+
+	static byte[] block(byte[] aArray, ByteBuffer aBuffer, int aOffset, int aLength, int aOperand) {
+		return aArray != null ? aArray : read(aBuffer, aOffset, aLength, BYTE_SCRATCH.get()[aOperand]);
+	}
+
+	private static byte[] read(ByteBuffer aBuffer, int aOffset, int aLength, byte[] aScratch) {
+		final ByteBuffer tmp = aBuffer.duplicate();
+		tmp.position(aOffset);
+		tmp.get(aScratch, 0, aLength);
+		return aScratch;
+	}
+}
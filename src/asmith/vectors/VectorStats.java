@@ -0,0 +1,332 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+/**
+ * Accumulates the count, sum, mean, variance, minimum and maximum of a sequence of numbers in a single pass.
+ * <p>
+ * Values can be added one at a time, a chunk at a time or a whole vector at a time. Single values update the mean and
+ * the sum of squared deviations with Welford's method. A chunk is summarised with two passes over the chunk, which is
+ * faster and more accurate, and then combined with the running totals in the same way as {@link #merge(VectorStats)}.
+ * Accumulators filled on different threads can therefore be merged into the statistics of the combined sequence.
+ * </p>
+ * <p>
+ * An accumulator is not thread safe. Give each thread its own and merge them once the threads have finished.
+ * </p>
+ * @author Adam Smith
+ */
+public final class VectorStats implements ElementStream.Reducer {
+	private static final int BLOCK_SIZE = 1024;
+
+	private long mCount;
+	private double mSum;
+	private double mMean;
+	private double mSquares;
+	private double mMin = Double.POSITIVE_INFINITY;
+	private double mMax = Double.NEGATIVE_INFINITY;
+	private double[] mBlock;
+
+	/**
+	 * Create an empty accumulator.
+	 */
+	public VectorStats() {
+
+	}
+
+	/**
+	 * Calculate the statistics of the elements of a vector.
+	 * @param aVector The vector.
+	 * @return The statistics.
+	 */
+	public static VectorStats of(Vector<? extends Number> aVector) {
+		final VectorStats tmp = new VectorStats();
+		tmp.accept(aVector);
+		return tmp;
+	}
+
+	/**
+	 * Add a single value.
+	 * @param aValue The value.
+	 */
+	public void accept(double aValue) {
+		++mCount;
+		mSum += aValue;
+		final double delta = aValue - mMean;
+		mMean += delta / mCount;
+		mSquares += delta * (aValue - mMean);
+		mMin = Math.min(mMin, aValue);
+		mMax = Math.max(mMax, aValue);
+	}
+
+	@Override
+	public void accept(double[] aChunk, int aLength) {
+		accept(aChunk, 0, aLength);
+	}
+
+	/**
+	 * Add a chunk of values.
+	 * @param aChunk The array holding the values.
+	 * @param aOffset The index of the first value.
+	 * @param aLength The number of values.
+	 */
+	public void accept(double[] aChunk, int aOffset, int aLength) {
+		if(aLength == 0) return;
+		final double sum = VectorKernels.sum(aChunk, aOffset, aLength);
+		final double mean = sum / aLength;
+		final int end = aOffset + aLength;
+		double squares = 0;
+		double min = aChunk[aOffset];
+		double max = aChunk[aOffset];
+		for(int i = aOffset; i < end; ++i) {
+			final double d = aChunk[i] - mean;
+			squares += d * d;
+			min = Math.min(min, aChunk[i]);
+			max = Math.max(max, aChunk[i]);
+		}
+		combine(aLength, sum, mean, squares, min, max);
+	}
+
+	/**
+	 * Add a chunk of values.
+	 * @param aChunk The array holding the values.
+	 * @param aOffset The index of the first value.
+	 * @param aLength The number of values.
+	 */
+	public void accept(float[] aChunk, int aOffset, int aLength) {
+		final double[] block = block();
+		for(int i = 0; i < aLength; i += BLOCK_SIZE) {
+			final int n = Math.min(BLOCK_SIZE, aLength - i);
+			for(int j = 0; j < n; ++j) block[j] = aChunk[aOffset + i + j];
+			accept(block, 0, n);
+		}
+	}
+
+	/**
+	 * Add a chunk of values.
+	 * @param aChunk The array holding the values.
+	 * @param aOffset The index of the first value.
+	 * @param aLength The number of values.
+	 */
+	public void accept(int[] aChunk, int aOffset, int aLength) {
+		final double[] block = block();
+		for(int i = 0; i < aLength; i += BLOCK_SIZE) {
+			final int n = Math.min(BLOCK_SIZE, aLength - i);
+			for(int j = 0; j < n; ++j) block[j] = aChunk[aOffset + i + j];
+			accept(block, 0, n);
+		}
+	}
+
+	/**
+	 * Add a chunk of values. Values larger than 2^53 are rounded.
+	 * @param aChunk The array holding the values.
+	 * @param aOffset The index of the first value.
+	 * @param aLength The number of values.
+	 */
+	public void accept(long[] aChunk, int aOffset, int aLength) {
+		final double[] block = block();
+		for(int i = 0; i < aLength; i += BLOCK_SIZE) {
+			final int n = Math.min(BLOCK_SIZE, aLength - i);
+			for(int j = 0; j < n; ++j) block[j] = aChunk[aOffset + i + j];
+			accept(block, 0, n);
+		}
+	}
+
+	/**
+	 * Add a chunk of values.
+	 * @param aChunk The array holding the values.
+	 * @param aOffset The index of the first value.
+	 * @param aLength The number of values.
+	 */
+	public void accept(short[] aChunk, int aOffset, int aLength) {
+		final double[] block = block();
+		for(int i = 0; i < aLength; i += BLOCK_SIZE) {
+			final int n = Math.min(BLOCK_SIZE, aLength - i);
+			for(int j = 0; j < n; ++j) block[j] = aChunk[aOffset + i + j];
+			accept(block, 0, n);
+		}
+	}
+
+	/**
+	 * Add a chunk of values.
+	 * @param aChunk The array holding the values.
+	 * @param aOffset The index of the first value.
+	 * @param aLength The number of values.
+	 */
+	public void accept(byte[] aChunk, int aOffset, int aLength) {
+		final double[] block = block();
+		for(int i = 0; i < aLength; i += BLOCK_SIZE) {
+			final int n = Math.min(BLOCK_SIZE, aLength - i);
+			for(int j = 0; j < n; ++j) block[j] = aChunk[aOffset + i + j];
+			accept(block, 0, n);
+		}
+	}
+
+	/**
+	 * Add every element of a vector. The elements of vectors of the primitive wrapper types are read through the
+	 * package's element access helpers without boxing, and the implicit zeros of sparse vectors are added without
+	 * visiting them.
+	 * @param aVector The vector.
+	 */
+	@SuppressWarnings("unchecked")
+	public void accept(Vector<? extends Number> aVector) {
+		final int s = aVector.size();
+		if(aVector instanceof SparseDoubleVector) {
+			final SparseDoubleVector v = (SparseDoubleVector) aVector;
+			final int n = v.nonZeroCount();
+			final double[] block = block();
+			for(int i = 0; i < n; i += BLOCK_SIZE) {
+				final int m = Math.min(BLOCK_SIZE, n - i);
+				for(int j = 0; j < m; ++j) block[j] = v.valueAt(i + j);
+				accept(block, 0, m);
+			}
+			acceptZeros(s - n);
+		}else if(aVector instanceof SparseFloatVector) {
+			final SparseFloatVector v = (SparseFloatVector) aVector;
+			final int n = v.nonZeroCount();
+			final double[] block = block();
+			for(int i = 0; i < n; i += BLOCK_SIZE) {
+				final int m = Math.min(BLOCK_SIZE, n - i);
+				for(int j = 0; j < m; ++j) block[j] = v.valueAt(i + j);
+				accept(block, 0, m);
+			}
+			acceptZeros(s - n);
+		}else if(s > 0) {
+			// The element type is not known statically, so it is taken from the first element
+			final Number first = aVector.get(0);
+			if(first instanceof Double) accept(VectorKernels.doubles((Vector<Double>) aVector), 0, s);
+			else if(first instanceof Float) accept(VectorKernels.floats((Vector<Float>) aVector), 0, s);
+			else if(first instanceof Integer) accept(VectorKernels.ints((Vector<Integer>) aVector), 0, s);
+			else if(first instanceof Long) accept(VectorKernels.longs((Vector<Long>) aVector), 0, s);
+			else if(first instanceof Short) accept(VectorKernels.shorts((Vector<Short>) aVector), 0, s);
+			else if(first instanceof Byte) accept(VectorKernels.bytes((Vector<Byte>) aVector), 0, s);
+			else {
+				final double[] block = block();
+				for(int i = 0; i < s; i += BLOCK_SIZE) {
+					final int n = Math.min(BLOCK_SIZE, s - i);
+					for(int j = 0; j < n; ++j) block[j] = aVector.get(i + j).doubleValue();
+					accept(block, 0, n);
+				}
+			}
+		}
+	}
+
+	private void acceptZeros(int aCount) {
+		if(aCount > 0) combine(aCount, 0, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Add the values summarised by another accumulator, as though they had been added to this one.
+	 * @param aStats The other accumulator, which is not changed.
+	 */
+	public void merge(VectorStats aStats) {
+		if(aStats.mCount == 0) return;
+		combine(aStats.mCount, aStats.mSum, aStats.mMean, aStats.mSquares, aStats.mMin, aStats.mMax);
+	}
+
+	/**
+	 * Combine the running totals with the totals of another group of values (Chan, Golub and LeVeque).
+	 */
+	private void combine(long aCount, double aSum, double aMean, double aSquares, double aMin, double aMax) {
+		if(mCount == 0) {
+			mCount = aCount;
+			mSum = aSum;
+			mMean = aMean;
+			mSquares = aSquares;
+		}else {
+			final long count = mCount + aCount;
+			final double delta = aMean - mMean;
+			mMean += delta * aCount / count;
+			mSquares += aSquares + delta * delta * ((double) mCount * aCount / count);
+			mSum += aSum;
+			mCount = count;
+		}
+		mMin = Math.min(mMin, aMin);
+		mMax = Math.max(mMax, aMax);
+	}
+
+	private double[] block() {
+		if(mBlock == null) mBlock = new double[BLOCK_SIZE];
+		return mBlock;
+	}
+
+	/**
+	 * Return the number of values added.
+	 * @return The count.
+	 */
+	public long count() {
+		return mCount;
+	}
+
+	/**
+	 * Return the sum of the values added.
+	 * @return The sum, or zero if no values have been added.
+	 */
+	public double sum() {
+		return mSum;
+	}
+
+	/**
+	 * Return the mean of the values added.
+	 * @return The mean, or NaN if no values have been added.
+	 */
+	public double mean() {
+		return mCount == 0 ? Double.NaN : mMean;
+	}
+
+	/**
+	 * Return the population variance of the values added.
+	 * @return The variance, or NaN if no values have been added.
+	 */
+	public double variance() {
+		return mCount == 0 ? Double.NaN : mSquares / mCount;
+	}
+
+	/**
+	 * Return the sample variance of the values added, which divides by one less than the count.
+	 * @return The variance, or NaN if fewer than two values have been added.
+	 */
+	public double sampleVariance() {
+		return mCount < 2 ? Double.NaN : mSquares / (mCount - 1);
+	}
+
+	/**
+	 * Return the population standard deviation of the values added.
+	 * @return The standard deviation, or NaN if no values have been added.
+	 */
+	public double standardDeviation() {
+		return Math.sqrt(variance());
+	}
+
+	/**
+	 * Return the smallest value added.
+	 * @return The minimum, or positive infinity if no values have been added.
+	 */
+	public double min() {
+		return mMin;
+	}
+
+	/**
+	 * Return the largest value added.
+	 * @return The maximum, or negative infinity if no values have been added.
+	 */
+	public double max() {
+		return mMax;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + mCount + ", sum=" + mSum + ", mean=" + mean() + ", variance=" + variance() + ", min=" + mMin + ", max=" + mMax;
+	}
+}
@@ -0,0 +1,308 @@
+//	Copyright 2017 Adam Smith
+//
+//	Licensed under the Apache License, Version 2.0 (the "License");
+//	you may not use this file except in compliance with the License.
+//	You may obtain a copy of the License at
+//
+//	http://www.apache.org/licenses/LICENSE-2.0
+//
+//	Unless required by applicable law or agreed to in writing, software
+//	distributed under the License is distributed on an "AS IS" BASIS,
+//	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//	See the License for the specific language governing permissions and
+//	limitations under the License.
+
+package asmith.vectors;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only collection of fixed length vectors that is memory mapped from a file.
+ * <p>
+ * The file is a 16 byte header followed by the vectors stored back to back in little endian order.
+ * Vectors returned by {@link #get(int)} are views of the mapped file, so opening a store does not copy any elements
+ * and the operating system page cache is shared by every process that opens the same file.
+ * Files are produced with {@link Writer}.
+ * </p>
+ * @author Adam Smith
+ *
+ * @param <T> The element type of the vectors.
+ */
+public final class VectorStore<T> {
+	private static final int MAGIC = 0x53434556; // "VECS"
+	private static final byte VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	/**
+	 * The element types that can be stored. The type codes match those of {@link VectorFormat.Type}.
+	 */
+	public static enum Type {
+		FLOAT(1, Float.BYTES),
+		DOUBLE(2, Double.BYTES),
+		INTEGER(3, Integer.BYTES),
+		LONG(4, Long.BYTES),
+		BYTE(6, Byte.BYTES);
+
+		private final byte mCode;
+		private final int mBytes;
+
+		private Type(int aCode, int aBytes) {
+			mCode = (byte) aCode;
+			mBytes = aBytes;
+		}
+
+		/**
+		 * Return the number of bytes used to store a single element.
+		 * @return The element size in bytes.
+		 */
+		public int bytes() {
+			return mBytes;
+		}
+
+		private static Type valueOf(byte aCode) throws IOException {
+			for(Type t : values()) if(t.mCode == aCode) return t;
+			throw new IOException("Unknown vector element type " + aCode);
+		}
+	}
+
+	private interface RowFactory<T> {
+		Vector<T> create(ByteBuffer aBuffer);
+	}
+
+	private final ByteBuffer[] mChunks;
+	private final RowFactory<T> mFactory;
+	private final int mDimension;
+	private final int mSize;
+	private final int mRowBytes;
+	private final int mRowsPerChunk;
+
+	private VectorStore(Path aFile, Type aType, RowFactory<T> aFactory) throws IOException {
+		mFactory = aFactory;
+		try(FileChannel channel = FileChannel.open(aFile, StandardOpenOption.READ)) {
+			final ByteBuffer header = readHeader(channel);
+			final Type type = Type.valueOf(header.get(5));
+			if(type != aType) throw new IOException("Expected a store of " + aType + " vectors, instead encountered " + type);
+			mDimension = header.getInt(8);
+			mRowBytes = mDimension * type.bytes();
+
+			final long data = channel.size() - HEADER_SIZE;
+			if(mRowBytes == 0) {
+				mSize = 0;
+			}else {
+				if(data % mRowBytes != 0) throw new IOException("Vector store is truncated");
+				final long size = data / mRowBytes;
+				if(size > Integer.MAX_VALUE) throw new IOException("Vector store contains too many vectors");
+				mSize = (int) size;
+			}
+
+			// A single mapping is limited to 2GB, so the file is mapped in chunks that each hold a whole number of rows
+			mRowsPerChunk = mRowBytes == 0 ? 1 : Math.max(1, Integer.MAX_VALUE / mRowBytes);
+			final int chunks = mSize == 0 ? 0 : (mSize + mRowsPerChunk - 1) / mRowsPerChunk;
+			mChunks = new ByteBuffer[chunks];
+			for(int i = 0; i < chunks; ++i) {
+				final long rows = Math.min(mRowsPerChunk, mSize - (long) i * mRowsPerChunk);
+				final long position = HEADER_SIZE + (long) i * mRowsPerChunk * mRowBytes;
+				mChunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, rows * mRowBytes);
+			}
+		}
+	}
+
+	private static ByteBuffer readHeader(FileChannel aChannel) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		while(header.hasRemaining()) {
+			if(aChannel.read(header, header.position()) < 0) throw new IOException("Vector store header is truncated");
+		}
+		if(header.getInt(0) != MAGIC) throw new IOException("File is not a vector store");
+		if(header.get(4) != VERSION) throw new IOException("Unsupported vector store version " + header.get(4));
+		return header;
+	}
+
+	/**
+	 * Open a store of float vectors.
+	 * @param aFile The file to map.
+	 * @return The store.
+	 * @throws IOException Thrown when the file cannot be read or is not a float vector store.
+	 */
+	public static VectorStore<Float> openFloat(Path aFile) throws IOException {
+		return new VectorStore<Float>(aFile, Type.FLOAT, (b) -> new DirectFloatVector(b.asFloatBuffer()));
+	}
+
+	/**
+	 * Open a store of double vectors.
+	 * @param aFile The file to map.
+	 * @return The store.
+	 * @throws IOException Thrown when the file cannot be read or is not a double vector store.
+	 */
+	public static VectorStore<Double> openDouble(Path aFile) throws IOException {
+		return new VectorStore<Double>(aFile, Type.DOUBLE, (b) -> new DirectDoubleVector(b.asDoubleBuffer()));
+	}
+
+	/**
+	 * Open a store of integer vectors.
+	 * @param aFile The file to map.
+	 * @return The store.
+	 * @throws IOException Thrown when the file cannot be read or is not an integer vector store.
+	 */
+	public static VectorStore<Integer> openInteger(Path aFile) throws IOException {
+		return new VectorStore<Integer>(aFile, Type.INTEGER, (b) -> new DirectIntegerVector(b.asIntBuffer()));
+	}
+
+	/**
+	 * Open a store of long vectors.
+	 * @param aFile The file to map.
+	 * @return The store.
+	 * @throws IOException Thrown when the file cannot be read or is not a long vector store.
+	 */
+	public static VectorStore<Long> openLong(Path aFile) throws IOException {
+		return new VectorStore<Long>(aFile, Type.LONG, (b) -> new DirectLongVector(b.asLongBuffer()));
+	}
+
+	/**
+	 * Open a store of byte vectors.
+	 * @param aFile The file to map.
+	 * @return The store.
+	 * @throws IOException Thrown when the file cannot be read or is not a byte vector store.
+	 */
+	public static VectorStore<Byte> openByte(Path aFile) throws IOException {
+		return new VectorStore<Byte>(aFile, Type.BYTE, (b) -> new DirectByteVector(b));
+	}
+
+	/**
+	 * Return the number of vectors in the store.
+	 * @return The number of vectors.
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * Return the length of every vector in the store.
+	 * @return The number of elements in each vector.
+	 */
+	public int dimension() {
+		return mDimension;
+	}
+
+	/**
+	 * Return a vector that reads its elements directly from the mapped file.
+	 * @param aIndex The row index of the vector.
+	 * @return The vector.
+	 */
+	public Vector<T> get(int aIndex) {
+		if(aIndex < 0 || aIndex >= mSize) throw new IndexOutOfBoundsException("Index " + aIndex + " is out of bounds for store of size " + mSize);
+		final ByteBuffer chunk = mChunks[aIndex / mRowsPerChunk].duplicate();
+		final int position = (aIndex % mRowsPerChunk) * mRowBytes;
+		chunk.position(position);
+		chunk.limit(position + mRowBytes);
+		return mFactory.create(chunk.slice().order(ByteOrder.LITTLE_ENDIAN));
+	}
+
+	/**
+	 * Appends vectors to a store file, creating the file if it does not exist.
+	 * @author Adam Smith
+	 */
+	public static final class Writer implements Closeable {
+		private static final int BUFFER_SIZE = 1 << 20;
+
+		private final FileChannel mChannel;
+		private final ByteBuffer mBuffer;
+		private final Type mType;
+		private final int mDimension;
+
+		/**
+		 * Open a store file for appending.
+		 * @param aFile The file to write.
+		 * @param aType The element type of the store.
+		 * @param aDimension The length of every vector in the store.
+		 * @throws IOException Thrown when the file cannot be written or already contains a different kind of store.
+		 */
+		public Writer(Path aFile, Type aType, int aDimension) throws IOException {
+			mType = aType;
+			mDimension = aDimension;
+			mChannel = FileChannel.open(aFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			try {
+				if(mChannel.size() == 0) {
+					final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+					header.putInt(0, MAGIC);
+					header.put(4, VERSION);
+					header.put(5, aType.mCode);
+					header.putInt(8, aDimension);
+					while(header.hasRemaining()) mChannel.write(header);
+				}else {
+					final ByteBuffer header = readHeader(mChannel);
+					if(header.get(5) != aType.mCode || header.getInt(8) != aDimension) {
+						throw new IOException("Existing vector store does not contain " + aType + " vectors of length " + aDimension);
+					}
+					// Appending after a partial row would shift every later vector, so the existing rows must be whole
+					final long rowBytes = (long) aDimension * aType.bytes();
+					if(rowBytes != 0 && (mChannel.size() - HEADER_SIZE) % rowBytes != 0) throw new IOException("Vector store is truncated");
+					mChannel.position(mChannel.size());
+				}
+			}catch(IOException e) {
+				mChannel.close();
+				throw e;
+			}
+			mBuffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, aDimension * aType.bytes())).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		/**
+		 * Append a vector to the end of the store. Vectors of the store's element type are copied in bulk, and any other
+		 * vector is converted one element at a time.
+		 * @param aVector The vector to append.
+		 * @throws VectorSizeException Thrown when the vector length does not match the store.
+		 * @throws IOException Thrown when the file cannot be written.
+		 */
+		public void append(Vector<? extends Number> aVector) throws VectorSizeException, IOException {
+			if(aVector.size() != mDimension) throw new VectorSizeException(mDimension, aVector.size());
+			if(mBuffer.remaining() < mDimension * mType.bytes()) flush();
+			final Number first = mDimension > 0 ? aVector.get(0) : null;
+			switch(mType) {
+			case FLOAT:
+				if(first instanceof Float) VectorFormat.writeFloat(aVector, mBuffer);
+				else for(int i = 0; i < mDimension; ++i) mBuffer.putFloat(aVector.get(i).floatValue());
+				break;
+			case DOUBLE:
+				if(first instanceof Double) VectorFormat.writeDouble(aVector, mBuffer);
+				else for(int i = 0; i < mDimension; ++i) mBuffer.putDouble(aVector.get(i).doubleValue());
+				break;
+			case INTEGER:
+				if(first instanceof Integer) VectorFormat.writeInteger(aVector, mBuffer);
+				else for(int i = 0; i < mDimension; ++i) mBuffer.putInt(aVector.get(i).intValue());
+				break;
+			case LONG:
+				if(first instanceof Long) VectorFormat.writeLong(aVector, mBuffer);
+				else for(int i = 0; i < mDimension; ++i) mBuffer.putLong(aVector.get(i).longValue());
+				break;
+			case BYTE:
+				if(first instanceof Byte) VectorFormat.writeByte(aVector, mBuffer);
+				else for(int i = 0; i < mDimension; ++i) mBuffer.put(aVector.get(i).byteValue());
+				break;
+			}
+		}
+
+		/**
+		 * Write any buffered vectors to the file.
+		 * @throws IOException Thrown when the file cannot be written.
+		 */
+		public void flush() throws IOException {
+			mBuffer.flip();
+			while(mBuffer.hasRemaining()) mChannel.write(mBuffer);
+			mBuffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+			}finally {
+				mChannel.close();
+			}
+		}
+	}
+}